@@ -5,9 +5,11 @@ package ir.hamqadam.core.config;
 // import org.modelmapper.ModelMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 // import org.springframework.web.client.RestTemplate;
 
 @Configuration
+@EnableScheduling // Background jobs such as token revocation refresh
 public class AppConfig {
 
     // Example: ModelMapper for DTO-Entity mapping
@@ -0,0 +1,41 @@
+package ir.hamqadam.core.config;
+
+import ir.hamqadam.core.util.RequestBatchLoader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Resolves the user and team loads registered while a response was built, right before its body is
+ * serialized, so every DTO on the page is complete when it is written.
+ *
+ * @see RequestBatchLoader
+ */
+@ControllerAdvice
+public class BatchLoadingResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    private final RequestBatchLoader batchLoader;
+
+    @Autowired
+    public BatchLoadingResponseAdvice(RequestBatchLoader batchLoader) {
+        this.batchLoader = batchLoader;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        batchLoader.dispatch();
+        return body;
+    }
+}
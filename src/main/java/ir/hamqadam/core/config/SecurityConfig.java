@@ -1,9 +1,14 @@
 package ir.hamqadam.core.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import ir.hamqadam.core.security.UserDetailsServiceImpl; // You need to create this
+import ir.hamqadam.core.security.BoundedPasswordEncoder;
 import ir.hamqadam.core.security.jwt.JwtAuthenticationEntryPoint; // You need to create this
 import ir.hamqadam.core.security.jwt.JwtAuthenticationFilter; // You need to create this
+import ir.hamqadam.core.security.ratelimit.RateLimitFilter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -14,7 +19,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -22,6 +26,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
 
+import java.time.Duration;
 import java.util.Arrays;
 
 @Configuration
@@ -32,19 +37,42 @@ public class SecurityConfig {
     private final UserDetailsServiceImpl userDetailsServiceImpl;
     private final JwtAuthenticationEntryPoint unauthorizedHandler;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RateLimitFilter rateLimitFilter;
 
     @Autowired
     public SecurityConfig(UserDetailsServiceImpl userDetailsServiceImpl,
                           JwtAuthenticationEntryPoint unauthorizedHandler,
-                          JwtAuthenticationFilter jwtAuthenticationFilter) {
+                          JwtAuthenticationFilter jwtAuthenticationFilter,
+                          RateLimitFilter rateLimitFilter) {
         this.userDetailsServiceImpl = userDetailsServiceImpl;
         this.unauthorizedHandler = unauthorizedHandler;
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.rateLimitFilter = rateLimitFilter;
     }
 
+    // BCrypt runs on a small bounded pool so login spikes cannot starve the request threads of other endpoints
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${hamqadam.security.password.strength:10}") int strength,
+                                           @Value("${hamqadam.security.password.threads:0}") int threads,
+                                           @Value("${hamqadam.security.password.queue-capacity:64}") int queueCapacity,
+                                           @Value("${hamqadam.security.password.timeout-ms:5000}") long timeoutMs,
+                                           @Value("${hamqadam.security.password.calibrate-on-startup:true}") boolean calibrate) {
+        int hashingThreads = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(strength, hashingThreads, queueCapacity,
+                Duration.ofMillis(timeoutMs), meterRegistry);
+        if (calibrate) {
+            encoder.calibrate();
+        }
+        return encoder;
+    }
+
+    // The rate limit filter runs inside the security chain only, not a second time as a plain servlet filter
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter filter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
     }
 
     @Bean
@@ -89,13 +117,16 @@ public class SecurityConfig {
                         .requestMatchers("/api/v1/auth/**").permitAll()
                         .requestMatchers("/v3/api-docs", "/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll() // OpenAPI/Swagger
                         .requestMatchers(HttpMethod.GET, "/api/v1/posts/**").permitAll() // Example: public posts
-                        .requestMatchers(HttpMethod.GET, "/api/v1/users/search", "/api/v1/teams/search", "/api/v1/projects/search").permitAll() // Public search
+                        .requestMatchers(HttpMethod.GET, "/api/v1/users/search", "/api/v1/teams/search", "/api/v1/projects/search",
+                                "/api/v1/search", "/api/v1/search/typeahead").permitAll() // Public search
                         // .requestMatchers("/actuator/**").permitAll() // Secure actuator endpoints in production!
                         .anyRequest().authenticated() // All other requests need authentication
                 );
 
         // Add JWT token filter before UsernamePasswordAuthenticationFilter
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        // Reject over-limit clients before the token is even looked at
+        http.addFilterBefore(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -9,12 +9,14 @@ import ir.hamqadam.core.controller.dto.user.UserAccountStatusUpdateRequestDTO; /
 import ir.hamqadam.core.exception.ResourceNotFoundException;
 import ir.hamqadam.core.model.User;
 import ir.hamqadam.core.service.UserService;
+import ir.hamqadam.core.util.ListingTotals;
+import ir.hamqadam.core.util.TotalsMode;
 // import ir.hamqadam.core.service.SystemSettingsService; // If you create a dedicated service
 
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -32,12 +34,14 @@ import java.util.stream.Collectors;
 public class AdminController {
 
     private final UserService userService;
+    private final ListingTotals listingTotals;
     // private final SystemSettingsService systemSettingsService; // Optional dedicated service
     // private final ModelMapper modelMapper;
 
     @Autowired
-    public AdminController(UserService userService /*, SystemSettingsService systemSettingsService, ModelMapper modelMapper */) {
+    public AdminController(UserService userService, ListingTotals listingTotals /*, SystemSettingsService systemSettingsService, ModelMapper modelMapper */) {
         this.userService = userService;
+        this.listingTotals = listingTotals;
         // this.systemSettingsService = systemSettingsService;
         // this.modelMapper = modelMapper;
     }
@@ -50,10 +54,12 @@ public class AdminController {
      */
     @GetMapping("/users")
     public ResponseEntity<PageableResponseDTO<AdminUserResponseDTO>> getAllUsers(
+            @RequestParam(defaultValue = "exact") String totals, // exact, approximate or none
             @PageableDefault(size = 20, sort = "createdAt") Pageable pageable) {
-        Page<User> userPage = userService.findAllUsers(pageable); // Assuming UserService has this admin method
-        Page<AdminUserResponseDTO> dtoPage = userPage.map(this::convertToAdminUserResponseDTO);
-        return ResponseEntity.ok(new PageableResponseDTO<>(dtoPage.getContent(), dtoPage.getNumber(), dtoPage.getSize(), dtoPage.getTotalElements(), dtoPage.getTotalPages(), dtoPage.isLast(), dtoPage.isFirst(), dtoPage.getNumberOfElements(), dtoPage.isEmpty()));
+        TotalsMode totalsMode = TotalsMode.parse(totals);
+        Slice<User> users = listingTotals.listAll(totalsMode, pageable, User.class,
+                userService::findAllUsers, userService::findAllUsersSlice);
+        return ResponseEntity.ok(PageableResponseDTO.of(users.map(this::convertToAdminUserResponseDTO), totalsMode));
     }
 
     /**
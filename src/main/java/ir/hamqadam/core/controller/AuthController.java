@@ -1,9 +1,11 @@
 package ir.hamqadam.core.controller;
 
 import ir.hamqadam.core.controller.dto.auth.*;
+import ir.hamqadam.core.controller.dto.common.AvailabilityResponseDTO;
 import ir.hamqadam.core.controller.dto.common.MessageResponse;
 import ir.hamqadam.core.controller.dto.user.UserResponseDTO; // Assuming a UserResponse DTO
 import ir.hamqadam.core.model.User;
+import ir.hamqadam.core.security.UserPrincipal;
 import ir.hamqadam.core.security.jwt.JwtTokenProvider;
 import ir.hamqadam.core.service.UserService;
 
@@ -13,6 +15,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
@@ -59,6 +62,11 @@ public class AuthController {
         return ResponseEntity.ok(new MessageResponse("User registered successfully! Please check your email to verify."));
     }
 
+    @GetMapping("/email-availability")
+    public ResponseEntity<AvailabilityResponseDTO> checkEmailAvailability(@RequestParam String email) {
+        return ResponseEntity.ok(new AvailabilityResponseDTO(email, userService.isEmailAvailable(email)));
+    }
+
     @PostMapping("/login/email")
     public ResponseEntity<AuthResponse> loginUserByEmail(@Valid @RequestBody LoginRequest loginRequest) {
         Authentication authentication = authenticationManager.authenticate(
@@ -94,15 +102,10 @@ public class AuthController {
         // Create UserDetails for token generation
         // Note: UserDetailsService (UserServiceImpl) loads by email by default, adapt if needed for telegram ID
         // Or generate token directly if JwtTokenProvider supports User object or UserDetails from User object
-        UserDetails userDetails = org.springframework.security.core.userdetails.User
-                .withUsername(user.getTelegramId()) // Or a unique identifier used for UserDetails
-                .password(user.getPasswordHash() != null ? user.getPasswordHash() : "") // Dummy password if not applicable
-                .authorities("ROLE_USER") // Placeholder, derive from user object
-                .accountExpired(false)
-                .accountLocked(false)
-                .credentialsExpired(false)
-                .disabled(user.getAccountStatus() != User.AccountStatus.ACTIVE)
-                .build();
+        UserDetails userDetails = UserPrincipal.create(
+                user,
+                user.getTelegramId(), // Or a unique identifier used for UserDetails
+                AuthorityUtils.createAuthorityList("ROLE_USER")); // Placeholder, derive from user object
 
         String jwt = jwtTokenProvider.generateToken(userDetails);
         // UserResponse userResponse = modelMapper.map(user, UserResponse.class);
@@ -1,29 +1,49 @@
 package ir.hamqadam.core.controller;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import ir.hamqadam.core.controller.dto.comment.*;
+import ir.hamqadam.core.controller.dto.common.CursorPageResponseDTO;
 import ir.hamqadam.core.controller.dto.common.MessageResponse;
 import ir.hamqadam.core.controller.dto.common.PageableResponseDTO;
 import ir.hamqadam.core.controller.dto.user.UserSummaryDTO;
 import ir.hamqadam.core.exception.ResourceNotFoundException;
 import ir.hamqadam.core.model.Comment;
 import ir.hamqadam.core.model.User;
+import ir.hamqadam.core.repository.projection.UserSummary;
+import ir.hamqadam.core.security.IdentityResolver;
 import ir.hamqadam.core.service.CommentService;
 import ir.hamqadam.core.service.UserService;
+import ir.hamqadam.core.util.CommentTree;
+import ir.hamqadam.core.util.KeysetCursor;
+import ir.hamqadam.core.util.KeysetPage;
+import ir.hamqadam.core.util.ListingTotals;
+import ir.hamqadam.core.util.RequestBatchLoader;
+import ir.hamqadam.core.util.TotalsMode;
 
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.Optional;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 // import org.modelmapper.ModelMapper;
 
@@ -33,12 +53,27 @@ public class CommentController {
 
     private final CommentService commentService;
     private final UserService userService;
+    private final IdentityResolver identityResolver;
+    private final ObjectMapper objectMapper;
+    private final ListingTotals listingTotals;
+    private final RequestBatchLoader batchLoader;
+    private final int treeMaxDepth;
+    private final int treeMaxChildren;
     // private final ModelMapper modelMapper;
 
     @Autowired
-    public CommentController(CommentService commentService, UserService userService /*, ModelMapper modelMapper */) {
+    public CommentController(CommentService commentService, UserService userService, IdentityResolver identityResolver,
+                             ObjectMapper objectMapper, ListingTotals listingTotals, RequestBatchLoader batchLoader,
+                             @Value("${hamqadam.comments.tree.max-depth:6}") int treeMaxDepth,
+                             @Value("${hamqadam.comments.tree.max-children:50}") int treeMaxChildren /*, ModelMapper modelMapper */) {
         this.commentService = commentService;
         this.userService = userService;
+        this.identityResolver = identityResolver;
+        this.objectMapper = objectMapper;
+        this.listingTotals = listingTotals;
+        this.batchLoader = batchLoader;
+        this.treeMaxDepth = treeMaxDepth;
+        this.treeMaxChildren = treeMaxChildren;
         // this.modelMapper = modelMapper;
     }
 
@@ -49,7 +84,8 @@ public class CommentController {
             @PathVariable String targetEntityId,
             @Valid @RequestBody CommentCreationRequestDTO creationRequest,
             @AuthenticationPrincipal UserDetails currentUserDetails) {
-        User actingUser = userService.findUserByEmail(currentUserDetails.getUsername())
+        User actingUser = identityResolver.resolve(currentUserDetails.getUsername())
+                .map(IdentityResolver.ResolvedIdentity::toUserReference)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", currentUserDetails.getUsername()));
 
         Comment newComment = commentService.addComment(
@@ -66,20 +102,87 @@ public class CommentController {
     public ResponseEntity<PageableResponseDTO<CommentResponseDTO>> getCommentsForTarget(
             @PathVariable String targetEntityType,
             @PathVariable String targetEntityId,
+            @RequestParam(defaultValue = "exact") String totals, // exact, approximate or none
             @PageableDefault(size = 20, sort = "createdAt", direction = Sort.Direction.ASC) Pageable pageable) {
         // Service method should by default return only APPROVED comments for public view
-        Page<Comment> commentPage = commentService.findCommentsByTarget(targetEntityType, targetEntityId, pageable);
-        Page<CommentResponseDTO> dtoPage = commentPage.map(this::convertToCommentResponseDTO);
-        return ResponseEntity.ok(new PageableResponseDTO<>(dtoPage.getContent(), dtoPage.getNumber(), dtoPage.getSize(), dtoPage.getTotalElements(), dtoPage.getTotalPages(), dtoPage.isLast(), dtoPage.isFirst(), dtoPage.getNumberOfElements(), dtoPage.isEmpty()));
+        TotalsMode totalsMode = TotalsMode.parse(totals);
+        Slice<Comment> comments = listingTotals.list(totalsMode, pageable, "comments:" + targetEntityType + ':' + targetEntityId,
+                p -> commentService.findCommentsByTarget(targetEntityType, targetEntityId, p),
+                p -> commentService.findCommentsByTargetSlice(targetEntityType, targetEntityId, p));
+        return ResponseEntity.ok(PageableResponseDTO.of(comments.map(this::convertToCommentResponseDTO), totalsMode));
+    }
+
+    /**
+     * Lists approved comments of a target oldest first with cursor pagination.
+     */
+    @GetMapping("/{targetEntityType}/{targetEntityId}/comments/scroll")
+    public ResponseEntity<CursorPageResponseDTO<CommentResponseDTO>> scrollCommentsForTarget(
+            @PathVariable String targetEntityType,
+            @PathVariable String targetEntityId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        KeysetPage<Comment> page = commentService.scrollCommentsByTarget(targetEntityType, targetEntityId,
+                KeysetCursor.decode(cursor), KeysetCursor.pageSize(size));
+        return ResponseEntity.ok(new CursorPageResponseDTO<>(page.map(this::convertToCommentResponseDTO)));
+    }
+
+    /**
+     * Returns the approved discussion of a target as a nested reply tree, written to the response as it
+     * is serialized. Root threads are paged, {@code size} per page (at most 100), so a long discussion is
+     * never loaded whole. Depth and replies per comment are capped by the server-side limits.
+     */
+    @GetMapping("/{targetEntityType}/{targetEntityId}/comments/tree")
+    public ResponseEntity<StreamingResponseBody> getCommentTree(
+            @PathVariable String targetEntityType,
+            @PathVariable String targetEntityId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) Integer maxDepth,
+            @RequestParam(required = false) Integer maxChildren) {
+        int depth = clamp(maxDepth, treeMaxDepth);
+        int children = Math.max(1, clamp(maxChildren, treeMaxChildren));
+        Pageable rootPage = PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, 100)));
+        CommentTree tree = commentService.findCommentTree(targetEntityType, targetEntityId, rootPage, depth, children);
+
+        // One query for all authors in the tree instead of one per comment
+        Set<String> authorIds = new HashSet<>();
+        collectAuthorIds(tree.getRoots(), authorIds);
+        Map<String, UserSummaryDTO> authors = userService.findUserSummariesByIds(authorIds).stream()
+                .collect(Collectors.toMap(UserSummary::getUserId, this::toUserSummary));
+
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.createGenerator(out, JsonEncoding.UTF8)) {
+                json.writeStartObject();
+                json.writeStringField("targetEntityType", targetEntityType);
+                json.writeStringField("targetEntityId", targetEntityId);
+                if (rootPage != null) {
+                    json.writeNumberField("page", rootPage.getPageNumber());
+                    json.writeNumberField("size", rootPage.getPageSize());
+                }
+                json.writeBooleanField("hasMoreRoots", tree.hasMoreRoots());
+                json.writeNumberField("commentCount", tree.size());
+                json.writeArrayFieldStart("roots");
+                for (CommentTree.Node root : tree.getRoots()) {
+                    writeNode(json, root, authors);
+                    json.flush(); // Hand each finished thread to the client instead of buffering the whole tree
+                }
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     @GetMapping("/comments/{commentId}/replies")
     public ResponseEntity<PageableResponseDTO<CommentResponseDTO>> getCommentReplies(
             @PathVariable String commentId,
+            @RequestParam(defaultValue = "exact") String totals, // exact, approximate or none
             @PageableDefault(size = 10, sort = "createdAt", direction = Sort.Direction.ASC) Pageable pageable) {
-        Page<Comment> replyPage = commentService.findRepliesToComment(commentId, pageable);
-        Page<CommentResponseDTO> dtoPage = replyPage.map(this::convertToCommentResponseDTO);
-        return ResponseEntity.ok(new PageableResponseDTO<>(dtoPage.getContent(), dtoPage.getNumber(), dtoPage.getSize(), dtoPage.getTotalElements(), dtoPage.getTotalPages(), dtoPage.isLast(), dtoPage.isFirst(), dtoPage.getNumberOfElements(), dtoPage.isEmpty()));
+        TotalsMode totalsMode = TotalsMode.parse(totals);
+        Slice<Comment> replies = listingTotals.list(totalsMode, pageable, "replies:" + commentId,
+                p -> commentService.findRepliesToComment(commentId, p),
+                p -> commentService.findRepliesToCommentSlice(commentId, p));
+        return ResponseEntity.ok(PageableResponseDTO.of(replies.map(this::convertToCommentResponseDTO), totalsMode));
     }
 
 
@@ -120,36 +223,63 @@ public class CommentController {
         return ResponseEntity.ok(convertToCommentResponseDTO(updatedComment));
     }
 
+    private static int clamp(Integer requested, int limit) {
+        return requested == null ? limit : Math.max(0, Math.min(requested, limit));
+    }
+
+    private static void collectAuthorIds(List<CommentTree.Node> nodes, Set<String> authorIds) {
+        for (CommentTree.Node node : nodes) {
+            if (node.getComment().getAuthorUserId() != null) {
+                authorIds.add(node.getComment().getAuthorUserId());
+            }
+            collectAuthorIds(node.getReplies(), authorIds);
+        }
+    }
+
+    // Depth is bounded by hamqadam.comments.tree.max-depth, so recursion stays shallow
+    private void writeNode(JsonGenerator json, CommentTree.Node node, Map<String, UserSummaryDTO> authors) throws IOException {
+        Comment comment = node.getComment();
+        json.writeStartObject();
+        json.writeStringField("commentId", comment.getCommentId());
+        json.writeStringField("parentCommentId", comment.getParentCommentId());
+        json.writeStringField("threadId", comment.getThreadId());
+        json.writeNumberField("depthLevel", comment.getDepthLevel());
+        json.writeObjectField("author", authors.get(comment.getAuthorUserId()));
+        json.writeStringField("content", comment.getContent());
+        json.writeNumberField("likeCount", comment.getLikeCount());
+        json.writeObjectField("reactionCounts", comment.getReactionCounts());
+        json.writeObjectField("createdAt", comment.getCreatedAt());
+        json.writeObjectField("updatedAt", comment.getUpdatedAt());
+        json.writeBooleanField("edited", comment.isEdited());
+        json.writeNumberField("omittedReplyCount", node.getOmittedReplyCount());
+        json.writeArrayFieldStart("replies");
+        for (CommentTree.Node reply : node.getReplies()) {
+            writeNode(json, reply, authors);
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    private UserSummaryDTO toUserSummary(UserSummary author) {
+        return UserSummaryDTO.builder()
+                .userId(author.getUserId())
+                .fullName(author.getFullName())
+                .profilePictureUrl(author.getCurrentProfilePictureUrl())
+                .build();
+    }
+
     // --- Helper method for DTO conversion (Placeholder) ---
     private CommentResponseDTO convertToCommentResponseDTO(Comment comment) {
         if (comment == null) return null;
         // Use ModelMapper or MapStruct for complex mappings
 
-        UserSummaryDTO authorSummary = null;
-        if (comment.getAuthorUserId() != null) {
-            // This is an N+1 problem if converting a list of comments.
-            // Consider batch fetching authors or a more optimized approach for lists.
-            Optional<User> authorOpt = userService.findUserById(comment.getAuthorUserId());
-            if (authorOpt.isPresent()) {
-                User author = authorOpt.get();
-                authorSummary = UserSummaryDTO.builder()
-                        .userId(author.getUserId())
-                        .fullName(author.getFullName())
-                        .profilePictureUrl(author.getProfilePictures() != null && !author.getProfilePictures().isEmpty() ?
-                                author.getProfilePictures().stream().filter(User.ProfilePicture::isCurrent).findFirst().map(User.ProfilePicture::getUrl).orElse(null)
-                                : null)
-                        .build();
-            }
-        }
-
         // Calculate reply count (can be expensive, better to denormalize on Comment entity if frequently needed)
         // int replyCount = commentService.countReplies(comment.getCommentId()); // Example
 
-        return CommentResponseDTO.builder()
+        CommentResponseDTO dto = CommentResponseDTO.builder()
                 .commentId(comment.getCommentId())
                 .targetEntityType(comment.getTargetEntityType())
                 .targetEntityId(comment.getTargetEntityId())
-                .author(authorSummary)
                 .content(comment.getContent())
                 .status(comment.getStatus())
                 .parentCommentId(comment.getParentCommentId())
@@ -164,5 +294,8 @@ public class CommentController {
                 .edited(comment.isEdited())
                 // .replyCount(replyCount) // Add if reply count is needed
                 .build();
+        // Authors of a whole page are loaded with one query before the response is written
+        batchLoader.loadUser(comment.getAuthorUserId(), author -> dto.setAuthor(toUserSummary(author)));
+        return dto;
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package ir.hamqadam.core.controller;
 
 import ir.hamqadam.core.controller.dto.common.MessageResponse;
+import ir.hamqadam.core.controller.dto.common.CursorPageResponseDTO;
 import ir.hamqadam.core.controller.dto.common.PageableResponseDTO;
 import ir.hamqadam.core.controller.dto.post.*;
 import ir.hamqadam.core.controller.dto.team.TeamSummaryDTO;
@@ -9,14 +10,22 @@ import ir.hamqadam.core.exception.ResourceNotFoundException;
 import ir.hamqadam.core.model.Post;
 import ir.hamqadam.core.model.User;
 import ir.hamqadam.core.model.Team; // For fetching author team details
+import ir.hamqadam.core.repository.projection.PostSummary;
+import ir.hamqadam.core.repository.projection.UserSummary;
+import ir.hamqadam.core.security.IdentityResolver;
 import ir.hamqadam.core.service.PostService;
 import ir.hamqadam.core.service.UserService;
 import ir.hamqadam.core.service.TeamService; // For fetching author team details
+import ir.hamqadam.core.util.KeysetCursor;
+import ir.hamqadam.core.util.KeysetPage;
+import ir.hamqadam.core.util.ListingTotals;
+import ir.hamqadam.core.util.RequestBatchLoader;
+import ir.hamqadam.core.util.TotalsMode;
 
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
@@ -36,13 +45,20 @@ public class PostController {
     private final PostService postService;
     private final UserService userService;
     private final TeamService teamService; // To fetch team details for author summary
+    private final IdentityResolver identityResolver;
+    private final ListingTotals listingTotals;
+    private final RequestBatchLoader batchLoader;
     // private final ModelMapper modelMapper;
 
     @Autowired
-    public PostController(PostService postService, UserService userService, TeamService teamService /*, ModelMapper modelMapper*/) {
+    public PostController(PostService postService, UserService userService, TeamService teamService, IdentityResolver identityResolver,
+                          ListingTotals listingTotals, RequestBatchLoader batchLoader /*, ModelMapper modelMapper*/) {
         this.postService = postService;
         this.userService = userService;
         this.teamService = teamService;
+        this.identityResolver = identityResolver;
+        this.listingTotals = listingTotals;
+        this.batchLoader = batchLoader;
         // this.modelMapper = modelMapper;
     }
 
@@ -51,7 +67,8 @@ public class PostController {
     public ResponseEntity<PostResponseDTO> createPost(
             @Valid @RequestBody PostCreationRequestDTO creationRequest,
             @AuthenticationPrincipal UserDetails currentUserDetails) {
-        User actingUser = userService.findUserByEmailOrTelegramId(currentUserDetails.getUsername())
+        User actingUser = identityResolver.resolve(currentUserDetails.getUsername())
+                .map(IdentityResolver.ResolvedIdentity::toUserReference)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", currentUserDetails.getUsername()));
 
         Post.AuthorInfo authorInfoModel = new Post.AuthorInfo(
@@ -96,9 +113,9 @@ public class PostController {
 
         // Increment view count - consider if this should be restricted or more robust
         if (currentUserDetails == null || // Unauthenticated user
-                (post.getAuthorInfo() != null && !currentUserDetails.getUsername().equals(
-                        userService.findUserById(post.getAuthorInfo().getActingUserId()).map(User::getEmail).orElse(""))
-                ) // Not the author
+                (post.getAuthorInfo() != null && !identityResolver.resolveUserId(currentUserDetails.getUsername())
+                        .map(userId -> userId.equals(post.getAuthorInfo().getActingUserId())).orElse(false)
+                ) // Not the author; compared by ID, so the author's user document is not read
         ) {
             postService.incrementViewCount(postId);
             // Re-fetch post if view count needs to be immediately reflected in this response
@@ -166,32 +183,87 @@ public class PostController {
             @RequestParam(required = false) String tag,
             @RequestParam(required = false) String categoryId,
             // Add other filters like authorId, visibility etc. as needed
+            @RequestParam(defaultValue = "exact") String totals, // exact, approximate or none
             @PageableDefault(size = 10, sort = "publishedAt", direction = Sort.Direction.DESC) Pageable pageable) {
 
-        Page<Post> postPage;
+        TotalsMode totalsMode = TotalsMode.parse(totals);
+        Slice<Post> posts;
         // This is a simplified filtering logic. A more robust way is to use Criteria API or Querydsl
         // or have more specific service methods.
         if (type != null) {
-            postPage = postService.findPostsByTypeAndStatus(type, Post.PostStatus.PUBLISHED, pageable);
+            posts = listingTotals.list(totalsMode, pageable, "posts:type:" + type,
+                    p -> postService.findPostsByTypeAndStatus(type, Post.PostStatus.PUBLISHED, p),
+                    p -> postService.findPostsByTypeAndStatusSlice(type, Post.PostStatus.PUBLISHED, p));
         } else if (tag != null) {
-            postPage = postService.findPostsByTagAndStatus(tag, Post.PostStatus.PUBLISHED, pageable);
+            posts = listingTotals.list(totalsMode, pageable, "posts:tag:" + tag,
+                    p -> postService.findPostsByTagAndStatus(tag, Post.PostStatus.PUBLISHED, p),
+                    p -> postService.findPostsByTagAndStatusSlice(tag, Post.PostStatus.PUBLISHED, p));
         } else if (categoryId != null) {
-            postPage = postService.findPostsByCategoryAndStatus(categoryId, Post.PostStatus.PUBLISHED, pageable);
+            posts = listingTotals.list(totalsMode, pageable, "posts:category:" + categoryId,
+                    p -> postService.findPostsByCategoryAndStatus(categoryId, Post.PostStatus.PUBLISHED, p),
+                    p -> postService.findPostsByCategoryAndStatusSlice(categoryId, Post.PostStatus.PUBLISHED, p));
         } else {
-            postPage = postService.findAllPublishedPosts(pageable);
+            posts = listingTotals.list(totalsMode, pageable, "posts:published",
+                    postService::findAllPublishedPosts, postService::findAllPublishedPostsSlice);
         }
 
-        Page<PostResponseDTO> dtoPage = postPage.map(this::convertToPostResponseDTO);
-        return ResponseEntity.ok(new PageableResponseDTO<>(dtoPage.getContent(), dtoPage.getNumber(), dtoPage.getSize(), dtoPage.getTotalElements(), dtoPage.getTotalPages(), dtoPage.isLast(), dtoPage.isFirst(), dtoPage.getNumberOfElements(), dtoPage.isEmpty()));
+        return ResponseEntity.ok(PageableResponseDTO.of(posts.map(this::convertToPostResponseDTO), totalsMode));
+    }
+
+    /**
+     * Lists published posts as cards: title, excerpt, author, tags, counts and timestamps, without the
+     * content body or attachments, which are not even read from MongoDB. Filter by author, or by at most
+     * one of type, tag and category.
+     */
+    @GetMapping("/cards")
+    public ResponseEntity<PageableResponseDTO<PostSummaryResponseDTO>> listPostCards(
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String tag,
+            @RequestParam(required = false) String categoryId,
+            @RequestParam(defaultValue = "USER") Post.AuthorType authorType,
+            @RequestParam(required = false) String authorId,
+            @RequestParam(defaultValue = "exact") String totals, // exact, approximate or none
+            @PageableDefault(size = 10, sort = "publishedAt", direction = Sort.Direction.DESC) Pageable pageable) {
+        TotalsMode totalsMode = TotalsMode.parse(totals);
+        Slice<PostSummary> posts;
+        if (authorId != null) {
+            posts = listingTotals.list(totalsMode, pageable, "post-cards:author:" + authorType + ':' + authorId,
+                    p -> postService.findPublishedPostSummariesByAuthor(authorType, authorId, p),
+                    p -> postService.findPublishedPostSummariesByAuthorSlice(authorType, authorId, p));
+        } else {
+            posts = listingTotals.list(totalsMode, pageable, "post-cards:" + type + ':' + tag + ':' + categoryId,
+                    p -> postService.findPublishedPostSummaries(type, tag, categoryId, p),
+                    p -> postService.findPublishedPostSummariesSlice(type, tag, categoryId, p));
+        }
+        return ResponseEntity.ok(PageableResponseDTO.of(posts.map(this::convertToPostSummaryResponseDTO), totalsMode));
+    }
+
+    /**
+     * Lists published public posts newest first with cursor pagination. Pass the returned
+     * {@code nextCursor} as {@code cursor} to continue; every page costs the same regardless of depth.
+     */
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageResponseDTO<PostResponseDTO>> scrollPosts(
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String tag,
+            @RequestParam(required = false) String categoryId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        KeysetPage<Post> page = postService.scrollPublishedPosts(type, tag, categoryId, KeysetCursor.decode(cursor),
+                KeysetCursor.pageSize(size));
+        return ResponseEntity.ok(new CursorPageResponseDTO<>(page.map(this::convertToPostResponseDTO)));
     }
 
     @GetMapping("/search")
     public ResponseEntity<PageableResponseDTO<PostResponseDTO>> searchPublicPosts(
             @RequestParam String query,
+            @RequestParam(defaultValue = "exact") String totals, // exact, approximate or none
             @PageableDefault(size = 10, sort = "publishedAt", direction = Sort.Direction.DESC) Pageable pageable) {
-        Page<Post> postPage = postService.searchPublicPublishedPosts(query, pageable);
-        Page<PostResponseDTO> dtoPage = postPage.map(this::convertToPostResponseDTO);
-        return ResponseEntity.ok(new PageableResponseDTO<>(dtoPage.getContent(), dtoPage.getNumber(), dtoPage.getSize(), dtoPage.getTotalElements(), dtoPage.getTotalPages(), dtoPage.isLast(), dtoPage.isFirst(), dtoPage.getNumberOfElements(), dtoPage.isEmpty()));
+        TotalsMode totalsMode = TotalsMode.parse(totals);
+        Slice<Post> posts = listingTotals.list(totalsMode, pageable, "posts:search:" + query,
+                p -> postService.searchPublicPublishedPosts(query, p),
+                p -> postService.searchPublicPublishedPostsSlice(query, p));
+        return ResponseEntity.ok(PageableResponseDTO.of(posts.map(this::convertToPostResponseDTO), totalsMode));
     }
 
     // --- Helper method for DTO conversion (Placeholder) ---
@@ -199,41 +271,7 @@ public class PostController {
         if (post == null) return null;
         // Use ModelMapper or MapStruct for complex mappings
 
-        UserSummaryDTO authorUserSummary = null;
-        TeamSummaryDTO authorTeamSummary = null;
-        UserSummaryDTO actingUserSummary = null;
-
-        if (post.getAuthorInfo() != null) {
-            if (post.getAuthorInfo().getAuthorType() == Post.AuthorType.USER) {
-                userService.findUserById(post.getAuthorInfo().getAuthorId()).ifPresent(u ->
-                        authorUserSummary.builder()
-                                .userId(u.getUserId())
-                                .fullName(u.getFullName())
-                                .profilePictureUrl(u.getProfilePictures() != null && !u.getProfilePictures().isEmpty() ? u.getProfilePictures().stream().filter(p -> p.isCurrent()).findFirst().map(User.ProfilePicture::getUrl).orElse(null) : null)
-                                .build()
-                );
-            } else if (post.getAuthorInfo().getAuthorType() == Post.AuthorType.TEAM) {
-                teamService.findTeamById(post.getAuthorInfo().getAuthorId()).ifPresent(t ->
-                        authorTeamSummary.builder()
-                                .teamId(t.getTeamId())
-                                .teamName(t.getTeamName())
-                                .teamHandle(t.getTeamHandle())
-                                .profilePictureUrl(t.getProfilePictureUrl())
-                                .build()
-                );
-            }
-            // Acting User Summary
-            userService.findUserById(post.getAuthorInfo().getActingUserId()).ifPresent(u ->
-                    actingUserSummary.builder()
-                            .userId(u.getUserId())
-                            .fullName(u.getFullName())
-                            .profilePictureUrl(u.getProfilePictures() != null && !u.getProfilePictures().isEmpty() ? u.getProfilePictures().stream().filter(p -> p.isCurrent()).findFirst().map(User.ProfilePicture::getUrl).orElse(null) : null)
-                            .build()
-            );
-        }
-
-
-        return PostResponseDTO.builder()
+        PostResponseDTO dto = PostResponseDTO.builder()
                 .postId(post.getPostId())
                 .postType(post.getPostType())
                 .title(post.getTitle())
@@ -242,9 +280,6 @@ public class PostController {
                 .excerpt(post.getExcerpt())
                 .authorType(post.getAuthorInfo() != null ? post.getAuthorInfo().getAuthorType() : null)
                 .authorId(post.getAuthorInfo() != null ? post.getAuthorInfo().getAuthorId() : null)
-                .authorUser(authorUserSummary)
-                .authorTeam(authorTeamSummary)
-                .actingUser(actingUserSummary)
                 .version(post.getVersion())
                 .status(post.getStatus())
                 .visibility(post.getVisibility())
@@ -265,5 +300,64 @@ public class PostController {
                 .publishedAt(post.getPublishedAt())
                 .scheduledForPublicationAt(post.getScheduledForPublicationAt())
                 .build();
+
+        // Author and acting user are filled in by one batched lookup per page, before the response is written
+        if (post.getAuthorInfo() != null) {
+            if (post.getAuthorInfo().getAuthorType() == Post.AuthorType.USER) {
+                batchLoader.loadUser(post.getAuthorInfo().getAuthorId(), u -> dto.setAuthorUser(toUserSummary(u)));
+            } else if (post.getAuthorInfo().getAuthorType() == Post.AuthorType.TEAM) {
+                batchLoader.loadTeam(post.getAuthorInfo().getAuthorId(), t -> dto.setAuthorTeam(toTeamSummary(t)));
+            }
+            batchLoader.loadUser(post.getAuthorInfo().getActingUserId(), u -> dto.setActingUser(toUserSummary(u)));
+        }
+        return dto;
+    }
+
+    private PostSummaryResponseDTO convertToPostSummaryResponseDTO(PostSummary post) {
+        Post.AuthorInfo authorInfo = post.getAuthorInfo();
+        PostSummaryResponseDTO dto = PostSummaryResponseDTO.builder()
+                .postId(post.getPostId())
+                .postType(post.getPostType())
+                .title(post.getTitle())
+                .excerpt(post.getExcerpt())
+                .authorType(authorInfo != null ? authorInfo.getAuthorType() : null)
+                .authorId(authorInfo != null ? authorInfo.getAuthorId() : null)
+                .status(post.getStatus())
+                .featuredImageUrl(post.getFeaturedImageUrl())
+                .tags(post.getTags())
+                .language(post.getLanguage())
+                .commentCount(post.getCommentCount())
+                .viewCount(post.getViewCount())
+                .likeCount(post.getLikeCount())
+                .reactionCounts(post.getReactionCounts())
+                .createdAt(post.getCreatedAt())
+                .updatedAt(post.getUpdatedAt())
+                .publishedAt(post.getPublishedAt())
+                .build();
+        if (authorInfo != null) {
+            if (authorInfo.getAuthorType() == Post.AuthorType.USER) {
+                batchLoader.loadUser(authorInfo.getAuthorId(), u -> dto.setAuthorUser(toUserSummary(u)));
+            } else if (authorInfo.getAuthorType() == Post.AuthorType.TEAM) {
+                batchLoader.loadTeam(authorInfo.getAuthorId(), t -> dto.setAuthorTeam(toTeamSummary(t)));
+            }
+        }
+        return dto;
+    }
+
+    private UserSummaryDTO toUserSummary(UserSummary user) {
+        return UserSummaryDTO.builder()
+                .userId(user.getUserId())
+                .fullName(user.getFullName())
+                .profilePictureUrl(user.getCurrentProfilePictureUrl())
+                .build();
+    }
+
+    private TeamSummaryDTO toTeamSummary(Team team) {
+        return TeamSummaryDTO.builder()
+                .teamId(team.getTeamId())
+                .teamName(team.getTeamName())
+                .teamHandle(team.getTeamHandle())
+                .profilePictureUrl(team.getProfilePictureUrl())
+                .build();
     }
 }
\ No newline at end of file
@@ -1,18 +1,22 @@
 package ir.hamqadam.core.controller;
 
+import ir.hamqadam.core.controller.dto.common.AvailabilityResponseDTO;
 import ir.hamqadam.core.controller.dto.common.MessageResponse;
 import ir.hamqadam.core.controller.dto.common.PageableResponseDTO;
 import ir.hamqadam.core.controller.dto.project.*;
 import ir.hamqadam.core.exception.ResourceNotFoundException;
 import ir.hamqadam.core.model.Project;
 import ir.hamqadam.core.model.User;
+import ir.hamqadam.core.security.IdentityResolver;
 import ir.hamqadam.core.service.ProjectService;
 import ir.hamqadam.core.service.UserService;
+import ir.hamqadam.core.util.ListingTotals;
+import ir.hamqadam.core.util.TotalsMode;
 
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -30,12 +34,17 @@ public class ProjectController {
 
     private final ProjectService projectService;
     private final UserService userService;
+    private final IdentityResolver identityResolver;
+    private final ListingTotals listingTotals;
     // private final ModelMapper modelMapper;
 
     @Autowired
-    public ProjectController(ProjectService projectService, UserService userService /*, ModelMapper modelMapper*/) {
+    public ProjectController(ProjectService projectService, UserService userService, IdentityResolver identityResolver,
+                             ListingTotals listingTotals /*, ModelMapper modelMapper*/) {
         this.projectService = projectService;
         this.userService = userService;
+        this.identityResolver = identityResolver;
+        this.listingTotals = listingTotals;
         // this.modelMapper = modelMapper;
     }
 
@@ -44,7 +53,8 @@ public class ProjectController {
     public ResponseEntity<ProjectResponseDTO> createProject(
             @Valid @RequestBody ProjectCreationRequestDTO creationRequest,
             @AuthenticationPrincipal UserDetails currentUserDetails) {
-        User actingUser = userService.findUserByEmail(currentUserDetails.getUsername())
+        User actingUser = identityResolver.resolve(currentUserDetails.getUsername())
+                .map(IdentityResolver.ResolvedIdentity::toUserReference)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", currentUserDetails.getUsername()));
 
         // Map DTO's creatorInfo to model's CreatorInfo
@@ -168,30 +178,44 @@ public class ProjectController {
         return ResponseEntity.ok(convertToProjectResponseDTO(updatedProject));
     }
 
+    @GetMapping("/handle-availability")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<AvailabilityResponseDTO> checkHandleAvailability(@RequestParam String handle) {
+        return ResponseEntity.ok(new AvailabilityResponseDTO(handle, projectService.isProjectHandleAvailable(handle)));
+    }
+
     @GetMapping("/search")
     public ResponseEntity<PageableResponseDTO<ProjectResponseDTO>> searchPublicProjects(
             @RequestParam(required = false) String query,
+            @RequestParam(defaultValue = "exact") String totals, // exact, approximate or none
             @PageableDefault(size = 10, sort = "projectName.en") Pageable pageable) {
-        Page<Project> projectPage = projectService.searchPublicProjects(query, pageable);
-        Page<ProjectResponseDTO> dtoPage = projectPage.map(this::convertToProjectResponseDTO);
-        return ResponseEntity.ok(new PageableResponseDTO<>(dtoPage.getContent(), dtoPage.getNumber(), dtoPage.getSize(), dtoPage.getTotalElements(), dtoPage.getTotalPages(), dtoPage.isLast(), dtoPage.isFirst(), dtoPage.getNumberOfElements(), dtoPage.isEmpty()));
+        TotalsMode totalsMode = TotalsMode.parse(totals);
+        Slice<Project> projects = listingTotals.list(totalsMode, pageable, "projects:search:" + query,
+                p -> projectService.searchPublicProjects(query, p),
+                p -> projectService.searchPublicProjectsSlice(query, p));
+        return ResponseEntity.ok(PageableResponseDTO.of(projects.map(this::convertToProjectResponseDTO), totalsMode));
     }
 
     @GetMapping("/by-team/{teamId}")
     public ResponseEntity<PageableResponseDTO<ProjectResponseDTO>> getProjectsByTeam(
             @PathVariable String teamId,
             @RequestParam(defaultValue = "managing") String type, // "managing" or "contributing"
+            @RequestParam(defaultValue = "exact") String totals, // exact, approximate or none
             @PageableDefault(size = 10) Pageable pageable,
             @AuthenticationPrincipal UserDetails currentUserDetails) { // To check visibility if needed
-        Page<Project> projectPage;
+        TotalsMode totalsMode = TotalsMode.parse(totals);
+        Slice<Project> projects;
         if ("contributing".equalsIgnoreCase(type)) {
-            projectPage = projectService.findProjectsByContributingTeam(teamId, pageable);
+            projects = listingTotals.list(totalsMode, pageable, "projects:contributing:" + teamId,
+                    p -> projectService.findProjectsByContributingTeam(teamId, p),
+                    p -> projectService.findProjectsByContributingTeamSlice(teamId, p));
         } else {
-            projectPage = projectService.findProjectsByManagingTeam(teamId, pageable);
+            projects = listingTotals.list(totalsMode, pageable, "projects:managing:" + teamId,
+                    p -> projectService.findProjectsByManagingTeam(teamId, p),
+                    p -> projectService.findProjectsByManagingTeamSlice(teamId, p));
         }
         // Further filter by visibility based on currentUserDetails if necessary for private projects
-        Page<ProjectResponseDTO> dtoPage = projectPage.map(this::convertToProjectResponseDTO);
-        return ResponseEntity.ok(new PageableResponseDTO<>(dtoPage.getContent(), dtoPage.getNumber(), dtoPage.getSize(), dtoPage.getTotalElements(), dtoPage.getTotalPages(), dtoPage.isLast(), dtoPage.isFirst(), dtoPage.getNumberOfElements(), dtoPage.isEmpty()));
+        return ResponseEntity.ok(PageableResponseDTO.of(projects.map(this::convertToProjectResponseDTO), totalsMode));
     }
 
     // --- Placeholder DTO Conversion ---
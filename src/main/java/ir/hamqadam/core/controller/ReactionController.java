@@ -0,0 +1,83 @@
+package ir.hamqadam.core.controller;
+
+import ir.hamqadam.core.controller.dto.common.MessageResponse;
+import ir.hamqadam.core.controller.dto.reaction.ReactionRequestDTO;
+import ir.hamqadam.core.controller.dto.reaction.ReactionResponseDTO;
+import ir.hamqadam.core.exception.ResourceNotFoundException;
+import ir.hamqadam.core.model.Reaction;
+import ir.hamqadam.core.security.IdentityResolver;
+import ir.hamqadam.core.service.ReactionService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1") // Base path, specific paths defined in methods
+public class ReactionController {
+
+    private final ReactionService reactionService;
+    private final IdentityResolver identityResolver;
+
+    @Autowired
+    public ReactionController(ReactionService reactionService, IdentityResolver identityResolver) {
+        this.reactionService = reactionService;
+        this.identityResolver = identityResolver;
+    }
+
+    @PutMapping("/{targetEntityType}/{targetEntityId}/reactions")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ReactionResponseDTO> react(
+            @PathVariable String targetEntityType,
+            @PathVariable String targetEntityId,
+            @Valid @RequestBody ReactionRequestDTO reactionRequest,
+            @AuthenticationPrincipal UserDetails currentUserDetails) {
+        Reaction reaction = reactionService.react(targetEntityType, targetEntityId, reactionRequest.getEmoji(),
+                currentUserId(currentUserDetails));
+        return ResponseEntity.ok(convertToReactionResponseDTO(reaction));
+    }
+
+    @DeleteMapping("/{targetEntityType}/{targetEntityId}/reactions")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<MessageResponse> removeReaction(
+            @PathVariable String targetEntityType,
+            @PathVariable String targetEntityId,
+            @AuthenticationPrincipal UserDetails currentUserDetails) {
+        boolean removed = reactionService.removeReaction(targetEntityType, targetEntityId,
+                currentUserId(currentUserDetails));
+        return ResponseEntity.ok(new MessageResponse(removed ? "Reaction removed." : "No reaction to remove."));
+    }
+
+    @GetMapping("/{targetEntityType}/{targetEntityId}/reactions/me")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ReactionResponseDTO> getMyReaction(
+            @PathVariable String targetEntityType,
+            @PathVariable String targetEntityId,
+            @AuthenticationPrincipal UserDetails currentUserDetails) {
+        ReactionResponseDTO response = reactionService
+                .findUserReaction(targetEntityType, targetEntityId, currentUserId(currentUserDetails))
+                .map(this::convertToReactionResponseDTO)
+                .orElseGet(() -> ReactionResponseDTO.builder()
+                        .targetEntityType(targetEntityType)
+                        .targetEntityId(targetEntityId)
+                        .build());
+        return ResponseEntity.ok(response);
+    }
+
+    private String currentUserId(UserDetails currentUserDetails) {
+        return identityResolver.resolveUserId(currentUserDetails.getUsername())
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", currentUserDetails.getUsername()));
+    }
+
+    private ReactionResponseDTO convertToReactionResponseDTO(Reaction reaction) {
+        return ReactionResponseDTO.builder()
+                .targetEntityType(reaction.getTargetEntityType())
+                .targetEntityId(reaction.getTargetEntityId())
+                .emoji(reaction.getEmoji())
+                .reactedAt(reaction.getReactedAt())
+                .build();
+    }
+}
@@ -1,5 +1,6 @@
 package ir.hamqadam.core.controller;
 
+import ir.hamqadam.core.controller.dto.common.CursorPageResponseDTO;
 import ir.hamqadam.core.controller.dto.common.MessageResponse;
 import ir.hamqadam.core.controller.dto.common.PageableResponseDTO;
 import ir.hamqadam.core.controller.dto.routine.*;
@@ -8,14 +9,20 @@ import ir.hamqadam.core.controller.dto.routine.*;
 import ir.hamqadam.core.exception.ResourceNotFoundException;
 import ir.hamqadam.core.model.Routine;
 import ir.hamqadam.core.model.User;
+import ir.hamqadam.core.security.IdentityResolver;
 import ir.hamqadam.core.service.RoutineService;
 import ir.hamqadam.core.service.UserService;
+import ir.hamqadam.core.util.KeysetCursor;
+import ir.hamqadam.core.util.KeysetPage;
+import ir.hamqadam.core.util.ListingTotals;
+import ir.hamqadam.core.util.RequestBatchLoader;
+import ir.hamqadam.core.util.TotalsMode;
 // import ir.hamqadam.core.service.TeamService; // If enriching team participant details
 
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
@@ -37,13 +44,20 @@ public class RoutineController {
 
     private final RoutineService routineService;
     private final UserService userService;
+    private final IdentityResolver identityResolver;
+    private final ListingTotals listingTotals;
+    private final RequestBatchLoader batchLoader;
     // private final TeamService teamService; // For enriching participant DTOs
     // private final ModelMapper modelMapper;
 
     @Autowired
-    public RoutineController(RoutineService routineService, UserService userService /*, TeamService teamService, ModelMapper modelMapper */) {
+    public RoutineController(RoutineService routineService, UserService userService, IdentityResolver identityResolver,
+                             ListingTotals listingTotals, RequestBatchLoader batchLoader /*, TeamService teamService, ModelMapper modelMapper */) {
         this.routineService = routineService;
         this.userService = userService;
+        this.identityResolver = identityResolver;
+        this.listingTotals = listingTotals;
+        this.batchLoader = batchLoader;
         // this.teamService = teamService;
         // this.modelMapper = modelMapper;
     }
@@ -53,7 +67,8 @@ public class RoutineController {
     public ResponseEntity<RoutineResponseDTO> createRoutine(
             @Valid @RequestBody RoutineCreationRequestDTO creationRequest,
             @AuthenticationPrincipal UserDetails currentUserDetails) {
-        User actingUser = userService.findUserByEmail(currentUserDetails.getUsername())
+        User actingUser = identityResolver.resolve(currentUserDetails.getUsername())
+                .map(IdentityResolver.ResolvedIdentity::toUserReference)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", currentUserDetails.getUsername()));
 
         Routine.CreatorInfo modelCreatorInfo = new Routine.CreatorInfo(
@@ -187,21 +202,27 @@ public class RoutineController {
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<PageableResponseDTO<RoutineResponseDTO>> getMyRoutines(
             @AuthenticationPrincipal UserDetails currentUserDetails,
+            @RequestParam(defaultValue = "exact") String totals, // exact, approximate or none
             @PageableDefault(size = 10, sort = "nextOccurrenceDatetime") Pageable pageable) {
-        User user = userService.findUserByEmail(currentUserDetails.getUsername())
+        String userId = identityResolver.resolveUserId(currentUserDetails.getUsername())
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", currentUserDetails.getUsername()));
-        Page<Routine> routinePage = routineService.findRoutinesByParticipantUser(user.getUserId(), pageable);
-        Page<RoutineResponseDTO> dtoPage = routinePage.map(this::convertToRoutineResponseDTO);
-        return ResponseEntity.ok(new PageableResponseDTO<>(dtoPage.getContent(), dtoPage.getNumber(), dtoPage.getSize(), dtoPage.getTotalElements(), dtoPage.getTotalPages(), dtoPage.isLast(), dtoPage.isFirst(), dtoPage.getNumberOfElements(), dtoPage.isEmpty()));
+        TotalsMode totalsMode = TotalsMode.parse(totals);
+        Slice<Routine> routines = listingTotals.list(totalsMode, pageable, "routines:participant:" + userId,
+                p -> routineService.findRoutinesByParticipantUser(userId, p),
+                p -> routineService.findRoutinesByParticipantUserSlice(userId, p));
+        return ResponseEntity.ok(PageableResponseDTO.of(routines.map(this::convertToRoutineResponseDTO), totalsMode));
     }
 
     @GetMapping("/by-project/{projectId}")
     public ResponseEntity<PageableResponseDTO<RoutineResponseDTO>> getRoutinesByProject(
             @PathVariable String projectId,
+            @RequestParam(defaultValue = "exact") String totals, // exact, approximate or none
             @PageableDefault(size = 10, sort = "nextOccurrenceDatetime") Pageable pageable) {
-        Page<Routine> routinePage = routineService.findRoutinesByLinkedProject(projectId, pageable);
-        Page<RoutineResponseDTO> dtoPage = routinePage.map(this::convertToRoutineResponseDTO);
-        return ResponseEntity.ok(new PageableResponseDTO<>(dtoPage.getContent(), dtoPage.getNumber(), dtoPage.getSize(), dtoPage.getTotalElements(), dtoPage.getTotalPages(), dtoPage.isLast(), dtoPage.isFirst(), dtoPage.getNumberOfElements(), dtoPage.isEmpty()));
+        TotalsMode totalsMode = TotalsMode.parse(totals);
+        Slice<Routine> routines = listingTotals.list(totalsMode, pageable, "routines:project:" + projectId,
+                p -> routineService.findRoutinesByLinkedProject(projectId, p),
+                p -> routineService.findRoutinesByLinkedProjectSlice(projectId, p));
+        return ResponseEntity.ok(PageableResponseDTO.of(routines.map(this::convertToRoutineResponseDTO), totalsMode));
     }
 
     @GetMapping("/feed") // Example: upcoming public routines
@@ -209,23 +230,30 @@ public class RoutineController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
             @PageableDefault(size = 10, sort = "nextOccurrenceDatetime") Pageable pageable) {
-        Page<Routine> routinePage = routineService.findRoutinesByNextOccurrenceBetween(from, to, Optional.of(Routine.RoutineStatus.ACTIVE), pageable);
-        // Further filter for PUBLIC visibility if not handled by service query
-        List<RoutineResponseDTO> publicRoutines = routinePage.getContent().stream()
+        // Visibility is filtered here after the query, so any total would count non-public routines too;
+        // report none and let clients page on hasNext (or use /feed/scroll, which filters in the query).
+        Slice<Routine> routines = routineService.findRoutinesByNextOccurrenceBetweenSlice(
+                from, to, Optional.of(Routine.RoutineStatus.ACTIVE), pageable);
+        List<RoutineResponseDTO> publicRoutines = routines.getContent().stream()
                 .filter(r -> r.getVisibility() == Routine.RoutineVisibility.PUBLIC)
                 .map(this::convertToRoutineResponseDTO)
                 .collect(Collectors.toList());
+        return ResponseEntity.ok(PageableResponseDTO.of(routines, publicRoutines, TotalsMode.NONE));
+    }
 
-        // Re-create PageableResponseDTO if filtering happened in controller
-        return ResponseEntity.ok(new PageableResponseDTO<>(
-                publicRoutines,
-                routinePage.getNumber(),
-                routinePage.getSize(),
-                (long)publicRoutines.size(), // This would be incorrect if filtering reduced items from a full page.
-                // Better to handle visibility filtering in the service/repository for correct pagination.
-                publicRoutines.isEmpty() ? 0 : 1, // Incorrect total pages
-                true, false, publicRoutines.size(), publicRoutines.isEmpty() // Simplified pagination fields if filtered here
-        ));
+    /**
+     * Lists active public routines occurring in {@code [from, to]}, soonest first, with cursor
+     * pagination. Visibility is filtered in the query, so every page is full except the last.
+     */
+    @GetMapping("/feed/scroll")
+    public ResponseEntity<CursorPageResponseDTO<RoutineResponseDTO>> scrollUpcomingPublicRoutines(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+        KeysetPage<Routine> page = routineService.scrollUpcomingPublicRoutines(from, to, KeysetCursor.decode(cursor),
+                KeysetCursor.pageSize(size));
+        return ResponseEntity.ok(new CursorPageResponseDTO<>(page.map(this::convertToRoutineResponseDTO)));
     }
 
     // --- Helper method for DTO conversion (Placeholder) ---
@@ -241,22 +269,24 @@ public class RoutineController {
                             .roleInRoutine(p.getRoleInRoutine())
                             .invitationStatus(p.getInvitationStatus())
                             .optional(p.isOptional());
-                    // Enrich with participant name and picture URL
-                    // This part needs to fetch User/Team details, which can be N+1.
-                    // Consider batch fetching or a more optimized approach.
-                    // if (p.getParticipantType() == Routine.ParticipantType.USER) {
-                    //     userService.findUserById(p.getParticipantId()).ifPresent(u -> {
-                    //         participantBuilder.participantName(u.getFullName() != null ? u.getFullName().get("en") : null);
-                    //         participantBuilder.participantProfilePictureUrl(u.getProfilePictures() != null && !u.getProfilePictures().isEmpty() ? u.getProfilePictures().get(0).getUrl() : null);
-                    //     });
-                    // } else if (p.getParticipantType() == Routine.ParticipantType.TEAM_REPRESENTATIVE) {
-                    //     teamService.findTeamById(p.getParticipantId()).ifPresent(t -> {
-                    //         participantBuilder.participantName(t.getTeamName() != null ? t.getTeamName().get("en") : null);
-                    //         participantBuilder.participantProfilePictureUrl(t.getProfilePictureUrl());
-                    //     });
-                    // }
                     return participantBuilder.build();
                 }).collect(Collectors.toList());
+        if (participantDTOs != null) {
+            // Names and pictures of every participant on the page are loaded in one batch per entity type
+            for (RoutineParticipantDTO participant : participantDTOs) {
+                if (participant.getParticipantType() == Routine.ParticipantType.USER) {
+                    batchLoader.loadUser(participant.getParticipantId(), u -> {
+                        participant.setParticipantName(u.getFullName() != null ? u.getFullName().get("en") : null);
+                        participant.setParticipantProfilePictureUrl(u.getCurrentProfilePictureUrl());
+                    });
+                } else if (participant.getParticipantType() == Routine.ParticipantType.TEAM_REPRESENTATIVE) {
+                    batchLoader.loadTeam(participant.getParticipantId(), t -> {
+                        participant.setParticipantName(t.getTeamName() != null ? t.getTeamName().get("en") : null);
+                        participant.setParticipantProfilePictureUrl(t.getProfilePictureUrl());
+                    });
+                }
+            }
+        }
 
         List<RoutineTaskOrActionDTO> taskDTOs = routine.getRoutineTasksOrActions() == null ? null :
                 routine.getRoutineTasksOrActions().stream().map(task -> RoutineTaskOrActionDTO.builder()
@@ -296,4 +326,4 @@ public class RoutineController {
                 .updatedAt(routine.getUpdatedAt())
                 .build();
     }
-}
\ No newline at end of file
+}
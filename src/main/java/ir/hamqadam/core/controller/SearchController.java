@@ -0,0 +1,128 @@
+package ir.hamqadam.core.controller;
+
+import ir.hamqadam.core.controller.dto.search.HighlightDTO;
+import ir.hamqadam.core.controller.dto.search.SearchHitDTO;
+import ir.hamqadam.core.controller.dto.search.SearchResponseDTO;
+import ir.hamqadam.core.controller.dto.search.SuggestionDTO;
+import ir.hamqadam.core.exception.BadRequestException;
+import ir.hamqadam.core.search.FederatedHit;
+import ir.hamqadam.core.search.FederatedResults;
+import ir.hamqadam.core.search.Suggestion;
+import ir.hamqadam.core.search.TypeaheadIndex;
+import ir.hamqadam.core.service.SearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/v1/search")
+public class SearchController {
+
+    private final SearchService searchService;
+    private final TypeaheadIndex typeaheadIndex;
+    private final int maxSearchLimit;
+    private final int maxTypeaheadLimit;
+
+    @Autowired
+    public SearchController(SearchService searchService,
+                            TypeaheadIndex typeaheadIndex,
+                            @Value("${hamqadam.search.federated.max-limit:50}") int maxSearchLimit,
+                            @Value("${hamqadam.typeahead.max-limit:20}") int maxTypeaheadLimit) {
+        this.searchService = searchService;
+        this.typeaheadIndex = typeaheadIndex;
+        this.maxSearchLimit = maxSearchLimit;
+        this.maxTypeaheadLimit = maxTypeaheadLimit;
+    }
+
+    /**
+     * One search across published public posts and public teams, projects and users, ranked together.
+     * Answers within {@code hamqadam.search.federated.deadline-ms}; sources that take longer are left out
+     * and listed in {@code incompleteSources}.
+     *
+     * @param q       The search text.
+     * @param sources Comma-separated {@code posts}, {@code teams}, {@code projects} and {@code users}; all by default.
+     * @param lang    The language whose text is preferred for snippets.
+     * @param limit   The maximum number of hits, at most {@code hamqadam.search.federated.max-limit}.
+     */
+    @GetMapping
+    public ResponseEntity<SearchResponseDTO> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "posts,teams,projects,users") String sources,
+            @RequestParam(required = false) String lang,
+            @RequestParam(defaultValue = "20") int limit) {
+        Set<FederatedHit.Source> parsed = parseEnums(sources, FederatedHit.Source.class, "search source");
+        FederatedResults results = searchService.search(q, parsed, lang, Math.max(1, Math.min(limit, maxSearchLimit)));
+        return ResponseEntity.ok(SearchResponseDTO.builder()
+                .hits(results.hits().stream().map(this::convertToSearchHitDTO).toList())
+                .partial(results.isPartial())
+                .incompleteSources(results.incompleteSources().stream()
+                        .map(source -> source.name().toLowerCase(Locale.ROOT))
+                        .toList())
+                .build());
+    }
+
+    /**
+     * Suggestions for a mention picker or search box, asked for on every keystroke: teams, projects and users
+     * whose handle or name starts with {@code q}, answered from memory without reading Mongo.
+     *
+     * @param q     The text typed so far; a leading {@code @} is ignored.
+     * @param types Comma-separated {@code team}, {@code project} and {@code user}; all three by default.
+     * @param limit The maximum number of suggestions of each type, at most {@code hamqadam.typeahead.max-limit}.
+     */
+    @GetMapping("/typeahead")
+    public ResponseEntity<List<SuggestionDTO>> typeahead(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "team,project,user") String types,
+            @RequestParam(defaultValue = "8") int limit) {
+        List<SuggestionDTO> suggestions = typeaheadIndex
+                .suggest(q, parseEnums(types, Suggestion.Type.class, "suggestion type"), Math.max(1, Math.min(limit, maxTypeaheadLimit)))
+                .stream()
+                .map(this::convertToSuggestionDTO)
+                .toList();
+        return ResponseEntity.ok(suggestions);
+    }
+
+    private static <E extends Enum<E>> Set<E> parseEnums(String values, Class<E> type, String what) {
+        Set<E> parsed = EnumSet.noneOf(type);
+        for (String value : values.split(",")) {
+            try {
+                parsed.add(Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Unknown " + what + ": " + value.trim());
+            }
+        }
+        return parsed;
+    }
+
+    private SearchHitDTO convertToSearchHitDTO(FederatedHit hit) {
+        String type = hit.source().name().toLowerCase(Locale.ROOT);
+        return SearchHitDTO.builder()
+                .type(type.substring(0, type.length() - 1)) // posts -> post
+                .id(hit.id())
+                .score(hit.score())
+                .title(hit.title())
+                .handle(hit.handle())
+                .pictureUrl(hit.pictureUrl())
+                .snippet(hit.snippet() == null ? null : hit.snippet().text())
+                .highlights(hit.snippet() == null ? List.of() : hit.snippet().highlights().stream()
+                        .map(highlight -> new HighlightDTO(highlight.start(), highlight.end()))
+                        .toList())
+                .build();
+    }
+
+    private SuggestionDTO convertToSuggestionDTO(Suggestion suggestion) {
+        return SuggestionDTO.builder()
+                .type(suggestion.type().name().toLowerCase(Locale.ROOT))
+                .id(suggestion.id())
+                .handle(suggestion.handle())
+                .name(suggestion.name())
+                .pictureUrl(suggestion.pictureUrl())
+                .build();
+    }
+}
@@ -1,18 +1,23 @@
 package ir.hamqadam.core.controller;
 
+import ir.hamqadam.core.controller.dto.common.AvailabilityResponseDTO;
 import ir.hamqadam.core.controller.dto.common.MessageResponse;
 import ir.hamqadam.core.controller.dto.common.PageableResponseDTO;
 import ir.hamqadam.core.controller.dto.team.*;
 import ir.hamqadam.core.exception.ResourceNotFoundException;
 import ir.hamqadam.core.model.Team;
 import ir.hamqadam.core.model.User;
+import ir.hamqadam.core.security.IdentityResolver;
 import ir.hamqadam.core.service.TeamService;
 import ir.hamqadam.core.service.UserService; // For fetching actingUser details
+import ir.hamqadam.core.util.ListingTotals;
+import ir.hamqadam.core.util.RequestBatchLoader;
+import ir.hamqadam.core.util.TotalsMode;
 
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -31,12 +36,19 @@ public class TeamController {
 
     private final TeamService teamService;
     private final UserService userService; // To get User object from UserDetails
+    private final IdentityResolver identityResolver; // Principal name -> userId without a user lookup
+    private final ListingTotals listingTotals;
+    private final RequestBatchLoader batchLoader;
     // private final ModelMapper modelMapper;
 
     @Autowired
-    public TeamController(TeamService teamService, UserService userService /*, ModelMapper modelMapper */) {
+    public TeamController(TeamService teamService, UserService userService, IdentityResolver identityResolver,
+                          ListingTotals listingTotals, RequestBatchLoader batchLoader /*, ModelMapper modelMapper */) {
         this.teamService = teamService;
         this.userService = userService;
+        this.identityResolver = identityResolver;
+        this.listingTotals = listingTotals;
+        this.batchLoader = batchLoader;
         // this.modelMapper = modelMapper;
     }
 
@@ -45,7 +57,8 @@ public class TeamController {
     public ResponseEntity<TeamResponseDTO> createTeam(
             @Valid @RequestBody TeamCreationRequestDTO creationRequest,
             @AuthenticationPrincipal UserDetails currentUserDetails) {
-        User actingUser = userService.findUserByEmail(currentUserDetails.getUsername())
+        User actingUser = identityResolver.resolve(currentUserDetails.getUsername())
+                .map(IdentityResolver.ResolvedIdentity::toUserReference)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", currentUserDetails.getUsername()));
 
         Team newTeam = teamService.createTeam(
@@ -108,9 +121,9 @@ public class TeamController {
             @PathVariable String teamId,
             @Valid @RequestBody TeamJoinDecisionRequestDTO decisionRequest,
             @AuthenticationPrincipal UserDetails currentUserDetails) {
-        User user = userService.findUserByEmail(currentUserDetails.getUsername())
+        String userId = identityResolver.resolveUserId(currentUserDetails.getUsername())
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", currentUserDetails.getUsername()));
-        teamService.respondToTeamInvitation(teamId, user.getUserId(), decisionRequest.getAccept());
+        teamService.respondToTeamInvitation(teamId, userId, decisionRequest.getAccept());
         String message = decisionRequest.getAccept() ? "Invitation accepted." : "Invitation declined.";
         return ResponseEntity.ok(new MessageResponse(message));
     }
@@ -120,9 +133,9 @@ public class TeamController {
     public ResponseEntity<MessageResponse> requestToJoinTeam(
             @PathVariable String teamId,
             @AuthenticationPrincipal UserDetails currentUserDetails) {
-        User user = userService.findUserByEmail(currentUserDetails.getUsername())
+        String userId = identityResolver.resolveUserId(currentUserDetails.getUsername())
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", currentUserDetails.getUsername()));
-        teamService.requestToJoinTeam(teamId, user.getUserId());
+        teamService.requestToJoinTeam(teamId, userId);
         return ResponseEntity.ok(new MessageResponse("Request to join team " + teamId + " submitted."));
     }
 
@@ -178,9 +191,9 @@ public class TeamController {
     public ResponseEntity<MessageResponse> leaveTeam(
             @PathVariable String teamId,
             @AuthenticationPrincipal UserDetails currentUserDetails) {
-        User user = userService.findUserByEmail(currentUserDetails.getUsername())
+        String userId = identityResolver.resolveUserId(currentUserDetails.getUsername())
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", currentUserDetails.getUsername()));
-        teamService.leaveTeam(teamId, user.getUserId());
+        teamService.leaveTeam(teamId, userId);
         return ResponseEntity.ok(new MessageResponse("You have left team " + teamId));
     }
 
@@ -202,42 +215,53 @@ public class TeamController {
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<PageableResponseDTO<TeamResponseDTO>> getMyTeams(
             @AuthenticationPrincipal UserDetails currentUserDetails,
+            @RequestParam(defaultValue = "exact") String totals, // exact, approximate or none
             @PageableDefault(size = 10, sort = "teamName.en") Pageable pageable) {
-        User user = userService.findUserByEmail(currentUserDetails.getUsername())
+        String userId = identityResolver.resolveUserId(currentUserDetails.getUsername())
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", currentUserDetails.getUsername()));
-        Page<Team> teamPage = teamService.findTeamsByMemberUserId(user.getUserId(), pageable);
-        Page<TeamResponseDTO> dtoPage = teamPage.map(this::convertToTeamResponseDTO);
-        return ResponseEntity.ok(new PageableResponseDTO<>(dtoPage.getContent(), dtoPage.getNumber(), dtoPage.getSize(), dtoPage.getTotalElements(), dtoPage.getTotalPages(), dtoPage.isLast(), dtoPage.isFirst(), dtoPage.getNumberOfElements(), dtoPage.isEmpty()));
+        TotalsMode totalsMode = TotalsMode.parse(totals);
+        Slice<Team> teams = listingTotals.list(totalsMode, pageable, "teams:member:" + userId,
+                p -> teamService.findTeamsByMemberUserId(userId, p),
+                p -> teamService.findTeamsByMemberUserIdSlice(userId, p));
+        return ResponseEntity.ok(PageableResponseDTO.of(teams.map(this::convertToTeamResponseDTO), totalsMode));
+    }
+
+    @GetMapping("/handle-availability")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<AvailabilityResponseDTO> checkHandleAvailability(@RequestParam String handle) {
+        return ResponseEntity.ok(new AvailabilityResponseDTO(handle, teamService.isTeamHandleAvailable(handle)));
     }
 
     @GetMapping("/search")
     public ResponseEntity<PageableResponseDTO<TeamResponseDTO>> searchPublicTeams(
             @RequestParam(required = false) String query,
+            @RequestParam(defaultValue = "exact") String totals, // exact, approximate or none
             @PageableDefault(size = 20, sort = "teamName.en") Pageable pageable) {
-        Page<Team> teamPage = teamService.searchPublicTeams(query, pageable);
-        Page<TeamResponseDTO> dtoPage = teamPage.map(this::convertToTeamResponseDTO);
-        return ResponseEntity.ok(new PageableResponseDTO<>(dtoPage.getContent(), dtoPage.getNumber(), dtoPage.getSize(), dtoPage.getTotalElements(), dtoPage.getTotalPages(), dtoPage.isLast(), dtoPage.isFirst(), dtoPage.getNumberOfElements(), dtoPage.isEmpty()));
+        TotalsMode totalsMode = TotalsMode.parse(totals);
+        Slice<Team> teams = listingTotals.list(totalsMode, pageable, "teams:search:" + query,
+                p -> teamService.searchPublicTeams(query, p),
+                p -> teamService.searchPublicTeamsSlice(query, p));
+        return ResponseEntity.ok(PageableResponseDTO.of(teams.map(this::convertToTeamResponseDTO), totalsMode));
     }
 
     // --- Helper method for DTO conversion (Placeholder) ---
     private TeamResponseDTO convertToTeamResponseDTO(Team team) {
         if (team == null) return null;
         // In a real app, use ModelMapper, MapStruct, or dedicated mapper classes.
-        // This also needs to fetch user details for member DTOs if they are not directly in Team.Member
+        // Member names and pictures are loaded for all teams on the page in one query, before the response is written
         List<TeamMemberDTO> memberDTOs = team.getMembers() == null ? null :
                 team.getMembers().stream().map(member -> {
-                    // Fetch user details to get full name and profile picture for TeamMemberDTO
-                    // This is an N+1 problem if not handled carefully.
-                    // For simplicity here, assume you might fetch them or have them denormalized.
-                    // User memberUser = userService.findUserById(member.getUserId()).orElse(null);
-                    return TeamMemberDTO.builder()
+                    TeamMemberDTO memberDTO = TeamMemberDTO.builder()
                             .userId(member.getUserId())
-                            // .userFullName(memberUser != null ? (memberUser.getFullName() != null ? memberUser.getFullName().get("en") : "N/A") : "N/A") // Example
-                            // .userProfilePictureUrl(memberUser != null ? (memberUser.getProfilePictures() != null && !memberUser.getProfilePictures().isEmpty() ? memberUser.getProfilePictures().get(0).getUrl() : null) : null) // Example
                             .roles(member.getRoles())
                             .joinDate(member.getJoinDate())
                             .statusInTeam(member.getStatusInTeam())
                             .build();
+                    batchLoader.loadUser(member.getUserId(), u -> {
+                        memberDTO.setUserFullName(u.getFullName() != null ? u.getFullName().get("en") : null);
+                        memberDTO.setUserProfilePictureUrl(u.getCurrentProfilePictureUrl());
+                    });
+                    return memberDTO;
                 }).collect(Collectors.toList());
 
         return TeamResponseDTO.builder()
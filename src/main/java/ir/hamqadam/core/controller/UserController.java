@@ -1,19 +1,28 @@
 package ir.hamqadam.core.controller;
 
+import ir.hamqadam.core.controller.dto.common.CursorPageResponseDTO;
 import ir.hamqadam.core.controller.dto.common.MessageResponse;
+import ir.hamqadam.core.controller.dto.notification.NotificationResponseDTO;
 import ir.hamqadam.core.controller.dto.common.PageableResponseDTO;
 import ir.hamqadam.core.controller.dto.user.NotificationPreferencesUpdateRequestDTO;
 import ir.hamqadam.core.controller.dto.user.PrivacySettingsUpdateRequestDTO;
 import ir.hamqadam.core.controller.dto.user.UserProfileUpdateRequestDTO;
 import ir.hamqadam.core.controller.dto.user.UserResponseDTO;
 import ir.hamqadam.core.exception.ResourceNotFoundException;
+import ir.hamqadam.core.model.Notification;
 import ir.hamqadam.core.model.User;
+import ir.hamqadam.core.security.IdentityResolver;
+import ir.hamqadam.core.service.NotificationService;
 import ir.hamqadam.core.service.UserService;
+import ir.hamqadam.core.util.KeysetCursor;
+import ir.hamqadam.core.util.KeysetPage;
+import ir.hamqadam.core.util.ListingTotals;
+import ir.hamqadam.core.util.TotalsMode;
 
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -30,11 +39,18 @@ import java.util.stream.Collectors;
 public class UserController {
 
     private final UserService userService;
+    private final IdentityResolver identityResolver;
+    private final NotificationService notificationService;
+    private final ListingTotals listingTotals;
     // private final ModelMapper modelMapper; // If using ModelMapper
 
     @Autowired
-    public UserController(UserService userService /*, ModelMapper modelMapper */) {
+    public UserController(UserService userService, IdentityResolver identityResolver,
+                          NotificationService notificationService, ListingTotals listingTotals /*, ModelMapper modelMapper */) {
         this.userService = userService;
+        this.identityResolver = identityResolver;
+        this.notificationService = notificationService;
+        this.listingTotals = listingTotals;
         // this.modelMapper = modelMapper;
     }
 
@@ -47,7 +63,8 @@ public class UserController {
     @GetMapping("/me")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<UserResponseDTO> getCurrentUserProfile(@AuthenticationPrincipal UserDetails currentUserDetails) {
-        User user = userService.findUserByEmailOrTelegramId(currentUserDetails.getUsername())
+        User user = identityResolver.resolveUserId(currentUserDetails.getUsername())
+                .flatMap(userService::findUserById)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", currentUserDetails.getUsername()));
         // UserResponseDTO userResponseDTO = modelMapper.map(user, UserResponseDTO.class);
         UserResponseDTO userResponseDTO = convertToUserResponseDTO(user, true); // true for self-view (more details)
@@ -66,11 +83,11 @@ public class UserController {
     public ResponseEntity<UserResponseDTO> updateCurrentUserProfile(
             @AuthenticationPrincipal UserDetails currentUserDetails,
             @Valid @RequestBody UserProfileUpdateRequestDTO updateRequest) {
-        User userToUpdate = userService.findUserByEmail(currentUserDetails.getUsername())
+        String userId = identityResolver.resolveUserId(currentUserDetails.getUsername())
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", currentUserDetails.getUsername()));
 
         User updatedUser = userService.updateUserProfile(
-                userToUpdate.getUserId(),
+                userId,
                 updateRequest.getFullName(),
                 updateRequest.getBio(),
                 updateRequest.getProfilePictures(), // Assuming DTO has compatible structure or service handles it
@@ -109,14 +126,35 @@ public class UserController {
      * @param preferencesRequest DTO with notification preferences.
      * @return ResponseEntity with a success message.
      */
+    /**
+     * Lists the current user's notifications newest first with cursor pagination.
+     *
+     * @param currentUserDetails Details of the authenticated user.
+     * @param cursor             The {@code nextCursor} of the previous page; omit for the first page.
+     * @param size               The page size.
+     * @return ResponseEntity containing one page of notifications.
+     */
+    @GetMapping("/me/notifications")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<CursorPageResponseDTO<NotificationResponseDTO>> getMyNotifications(
+            @AuthenticationPrincipal UserDetails currentUserDetails,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        String userId = identityResolver.resolveUserId(currentUserDetails.getUsername())
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", currentUserDetails.getUsername()));
+        KeysetPage<Notification> page = notificationService.scrollUserNotifications(userId,
+                KeysetCursor.decode(cursor), KeysetCursor.pageSize(size));
+        return ResponseEntity.ok(new CursorPageResponseDTO<>(page.map(this::convertToNotificationResponseDTO)));
+    }
+
     @PutMapping("/me/settings/notifications")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<MessageResponse> updateNotificationPreferences(
             @AuthenticationPrincipal UserDetails currentUserDetails,
             @Valid @RequestBody NotificationPreferencesUpdateRequestDTO preferencesRequest) {
-        User user = userService.findUserByEmail(currentUserDetails.getUsername())
+        String userId = identityResolver.resolveUserId(currentUserDetails.getUsername())
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", currentUserDetails.getUsername()));
-        userService.updateNotificationPreferences(user.getUserId(), preferencesRequest.getPreferences());
+        userService.updateNotificationPreferences(userId, preferencesRequest.getPreferences());
         return ResponseEntity.ok(new MessageResponse("Notification preferences updated successfully."));
     }
 
@@ -131,9 +169,9 @@ public class UserController {
     public ResponseEntity<MessageResponse> updatePrivacySettings(
             @AuthenticationPrincipal UserDetails currentUserDetails,
             @Valid @RequestBody PrivacySettingsUpdateRequestDTO settingsRequest) {
-        User user = userService.findUserByEmail(currentUserDetails.getUsername())
+        String userId = identityResolver.resolveUserId(currentUserDetails.getUsername())
                 .orElseThrow(() -> new ResourceNotFoundException("User", "email", currentUserDetails.getUsername()));
-        userService.updatePrivacySettings(user.getUserId(), settingsRequest.getSettings());
+        userService.updatePrivacySettings(userId, settingsRequest.getSettings());
         return ResponseEntity.ok(new MessageResponse("Privacy settings updated successfully."));
     }
 
@@ -148,27 +186,35 @@ public class UserController {
     @GetMapping("/search")
     public ResponseEntity<PageableResponseDTO<UserResponseDTO>> searchUsers(
             @RequestParam(required = false) String query,
+            @RequestParam(defaultValue = "exact") String totals, // exact, approximate or none
             @PageableDefault(size = 20, sort = "fullName.en") Pageable pageable) { // Default sort by English full name
-        Page<User> userPage = userService.searchUsers(query, pageable);
-        Page<UserResponseDTO> userResponseDTOPage = userPage.map(user -> convertToUserResponseDTO(user, false)); // Public view
-
-        PageableResponseDTO<UserResponseDTO> response = new PageableResponseDTO<>(
-                userResponseDTOPage.getContent(),
-                userResponseDTOPage.getNumber(),
-                userResponseDTOPage.getSize(),
-                userResponseDTOPage.getTotalElements(),
-                userResponseDTOPage.getTotalPages(),
-                userResponseDTOPage.isLast(),
-                userResponseDTOPage.isFirst(),
-                userResponseDTOPage.getNumberOfElements(),
-                userResponseDTOPage.isEmpty()
-        );
-        return ResponseEntity.ok(response);
+        TotalsMode totalsMode = TotalsMode.parse(totals);
+        Slice<User> users = listingTotals.list(totalsMode, pageable, "users:search:" + query,
+                p -> userService.searchUsers(query, p),
+                p -> userService.searchUsersSlice(query, p));
+        Slice<UserResponseDTO> dtoSlice = users.map(user -> convertToUserResponseDTO(user, false)); // Public view
+        return ResponseEntity.ok(PageableResponseDTO.of(dtoSlice, totalsMode));
     }
 
 
     // --- Helper method for DTO conversion (Placeholder) ---
     // In a real app, use ModelMapper, MapStruct, or dedicated mapper classes.
+    private NotificationResponseDTO convertToNotificationResponseDTO(Notification notification) {
+        return NotificationResponseDTO.builder()
+                .notificationId(notification.getNotificationId())
+                .notificationType(notification.getNotificationType())
+                .actorUserId(notification.getActorUserId())
+                .title(notification.getTitle())
+                .message(notification.getMessage())
+                .relatedEntityType(notification.getRelatedEntityType())
+                .relatedEntityId(notification.getRelatedEntityId())
+                .actionUrl(notification.getActionUrl())
+                .read(notification.isRead())
+                .createdAt(notification.getCreatedAt())
+                .readAt(notification.getReadAt())
+                .build();
+    }
+
     private UserResponseDTO convertToUserResponseDTO(User user, boolean isSelfView) {
         if (user == null) return null;
         UserResponseDTO.UserResponseDTOBuilder builder = UserResponseDTO.builder()
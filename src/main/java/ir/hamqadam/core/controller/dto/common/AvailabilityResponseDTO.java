@@ -0,0 +1,16 @@
+package ir.hamqadam.core.controller.dto.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Whether a handle or email address is still free, for live checks in signup and create forms.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityResponseDTO {
+    private String value;
+    private boolean available;
+}
@@ -0,0 +1,20 @@
+package ir.hamqadam.core.controller.dto.common;
+
+import ir.hamqadam.core.util.KeysetPage;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class CursorPageResponseDTO<T> {
+    private List<T> content;
+    private int numberOfElements;
+    private String nextCursor; // Pass back as ?cursor= to get the next page; null on the last page
+    private boolean hasNext;
+
+    public CursorPageResponseDTO(KeysetPage<T> page) {
+        this.content = page.content();
+        this.numberOfElements = page.content().size();
+        this.nextCursor = page.nextCursor();
+        this.hasNext = page.hasNext();
+    }
+}
@@ -1,7 +1,10 @@
 package ir.hamqadam.core.controller.dto.common;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import ir.hamqadam.core.util.TotalsMode;
 import lombok.Data;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import java.util.List;
 
 @Data
@@ -9,12 +12,16 @@ public class PageableResponseDTO<T> {
     private List<T> content;
     private int pageNumber;
     private int pageSize;
-    private long totalElements;
-    private int totalPages;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalElements; // Null when totals=none
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer totalPages; // Null when totals=none
     private boolean last;
     private boolean first;
     private int numberOfElements;
     private boolean empty;
+    private boolean hasNext;
+    private TotalsMode totals; // How totalElements/totalPages were obtained
 
     public PageableResponseDTO(Page<T> page, List<T> content) {
         this.content = content; // Use transformed content (e.g., list of DTOs)
@@ -26,6 +33,8 @@ public class PageableResponseDTO<T> {
         this.first = page.isFirst();
         this.numberOfElements = page.getNumberOfElements();
         this.empty = page.isEmpty();
+        this.hasNext = page.hasNext();
+        this.totals = TotalsMode.EXACT;
     }
     public PageableResponseDTO(List<T> content, int pageNumber, int pageSize, long totalElements, int totalPages, boolean last, boolean first, int numberOfElements, boolean empty) {
         this.content = content;
@@ -37,5 +46,33 @@ public class PageableResponseDTO<T> {
         this.first = first;
         this.numberOfElements = numberOfElements;
         this.empty = empty;
+        this.hasNext = !last;
+        this.totals = TotalsMode.EXACT;
     }
-}
\ No newline at end of file
+
+    /**
+     * Builds the response for a listing run through {@link ir.hamqadam.core.util.ListingTotals}.
+     * Totals are included only if {@code slice} is a {@link Page}.
+     */
+    public static <T> PageableResponseDTO<T> of(Slice<T> slice, TotalsMode totals) {
+        return of(slice, slice.getContent(), totals);
+    }
+
+    /**
+     * As {@link #of(Slice, TotalsMode)}, with content that was transformed or filtered after the query.
+     */
+    public static <T> PageableResponseDTO<T> of(Slice<?> slice, List<T> content, TotalsMode totals) {
+        PageableResponseDTO<T> dto = new PageableResponseDTO<>(content, slice.getNumber(), slice.getSize(), 0L, 0,
+                slice.isLast(), slice.isFirst(), content.size(), content.isEmpty());
+        if (slice instanceof Page<?> page) {
+            dto.setTotalElements(page.getTotalElements());
+            dto.setTotalPages(page.getTotalPages());
+        } else {
+            dto.setTotalElements(null);
+            dto.setTotalPages(null);
+        }
+        dto.setHasNext(slice.hasNext());
+        dto.setTotals(totals);
+        return dto;
+    }
+}
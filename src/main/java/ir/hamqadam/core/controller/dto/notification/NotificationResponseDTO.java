@@ -0,0 +1,27 @@
+package ir.hamqadam.core.controller.dto.notification;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationResponseDTO {
+    private String notificationId;
+    private String notificationType;
+    private String actorUserId;
+    private Map<String, String> title; // i18n
+    private Map<String, String> message; // i18n
+    private String relatedEntityType;
+    private String relatedEntityId;
+    private String actionUrl;
+    private boolean read;
+    private LocalDateTime createdAt;
+    private LocalDateTime readAt;
+}
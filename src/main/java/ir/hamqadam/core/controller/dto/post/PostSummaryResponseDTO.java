@@ -0,0 +1,46 @@
+package ir.hamqadam.core.controller.dto.post;
+
+import ir.hamqadam.core.controller.dto.team.TeamSummaryDTO;
+import ir.hamqadam.core.controller.dto.user.UserSummaryDTO;
+import ir.hamqadam.core.model.Post;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A post as shown on a card in a list: no content body, attachments or links; fetch the post by ID for those.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostSummaryResponseDTO {
+    private String postId;
+    private String postType;
+    private Map<String, String> title; // i18n
+    private Map<String, String> excerpt; // i18n
+
+    private Post.AuthorType authorType;
+    private String authorId;
+    private UserSummaryDTO authorUser; // Populated if authorType is USER
+    private TeamSummaryDTO authorTeam; // Populated if authorType is TEAM
+
+    private Post.PostStatus status;
+    private String featuredImageUrl;
+    private List<String> tags;
+    private String language;
+
+    private long commentCount;
+    private long viewCount;
+    private long likeCount;
+    private Map<String, Long> reactionCounts;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime publishedAt;
+}
@@ -0,0 +1,12 @@
+package ir.hamqadam.core.controller.dto.reaction;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class ReactionRequestDTO {
+    @NotBlank(message = "Reaction emoji cannot be blank")
+    @Size(max = 16, message = "Reaction emoji is too long")
+    private String emoji;
+}
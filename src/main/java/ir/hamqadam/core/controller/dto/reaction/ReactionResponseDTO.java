@@ -0,0 +1,19 @@
+package ir.hamqadam.core.controller.dto.reaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReactionResponseDTO {
+    private String targetEntityType;
+    private String targetEntityId;
+    private String emoji; // Null if the user has not reacted
+    private LocalDateTime reactedAt;
+}
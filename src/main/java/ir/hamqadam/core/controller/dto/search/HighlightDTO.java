@@ -0,0 +1,15 @@
+package ir.hamqadam.core.controller.dto.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HighlightDTO {
+    private int start; // Index of the first highlighted character of the snippet
+    private int end; // Index after the last highlighted character
+}
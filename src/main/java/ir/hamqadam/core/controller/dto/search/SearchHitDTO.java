@@ -0,0 +1,23 @@
+package ir.hamqadam.core.controller.dto.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchHitDTO {
+    private String type; // post, team, project or user
+    private String id;
+    private float score; // 0..1, comparable across types
+    private Map<String, String> title; // i18n post title or entity name
+    private String handle; // Teams and projects only
+    private String pictureUrl;
+    private String snippet; // Plain text around the first match
+    private List<HighlightDTO> highlights; // Matched spans within snippet
+}
@@ -0,0 +1,17 @@
+package ir.hamqadam.core.controller.dto.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchResponseDTO {
+    private List<SearchHitDTO> hits;
+    private boolean partial; // True if some sources did not answer in time
+    private List<String> incompleteSources; // posts, teams, projects or users
+}
@@ -0,0 +1,19 @@
+package ir.hamqadam.core.controller.dto.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDTO {
+    private String type; // team, project or user
+    private String id;
+    private String handle; // Teams and projects only
+    private Map<String, String> name; // i18n
+    private String pictureUrl;
+}
@@ -0,0 +1,174 @@
+package ir.hamqadam.core.counter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ir.hamqadam.core.model.Comment;
+import ir.hamqadam.core.model.Post;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Repairs drift in {@code posts.comment_count}, which is otherwise maintained only by
+ * {@code $inc} deltas on comment status changes.
+ * <p>
+ * Streams over all posts (only {@code _id} and {@code comment_count}) in batches, counts the
+ * approved comments of each batch with one aggregation, and corrects mismatches with a bulk write.
+ * <p>
+ * A comment created or changed on any instance may still have its delta buffered there, for up to
+ * {@code hamqadam.counters.max-lag-ms}. Posts with a comment updated within
+ * {@code hamqadam.comments.reconcile.quiet-period-ms} are therefore left for the next run, since
+ * their difference may be a delta in flight rather than drift. The others are corrected with an
+ * {@code $inc} of the difference, conditional on the stored count still being the value read, so a
+ * concurrent {@code $inc} is neither overwritten nor counted twice.
+ */
+@Component
+public class CommentCountReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommentCountReconciler.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final WriteBehindCounters counters;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long quietPeriodMs;
+    private final Timer runTimer;
+    private final Counter corrections;
+
+    @Autowired
+    public CommentCountReconciler(MongoTemplate mongoTemplate,
+                                  WriteBehindCounters counters,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${hamqadam.comments.reconcile.enabled:true}") boolean enabled,
+                                  @Value("${hamqadam.comments.reconcile.batch-size:500}") int batchSize,
+                                  @Value("${hamqadam.comments.reconcile.quiet-period-ms:60000}") long quietPeriodMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.counters = counters;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.quietPeriodMs = quietPeriodMs;
+        this.runTimer = Timer.builder("hamqadam.comments.reconcile")
+                .description("Time spent reconciling post comment counts")
+                .register(meterRegistry);
+        this.corrections = Counter.builder("hamqadam.comments.reconcile.corrections")
+                .description("Post comment counts corrected by the reconciler")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${hamqadam.comments.reconcile.initial-delay-ms:600000}",
+            fixedDelayString = "${hamqadam.comments.reconcile.interval-ms:21600000}")
+    public void scheduledReconcile() {
+        if (enabled) {
+            reconcile();
+        }
+    }
+
+    /**
+     * Checks every post once.
+     *
+     * @return The number of posts whose count was corrected.
+     */
+    public long reconcile() {
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "postId"));
+        query.fields().include("commentCount");
+        query.cursorBatchSize(batchSize);
+
+        long checked = 0;
+        long corrected = 0;
+        Timer.Sample sample = Timer.start();
+        try (Stream<Post> posts = mongoTemplate.stream(query, Post.class)) {
+            Map<String, Long> batch = new LinkedHashMap<>();
+            for (Post post : (Iterable<Post>) posts::iterator) {
+                batch.put(post.getPostId(), post.getCommentCount());
+                if (batch.size() >= batchSize) {
+                    corrected += reconcileBatch(batch);
+                    checked += batch.size();
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                corrected += reconcileBatch(batch);
+                checked += batch.size();
+            }
+        } finally {
+            sample.stop(runTimer);
+        }
+        logger.info("Comment count reconciliation checked {} posts, corrected {}", checked, corrected);
+        return corrected;
+    }
+
+    private long reconcileBatch(Map<String, Long> storedCounts) {
+        counters.flush(); // Deltas buffered here; those of other instances are covered by the quiet period
+        Date activeSince = new Date(System.currentTimeMillis() - quietPeriodMs);
+        Map<String, CommentActivity> activity = countApprovedComments(storedCounts.keySet());
+        BulkOperations bulk = null;
+        long mismatches = 0;
+        for (Map.Entry<String, Long> entry : storedCounts.entrySet()) {
+            CommentActivity comments = activity.getOrDefault(entry.getKey(), CommentActivity.NONE);
+            long drift = comments.approved() - entry.getValue();
+            if (drift != 0 && !comments.updatedSince(activeSince)) {
+                if (bulk == null) {
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+                }
+                // Conditional on the value read, so a concurrent $inc is not counted twice
+                bulk.updateOne(Query.query(Criteria.where("postId").is(entry.getKey())
+                                .and("commentCount").is(entry.getValue())),
+                        new Update().inc("commentCount", drift));
+                mismatches++;
+            }
+        }
+        if (bulk == null) {
+            return 0;
+        }
+        long modified = bulk.execute().getModifiedCount();
+        corrections.increment(modified);
+        logger.debug("Corrected comment counts of {} of {} drifted posts", modified, mismatches);
+        return modified;
+    }
+
+    // Per post: its approved comments, and when any of its comments was last created or changed
+    private Map<String, CommentActivity> countApprovedComments(Collection<String> postIds) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("targetEntityType").is("Post")
+                        .and("targetEntityId").in(postIds)),
+                Aggregation.group("targetEntityId")
+                        .sum(ConditionalOperators.when(Criteria.where("status").is(Comment.CommentStatus.APPROVED.name()))
+                                .then(1).otherwise(0)).as("approved")
+                        .max("updatedAt").as("lastUpdatedAt"));
+        Map<String, CommentActivity> activity = new HashMap<>();
+        for (Document result : mongoTemplate.aggregate(aggregation, Comment.class, Document.class)) {
+            activity.put(result.getString("_id"), new CommentActivity(
+                    ((Number) result.get("approved")).longValue(), result.getDate("lastUpdatedAt")));
+        }
+        return activity;
+    }
+
+    private record CommentActivity(long approved, Date lastUpdatedAt) {
+
+        static final CommentActivity NONE = new CommentActivity(0, null);
+
+        boolean updatedSince(Date since) {
+            return lastUpdatedAt != null && !lastUpdatedAt.before(since);
+        }
+    }
+}
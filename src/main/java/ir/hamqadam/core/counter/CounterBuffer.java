@@ -0,0 +1,97 @@
+package ir.hamqadam.core.counter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates counter deltas in memory until they are drained by a single flusher.
+ * <p>
+ * Each key has its own {@link LongAdder}, so concurrent increments of even a single hot key are
+ * spread over striped cells instead of contending on one value. {@link #drain()} takes each adder's
+ * sum with {@link LongAdder#sumThenReset()}, which moves every cell to zero atomically, so a delta is
+ * taken by exactly one drain. Keys found idle by a drain are removed; a writer that added to an adder
+ * just removed takes back whatever the drain left on it and adds it again.
+ */
+public final class CounterBuffer<K> {
+
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final ConcurrentHashMap<K, LongAdder> deltas = new ConcurrentHashMap<>();
+    private final AtomicLong oldestPendingNanos = new AtomicLong(NONE);
+
+    public void add(K key, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        LongAdder adder = deltas.computeIfAbsent(key, k -> new LongAdder());
+        adder.add(delta);
+        if (deltas.get(key) != adder) {
+            // Removed by a drain that may not have seen this delta
+            long orphaned = adder.sumThenReset();
+            if (orphaned != 0) {
+                add(key, orphaned);
+            }
+            return;
+        }
+        if (oldestPendingNanos.get() == NONE) {
+            oldestPendingNanos.compareAndSet(NONE, System.nanoTime());
+        }
+    }
+
+    /**
+     * Takes all pending deltas.
+     *
+     * @return The non-zero delta of every key incremented since the previous drain.
+     */
+    public synchronized Map<K, Long> drain() {
+        // Reset first: a concurrent add then stamps a time no later than its delta's
+        oldestPendingNanos.set(NONE);
+        Map<K, Long> drained = new HashMap<>();
+        deltas.forEach((key, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta == 0 && deltas.remove(key, adder)) {
+                delta = adder.sumThenReset(); // Added since the first take, before the removal was seen
+            }
+            if (delta != 0) {
+                drained.merge(key, delta, Long::sum);
+            }
+        });
+        return drained;
+    }
+
+    /**
+     * @return The number of keys with pending deltas.
+     */
+    public int pendingKeys() {
+        int keys = 0;
+        for (LongAdder adder : deltas.values()) {
+            if (adder.sum() != 0) {
+                keys++;
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * @return The sum of all pending deltas.
+     */
+    public long pendingDelta() {
+        long sum = 0;
+        for (LongAdder adder : deltas.values()) {
+            sum += adder.sum();
+        }
+        return sum;
+    }
+
+    /**
+     * @param nowNanos The current {@link System#nanoTime()}.
+     * @return How long the oldest pending delta has been waiting, in nanoseconds; {@code 0} if nothing is pending.
+     */
+    public long pendingAgeNanos(long nowNanos) {
+        long oldest = oldestPendingNanos.get();
+        return oldest == NONE ? 0 : nowNanos - oldest;
+    }
+}
@@ -0,0 +1,11 @@
+package ir.hamqadam.core.counter;
+
+/**
+ * Identifies one numeric field of one document that is incremented through {@link WriteBehindCounters}.
+ *
+ * @param entityType The mapped entity class, e.g. {@code Post.class}.
+ * @param id         The document ID.
+ * @param field      The property path to increment, e.g. {@code viewCount} or {@code reactionCounts.👍}.
+ */
+public record CounterKey(Class<?> entityType, String id, String field) {
+}
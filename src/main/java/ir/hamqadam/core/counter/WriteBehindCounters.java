@@ -0,0 +1,157 @@
+package ir.hamqadam.core.counter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind counters for hot numeric fields such as view and reaction counts.
+ * <p>
+ * {@link #increment} only bumps an in-memory {@link CounterBuffer}; it does no I/O on the caller's
+ * thread. A scheduled task writes the accumulated deltas with one unordered bulk write of
+ * {@code $inc} updates per collection once they are {@code max-lag-ms} old or once
+ * {@code max-pending-keys} documents have pending deltas, and again on graceful shutdown.
+ * Stored counters therefore trail the true value by at most roughly {@code max-lag-ms}.
+ * <p>
+ * Updates go straight to MongoDB and publish no mapping events, so entities cached earlier in a
+ * request (see {@code RequestIdentityMap}) keep the value they were loaded with.
+ */
+@Component
+public class WriteBehindCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindCounters.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final CounterBuffer<CounterKey> buffer = new CounterBuffer<>();
+    private final long maxLagNanos;
+    private final int maxPendingKeys;
+    private final Timer flushTimer;
+    private final Counter flushedUpdates;
+    private final Counter failedFlushes;
+
+    @Autowired
+    public WriteBehindCounters(MongoTemplate mongoTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${hamqadam.counters.max-lag-ms:10000}") long maxLagMs,
+                               @Value("${hamqadam.counters.max-pending-keys:5000}") int maxPendingKeys) {
+        this.mongoTemplate = mongoTemplate;
+        this.maxLagNanos = TimeUnit.MILLISECONDS.toNanos(maxLagMs);
+        this.maxPendingKeys = maxPendingKeys;
+        this.flushTimer = Timer.builder("hamqadam.counters.flush")
+                .description("Time spent writing buffered counter deltas to MongoDB")
+                .register(meterRegistry);
+        this.flushedUpdates = Counter.builder("hamqadam.counters.flushed")
+                .description("Buffered counter deltas written to MongoDB")
+                .register(meterRegistry);
+        this.failedFlushes = Counter.builder("hamqadam.counters.flush.failures")
+                .description("Counter flushes that failed and were re-queued")
+                .register(meterRegistry);
+        Gauge.builder("hamqadam.counters.pending", buffer, CounterBuffer::pendingDelta)
+                .description("Sum of counter deltas not yet written to MongoDB")
+                .register(meterRegistry);
+        Gauge.builder("hamqadam.counters.pending.keys", buffer, CounterBuffer::pendingKeys)
+                .description("Documents with counter deltas not yet written to MongoDB")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds {@code delta} to a numeric field; the change reaches MongoDB with the next flush.
+     *
+     * @param entityType The mapped entity class.
+     * @param id         The document ID.
+     * @param field      The property path to increment.
+     * @param delta      The amount to add, may be negative.
+     */
+    public void increment(Class<?> entityType, String id, String field, long delta) {
+        buffer.add(new CounterKey(entityType, id, field), delta);
+    }
+
+    @Scheduled(fixedDelayString = "${hamqadam.counters.flush-interval-ms:1000}")
+    public void flushIfDue() {
+        if (buffer.pendingAgeNanos(System.nanoTime()) >= maxLagNanos || buffer.pendingKeys() >= maxPendingKeys) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes all pending deltas now.
+     *
+     * @return The number of documents updated.
+     */
+    public synchronized int flush() {
+        Map<CounterKey, Long> deltas = buffer.drain();
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        // One $inc update per document, possibly covering several fields
+        Map<Class<?>, Map<String, Map<CounterKey, Long>>> byTypeAndId = new HashMap<>();
+        deltas.forEach((key, delta) -> byTypeAndId
+                .computeIfAbsent(key.entityType(), type -> new LinkedHashMap<>())
+                .computeIfAbsent(key.id(), id -> new HashMap<>())
+                .put(key, delta));
+
+        int written = 0;
+        Timer.Sample sample = Timer.start();
+        for (Map.Entry<Class<?>, Map<String, Map<CounterKey, Long>>> entry : byTypeAndId.entrySet()) {
+            written += write(entry.getKey(), entry.getValue());
+        }
+        sample.stop(flushTimer);
+        flushedUpdates.increment(written);
+        logger.debug("Flushed counter deltas to {} documents", written);
+        return written;
+    }
+
+    private int write(Class<?> type, Map<String, Map<CounterKey, Long>> documents) {
+        List<Map<CounterKey, Long>> ordered = new ArrayList<>(documents.size());
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+        documents.forEach((id, fields) -> {
+            Update update = new Update();
+            fields.forEach((key, delta) -> update.inc(key.field(), delta));
+            bulk.updateOne(Query.query(Criteria.where("_id").is(id)), update);
+            ordered.add(fields);
+        });
+        try {
+            bulk.execute();
+            return ordered.size();
+        } catch (BulkOperationException ex) {
+            // The other updates of an unordered bulk write were applied; only re-queue the failed ones
+            failedFlushes.increment();
+            logger.warn("{} of {} counter updates for {} failed, will retry",
+                    ex.getErrors().size(), ordered.size(), type.getSimpleName());
+            ex.getErrors().forEach(error -> ordered.get(error.getIndex()).forEach(buffer::add));
+            return ordered.size() - ex.getErrors().size();
+        } catch (RuntimeException ex) {
+            failedFlushes.increment();
+            logger.warn("Failed to flush {} counter updates for {}, will retry: {}",
+                    ordered.size(), type.getSimpleName(), ex.getMessage());
+            ordered.forEach(fields -> fields.forEach(buffer::add));
+            return 0;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -19,6 +20,8 @@ import java.util.Map;
 @AllArgsConstructor
 @Builder
 @Document(collection = "comments")
+@CompoundIndex(name = "target_status_created", def = "{'target_entity_type': 1, 'target_entity_id': 1, 'status': 1, 'created_at': 1, '_id': 1}")
+@CompoundIndex(name = "thread_status_created", def = "{'thread_id': 1, 'status': 1, 'created_at': 1}")
 public class Comment {
 
     @Id
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
@@ -18,6 +19,7 @@ import java.util.Map;
 @AllArgsConstructor
 @Builder
 @Document(collection = "notifications")
+@CompoundIndex(name = "recipient_created", def = "{'recipient_user_id': 1, 'created_at': -1, '_id': -1}")
 public class Notification {
 
     @Id
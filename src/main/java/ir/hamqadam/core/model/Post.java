@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -19,6 +20,13 @@ import java.util.Map;
 @AllArgsConstructor
 @Builder
 @Document(collection = "posts")
+// Keyset listings: equality filters first, then (published_at, _id) in scroll order
+@CompoundIndex(name = "status_visibility_published", def = "{'status': 1, 'visibility': 1, 'published_at': -1, '_id': -1}")
+@CompoundIndex(name = "type_status_visibility_published", def = "{'post_type': 1, 'status': 1, 'visibility': 1, 'published_at': -1, '_id': -1}")
+@CompoundIndex(name = "tags_norm_status_visibility_published", def = "{'tags_norm': 1, 'status': 1, 'visibility': 1, 'published_at': -1, '_id': -1}")
+@CompoundIndex(name = "category_status_visibility_published", def = "{'category_ids': 1, 'status': 1, 'visibility': 1, 'published_at': -1, '_id': -1}")
+// Incremental refresh of the in-memory search index
+@CompoundIndex(name = "updated_at", def = "{'updated_at': 1}")
 public class Post {
 
     @Id
@@ -63,6 +71,9 @@ public class Post {
     @Field("tags")
     private List<String> tags; // Could be List<Map<String, String>> if tags are i18n objects
 
+    @Field("tags_norm")
+    private List<String> tagsNorm; // Tags through TextAnalyzer.normalize, set on every save; tag lookups match these
+
     @Field("category_ids") // Assuming categories are managed elsewhere or simple strings
     private List<String> categoryIds;
 
@@ -0,0 +1,45 @@
+package ir.hamqadam.core.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+
+/**
+ * One user's reaction to a post or comment. A user has at most one reaction per target;
+ * reacting again replaces the emoji.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Document(collection = "reactions")
+@CompoundIndex(name = "target_user_unique", def = "{'target_entity_type': 1, 'target_entity_id': 1, 'user_id': 1}", unique = true)
+public class Reaction {
+
+    public static final String LIKE = "👍"; // Also counted in the target's like_count
+
+    @Id
+    private String reactionId;
+
+    @Field("target_entity_type") // "Post" or "Comment"
+    private String targetEntityType;
+
+    @Field("target_entity_id")
+    private String targetEntityId;
+
+    @Field("user_id")
+    private String userId;
+
+    @Field("emoji")
+    private String emoji;
+
+    @Field("reacted_at")
+    private LocalDateTime reactedAt;
+}
@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -19,6 +20,7 @@ import java.util.Map;
 @AllArgsConstructor
 @Builder
 @Document(collection = "routines")
+@CompoundIndex(name = "status_visibility_next_occurrence", def = "{'status': 1, 'visibility': 1, 'next_occurrence_datetime': 1, '_id': 1}")
 public class Routine {
 
     @Id
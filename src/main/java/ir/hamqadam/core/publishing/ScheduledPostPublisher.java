@@ -0,0 +1,239 @@
+package ir.hamqadam.core.publishing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ir.hamqadam.core.model.Post;
+import ir.hamqadam.core.search.PostSearchIndex;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Publishes scheduled posts when their {@code scheduledForPublicationAt} comes: every post with status
+ * {@code SCHEDULED} waits in a {@link TimingWheel} of epoch seconds, and a task ticking every second turns
+ * the posts due into {@code PUBLISHED}.
+ * <p>
+ * Posts due in the same second are published together, with one {@code updateMulti} per
+ * {@code hamqadam.posts.scheduled.batch-size} posts. The update only matches posts still scheduled and due,
+ * so a post unscheduled or rescheduled since it was loaded stays as it is, and instances publishing the same
+ * post publish it once. Since bulk updates publish no mapping events, published posts are re-indexed for
+ * search here.
+ * <p>
+ * The wheel is loaded in the background at startup by streaming all scheduled posts; posts whose time
+ * passed while no instance ran are published on the first tick. Posts scheduled, rescheduled or unscheduled
+ * on this instance update the wheel from their mapping events; changes made on other instances are picked
+ * up every {@code hamqadam.posts.scheduled.resync-interval-ms} by their {@code updatedAt}.
+ */
+@Component
+public class ScheduledPostPublisher extends AbstractMongoEventListener<Post> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledPostPublisher.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final PostSearchIndex postSearchIndex;
+    private final boolean enabled;
+    private final int batchSize;
+    private final TimingWheel<String> wheel = new TimingWheel<>(nowSecond()); // Guarded by itself
+    private final Counter publishedPosts;
+    private final Timer publishTimer;
+
+    private volatile LocalDateTime lastResync;
+
+    @Autowired
+    public ScheduledPostPublisher(MongoTemplate mongoTemplate,
+                                  PostSearchIndex postSearchIndex,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${hamqadam.posts.scheduled.enabled:true}") boolean enabled,
+                                  @Value("${hamqadam.posts.scheduled.batch-size:500}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.postSearchIndex = postSearchIndex;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.publishedPosts = Counter.builder("hamqadam.posts.scheduled.published")
+                .description("Scheduled posts published")
+                .register(meterRegistry);
+        this.publishTimer = Timer.builder("hamqadam.posts.scheduled.publish")
+                .description("Time spent publishing one batch of scheduled posts")
+                .register(meterRegistry);
+        Gauge.builder("hamqadam.posts.scheduled.pending", this, ScheduledPostPublisher::pending)
+                .description("Scheduled posts waiting for publication on this instance")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        Thread loader = new Thread(this::reload, "scheduled-post-load");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Loads every scheduled post into the wheel, replacing the timers of posts already in it.
+     */
+    public void reload() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        int loaded = load(new Query(Criteria.where("status").is(Post.PostStatus.SCHEDULED)));
+        lastResync = startedAt;
+        logger.info("Loaded {} scheduled posts for publication", loaded);
+    }
+
+    /**
+     * Loads the posts scheduled or rescheduled since the last resync, possibly on another instance. Posts
+     * unscheduled elsewhere keep their timer, which then publishes nothing.
+     */
+    @Scheduled(fixedDelayString = "${hamqadam.posts.scheduled.resync-interval-ms:60000}",
+            initialDelayString = "${hamqadam.posts.scheduled.resync-interval-ms:60000}")
+    public void resync() {
+        LocalDateTime since = lastResync;
+        if (!enabled || since == null) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        // Overlap a little so changes committed while the previous resync ran are not missed
+        load(new Query(Criteria.where("status").is(Post.PostStatus.SCHEDULED)
+                .and("updatedAt").gte(since.minusSeconds(5))));
+        lastResync = startedAt;
+    }
+
+    /**
+     * Publishes the posts due by now.
+     *
+     * @return The number of posts published.
+     */
+    @Scheduled(fixedRateString = "${hamqadam.posts.scheduled.tick-ms:1000}")
+    public int publishDue() {
+        if (!enabled) {
+            return 0;
+        }
+        List<String> due;
+        synchronized (wheel) {
+            due = wheel.advance(nowSecond());
+        }
+        int published = 0;
+        for (int from = 0; from < due.size(); from += batchSize) {
+            published += publish(due.subList(from, Math.min(from + batchSize, due.size())));
+        }
+        return published;
+    }
+
+    /**
+     * Puts a post in the wheel if it is scheduled, or takes it out otherwise.
+     */
+    public void track(Post post) {
+        if (post == null || post.getPostId() == null) {
+            return;
+        }
+        synchronized (wheel) {
+            if (post.getStatus() == Post.PostStatus.SCHEDULED && post.getScheduledForPublicationAt() != null) {
+                wheel.schedule(post.getPostId(), dueSecondOf(post.getScheduledForPublicationAt()));
+            } else {
+                wheel.cancel(post.getPostId());
+            }
+        }
+    }
+
+    public int pending() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Post> event) {
+        track(event.getSource());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Post> event) {
+        // Posts deleted by a query keep their timer, which then publishes nothing
+        Object id = event.getDocument() != null ? event.getDocument().get("_id") : null;
+        if (id instanceof String || id instanceof ObjectId) {
+            synchronized (wheel) {
+                wheel.cancel(id.toString());
+            }
+        }
+    }
+
+    private int load(Query query) {
+        query.fields().include("status", "scheduledForPublicationAt");
+        int[] loaded = {0};
+        try (Stream<Post> posts = mongoTemplate.stream(query, Post.class)) {
+            posts.forEach(post -> {
+                track(post);
+                loaded[0]++;
+            });
+        } catch (RuntimeException e) {
+            logger.error("Loading scheduled posts failed; posts saved since still publish on time", e);
+        }
+        return loaded[0];
+    }
+
+    private int publish(List<String> postIds) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS); // As stored, so it can be matched
+        Query due = new Query(Criteria.where("_id").in(postIds)
+                .and("status").is(Post.PostStatus.SCHEDULED)
+                .and("scheduledForPublicationAt").lte(now));
+        Update update = new Update()
+                .set("status", Post.PostStatus.PUBLISHED)
+                .set("publishedAt", now)
+                .set("updatedAt", now)
+                .unset("scheduledForPublicationAt");
+        Timer.Sample sample = Timer.start();
+        List<Post> published;
+        try {
+            if (mongoTemplate.updateMulti(due, update, Post.class).getModifiedCount() == 0) {
+                return 0;
+            }
+            // The posts this update published, not those published by hand or by another instance
+            Query publishedNow = new Query(Criteria.where("_id").in(postIds).and("publishedAt").is(now));
+            publishedNow.fields().include("title", "excerpt", "contentBody", "tags", "status", "visibility");
+            published = mongoTemplate.find(publishedNow, Post.class);
+        } catch (RuntimeException e) {
+            logger.error("Publishing {} scheduled posts failed, will retry", postIds.size(), e);
+            synchronized (wheel) {
+                long retryAt = wheel.currentTick() + 1;
+                postIds.forEach(postId -> wheel.schedule(postId, retryAt));
+            }
+            return 0;
+        }
+        published.forEach(postSearchIndex::index);
+        sample.stop(publishTimer);
+        publishedPosts.increment(published.size());
+        logger.info("Published {} scheduled posts", published.size());
+        return published.size();
+    }
+
+    // Rounded up, so a post is never published before its time
+    private static long dueSecondOf(LocalDateTime scheduledAt) {
+        long millis = scheduledAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return Math.floorDiv(millis + 999, 1000);
+    }
+
+    private static long nowSecond() {
+        return Math.floorDiv(System.currentTimeMillis(), 1000);
+    }
+}
@@ -0,0 +1,150 @@
+package ir.hamqadam.core.publishing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A hierarchical timing wheel: timers keyed by an ID, each due at a tick, with constant-time
+ * {@link #schedule} and {@link #cancel} however many timers are pending and however far ahead they are due.
+ * <p>
+ * Level 0 has one slot per tick. Each higher level has as many slots, each spanning a whole turn of the
+ * level below; with 64 slots per level and one-second ticks, the four levels reach about six months ahead,
+ * and timers due later wait in an overflow list. As time reaches the start of a higher slot, its timers
+ * move down to the level below, so every timer is moved at most once per level before it fires. Timers
+ * due at the same tick share a slot and fire together.
+ * <p>
+ * Ticks are plain numbers, such as epoch seconds; the wheel never reads the clock. Not thread-safe.
+ *
+ * @param <K> The type of the timer IDs.
+ */
+public final class TimingWheel<K> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;
+
+    private final List<Map<K, Long>> slots = new ArrayList<>(LEVELS * SLOTS); // Per slot, due ticks by timer
+    private final Map<K, Map<K, Long>> slotOf = new HashMap<>(); // The slot holding each timer
+    private final Map<K, Long> overflow = new HashMap<>(); // Timers beyond the top level
+    private final Map<K, Long> overdue = new HashMap<>(); // Timers due at or before the current tick
+    private long currentTick;
+
+    /**
+     * @param startTick The tick the wheel starts at; timers due at or before it fire with the next
+     *                  {@link #advance}.
+     */
+    public TimingWheel(long startTick) {
+        this.currentTick = startTick;
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Schedules a timer, replacing any pending timer with the same ID.
+     *
+     * @param id      The timer ID.
+     * @param dueTick The tick at which the timer fires; a past tick fires with the next {@link #advance}.
+     */
+    public void schedule(K id, long dueTick) {
+        cancel(id);
+        place(id, dueTick);
+    }
+
+    /**
+     * @return Whether a timer with this ID was pending.
+     */
+    public boolean cancel(K id) {
+        Map<K, Long> slot = slotOf.remove(id);
+        return slot != null && slot.remove(id) != null;
+    }
+
+    public boolean contains(K id) {
+        return slotOf.containsKey(id);
+    }
+
+    public int size() {
+        return slotOf.size();
+    }
+
+    public long currentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Moves the wheel forward to a tick and removes the timers due by then.
+     *
+     * @param tick The tick reached; ticks before the current one are ignored.
+     * @return The IDs of the timers due, earliest first.
+     */
+    public List<K> advance(long tick) {
+        List<K> due = new ArrayList<>();
+        fire(overdue, due);
+        while (currentTick < tick) {
+            if (slotOf.isEmpty()) {
+                currentTick = tick; // Nothing to fire or cascade on the way
+                break;
+            }
+            currentTick++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & (spanOf(level) - 1)) == 0) {
+                    if (level == LEVELS - 1) {
+                        drain(overflow).forEach(this::place);
+                    }
+                    drain(slots.get(level * SLOTS + indexOf(currentTick, level))).forEach(this::place);
+                }
+            }
+            fire(overdue, due); // Timers cascaded down to this very tick
+            fire(slots.get(indexOf(currentTick, 0)), due);
+        }
+        return due;
+    }
+
+    private void place(K id, long dueTick) {
+        long delta = dueTick - currentTick;
+        Map<K, Long> slot;
+        if (delta <= 0) {
+            slot = overdue;
+        } else if (delta >= spanOf(LEVELS)) {
+            slot = overflow;
+        } else {
+            int level = 0;
+            while (delta >= spanOf(level + 1)) {
+                level++;
+            }
+            slot = slots.get(level * SLOTS + indexOf(dueTick, level));
+        }
+        slot.put(id, dueTick);
+        slotOf.put(id, slot);
+    }
+
+    private void fire(Map<K, Long> slot, List<K> due) {
+        if (slot.isEmpty()) {
+            return;
+        }
+        drain(slot).entrySet().stream()
+                .sorted(Map.Entry.comparingByValue())
+                .forEach(timer -> due.add(timer.getKey()));
+    }
+
+    private Map<K, Long> drain(Map<K, Long> slot) {
+        if (slot.isEmpty()) {
+            return Map.of();
+        }
+        Map<K, Long> timers = new HashMap<>(slot);
+        slot.clear();
+        timers.keySet().forEach(slotOf::remove);
+        return timers;
+    }
+
+    // The number of ticks one slot of the level spans
+    private static long spanOf(int level) {
+        return 1L << (SLOT_BITS * level);
+    }
+
+    private static int indexOf(long tick, int level) {
+        return (int) ((tick >> (SLOT_BITS * level)) & (SLOTS - 1));
+    }
+}
@@ -3,6 +3,7 @@ package ir.hamqadam.core.repository;
 import ir.hamqadam.core.model.Comment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -62,4 +63,20 @@ public interface CommentRepository extends MongoRepository<Comment, String> {
      */
     long countByTargetEntityTypeAndTargetEntityIdAndStatus(
             String targetEntityType, String targetEntityId, Comment.CommentStatus status);
-}
\ No newline at end of file
+
+    /**
+     * Tells whether a comment exists with the given status, without reading the comment.
+     *
+     * @param commentId The comment ID.
+     * @param status    The comment status.
+     * @return Whether such a comment exists.
+     */
+    boolean existsByCommentIdAndStatus(String commentId, Comment.CommentStatus status);
+
+    // --- Slice variants: fetch one extra document instead of running a count ---
+
+    Slice<Comment> findSliceByTargetEntityTypeAndTargetEntityIdAndStatus(
+            String targetEntityType, String targetEntityId, Comment.CommentStatus status, Pageable pageable);
+
+    Slice<Comment> findSliceByParentCommentIdAndStatus(String parentCommentId, Comment.CommentStatus status, Pageable pageable);
+}
@@ -1,8 +1,10 @@
 package ir.hamqadam.core.repository;
 
 import ir.hamqadam.core.model.Post;
+import ir.hamqadam.core.repository.projection.PostSummary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query; // For complex queries like text search
 import org.springframework.stereotype.Repository;
@@ -58,14 +60,15 @@ public interface PostRepository extends MongoRepository<Post, String> {
 
 
     /**
-     * Finds posts containing a specific tag (case-insensitive) and matching a status.
+     * Finds posts carrying a specific tag and matching a status. Tags are compared in their normalized form,
+     * which the {@code tags_norm} index serves by equality.
      *
-     * @param tag      The tag to search for.
+     * @param tagNorm  The tag to search for, through {@link ir.hamqadam.core.search.TextAnalyzer#normalize}.
      * @param status   The post status.
      * @param pageable Pagination information.
      * @return A page of posts containing the specified tag and status.
      */
-    Page<Post> findByTagsContainingIgnoreCaseAndStatus(String tag, Post.PostStatus status, Pageable pageable);
+    Page<Post> findByTagsNormAndStatus(String tagNorm, Post.PostStatus status, Pageable pageable);
 
     /**
      * Finds posts belonging to a specific category and matching a status.
@@ -99,31 +102,46 @@ public interface PostRepository extends MongoRepository<Post, String> {
             String entityType, String entityId, Pageable pageable);
 
     /**
-     * For full-text search on title and content (especially i18n fields).
-     * Requires a text index in MongoDB on relevant fields (e.g., 'title.en', 'contentBody.en').
-     * Example: db.posts.createIndex({"title.en": "text", "contentBody.en": "text", "title.fa": "text", "contentBody.fa": "text"}, {name: "post_text_search_index"})
+     * Tells whether a post exists with the given status and visibility, without reading the post.
      *
-     * @param searchTerm The term to search for.
-     * @param status     The status of the posts to search within.
-     * @param visibility The visibility of the posts to search within.
-     * @param pageable   Pagination information.
-     * @return A page of posts matching the text search, status, and visibility.
+     * @param postId     The post ID.
+     * @param status     The post status.
+     * @param visibility The post visibility.
+     * @return Whether such a post exists.
      */
-    @Query("{ '$and': [ { '$text': { '$search': ?0 } }, { 'status': ?1 }, { 'visibility': ?2 } ] }")
-    Page<Post> searchByTextAndStatusAndVisibility(String searchTerm, Post.PostStatus status, Post.PostVisibility visibility, Pageable pageable);
+    boolean existsByPostIdAndStatusAndVisibility(String postId, Post.PostStatus status, Post.PostVisibility visibility);
 
-    /**
-     * Finds posts by title (case-insensitive, specific language) and status and visibility.
-     * This is an example if you don't use full-text search and want to query a specific language field.
-     * You would need one such method per language field you want to search if not using text index.
-     *
-     * @param titleQuery The query string for the title (e.g., English title).
-     * @param status     The status of the posts.
-     * @param visibility The visibility of the posts.
-     * @param pageable   Pagination information.
-     * @return A page of posts.
-     */
-    @Query("{ 'title.en': { $regex: ?0, $options: 'i' }, 'status': ?1, 'visibility': ?2 }") // Example for English title
-    Page<Post> findByTitleEnContainingIgnoreCaseAndStatusAndVisibility(String titleQuery, Post.PostStatus status, Post.PostVisibility visibility, Pageable pageable);
-    // You might create similar methods for other languages or combine them in the service if needed.
-}
\ No newline at end of file
+    // --- Slice variants: fetch one extra document instead of running a count ---
+
+    Slice<Post> findSliceByPostTypeAndStatus(String postType, Post.PostStatus status, Pageable pageable);
+
+    Slice<Post> findSliceByStatusAndVisibility(Post.PostStatus status, Post.PostVisibility visibility, Pageable pageable);
+
+    Slice<Post> findSliceByTagsNormAndStatus(String tagNorm, Post.PostStatus status, Pageable pageable);
+
+    Slice<Post> findSliceByCategoryIdsContainingAndStatus(String categoryId, Post.PostStatus status, Pageable pageable);
+
+    // --- Summary variants: fetch only the fields of a post card (see PostSummary); cards only list public posts ---
+
+    Page<PostSummary> findSummariesByPostTypeAndStatusAndVisibility(String postType, Post.PostStatus status, Post.PostVisibility visibility, Pageable pageable);
+
+    Slice<PostSummary> findSummarySliceByPostTypeAndStatusAndVisibility(String postType, Post.PostStatus status, Post.PostVisibility visibility, Pageable pageable);
+
+    Page<PostSummary> findSummariesByStatusAndVisibility(Post.PostStatus status, Post.PostVisibility visibility, Pageable pageable);
+
+    Slice<PostSummary> findSummarySliceByStatusAndVisibility(Post.PostStatus status, Post.PostVisibility visibility, Pageable pageable);
+
+    Page<PostSummary> findSummariesByTagsNormAndStatusAndVisibility(String tagNorm, Post.PostStatus status, Post.PostVisibility visibility, Pageable pageable);
+
+    Slice<PostSummary> findSummarySliceByTagsNormAndStatusAndVisibility(String tagNorm, Post.PostStatus status, Post.PostVisibility visibility, Pageable pageable);
+
+    Page<PostSummary> findSummariesByCategoryIdsContainingAndStatusAndVisibility(String categoryId, Post.PostStatus status, Post.PostVisibility visibility, Pageable pageable);
+
+    Slice<PostSummary> findSummarySliceByCategoryIdsContainingAndStatusAndVisibility(String categoryId, Post.PostStatus status, Post.PostVisibility visibility, Pageable pageable);
+
+    Page<PostSummary> findSummariesByAuthorInfo_AuthorTypeAndAuthorInfo_AuthorIdAndStatusAndVisibility(
+            Post.AuthorType authorType, String authorId, Post.PostStatus status, Post.PostVisibility visibility, Pageable pageable);
+
+    Slice<PostSummary> findSummarySliceByAuthorInfo_AuthorTypeAndAuthorInfo_AuthorIdAndStatusAndVisibility(
+            Post.AuthorType authorType, String authorId, Post.PostStatus status, Post.PostVisibility visibility, Pageable pageable);
+}
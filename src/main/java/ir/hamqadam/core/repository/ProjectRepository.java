@@ -3,6 +3,7 @@ package ir.hamqadam.core.repository;
 import ir.hamqadam.core.model.Project;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -83,4 +84,12 @@ public interface ProjectRepository extends MongoRepository<Project, String> {
      * @return A page of projects where the user is an individual contributor.
      */
     Page<Project> findByIndividualContributors_UserId(String userId, Pageable pageable);
-}
\ No newline at end of file
+
+    // --- Slice variants: fetch one extra document instead of running a count ---
+
+    Slice<Project> findSliceByVisibility(Project.ProjectVisibility visibility, Pageable pageable);
+
+    Slice<Project> findSliceByManagingTeamIdsContaining(String teamId, Pageable pageable);
+
+    Slice<Project> findSliceByContributingTeams_TeamId(String teamId, Pageable pageable);
+}
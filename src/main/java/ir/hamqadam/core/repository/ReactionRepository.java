@@ -0,0 +1,22 @@
+package ir.hamqadam.core.repository;
+
+import ir.hamqadam.core.model.Reaction;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ReactionRepository extends MongoRepository<Reaction, String> {
+
+    /**
+     * Finds a user's reaction to a target entity.
+     *
+     * @param targetEntityType The type of the entity ("Post" or "Comment").
+     * @param targetEntityId   The ID of the entity.
+     * @param userId           The ID of the user.
+     * @return The reaction, if the user has reacted.
+     */
+    Optional<Reaction> findByTargetEntityTypeAndTargetEntityIdAndUserId(
+            String targetEntityType, String targetEntityId, String userId);
+}
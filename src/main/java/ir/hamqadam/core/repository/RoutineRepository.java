@@ -3,6 +3,7 @@ package ir.hamqadam.core.repository;
 import ir.hamqadam.core.model.Routine;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
 // Import @Query if needed for more complex queries
 // import org.springframework.data.mongodb.repository.Query;
@@ -102,4 +103,14 @@ public interface RoutineRepository extends MongoRepository<Routine, String> {
      */
     Page<Routine> findByNextOccurrenceDatetimeBetweenAndStatus(
             LocalDateTime startTime, LocalDateTime endTime, Routine.RoutineStatus status, Pageable pageable);
-}
\ No newline at end of file
+
+    // --- Slice variants: fetch one extra document instead of running a count ---
+
+    Slice<Routine> findSliceByLinkedProjectId(String projectId, Pageable pageable);
+
+    Slice<Routine> findSliceByParticipants_ParticipantIdAndParticipants_ParticipantType(
+            String participantId, Routine.ParticipantType participantType, Pageable pageable);
+
+    Slice<Routine> findSliceByNextOccurrenceDatetimeBetweenAndStatus(
+            LocalDateTime startDateTime, LocalDateTime endDateTime, Routine.RoutineStatus status, Pageable pageable);
+}
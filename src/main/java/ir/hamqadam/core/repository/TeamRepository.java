@@ -1,12 +1,15 @@
 package ir.hamqadam.core.repository;
 
 import ir.hamqadam.core.model.Team;
+import ir.hamqadam.core.repository.projection.TeamVersion;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.repository.ExistsQuery;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
@@ -56,6 +59,32 @@ public interface TeamRepository extends MongoRepository<Team, String> {
      */
     Page<Team> findByMembers_UserId(String userId, Pageable pageable);
 
+    /**
+     * Checks in a single query whether a user has the given membership status in at least one of the teams,
+     * matching the embedded 'members' array server-side instead of loading each team.
+     *
+     * @param teamIds The IDs of the teams to check.
+     * @param userId  The ID of the user.
+     * @param status  The required membership status.
+     * @return True if such a membership exists in any of the teams.
+     */
+    @ExistsQuery("{ '_id': { '$in': ?0 }, 'members': { '$elemMatch': { 'user_id': ?1, 'status_in_team': ?2 } } }")
+    boolean existsMemberInAnyTeam(Collection<String> teamIds, String userId, Team.MemberStatus status);
+
+    /**
+     * Like {@link #existsMemberInAnyTeam(Collection, String, Team.MemberStatus)}, additionally requiring
+     * the membership to hold one of the given team roles.
+     *
+     * @param teamIds The IDs of the teams to check.
+     * @param userId  The ID of the user.
+     * @param status  The required membership status.
+     * @param roles   The team roles, any of which qualifies (e.g., "ADMIN").
+     * @return True if such a membership exists in any of the teams.
+     */
+    @ExistsQuery("{ '_id': { '$in': ?0 }, 'members': { '$elemMatch': { 'user_id': ?1, 'status_in_team': ?2, 'roles': { '$in': ?3 } } } }")
+    boolean existsMemberWithAnyRoleInAnyTeam(Collection<String> teamIds, String userId, Team.MemberStatus status,
+                                             Collection<String> roles);
+
     /**
      * Finds teams whose name (in any language) contains the given search term, ignoring case.
      * Similar to UserRepository, searching i18n map values directly with derived queries is complex.
@@ -66,4 +95,18 @@ public interface TeamRepository extends MongoRepository<Team, String> {
      * @return A page of teams matching the name query.
      */
     // Page<Team> findByTeamNameContainingIgnoreCase(String nameQuery, Pageable pageable); // Placeholder
-}
\ No newline at end of file
+
+    /**
+     * Reads only the ID and last modification time of a team.
+     *
+     * @param teamId The ID of the team.
+     * @return The team's version, or an empty Optional if the team does not exist.
+     */
+    Optional<TeamVersion> findVersionByTeamId(String teamId);
+
+    // --- Slice variants: fetch one extra document instead of running a count ---
+
+    Slice<Team> findSliceByVisibility(Team.TeamVisibility visibility, Pageable pageable);
+
+    Slice<Team> findSliceByMembers_UserId(String userId, Pageable pageable);
+}
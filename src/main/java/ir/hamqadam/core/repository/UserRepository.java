@@ -1,13 +1,18 @@
 package ir.hamqadam.core.repository;
 
 import ir.hamqadam.core.model.User;
+import ir.hamqadam.core.repository.projection.UserCredentials;
+import ir.hamqadam.core.repository.projection.UserSummary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,6 +36,25 @@ public interface UserRepository extends MongoRepository<User, String> {
     @Query("{ '$or': [ { 'email': ?0 }, { 'telegramId': ?0 } ] }")
     Optional<User> findByEmailOrTelegramId(@Param("value") String telegramIdOrEmail);
 
+    /**
+     * Finds the credentials of a user by email address or Telegram ID, reading only the fields
+     * authentication needs instead of the whole profile.
+     *
+     * @param telegramIdOrEmail The email address or telegramId to search for.
+     * @return An Optional containing the credentials if found, or an empty Optional otherwise.
+     */
+    @Query(value = "{ '$or': [ { 'email': ?0 }, { 'telegramId': ?0 } ] }",
+            fields = "{ 'email': 1, 'telegramId': 1, 'passwordHash': 1, 'accountStatus': 1, 'fullName': 1 }")
+    Optional<UserCredentials> findCredentialsByEmailOrTelegramId(String telegramIdOrEmail);
+
+    /**
+     * Finds the summaries of several users with a single query.
+     *
+     * @param userIds The IDs of the users.
+     * @return The summaries found, in no particular order; unknown IDs are skipped.
+     */
+    List<UserSummary> findSummariesByUserIdIn(Collection<String> userIds);
+
     /**
      * Finds a user by their Telegram ID.
      *
@@ -80,6 +104,17 @@ public interface UserRepository extends MongoRepository<User, String> {
      */
     Page<User> findByAccountStatus(User.AccountStatus accountStatus, Pageable pageable);
 
+    /**
+     * Finds users in any of the given account statuses that were updated after the given time.
+     * Only the ID and update time are loaded; used to rebuild token revocation epochs.
+     *
+     * @param accountStatuses The account statuses to match.
+     * @param updatedAfter    Lower bound (exclusive) for the user's last update time.
+     * @return Users with only {@code userId} and {@code updatedAt} populated.
+     */
+    @Query(value = "{ 'accountStatus': { '$in': ?0 }, 'updatedAt': { '$gt': ?1 } }", fields = "{ 'updatedAt': 1 }")
+    List<User> findRevocationCandidates(Collection<User.AccountStatus> accountStatuses, LocalDateTime updatedAfter);
+
     /**
      * Finds users by a skill.
      * As skills is a list, this will find users where the skills list contains the given skill.
@@ -88,4 +123,13 @@ public interface UserRepository extends MongoRepository<User, String> {
      * @return A page of users having the specified skill.
      */
     Page<User> findBySkillsContainingIgnoreCase(String skill, Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * Lists all users without counting them.
+     *
+     * @param pageable Pagination information.
+     * @return A slice of users.
+     */
+    @Query("{}")
+    Slice<User> findAllSlice(Pageable pageable);
+}
@@ -0,0 +1,49 @@
+package ir.hamqadam.core.repository.projection;
+
+import ir.hamqadam.core.model.Post;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Closed projection of {@link Post} with what a post card shows.
+ * <p>
+ * Repository methods returning it ask MongoDB for these fields only, so list pages skip
+ * {@code content_body} (every language of the full text), {@code media_attachments} and the other
+ * detail-only fields, both on the wire from MongoDB and in the response.
+ */
+public interface PostSummary {
+
+    String getPostId();
+
+    String getPostType();
+
+    Map<String, String> getTitle();
+
+    Map<String, String> getExcerpt();
+
+    Post.AuthorInfo getAuthorInfo();
+
+    Post.PostStatus getStatus();
+
+    String getFeaturedImageUrl();
+
+    List<String> getTags();
+
+    String getLanguage();
+
+    long getCommentCount();
+
+    long getViewCount();
+
+    long getLikeCount();
+
+    Map<String, Long> getReactionCounts();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    LocalDateTime getPublishedAt();
+}
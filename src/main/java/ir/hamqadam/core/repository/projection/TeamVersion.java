@@ -0,0 +1,18 @@
+package ir.hamqadam.core.repository.projection;
+
+import ir.hamqadam.core.model.Team;
+
+import java.time.LocalDateTime;
+
+/**
+ * Closed projection of {@link Team} with only its ID and last modification time.
+ * <p>
+ * Tells whether something compiled from a team, such as its members' permissions, is still current
+ * without reading the members, roles and descriptions of the team.
+ */
+public interface TeamVersion {
+
+    String getTeamId();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,24 @@
+package ir.hamqadam.core.repository.projection;
+
+import ir.hamqadam.core.model.User;
+
+import java.util.Map;
+
+/**
+ * Projection of {@link User} with what authentication and identity resolution need: the login names,
+ * password hash, account status and display name.
+ */
+public interface UserCredentials {
+
+    String getUserId();
+
+    String getEmail();
+
+    String getTelegramId();
+
+    String getPasswordHash();
+
+    User.AccountStatus getAccountStatus();
+
+    Map<String, String> getFullName(); // i18n
+}
@@ -0,0 +1,35 @@
+package ir.hamqadam.core.repository.projection;
+
+import ir.hamqadam.core.model.User;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Closed projection of {@link User} with what an author card, member list or participant list shows.
+ * <p>
+ * Repository methods returning it read only these fields, leaving out the bio, resume, memberships,
+ * contributions, authored post IDs and settings that make up most of a user document.
+ */
+public interface UserSummary {
+
+    String getUserId();
+
+    Map<String, String> getFullName(); // i18n
+
+    List<User.ProfilePicture> getProfilePictures();
+
+    User.AccountStatus getAccountStatus();
+
+    /**
+     * @return The URL of the current profile picture, or {@code null} if there is none.
+     */
+    default String getCurrentProfilePictureUrl() {
+        List<User.ProfilePicture> pictures = getProfilePictures();
+        return pictures == null ? null : pictures.stream()
+                .filter(User.ProfilePicture::isCurrent)
+                .findFirst()
+                .map(User.ProfilePicture::getUrl)
+                .orElse(null);
+    }
+}
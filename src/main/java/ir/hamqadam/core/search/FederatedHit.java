@@ -0,0 +1,22 @@
+package ir.hamqadam.core.search;
+
+import java.util.Map;
+
+/**
+ * One result of a search across posts, teams, projects and users.
+ *
+ * @param source     Which kind of entity this is.
+ * @param id         The ID of the entity.
+ * @param score      The relevance of the entity on a 0..1 scale, so that sources can be ranked together.
+ * @param title      The i18n title of a post or name of a team, project or user.
+ * @param handle     The handle of a team or project; {@code null} otherwise.
+ * @param pictureUrl The current profile picture of a team or user, if any.
+ * @param snippet    Where the query matched; {@code null} if there is nothing to show.
+ */
+public record FederatedHit(Source source, String id, float score, Map<String, String> title, String handle,
+                           String pictureUrl, Snippet snippet) {
+
+    public enum Source {
+        POSTS, TEAMS, PROJECTS, USERS
+    }
+}
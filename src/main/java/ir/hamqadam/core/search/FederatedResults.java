@@ -0,0 +1,16 @@
+package ir.hamqadam.core.search;
+
+import java.util.List;
+
+/**
+ * The merged results of a search across sources.
+ *
+ * @param hits              The best hits of all sources that answered, best first.
+ * @param incompleteSources The sources that missed the deadline or failed, whose hits are missing.
+ */
+public record FederatedResults(List<FederatedHit> hits, List<FederatedHit.Source> incompleteSources) {
+
+    public boolean isPartial() {
+        return !incompleteSources.isEmpty();
+    }
+}
@@ -0,0 +1,371 @@
+package ir.hamqadam.core.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.IntPredicate;
+
+/**
+ * In-memory inverted index ranking documents with BM25.
+ * <p>
+ * Every document gets an internal number in insertion order, so each term's postings list (document
+ * numbers with the term's frequency) stays sorted by appending. A document also carries an {@code int}
+ * of attributes, such as status and visibility, that searches filter on while walking the postings,
+ * and a fingerprint of its text, so that a change to its attributes alone is applied in place.
+ * <p>
+ * Changing or removing a document only marks its old number deleted; its postings are dropped by
+ * {@link #compact()}. Until then they still count towards term statistics, as in Lucene.
+ * <p>
+ * Searches walk the postings document at a time with MaxScore pruning: once the top {@code k} are
+ * known, terms whose combined best possible score cannot lift a document into them are no longer
+ * walked, only probed for documents found through the other terms. The common terms of a query are
+ * the ones skipped, so a query costs about as much as its rarest terms, not as the corpus size.
+ * <p>
+ * Not thread-safe: searches may run concurrently with each other, but not with changes.
+ */
+public final class InvertedIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+
+    private final Map<String, Postings> postingsByTerm = new HashMap<>();
+    private final Map<String, Integer> docsByKey = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private String[] keys = new String[1024];
+    private int[] lengths = new int[1024];
+    private int[] attributes = new int[1024];
+    private int[] fingerprints = new int[1024];
+    private int docCount; // Numbers handed out, deleted documents included
+    private int liveCount;
+    private long liveLength;
+
+    /**
+     * @return The number of documents in the index.
+     */
+    public int size() {
+        return liveCount;
+    }
+
+    /**
+     * @return The number of distinct terms, including terms only deleted documents still hold.
+     */
+    public int termCount() {
+        return postingsByTerm.size();
+    }
+
+    /**
+     * @return The share of document numbers that belong to changed or removed documents.
+     */
+    public double deletedRatio() {
+        return docCount == 0 ? 0 : (double) (docCount - liveCount) / docCount;
+    }
+
+    public boolean contains(String key) {
+        return docsByKey.containsKey(key);
+    }
+
+    /**
+     * Replaces the attributes of a document whose text has not changed.
+     *
+     * @param key         The document key.
+     * @param fingerprint The fingerprint of the document's current text.
+     * @param attributes  The new attributes.
+     * @return {@code false} if the document is not indexed or its text changed; it must then be {@link #add added}.
+     */
+    public boolean updateAttributes(String key, int fingerprint, int attributes) {
+        Integer doc = docsByKey.get(key);
+        if (doc == null || fingerprints[doc] != fingerprint) {
+            return false;
+        }
+        this.attributes[doc] = attributes;
+        return true;
+    }
+
+    /**
+     * Indexes a document, replacing any earlier version with the same key.
+     *
+     * @param key             The document key.
+     * @param fingerprint     A fingerprint of the indexed text, see {@link #updateAttributes}.
+     * @param attributes      The attributes searches filter on.
+     * @param termFrequencies The (possibly weighted) frequency of each term; their sum is the document length.
+     */
+    public void add(String key, int fingerprint, int attributes, Map<String, Integer> termFrequencies) {
+        remove(key);
+        int doc = docCount++;
+        ensureCapacity(docCount);
+        int length = 0;
+        for (Map.Entry<String, Integer> term : termFrequencies.entrySet()) {
+            postingsByTerm.computeIfAbsent(term.getKey(), t -> new Postings()).add(doc, term.getValue());
+            length += term.getValue();
+        }
+        keys[doc] = key;
+        lengths[doc] = length;
+        this.attributes[doc] = attributes;
+        fingerprints[doc] = fingerprint;
+        live.set(doc);
+        docsByKey.put(key, doc);
+        liveCount++;
+        liveLength += length;
+    }
+
+    /**
+     * @param key The document key.
+     * @return {@code true} if the document was indexed.
+     */
+    public boolean remove(String key) {
+        Integer doc = docsByKey.remove(key);
+        if (doc == null) {
+            return false;
+        }
+        live.clear(doc);
+        keys[doc] = null;
+        liveCount--;
+        liveLength -= lengths[doc];
+        return true;
+    }
+
+    /**
+     * Drops the postings of changed and removed documents and renumbers the rest, keeping their order.
+     */
+    public void compact() {
+        if (liveCount == docCount) {
+            return;
+        }
+        int[] renumbered = new int[docCount];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (live.get(doc)) {
+                // New numbers never exceed old ones, so the arrays can be shifted in place
+                keys[next] = keys[doc];
+                lengths[next] = lengths[doc];
+                attributes[next] = attributes[doc];
+                fingerprints[next] = fingerprints[doc];
+                renumbered[doc] = next++;
+            } else {
+                renumbered[doc] = -1;
+            }
+        }
+        Arrays.fill(keys, next, docCount, null);
+        postingsByTerm.values().removeIf(postings -> postings.retain(renumbered) == 0);
+        docsByKey.replaceAll((key, doc) -> renumbered[doc]);
+        live.clear();
+        live.set(0, next);
+        docCount = next;
+    }
+
+    /**
+     * Finds the {@code k} best matches of any of the terms.
+     *
+     * @param terms        The query terms; duplicates are ignored.
+     * @param filter       Tested against the attributes of every candidate; only passing documents match.
+     * @param k            The number of hits wanted.
+     * @param countMatches Whether to count all matches, which disables pruning.
+     * @return The hits, best first; equal scores rank the more recently indexed document first.
+     */
+    public SearchHits search(Collection<String> terms, IntPredicate filter, int k, boolean countMatches) {
+        List<Cursor> cursors = new ArrayList<>();
+        for (String term : new LinkedHashSet<>(terms)) {
+            Postings postings = postingsByTerm.get(term);
+            if (postings != null) {
+                cursors.add(new Cursor(postings, idf(postings.size)));
+            }
+        }
+        if (k <= 0 || cursors.isEmpty()) {
+            return new SearchHits(List.of(), countMatches ? 0 : SearchHits.NOT_COUNTED, 0);
+        }
+        cursors.sort(Comparator.comparingDouble(cursor -> cursor.maxScore));
+        int n = cursors.size();
+        Cursor[] ordered = cursors.toArray(new Cursor[0]);
+        float[] maxScoreUpTo = new float[n]; // Best possible score from terms 0..i together
+        float sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += ordered[i].maxScore;
+            maxScoreUpTo[i] = sum;
+        }
+        float averageLength = liveLength > 0 ? (float) liveLength / liveCount : 1;
+        float[] contributions = new float[n];
+        PriorityQueue<ScoredDoc> top = new PriorityQueue<>(k + 1, ScoredDoc.WORST_FIRST);
+        float threshold = -1; // Score of the k-th hit once there are k
+        int firstEssential = 0; // Terms below this one can no longer make a hit on their own
+        long matches = 0;
+
+        while (true) {
+            int doc = NO_MORE_DOCS;
+            for (int i = firstEssential; i < n; i++) {
+                doc = Math.min(doc, ordered[i].doc());
+            }
+            if (doc == NO_MORE_DOCS) {
+                break;
+            }
+            boolean candidate = live.get(doc) && filter.test(attributes[doc]);
+            float norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+            Arrays.fill(contributions, 0);
+            float score = 0;
+            for (int i = firstEssential; i < n; i++) {
+                Cursor cursor = ordered[i];
+                if (cursor.doc() == doc) {
+                    if (candidate) {
+                        contributions[i] = cursor.score(norm);
+                        score += contributions[i];
+                    }
+                    cursor.next();
+                }
+            }
+            if (!candidate) {
+                continue;
+            }
+            boolean pruned = false;
+            for (int i = firstEssential - 1; i >= 0; i--) {
+                if (score + maxScoreUpTo[i] < threshold) {
+                    pruned = true;
+                    break;
+                }
+                Cursor cursor = ordered[i];
+                cursor.advance(doc);
+                if (cursor.doc() == doc) {
+                    contributions[i] = cursor.score(norm);
+                    score += contributions[i];
+                }
+            }
+            matches++;
+            if (pruned) {
+                continue;
+            }
+            score = 0;
+            for (int i = 0; i < n; i++) {
+                score += contributions[i]; // Same order for every document, so equal matches score exactly equal
+            }
+            if (top.size() < k) {
+                top.add(new ScoredDoc(doc, score));
+            } else if (score >= top.peek().score) { // Ties go to the later document
+                top.poll();
+                top.add(new ScoredDoc(doc, score));
+            } else {
+                continue;
+            }
+            if (top.size() == k) {
+                threshold = top.peek().score;
+                while (!countMatches && firstEssential < n && maxScoreUpTo[firstEssential] < threshold) {
+                    firstEssential++;
+                }
+            }
+        }
+
+        SearchHit[] hits = new SearchHit[top.size()];
+        for (int i = hits.length - 1; i >= 0; i--) {
+            ScoredDoc scored = top.poll();
+            hits[i] = new SearchHit(keys[scored.doc], scored.score);
+        }
+        return new SearchHits(List.of(hits), countMatches ? matches : SearchHits.NOT_COUNTED, maxScoreUpTo[n - 1]);
+    }
+
+    private float idf(int documentFrequency) {
+        return (float) Math.log(1 + (docCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > keys.length) {
+            int grown = Math.max(capacity, keys.length + (keys.length >> 1));
+            keys = Arrays.copyOf(keys, grown);
+            lengths = Arrays.copyOf(lengths, grown);
+            attributes = Arrays.copyOf(attributes, grown);
+            fingerprints = Arrays.copyOf(fingerprints, grown);
+        }
+    }
+
+    private static final class Postings {
+
+        int[] docs = new int[4];
+        short[] frequencies = new short[4]; // Saturated at Short.MAX_VALUE; BM25 flattens out long before
+        int size;
+
+        void add(int doc, int frequency) {
+            if (size == docs.length) {
+                int grown = size + (size >> 1) + 1;
+                docs = Arrays.copyOf(docs, grown);
+                frequencies = Arrays.copyOf(frequencies, grown);
+            }
+            docs[size] = doc;
+            frequencies[size] = (short) Math.min(frequency, Short.MAX_VALUE);
+            size++;
+        }
+
+        int retain(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = renumbered[docs[i]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+
+    private static final class Cursor {
+
+        final int[] docs;
+        final short[] frequencies;
+        final int size;
+        final float idf;
+        final float maxScore;
+        int position;
+
+        Cursor(Postings postings, float idf) {
+            this.docs = postings.docs;
+            this.frequencies = postings.frequencies;
+            this.size = postings.size;
+            this.idf = idf;
+            this.maxScore = idf * (K1 + 1); // tf / (tf + norm) stays below 1
+        }
+
+        int doc() {
+            return position < size ? docs[position] : NO_MORE_DOCS;
+        }
+
+        void next() {
+            position++;
+        }
+
+        float score(float norm) {
+            float frequency = frequencies[position];
+            return idf * frequency * (K1 + 1) / (frequency + norm);
+        }
+
+        /**
+         * Moves to the first document at or after {@code target}, galloping then bisecting.
+         */
+        void advance(int target) {
+            if (position >= size || docs[position] >= target) {
+                return;
+            }
+            int low = position;
+            int step = 1;
+            int high = position + 1;
+            while (high < size && docs[high] < target) {
+                low = high;
+                step <<= 1;
+                high = low + step;
+            }
+            int found = Arrays.binarySearch(docs, low + 1, Math.min(high, size), target);
+            position = found >= 0 ? found : -found - 1;
+        }
+    }
+
+    private record ScoredDoc(int doc, float score) {
+
+        static final Comparator<ScoredDoc> WORST_FIRST =
+                Comparator.comparingDouble(ScoredDoc::score).thenComparingInt(ScoredDoc::doc);
+    }
+}
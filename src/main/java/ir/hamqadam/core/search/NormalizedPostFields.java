@@ -0,0 +1,96 @@
+package ir.hamqadam.core.search;
+
+import ir.hamqadam.core.model.Post;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Maintains the normalized shadow field of posts, {@code tags_norm}, which tag lookups query through
+ * its index instead of running case-insensitive regexes. Title search goes through {@link PostSearchIndex}.
+ * <p>
+ * The field is derived from {@code tags} with {@link TextAnalyzer#normalize} whenever a post is saved.
+ * Posts stored before the field existed are filled in by a background backfill at startup,
+ * {@code hamqadam.search.normalized-fields.batch-size} posts per bulk write.
+ */
+@Component
+public class NormalizedPostFields extends AbstractMongoEventListener<Post> {
+
+    private static final Logger logger = LoggerFactory.getLogger(NormalizedPostFields.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final int batchSize;
+
+    @Autowired
+    public NormalizedPostFields(MongoTemplate mongoTemplate,
+                                @Value("${hamqadam.search.normalized-fields.batch-size:500}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<Post> event) {
+        Post post = event.getSource();
+        post.setTagsNorm(tagsNorm(post));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        Thread backfill = new Thread(this::backfill, "post-normalized-fields-backfill");
+        backfill.setDaemon(true);
+        backfill.start();
+    }
+
+    /**
+     * Fills in the normalized field of every post that lacks it.
+     *
+     * @return The number of posts updated.
+     */
+    public int backfill() {
+        Query query = new Query(Criteria.where("tagsNorm").exists(false));
+        query.fields().include("tags");
+        int updated = 0;
+        try (Stream<Post> posts = mongoTemplate.stream(query, Post.class)) {
+            Iterator<Post> iterator = posts.iterator();
+            while (iterator.hasNext()) {
+                List<Post> batch = new ArrayList<>(batchSize);
+                while (iterator.hasNext() && batch.size() < batchSize) {
+                    batch.add(iterator.next());
+                }
+                BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class);
+                for (Post post : batch) {
+                    bulk.updateOne(new Query(Criteria.where("postId").is(post.getPostId())),
+                            new Update().set("tagsNorm", tagsNorm(post)));
+                }
+                updated += bulk.execute().getModifiedCount();
+            }
+        } catch (RuntimeException e) {
+            logger.error("Backfilling normalized post fields stopped after {} posts", updated, e);
+            return updated;
+        }
+        if (updated > 0) {
+            logger.info("Backfilled normalized tags of {} posts", updated);
+        }
+        return updated;
+    }
+
+    private static List<String> tagsNorm(Post post) {
+        return post.getTags() == null ? List.of() : TextAnalyzer.normalizeAll(post.getTags());
+    }
+}
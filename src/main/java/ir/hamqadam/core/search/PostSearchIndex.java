@@ -0,0 +1,313 @@
+package ir.hamqadam.core.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ir.hamqadam.core.exception.BadRequestException;
+import ir.hamqadam.core.model.Post;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Full-text search over posts: an {@link InvertedIndex} of the {@code title}, {@code excerpt},
+ * {@code contentBody} and {@code tags} of every post, all language keys together, ranked with BM25.
+ * Title and tag matches weigh the most, then the excerpt, then the body. Text is split into words with
+ * {@link TextAnalyzer#STEMMING}, so Persian spelling variants and plural forms match each other.
+ * <p>
+ * All posts are indexed with their status and visibility as attributes, so a search for published
+ * public posts filters inside the index and a status change only updates the attributes.
+ * <p>
+ * The index is built in the background at startup by streaming the indexed fields of all posts, and
+ * kept current from the Mongo mapping events of posts saved or deleted on this instance. Posts saved
+ * by other instances are picked up every {@code hamqadam.search.posts.refresh-interval-ms} by their
+ * {@code updatedAt}. Until the first build completes, searches only see posts saved since startup.
+ */
+@Component
+public class PostSearchIndex extends AbstractMongoEventListener<Post> {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostSearchIndex.class);
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int TAG_WEIGHT = 3;
+    private static final int EXCERPT_WEIGHT = 2;
+    private static final int BODY_WEIGHT = 1;
+    private static final int MIN_DOCUMENTS_TO_COMPACT = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final int maxResultWindow;
+    private final double compactDeletedRatio;
+    private final Timer queryTimer;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private InvertedIndex index = new InvertedIndex(); // Guarded by lock
+    private Map<String, Post> changedDuringRebuild; // Guarded by lock; a null value records a deletion
+    private volatile LocalDateTime lastRefresh;
+
+    @Autowired
+    public PostSearchIndex(MongoTemplate mongoTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${hamqadam.search.posts.enabled:true}") boolean enabled,
+                           @Value("${hamqadam.search.posts.max-result-window:1000}") int maxResultWindow,
+                           @Value("${hamqadam.search.posts.compact-deleted-ratio:0.25}") double compactDeletedRatio) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.maxResultWindow = maxResultWindow;
+        this.compactDeletedRatio = compactDeletedRatio;
+        this.queryTimer = Timer.builder("hamqadam.search.posts.query")
+                .description("Time spent ranking post search hits in the index")
+                .register(meterRegistry);
+        Gauge.builder("hamqadam.search.posts.documents", this, PostSearchIndex::size)
+                .description("Posts in the search index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        Thread builder = new Thread(this::rebuild, "post-search-index-build");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * Re-indexes posts changed since the last refresh, possibly on another instance.
+     */
+    @Scheduled(fixedDelayString = "${hamqadam.search.posts.refresh-interval-ms:30000}",
+            initialDelayString = "${hamqadam.search.posts.refresh-interval-ms:30000}")
+    public void refreshChanges() {
+        LocalDateTime since = lastRefresh;
+        if (!enabled || since == null) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        // Overlap a little so updates committed while the previous refresh ran are not missed
+        Query query = indexedFields(new Query(Criteria.where("updatedAt").gte(since.minusSeconds(5))));
+        try (Stream<Post> posts = mongoTemplate.stream(query, Post.class)) {
+            posts.forEach(this::index);
+        }
+        lastRefresh = startedAt;
+    }
+
+    /**
+     * Builds a new index from a streaming scan of all posts and swaps it in. Changes made on this instance
+     * while the scan runs are applied to the new index before the swap.
+     */
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        LocalDateTime startedAt = LocalDateTime.now();
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        InvertedIndex rebuilt = new InvertedIndex();
+        try (Stream<Post> posts = mongoTemplate.stream(indexedFields(new Query()), Post.class)) {
+            posts.forEach(post -> add(rebuilt, post));
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.error("Building the post search index failed; searches only see posts saved since", e);
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild.forEach((postId, post) -> {
+                if (post == null) {
+                    rebuilt.remove(postId);
+                } else {
+                    add(rebuilt, post);
+                }
+            });
+            changedDuringRebuild = null;
+            rebuilt.compact();
+            index = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        lastRefresh = startedAt;
+        logger.info("Indexed {} posts ({} terms) for search in {} ms", rebuilt.size(), rebuilt.termCount(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Adds or updates a post in the index.
+     *
+     * @param post The current state of the post.
+     */
+    public void index(Post post) {
+        if (!enabled || post == null || post.getPostId() == null) {
+            return;
+        }
+        int fingerprint = fingerprintOf(post);
+        int attributes = attributesOf(post.getStatus(), post.getVisibility());
+        lock.writeLock().lock();
+        try {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(post.getPostId(), post);
+            }
+            if (index.updateAttributes(post.getPostId(), fingerprint, attributes)) {
+                return;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Map<String, Integer> terms = termsOf(post); // Tokenized outside the lock
+        lock.writeLock().lock();
+        try {
+            index.add(post.getPostId(), fingerprint, attributes, terms);
+            if (index.size() >= MIN_DOCUMENTS_TO_COMPACT && index.deletedRatio() > compactDeletedRatio) {
+                index.compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String postId) {
+        lock.writeLock().lock();
+        try {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(postId, null);
+            }
+            index.remove(postId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks the posts with the given status and visibility that match any word of the query.
+     *
+     * @param query        The search text.
+     * @param status       The status of the posts to search.
+     * @param visibility   The visibility of the posts to search.
+     * @param offset       The number of leading hits to skip.
+     * @param limit        The number of hits wanted after the offset.
+     * @param countMatches Whether to count all matching posts, which rules out skipping the postings of common words.
+     * @return The hits, best first, and their total if counted.
+     * @throws BadRequestException if the offset lies beyond {@code hamqadam.search.posts.max-result-window}.
+     */
+    public SearchHits search(String query, Post.PostStatus status, Post.PostVisibility visibility,
+                             int offset, int limit, boolean countMatches) {
+        if (offset >= maxResultWindow) {
+            throw new BadRequestException("Only the first " + maxResultWindow + " search results can be paged through.");
+        }
+        List<String> terms = List.copyOf(termsOf(query, 1).keySet());
+        int wanted = attributesOf(status, visibility);
+        int k = Math.min(offset + limit, maxResultWindow);
+        return queryTimer.record(() -> {
+            lock.readLock().lock();
+            try {
+                return index.search(terms, attributes -> attributes == wanted, k, countMatches).skip(offset);
+            } finally {
+                lock.readLock().unlock();
+            }
+        });
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Post> event) {
+        index(event.getSource());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Post> event) {
+        Object id = event.getDocument() != null ? event.getDocument().get("_id") : null;
+        if (id instanceof String || id instanceof ObjectId) {
+            remove(id.toString());
+        } else if (enabled) {
+            buildOnStartup(); // Deleted by a query: we cannot tell which posts went
+        }
+    }
+
+    private static Query indexedFields(Query query) {
+        query.fields().include("title", "excerpt", "contentBody", "tags", "status", "visibility");
+        return query;
+    }
+
+    private static void add(InvertedIndex index, Post post) {
+        index.add(post.getPostId(), fingerprintOf(post), attributesOf(post.getStatus(), post.getVisibility()), termsOf(post));
+    }
+
+    static int attributesOf(Post.PostStatus status, Post.PostVisibility visibility) {
+        int statusBits = status == null ? 0xFF : status.ordinal();
+        int visibilityBits = visibility == null ? 0xFF : visibility.ordinal();
+        return statusBits << 8 | visibilityBits;
+    }
+
+    private static int fingerprintOf(Post post) {
+        return Objects.hash(post.getTitle(), post.getExcerpt(), post.getContentBody(), post.getTags());
+    }
+
+    static Map<String, Integer> termsOf(Post post) {
+        Map<String, Integer> terms = new HashMap<>();
+        addTerms(post.getTitle(), TITLE_WEIGHT, terms);
+        addTerms(post.getExcerpt(), EXCERPT_WEIGHT, terms);
+        addTerms(post.getContentBody(), BODY_WEIGHT, terms);
+        if (post.getTags() != null) {
+            for (String tag : post.getTags()) {
+                addTerms(tag, TAG_WEIGHT, terms);
+            }
+        }
+        return terms;
+    }
+
+    private static void addTerms(Map<String, String> localized, int weight, Map<String, Integer> terms) {
+        if (localized != null) {
+            for (String text : localized.values()) {
+                addTerms(text, weight, terms);
+            }
+        }
+    }
+
+    private static Map<String, Integer> termsOf(String text, int weight) {
+        Map<String, Integer> terms = new HashMap<>();
+        addTerms(text, weight, terms);
+        return terms;
+    }
+
+    private static void addTerms(String text, int weight, Map<String, Integer> terms) {
+        TextAnalyzer.STEMMING.analyze(text, term -> terms.merge(term, weight, Integer::sum));
+    }
+}
@@ -0,0 +1,391 @@
+package ir.hamqadam.core.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Prefix search over short keys, such as handles and names, returning the heaviest matching entries first.
+ * <p>
+ * Each entry has an ID, a value returned by searches, a weight, and any number of keys; the caller
+ * normalizes keys and prefixes alike. An entry matches a prefix if one of its keys starts with it. Entries
+ * with a key equal to the prefix rank above all others, then entries rank by weight, then by key order.
+ * <p>
+ * Keys are held in one sorted array, so the keys starting with a prefix form a range found by two binary
+ * searches. A max-weight segment tree over the array yields the heaviest key of any sub-range, so the top
+ * {@code k} entries of a range come out in {@code O(k log n)} however many keys the prefix matches.
+ * <p>
+ * The sorted array is immutable. Changes go to a small overlay, which shadows the array by entry ID and is
+ * scanned by every search, until {@link #merge()} builds a new array from all current entries. Searches
+ * read a snapshot of both without locking; writers synchronize on the index.
+ *
+ * @param <T> The type of the values returned by searches.
+ */
+public final class PrefixIndex<T> {
+
+    /**
+     * An indexed entry.
+     *
+     * @param id     The unique ID of the entry.
+     * @param value  The value returned when the entry matches.
+     * @param weight The rank of the entry among entries matching the same prefix; higher first.
+     * @param keys   The normalized keys the entry is found by.
+     */
+    public record Entry<T>(String id, T value, int weight, List<String> keys) {
+    }
+
+    private final Map<String, Entry<T>> entries = new HashMap<>(); // Guarded by this
+    private volatile State<T> state = new State<>(Keys.of(List.of()), Map.of());
+
+    /**
+     * Replaces all entries. Changes made concurrently may be lost and should be applied again afterwards.
+     *
+     * @param all The new entries; entries without keys are skipped.
+     */
+    public void reload(Collection<Entry<T>> all) {
+        Map<String, Entry<T>> byId = new HashMap<>();
+        for (Entry<T> entry : all) {
+            if (!entry.keys().isEmpty()) {
+                byId.put(entry.id(), entry);
+            }
+        }
+        Keys<T> keys = Keys.of(byId.values()); // Sorted outside the lock
+        synchronized (this) {
+            entries.clear();
+            entries.putAll(byId);
+            state = new State<>(keys, Map.of());
+        }
+    }
+
+    /**
+     * Adds or replaces an entry. An entry without keys is removed.
+     */
+    public synchronized void put(Entry<T> entry) {
+        if (entry.keys().isEmpty()) {
+            remove(entry.id());
+            return;
+        }
+        entries.put(entry.id(), entry);
+        shadow(entry.id(), entry);
+    }
+
+    public synchronized void remove(String id) {
+        if (entries.remove(id) != null) {
+            shadow(id, null);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return The number of entries changed since the last merge.
+     */
+    public int pendingChanges() {
+        return state.overlay().size();
+    }
+
+    /**
+     * Rebuilds the sorted array from all current entries and empties the overlay. The array is built
+     * outside the lock; changes made meanwhile stay in the overlay.
+     */
+    public void merge() {
+        Map<String, Entry<T>> merged;
+        List<Entry<T>> all;
+        synchronized (this) {
+            merged = state.overlay();
+            if (merged.isEmpty()) {
+                return;
+            }
+            all = new ArrayList<>(entries.values());
+        }
+        Keys<T> keys = Keys.of(all);
+        synchronized (this) {
+            Map<String, Entry<T>> remaining = new HashMap<>();
+            state.overlay().forEach((id, entry) -> {
+                if (!merged.containsKey(id) || merged.get(id) != entry) {
+                    remaining.put(id, entry);
+                }
+            });
+            state = new State<>(keys, remaining);
+        }
+    }
+
+    /**
+     * Finds the best entries with a key starting with the prefix.
+     *
+     * @param prefix The normalized prefix; an empty prefix matches nothing.
+     * @param k      The maximum number of entries to return.
+     * @return The values of the matching entries, best first.
+     */
+    public List<T> search(String prefix, int k) {
+        if (prefix == null || prefix.isEmpty() || k <= 0) {
+            return List.of();
+        }
+        State<T> current = state;
+        Keys<T> keys = current.keys();
+        Map<String, Entry<T>> overlay = current.overlay();
+        int from = keys.lowerBound(prefix);
+        int longer = keys.lowerBound(prefix + '\u0000'); // First key longer than the prefix
+        int to = keys.lowerBound(prefix + Character.MAX_VALUE);
+
+        List<Hit<T>> hits = new ArrayList<>(k);
+        Set<String> seen = new LinkedHashSet<>();
+        keys.collect(from, longer, true, k, overlay, seen, hits);
+        keys.collect(longer, to, false, k, overlay, seen, hits);
+        for (Entry<T> entry : overlay.values()) {
+            if (entry == null) {
+                continue;
+            }
+            boolean exact = false;
+            boolean matches = false;
+            for (String key : entry.keys()) {
+                if (key.startsWith(prefix)) {
+                    matches = true;
+                    exact |= key.length() == prefix.length();
+                }
+            }
+            if (matches) {
+                hits.add(new Hit<>(entry, exact));
+            }
+        }
+        hits.sort(Hit.BEST_FIRST); // Stable: ties keep the key order of the array
+        List<T> values = new ArrayList<>(Math.min(k, hits.size()));
+        for (int i = 0; i < hits.size() && i < k; i++) {
+            values.add(hits.get(i).entry().value());
+        }
+        return values;
+    }
+
+    /**
+     * Finds the entries with a key starting with the prefix that score highest, each entry scoring as its best
+     * matching key; equal scores rank as in {@link #search(String, int)}. Unlike that method, this visits
+     * every matching key.
+     *
+     * @param prefix   The normalized prefix; an empty prefix matches nothing.
+     * @param k        The maximum number of entries to return.
+     * @param keyScore Scores a key starting with the prefix; higher first.
+     * @return The values of the matching entries, best first.
+     */
+    public List<T> search(String prefix, int k, ToDoubleFunction<String> keyScore) {
+        if (prefix == null || prefix.isEmpty() || k <= 0) {
+            return List.of();
+        }
+        State<T> current = state;
+        Keys<T> keys = current.keys();
+        Map<String, Entry<T>> overlay = current.overlay();
+        Map<String, ScoredHit<T>> hits = new LinkedHashMap<>(); // In key order, which breaks the remaining ties
+        int to = keys.lowerBound(prefix + Character.MAX_VALUE);
+        for (int i = keys.lowerBound(prefix); i < to; i++) {
+            Entry<T> entry = keys.entries.get(keys.owners[i]);
+            if (!overlay.containsKey(entry.id())) {
+                hits.merge(entry.id(), ScoredHit.of(entry, keys.keys[i], prefix, keyScore), ScoredHit::combine);
+            }
+        }
+        for (Entry<T> entry : overlay.values()) {
+            if (entry == null) {
+                continue;
+            }
+            for (String key : entry.keys()) {
+                if (key.startsWith(prefix)) {
+                    hits.merge(entry.id(), ScoredHit.of(entry, key, prefix, keyScore), ScoredHit::combine);
+                }
+            }
+        }
+        List<ScoredHit<T>> ranked = new ArrayList<>(hits.values());
+        ranked.sort(ScoredHit.BEST_FIRST);
+        List<T> values = new ArrayList<>(Math.min(k, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < k; i++) {
+            values.add(ranked.get(i).entry().value());
+        }
+        return values;
+    }
+
+    /**
+     * Counts the entries with a key starting with the prefix. Unlike {@link #search}, this visits every
+     * matching key.
+     */
+    public int count(String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return 0;
+        }
+        State<T> current = state;
+        Keys<T> keys = current.keys();
+        Map<String, Entry<T>> overlay = current.overlay();
+        BitSet owners = new BitSet();
+        int to = keys.lowerBound(prefix + Character.MAX_VALUE);
+        for (int i = keys.lowerBound(prefix); i < to; i++) {
+            if (!overlay.containsKey(keys.entries.get(keys.owners[i]).id())) {
+                owners.set(keys.owners[i]);
+            }
+        }
+        int count = owners.cardinality();
+        for (Entry<T> entry : overlay.values()) {
+            if (entry != null && entry.keys().stream().anyMatch(key -> key.startsWith(prefix))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void shadow(String id, Entry<T> entry) {
+        Map<String, Entry<T>> overlay = new HashMap<>(state.overlay()); // Copy on write; a null value removes
+        overlay.put(id, entry);
+        state = new State<>(state.keys(), overlay);
+    }
+
+    private record State<T>(Keys<T> keys, Map<String, Entry<T>> overlay) {
+    }
+
+    private record Hit<T>(Entry<T> entry, boolean exact) {
+        static final Comparator<Hit<?>> BEST_FIRST = Comparator.comparing((Hit<?> hit) -> !hit.exact())
+                .thenComparing(hit -> hit.entry().weight(), Comparator.reverseOrder());
+    }
+
+    private record ScoredHit<T>(Entry<T> entry, double score, boolean exact) {
+        static final Comparator<ScoredHit<?>> BEST_FIRST = Comparator.comparingDouble((ScoredHit<?> hit) -> -hit.score())
+                .thenComparing(hit -> !hit.exact())
+                .thenComparing(hit -> hit.entry().weight(), Comparator.reverseOrder());
+
+        static <T> ScoredHit<T> of(Entry<T> entry, String key, String prefix, ToDoubleFunction<String> keyScore) {
+            return new ScoredHit<>(entry, keyScore.applyAsDouble(key), key.length() == prefix.length());
+        }
+
+        ScoredHit<T> combine(ScoredHit<T> other) {
+            return new ScoredHit<>(entry, Math.max(score, other.score), exact || other.exact);
+        }
+    }
+
+    /**
+     * The sorted key array with, per key, the ordinal of its entry and a segment tree of key positions
+     * whose every node holds the heaviest position below it.
+     */
+    private static final class Keys<T> {
+
+        final String[] keys;
+        final int[] owners;
+        final int[] weights;
+        final int[] tree;
+        final List<Entry<T>> entries;
+
+        private Keys(String[] keys, int[] owners, List<Entry<T>> entries) {
+            this.keys = keys;
+            this.owners = owners;
+            this.entries = entries;
+            int n = keys.length;
+            this.weights = new int[n];
+            this.tree = new int[2 * n];
+            for (int i = 0; i < n; i++) {
+                weights[i] = entries.get(owners[i]).weight();
+                tree[n + i] = i;
+            }
+            for (int node = n - 1; node > 0; node--) {
+                tree[node] = heavier(tree[2 * node], tree[2 * node + 1]);
+            }
+        }
+
+        static <T> Keys<T> of(Collection<Entry<T>> all) {
+            List<Entry<T>> entries = new ArrayList<>(all);
+            int n = 0;
+            for (Entry<T> entry : entries) {
+                n += entry.keys().size();
+            }
+            KeyRef[] refs = new KeyRef[n];
+            int i = 0;
+            for (int owner = 0; owner < entries.size(); owner++) {
+                for (String key : entries.get(owner).keys()) {
+                    refs[i++] = new KeyRef(key, owner);
+                }
+            }
+            Arrays.parallelSort(refs, Comparator.comparing(KeyRef::key));
+            String[] keys = new String[n];
+            int[] owners = new int[n];
+            for (i = 0; i < n; i++) {
+                keys[i] = refs[i].key();
+                owners[i] = refs[i].owner();
+            }
+            return new Keys<>(keys, owners, entries);
+        }
+
+        int lowerBound(String key) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].compareTo(key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Adds the entries of the heaviest keys in {@code [from, to)} to {@code hits} until it holds
+         * {@code k} entries, skipping entries already seen or shadowed by the overlay.
+         */
+        void collect(int from, int to, boolean exact, int k, Map<String, ? extends Entry<T>> overlay,
+                     Set<String> seen, List<Hit<T>> hits) {
+            if (from >= to || hits.size() >= k) {
+                return;
+            }
+            // Sub-ranges keyed by their heaviest position: the next best key is always the head of the queue
+            PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> a[2] == heavier(a[2], b[2]) ? -1 : 1);
+            ranges.add(new int[]{from, to, heaviest(from, to)});
+            while (!ranges.isEmpty() && hits.size() < k) {
+                int[] range = ranges.poll();
+                int position = range[2];
+                Entry<T> entry = entries.get(owners[position]);
+                if (!overlay.containsKey(entry.id()) && seen.add(entry.id())) {
+                    hits.add(new Hit<>(entry, exact));
+                }
+                if (range[0] < position) {
+                    ranges.add(new int[]{range[0], position, heaviest(range[0], position)});
+                }
+                if (position + 1 < range[1]) {
+                    ranges.add(new int[]{position + 1, range[1], heaviest(position + 1, range[1])});
+                }
+            }
+        }
+
+        private int heaviest(int from, int to) {
+            int n = keys.length;
+            int best = -1;
+            for (int low = from + n, high = to + n; low < high; low >>= 1, high >>= 1) {
+                if ((low & 1) == 1) {
+                    best = heavier(best, tree[low++]);
+                }
+                if ((high & 1) == 1) {
+                    best = heavier(best, tree[--high]);
+                }
+            }
+            return best;
+        }
+
+        // The heavier of two key positions, the earlier one on a tie; -1 stands for none
+        private int heavier(int a, int b) {
+            if (a < 0 || b < 0) {
+                return Math.max(a, b);
+            }
+            if (weights[a] != weights[b]) {
+                return weights[a] > weights[b] ? a : b;
+            }
+            return Math.min(a, b);
+        }
+    }
+
+    private record KeyRef(String key, int owner) {
+    }
+}
@@ -0,0 +1,10 @@
+package ir.hamqadam.core.search;
+
+/**
+ * One ranked search result.
+ *
+ * @param id    The ID of the matching entity.
+ * @param score The relevance score; only comparable with hits of the same query.
+ */
+public record SearchHit(String id, float score) {
+}
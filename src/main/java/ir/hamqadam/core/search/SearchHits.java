@@ -0,0 +1,25 @@
+package ir.hamqadam.core.search;
+
+import java.util.List;
+
+/**
+ * The top hits of a search, best first.
+ *
+ * @param hits      The ranked hits.
+ * @param totalHits The number of matching entities, or {@link #NOT_COUNTED} if the search did not count them.
+ * @param maxScore  The score no hit of this query can reach, whatever the documents: the sum of the best
+ *                  possible scores of its terms. Dividing by it puts scores on a 0..1 scale that does not
+ *                  depend on how well the best hit happens to match.
+ */
+public record SearchHits(List<SearchHit> hits, long totalHits, float maxScore) {
+
+    public static final long NOT_COUNTED = -1;
+
+    /**
+     * @param offset The number of leading hits to drop.
+     * @return The hits from {@code offset} on, with the same total.
+     */
+    public SearchHits skip(int offset) {
+        return offset <= 0 ? this : new SearchHits(hits.subList(Math.min(offset, hits.size()), hits.size()), totalHits, maxScore);
+    }
+}
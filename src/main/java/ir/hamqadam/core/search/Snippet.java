@@ -0,0 +1,105 @@
+package ir.hamqadam.core.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A short excerpt of a text with the spans that matched a query.
+ *
+ * @param text       The excerpt, with line breaks and tabs turned into spaces.
+ * @param highlights The matched spans, in order, as offsets into {@code text}.
+ */
+public record Snippet(String text, List<Highlight> highlights) {
+
+    /**
+     * @param start The index of the first highlighted character.
+     * @param end   The index after the last highlighted character.
+     */
+    public record Highlight(int start, int end) {
+    }
+
+    /**
+     * Cuts a window of at most {@code maxLength} characters out of the text, starting a little before the
+     * first matching token and ending on word boundaries.
+     *
+     * @param text      The text; may be {@code null}.
+     * @param analyzer  Splits the text into tokens as the query was split.
+     * @param matches   Tells whether a token of the text matched the query.
+     * @param maxLength The maximum length of the excerpt.
+     * @return The excerpt with its matches highlighted, or {@code null} if no token matches.
+     */
+    public static Snippet around(String text, TextAnalyzer analyzer, Predicate<String> matches, int maxLength) {
+        List<Highlight> spans = new ArrayList<>();
+        analyzer.analyzeWithOffsets(text, (token, start, end) -> {
+            if (matches.test(token)) {
+                spans.add(new Highlight(start, end));
+            }
+        });
+        if (spans.isEmpty()) {
+            return null;
+        }
+        Highlight first = spans.get(0);
+        int from = first.start() - maxLength / 4; // Some context before the first match
+        if (from <= 0) {
+            from = 0;
+        } else {
+            int space = nextWhitespace(text, from);
+            from = space < first.start() ? space + 1 : first.start();
+        }
+        int to = cut(text, from, maxLength, first.end());
+        List<Highlight> highlights = new ArrayList<>();
+        for (Highlight span : spans) {
+            if (span.start() >= from && span.end() <= to) {
+                highlights.add(new Highlight(span.start() - from, span.end() - from));
+            }
+        }
+        return new Snippet(flatten(text, from, to), highlights);
+    }
+
+    /**
+     * The start of the text, cut at a word boundary, without highlights.
+     *
+     * @return The excerpt, or {@code null} for a {@code null} or blank text.
+     */
+    public static Snippet lead(String text, int maxLength) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        return new Snippet(flatten(text, 0, cut(text, 0, maxLength, 0)).strip(), List.of());
+    }
+
+    // The end of a window of at most maxLength characters from `from`, moved back to a word boundary past minEnd
+    private static int cut(String text, int from, int maxLength, int minEnd) {
+        int to = Math.min(text.length(), from + maxLength);
+        if (to == text.length()) {
+            return to;
+        }
+        for (int i = to; i > minEnd && i > from; i--) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    private static int nextWhitespace(String text, int from) {
+        for (int i = from; i < text.length(); i++) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                return i;
+            }
+        }
+        return text.length();
+    }
+
+    // Keeps offsets intact: every whitespace character becomes exactly one space
+    private static String flatten(String text, int from, int to) {
+        char[] chars = text.substring(from, to).toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (Character.isWhitespace(chars[i])) {
+                chars[i] = ' ';
+            }
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,19 @@
+package ir.hamqadam.core.search;
+
+import java.util.Map;
+
+/**
+ * A team, project or user offered while the user types, with what a mention picker shows.
+ *
+ * @param type       What kind of entity this is.
+ * @param id         The ID of the entity.
+ * @param handle     The handle of a team or project; {@code null} for users.
+ * @param name       The i18n name of the entity.
+ * @param pictureUrl The current profile picture of a team or user, if any.
+ */
+public record Suggestion(Type type, String id, String handle, Map<String, String> name, String pictureUrl) {
+
+    public enum Type {
+        TEAM, PROJECT, USER
+    }
+}
@@ -0,0 +1,260 @@
+package ir.hamqadam.core.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Normalizes and tokenizes Persian and English text so that spelling variants compare equal.
+ * <p>
+ * Character folding, applied by both {@link #normalize} and {@link #analyze}:
+ * <ul>
+ *     <li>Arabic variants to their Persian forms: {@code ي ى} to {@code ی}, {@code ك} to {@code ک},
+ *     {@code ة ۀ} to {@code ه}, and {@code أ إ ٱ} to {@code ا};</li>
+ *     <li>Persian and Arabic-Indic digits to ASCII digits;</li>
+ *     <li>diacritics, tatweel, zero-width (non-)joiners and direction marks are dropped, so
+ *     {@code می‌خواهم} and {@code میخواهم} are the same word;</li>
+ *     <li>letters are lower-cased.</li>
+ * </ul>
+ * Tokens are runs of letters and digits. The {@link #STEMMING} analyzer also strips English plural
+ * endings and the Persian plural suffixes {@code ها های هایی}.
+ * <p>
+ * Text is processed in a single pass without regular expressions; the only allocations are one
+ * buffer per call and the resulting strings.
+ */
+public final class TextAnalyzer {
+
+    /**
+     * Folds and tokenizes without stemming.
+     */
+    public static final TextAnalyzer PLAIN = new TextAnalyzer(false);
+
+    /**
+     * Folds, tokenizes and stems; used for full-text search.
+     */
+    public static final TextAnalyzer STEMMING = new TextAnalyzer(true);
+
+    private static final int MAX_TOKEN_LENGTH = 64; // Longer tokens are truncated
+    private static final char DROPPED = '\uFFFF';
+    private static final char[][] PERSIAN_PLURAL_SUFFIXES = { // Longest first
+            "\u0647\u0627\u06CC\u06CC".toCharArray(), "\u0647\u0627\u06CC".toCharArray(), "\u0647\u0627".toCharArray()};
+    private static final int MIN_STEM_LENGTH = 2;
+
+    private final boolean stem;
+
+    private TextAnalyzer(boolean stem) {
+        this.stem = stem;
+    }
+
+    /**
+     * Normalizes a whole value for equality and prefix lookups, such as a tag or a title: characters are
+     * folded, runs of whitespace become one space, and leading and trailing whitespace is removed.
+     *
+     * @param text The text; may be {@code null}.
+     * @return The normalized text, or {@code null} for {@code null}.
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = fold(text.charAt(i));
+            if (c == DROPPED) {
+                continue;
+            }
+            if (Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+                pendingSpace = normalized.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    normalized.append(' ');
+                    pendingSpace = false;
+                }
+                normalized.append(c);
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Normalizes each value, skipping {@code null}s and values that normalize to nothing.
+     *
+     * @param texts The values; may be {@code null}.
+     * @return The distinct normalized values in their original order, or {@code null} for {@code null}.
+     */
+    public static List<String> normalizeAll(Iterable<String> texts) {
+        if (texts == null) {
+            return null;
+        }
+        List<String> normalized = new ArrayList<>();
+        for (String text : texts) {
+            String value = normalize(text);
+            if (value != null && !value.isEmpty() && !normalized.contains(value)) {
+                normalized.add(value);
+            }
+        }
+        return normalized;
+    }
+
+    /**
+     * Receives tokens along with where they came from in the analyzed text.
+     */
+    @FunctionalInterface
+    public interface TokenConsumer {
+
+        /**
+         * @param token The folded (and possibly stemmed) token.
+         * @param start The index of the first character of the token in the text.
+         * @param end   The index after the last character of the token in the text.
+         */
+        void accept(String token, int start, int end);
+    }
+
+    /**
+     * Splits text into folded (and, for {@link #STEMMING}, stemmed) tokens.
+     *
+     * @param text   The text; {@code null} yields no tokens.
+     * @param tokens Receives the tokens in order, repeats included.
+     */
+    public void analyze(String text, Consumer<String> tokens) {
+        analyzeWithOffsets(text, (token, start, end) -> tokens.accept(token));
+    }
+
+    /**
+     * Same as {@link #analyze(String, Consumer)}, also passing the span of the original text each token
+     * came from, e.g. to highlight matches.
+     */
+    public void analyzeWithOffsets(String text, TokenConsumer tokens) {
+        if (text == null) {
+            return;
+        }
+        char[] token = new char[MAX_TOKEN_LENGTH];
+        int length = 0;
+        int start = 0;
+        int end = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = fold(text.charAt(i));
+            if (c == DROPPED) {
+                continue; // Joins the letters on either side
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (length == 0) {
+                    start = i;
+                }
+                if (length < MAX_TOKEN_LENGTH) {
+                    token[length++] = c;
+                }
+                end = i + 1;
+            } else if (length > 0) {
+                emit(token, length, start, end, tokens);
+                length = 0;
+            }
+        }
+        if (length > 0) {
+            emit(token, length, start, end, tokens);
+        }
+    }
+
+    /**
+     * @param text The text; may be {@code null}.
+     * @return The tokens of the text in order, repeats included.
+     */
+    public List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        analyze(text, tokens::add);
+        return tokens;
+    }
+
+    private void emit(char[] token, int length, int start, int end, TokenConsumer tokens) {
+        tokens.accept(new String(token, 0, stem ? stem(token, length) : length), start, end);
+    }
+
+    static char fold(char c) {
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        switch (c) {
+            case '\u064A': // Arabic yeh
+            case '\u0649': // Alef maksura
+                return '\u06CC'; // Persian yeh
+            case '\u0643': // Arabic kaf
+                return '\u06A9'; // Keheh
+            case '\u0629': // Teh marbuta
+            case '\u06C0': // Heh with yeh above
+                return '\u0647'; // Heh
+            case '\u0623': // Alef with hamza above
+            case '\u0625': // Alef with hamza below
+            case '\u0671': // Alef wasla
+                return '\u0627'; // Alef
+            case '\u200C': // Zero-width non-joiner
+            case '\u200D': // Zero-width joiner
+            case '\u200E': // Left-to-right mark
+            case '\u200F': // Right-to-left mark
+            case '\u00AD': // Soft hyphen
+            case '\u0640': // Tatweel
+            case '\u0670': // Superscript alef
+                return DROPPED;
+            default:
+                break;
+        }
+        if (c >= '\u06F0' && c <= '\u06F9') {
+            return (char) ('0' + (c - '\u06F0')); // Persian digits
+        }
+        if (c >= '\u0660' && c <= '\u0669') {
+            return (char) ('0' + (c - '\u0660')); // Arabic-Indic digits
+        }
+        if (c >= '\u064B' && c <= '\u065F') {
+            return DROPPED; // Harakat and other Arabic diacritics
+        }
+        return Character.toLowerCase(c);
+    }
+
+    /**
+     * @return The length of the stem at the start of {@code token}.
+     */
+    static int stem(char[] token, int length) {
+        char last = token[length - 1];
+        if (last >= 'a' && last <= 'z') {
+            return stemEnglish(token, length);
+        }
+        for (char[] suffix : PERSIAN_PLURAL_SUFFIXES) {
+            if (length - suffix.length >= MIN_STEM_LENGTH && endsWith(token, length, suffix)) {
+                return length - suffix.length;
+            }
+        }
+        return length;
+    }
+
+    // Plural endings only, after Lucene's EnglishMinimalStemmer: queries -> query, buses -> buse, class -> class
+    private static int stemEnglish(char[] token, int length) {
+        if (length < 3 || token[length - 1] != 's') {
+            return length;
+        }
+        switch (token[length - 2]) {
+            case 'u':
+            case 's':
+                return length;
+            case 'e':
+                if (length > 3 && token[length - 3] == 'i' && token[length - 4] != 'a' && token[length - 4] != 'e') {
+                    token[length - 3] = 'y';
+                    return length - 2;
+                }
+                if (token[length - 3] == 'i' || token[length - 3] == 'a' || token[length - 3] == 'o' || token[length - 3] == 'e') {
+                    return length;
+                }
+                return length - 1;
+            default:
+                return length - 1;
+        }
+    }
+
+    private static boolean endsWith(char[] token, int length, char[] suffix) {
+        for (int i = 1; i <= suffix.length; i++) {
+            if (token[length - i] != suffix[suffix.length - i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,394 @@
+package ir.hamqadam.core.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ir.hamqadam.core.exception.BadRequestException;
+import ir.hamqadam.core.model.Project;
+import ir.hamqadam.core.model.Team;
+import ir.hamqadam.core.model.User;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Prefix search over the handles and names of teams, projects and users, for mention pickers and search
+ * boxes: one {@link PrefixIndex} per entity type, holding only what anyone may find.
+ * <ul>
+ *     <li>Teams: public and not disbanded, found by {@code teamHandle} and every {@code teamName}
+ *     translation, weighted by their active members.</li>
+ *     <li>Projects: public, found by {@code projectHandle} and every {@code projectName} translation,
+ *     weighted by their contributing teams and individuals.</li>
+ *     <li>Users: active and not opted out with the {@code searchable: false} privacy setting, found by
+ *     every {@code fullName} translation, weighted by their team memberships.</li>
+ * </ul>
+ * A name is found by its start and by the start of each later word, so "رضا" finds "محمد رضا کریمی".
+ * Handles and names are normalized with {@link TextAnalyzer#normalize}, so spelling variants match, and a
+ * leading {@code @} is ignored. Matches carry a {@link Suggestion}, so typeahead never reads Mongo.
+ * <p>
+ * The indexes are built in the background at startup by streaming the indexed fields, kept current from
+ * the Mongo mapping events of entities saved or deleted on this instance, and rebuilt every
+ * {@code hamqadam.typeahead.rebuild-interval-ms} to pick up changes from other instances. Changes wait in
+ * each index's overlay until {@code hamqadam.typeahead.merge-threshold} of them have collected.
+ */
+@Component
+public class TypeaheadIndex extends AbstractMongoEventListener<Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TypeaheadIndex.class);
+
+    static final String SEARCHABLE_SETTING = "searchable";
+    private static final int MAX_NAME_WORDS = 8; // Later words of a long name are not indexed on their own
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final int maxResultWindow;
+    private final int mergeThreshold;
+    private final Timer queryTimer;
+    private final Map<Suggestion.Type, PrefixIndex<Suggestion>> indexes = new EnumMap<>(Suggestion.Type.class);
+    private final Object changesLock = new Object();
+
+    private Suggestion.Type rebuilding; // Guarded by changesLock
+    private Map<String, PrefixIndex.Entry<Suggestion>> changedDuringRebuild; // Guarded by changesLock; a null value records a deletion
+
+    @Autowired
+    public TypeaheadIndex(MongoTemplate mongoTemplate,
+                          MeterRegistry meterRegistry,
+                          @Value("${hamqadam.typeahead.enabled:true}") boolean enabled,
+                          @Value("${hamqadam.typeahead.max-result-window:1000}") int maxResultWindow,
+                          @Value("${hamqadam.typeahead.merge-threshold:256}") int mergeThreshold,
+                          @Value("${hamqadam.typeahead.slo-ms:20}") long sloMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.maxResultWindow = maxResultWindow;
+        this.mergeThreshold = mergeThreshold;
+        this.queryTimer = Timer.builder("hamqadam.typeahead.query")
+                .description("Time spent finding typeahead suggestions in the index")
+                .serviceLevelObjectives(Duration.ofMillis(1), Duration.ofMillis(sloMillis))
+                .register(meterRegistry);
+        for (Suggestion.Type type : Suggestion.Type.values()) {
+            PrefixIndex<Suggestion> index = new PrefixIndex<>();
+            indexes.put(type, index);
+            Gauge.builder("hamqadam.typeahead.entries", index, PrefixIndex::size)
+                    .description("Entities in the typeahead index")
+                    .tag("type", type.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        Thread builder = new Thread(this::rebuild, "typeahead-index-build");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * Rebuilds every index from a streaming scan, picking up changes made by other instances.
+     */
+    @Scheduled(fixedDelayString = "${hamqadam.typeahead.rebuild-interval-ms:600000}",
+            initialDelayString = "${hamqadam.typeahead.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        rebuild(Suggestion.Type.TEAM, Team.class, query("teamName", "teamHandle", "profilePictureUrl", "members",
+                "visibility", "teamStatus"), TypeaheadIndex::entryOf);
+        rebuild(Suggestion.Type.PROJECT, Project.class, query("projectName", "projectHandle", "visibility",
+                "contributingTeams", "individualContributors"), TypeaheadIndex::entryOf);
+        rebuild(Suggestion.Type.USER, User.class, query("fullName", "profilePictures", "accountStatus",
+                "privacySettings", "teamMemberships"), TypeaheadIndex::entryOf);
+    }
+
+    /**
+     * Merges the changes collected by each index once there are enough of them to slow down searches.
+     */
+    @Scheduled(fixedDelayString = "${hamqadam.typeahead.merge-check-interval-ms:1000}")
+    public void mergeChanges() {
+        for (PrefixIndex<Suggestion> index : indexes.values()) {
+            if (index.pendingChanges() >= mergeThreshold) {
+                index.merge();
+            }
+        }
+    }
+
+    /**
+     * Finds suggestions of the given types whose handle or name starts with the query.
+     *
+     * @param query The typed text.
+     * @param types The entity types to suggest; suggestions of each type come in this order.
+     * @param limit The maximum number of suggestions of each type.
+     * @return The suggestions, best first within each type.
+     */
+    public List<Suggestion> suggest(String query, Collection<Suggestion.Type> types, int limit) {
+        String prefix = prefixOf(query);
+        return queryTimer.record(() -> {
+            List<Suggestion> suggestions = new ArrayList<>();
+            for (Suggestion.Type type : types) {
+                suggestions.addAll(indexes.get(type).search(prefix, limit));
+            }
+            return suggestions;
+        });
+    }
+
+    /**
+     * Finds the entities of one type whose handle or name starts with the query, most {@link #relevance relevant}
+     * first and, among equally relevant ones, best first as in {@link #suggest}. Unlike {@link #suggest}, this
+     * visits every match, and it is outside the per-keystroke latency meter.
+     */
+    public List<Suggestion> matches(Suggestion.Type type, String query, int limit) {
+        String prefix = prefixOf(query);
+        return indexes.get(type).search(prefix, limit, key -> relevanceOf(prefix, key));
+    }
+
+    /**
+     * How fully the query matches a suggestion, from 0 to 1: the length of the query over that of the key
+     * it matches, up to the end of the word the query stops in. "ali" scores 1 against "Ali Rezaei" and
+     * 0.6 against "Alina".
+     */
+    public static float relevance(String query, Suggestion suggestion) {
+        String prefix = prefixOf(query);
+        if (prefix == null || prefix.isEmpty()) {
+            return 0;
+        }
+        float best = 0;
+        for (String key : keysOf(suggestion.handle(), suggestion.name())) {
+            if (key.startsWith(prefix)) {
+                best = Math.max(best, relevanceOf(prefix, key));
+            }
+        }
+        return best;
+    }
+
+    private static float relevanceOf(String prefix, String key) {
+        int wordEnd = key.indexOf(' ', prefix.length());
+        return (float) prefix.length() / (wordEnd < 0 ? key.length() : wordEnd);
+    }
+
+    /**
+     * Pages through the entities of one type whose handle or name starts with the query, best first.
+     *
+     * @param type   The entity type.
+     * @param query  The search text.
+     * @param offset The number of leading matches to skip.
+     * @param limit  The number of matches wanted after the offset.
+     * @return The IDs of the matching entities.
+     * @throws BadRequestException if the offset lies beyond {@code hamqadam.typeahead.max-result-window}.
+     */
+    public List<String> search(Suggestion.Type type, String query, int offset, int limit) {
+        if (offset >= maxResultWindow) {
+            throw new BadRequestException("Only the first " + maxResultWindow + " search results can be paged through.");
+        }
+        List<Suggestion> matches = indexes.get(type).search(prefixOf(query), Math.min(offset + limit, maxResultWindow));
+        return matches.stream().skip(offset).map(Suggestion::id).toList();
+    }
+
+    /**
+     * @return The number of entities of the type whose handle or name starts with the query.
+     */
+    public int count(Suggestion.Type type, String query) {
+        return indexes.get(type).count(prefixOf(query));
+    }
+
+    public void index(Team team) {
+        if (team.getTeamId() != null) {
+            apply(Suggestion.Type.TEAM, team.getTeamId(), entryOf(team));
+        }
+    }
+
+    public void index(Project project) {
+        if (project.getProjectId() != null) {
+            apply(Suggestion.Type.PROJECT, project.getProjectId(), entryOf(project));
+        }
+    }
+
+    public void index(User user) {
+        if (user.getUserId() != null) {
+            apply(Suggestion.Type.USER, user.getUserId(), entryOf(user));
+        }
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Object> event) {
+        if (!enabled) {
+            return;
+        }
+        Object source = event.getSource();
+        if (source instanceof Team team) {
+            index(team);
+        } else if (source instanceof Project project) {
+            index(project);
+        } else if (source instanceof User user) {
+            index(user);
+        }
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Object> event) {
+        Suggestion.Type type = Team.class.equals(event.getType()) ? Suggestion.Type.TEAM
+                : Project.class.equals(event.getType()) ? Suggestion.Type.PROJECT
+                : User.class.equals(event.getType()) ? Suggestion.Type.USER
+                : null;
+        if (!enabled || type == null) {
+            return;
+        }
+        Object id = event.getDocument() != null ? event.getDocument().get("_id") : null;
+        if (id instanceof String || id instanceof ObjectId) {
+            apply(type, id.toString(), null);
+        } else {
+            buildOnStartup(); // Deleted by a query: we cannot tell which entities went
+        }
+    }
+
+    /**
+     * The index keys of an entity: its handle without a leading {@code @}, and each name translation
+     * from its start and from the start of each later word.
+     */
+    static List<String> keysOf(String handle, Map<String, String> name) {
+        List<String> keys = new ArrayList<>();
+        String normalizedHandle = prefixOf(handle);
+        if (normalizedHandle != null && !normalizedHandle.isEmpty()) {
+            keys.add(normalizedHandle);
+        }
+        if (name != null) {
+            for (String text : TextAnalyzer.normalizeAll(name.values())) {
+                int start = 0;
+                for (int words = 0; words < MAX_NAME_WORDS && start >= 0; words++) {
+                    String key = text.substring(start);
+                    if (!keys.contains(key)) {
+                        keys.add(key);
+                    }
+                    int space = text.indexOf(' ', start);
+                    start = space < 0 ? -1 : space + 1;
+                }
+            }
+        }
+        return keys;
+    }
+
+    static String prefixOf(String text) {
+        String normalized = TextAnalyzer.normalize(text);
+        return normalized != null && normalized.startsWith("@") ? normalized.substring(1) : normalized;
+    }
+
+    // The entry of a team, or null if it must not be found
+    static PrefixIndex.Entry<Suggestion> entryOf(Team team) {
+        if (team.getVisibility() != Team.TeamVisibility.PUBLIC || team.getTeamStatus() == Team.TeamStatus.DISBANDED) {
+            return null;
+        }
+        int members = team.getMembers() == null ? 0 : (int) team.getMembers().stream()
+                .filter(member -> member.getStatusInTeam() == Team.MemberStatus.ACTIVE)
+                .count();
+        return entryOf(new Suggestion(Suggestion.Type.TEAM, team.getTeamId(), team.getTeamHandle(), team.getTeamName(),
+                team.getProfilePictureUrl()), members);
+    }
+
+    static PrefixIndex.Entry<Suggestion> entryOf(Project project) {
+        if (project.getVisibility() != Project.ProjectVisibility.PUBLIC) {
+            return null;
+        }
+        int contributors = (project.getContributingTeams() == null ? 0 : project.getContributingTeams().size())
+                + (project.getIndividualContributors() == null ? 0 : project.getIndividualContributors().size());
+        return entryOf(new Suggestion(Suggestion.Type.PROJECT, project.getProjectId(), project.getProjectHandle(),
+                project.getProjectName(), null), contributors);
+    }
+
+    static PrefixIndex.Entry<Suggestion> entryOf(User user) {
+        Map<String, Object> privacySettings = user.getPrivacySettings();
+        if (user.getAccountStatus() != User.AccountStatus.ACTIVE
+                || privacySettings != null && Boolean.FALSE.equals(privacySettings.get(SEARCHABLE_SETTING))) {
+            return null;
+        }
+        String pictureUrl = user.getProfilePictures() == null ? null : user.getProfilePictures().stream()
+                .filter(User.ProfilePicture::isCurrent)
+                .findFirst()
+                .map(User.ProfilePicture::getUrl)
+                .orElse(null);
+        int memberships = user.getTeamMemberships() == null ? 0 : user.getTeamMemberships().size();
+        return entryOf(new Suggestion(Suggestion.Type.USER, user.getUserId(), null, user.getFullName(), pictureUrl),
+                memberships);
+    }
+
+    private static PrefixIndex.Entry<Suggestion> entryOf(Suggestion suggestion, int weight) {
+        return new PrefixIndex.Entry<>(suggestion.id(), suggestion, weight, keysOf(suggestion.handle(), suggestion.name()));
+    }
+
+    private void apply(Suggestion.Type type, String id, PrefixIndex.Entry<Suggestion> entry) {
+        synchronized (changesLock) {
+            if (rebuilding == type) {
+                changedDuringRebuild.put(id, entry);
+            }
+            if (entry == null) {
+                indexes.get(type).remove(id);
+            } else {
+                indexes.get(type).put(entry);
+            }
+        }
+    }
+
+    private <T> void rebuild(Suggestion.Type type, Class<T> entityClass, Query query,
+                             Function<T, PrefixIndex.Entry<Suggestion>> entryOf) {
+        long start = System.nanoTime();
+        PrefixIndex<Suggestion> index = indexes.get(type);
+        synchronized (changesLock) {
+            rebuilding = type;
+            changedDuringRebuild = new LinkedHashMap<>();
+        }
+        List<PrefixIndex.Entry<Suggestion>> entries = new ArrayList<>();
+        try (Stream<T> entities = mongoTemplate.stream(query, entityClass)) {
+            entities.map(entryOf).filter(Objects::nonNull).forEach(entries::add);
+        } catch (RuntimeException e) {
+            synchronized (changesLock) {
+                rebuilding = null;
+                changedDuringRebuild = null;
+            }
+            logger.error("Building the {} typeahead index failed; it keeps its previous entries", type, e);
+            return;
+        }
+        index.reload(entries);
+        synchronized (changesLock) {
+            changedDuringRebuild.forEach((id, entry) -> {
+                if (entry == null) {
+                    index.remove(id);
+                } else {
+                    index.put(entry);
+                }
+            });
+            rebuilding = null;
+            changedDuringRebuild = null;
+        }
+        logger.info("Indexed {} {} entities for typeahead in {} ms", index.size(), type,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static Query query(String... fields) {
+        Query query = new Query();
+        query.fields().include(fields);
+        return query;
+    }
+}
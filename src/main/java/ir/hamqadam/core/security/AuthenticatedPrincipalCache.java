@@ -0,0 +1,91 @@
+package ir.hamqadam.core.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import ir.hamqadam.core.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of the principals resolved for verified JWTs.
+ * Entries are keyed by token subject and issue time, so a freshly issued token always
+ * resolves its principal again, while repeated requests with the same token skip MongoDB.
+ * Hit, miss and eviction statistics are published to Micrometer under the cache name
+ * {@value #CACHE_NAME}.
+ */
+@Component
+public class AuthenticatedPrincipalCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthenticatedPrincipalCache.class);
+
+    public static final String CACHE_NAME = "principalCache";
+
+    private final Cache<PrincipalKey, UserDetails> cache;
+
+    @Autowired
+    public AuthenticatedPrincipalCache(MeterRegistry meterRegistry,
+                                       @Value("${hamqadam.security.principal-cache.ttl-seconds:300}") long ttlSeconds,
+                                       @Value("${hamqadam.security.principal-cache.maximum-size:10000}") long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        logger.info("Principal cache initialized (ttl={}s, maximumSize={})", ttlSeconds, maximumSize);
+    }
+
+    /**
+     * Returns the cached principal for the given token subject and issue time,
+     * resolving and caching it through {@code loader} on a miss.
+     *
+     * @param subject  The verified token subject (email or Telegram ID).
+     * @param issuedAt The token's issue time; {@code null} is treated as epoch zero.
+     * @param loader   Resolves the principal for the subject, e.g. {@code UserDetailsService::loadUserByUsername}.
+     * @return The resolved principal.
+     */
+    public UserDetails get(String subject, Date issuedAt, Function<String, UserDetails> loader) {
+        PrincipalKey key = new PrincipalKey(subject, issuedAt != null ? issuedAt.getTime() : 0L);
+        return cache.get(key, k -> loader.apply(k.subject()));
+    }
+
+    /**
+     * Drops every cached principal for the given token subject, whatever token it was resolved for.
+     *
+     * @param subject The token subject (email or Telegram ID).
+     */
+    public void invalidateSubject(String subject) {
+        if (subject == null) {
+            return;
+        }
+        cache.asMap().keySet().removeIf(key -> key.subject().equals(subject));
+    }
+
+    /**
+     * Drops every cached principal of the given user. Tokens may carry either the
+     * email or the Telegram ID as subject, so both are invalidated.
+     *
+     * @param user The user whose principals must be reloaded.
+     */
+    public void invalidateUser(User user) {
+        if (user == null) {
+            return;
+        }
+        invalidateSubject(user.getEmail());
+        invalidateSubject(user.getTelegramId());
+        logger.debug("Invalidated cached principals for userId: {}", user.getUserId());
+    }
+
+    private record PrincipalKey(String subject, long issuedAtMillis) {
+    }
+}
@@ -0,0 +1,179 @@
+package ir.hamqadam.core.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ir.hamqadam.core.exception.AppException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link PasswordEncoder} that runs BCrypt hashing and verification on a small dedicated pool
+ * instead of on the calling request thread.
+ * <p>
+ * At most {@code threads} hashes run at once, so a login or registration spike cannot take every
+ * core away from the rest of the API. Callers beyond {@code threads + queueCapacity} are rejected
+ * immediately with {@code 503 Service Unavailable} rather than piling up behind the queue.
+ * <p>
+ * Meters: {@code hamqadam.password.hash} (work time, tagged operation and strength),
+ * {@code hamqadam.password.queue.wait}, {@code hamqadam.password.rejected} and the
+ * {@code hamqadam.password.queue.depth} gauge.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+    private final MeterRegistry meterRegistry;
+    private final String strengthTag;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejected;
+
+    /**
+     * Creates an encoder backed by {@link BCryptPasswordEncoder} with the given work factor.
+     */
+    public BoundedPasswordEncoder(int strength, int threads, int queueCapacity, Duration timeout,
+                                  MeterRegistry meterRegistry) {
+        this(new BCryptPasswordEncoder(strength), String.valueOf(strength), threads, queueCapacity, timeout,
+                meterRegistry);
+    }
+
+    BoundedPasswordEncoder(PasswordEncoder delegate, String strengthTag, int threads, int queueCapacity,
+                           Duration timeout, MeterRegistry meterRegistry) {
+        if (threads <= 0 || queueCapacity < 0) {
+            throw new IllegalArgumentException("Password hashing needs at least one thread and a non-negative queue");
+        }
+        this.delegate = delegate;
+        this.timeout = timeout;
+        this.meterRegistry = meterRegistry;
+        this.strengthTag = strengthTag;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                queueCapacity == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(queueCapacity),
+                new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.encodeTimer = hashTimer("encode");
+        this.matchesTimer = hashTimer("matches");
+        this.queueWaitTimer = Timer.builder("hamqadam.password.queue.wait")
+                .description("Time password hashing requests wait for a hashing thread")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("hamqadam.password.rejected")
+                .description("Password hashing requests rejected because the hashing pool was saturated")
+                .register(meterRegistry);
+        Gauge.builder("hamqadam.password.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password hashing requests waiting for a hashing thread")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword); // Only inspects the hash prefix, no hashing work
+    }
+
+    /**
+     * Hashes a sample password once on the calling thread and logs how long the configured work factor takes.
+     *
+     * @return The measured duration.
+     */
+    public Duration calibrate() {
+        long start = System.nanoTime();
+        delegate.encode("calibration-password");
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        logger.info("BCrypt strength {} takes {} ms per hash on this host", strengthTag, elapsed.toMillis());
+        return elapsed;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T execute(Timer workTimer, Callable<T> work) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                Timer.Sample sample = Timer.start(meterRegistry);
+                try {
+                    return work.call();
+                } finally {
+                    sample.stop(workTimer);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            logger.warn("Password hashing pool saturated ({} queued), rejecting request", executor.getQueue().size());
+            throw new AppException(HttpStatus.SERVICE_UNAVAILABLE, "Server is busy, please try again shortly.");
+        }
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            rejected.increment();
+            throw new AppException(HttpStatus.SERVICE_UNAVAILABLE, "Server is busy, please try again shortly.");
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AppException(HttpStatus.SERVICE_UNAVAILABLE, "Password hashing was interrupted.", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", ex.getCause());
+        }
+    }
+
+    private Timer hashTimer(String operation) {
+        return Timer.builder("hamqadam.password.hash")
+                .description("Time spent hashing or verifying passwords")
+                .tag("operation", operation)
+                .tag("strength", strengthTag)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
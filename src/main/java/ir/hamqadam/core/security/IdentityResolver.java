@@ -0,0 +1,139 @@
+package ir.hamqadam.core.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import ir.hamqadam.core.model.User;
+import ir.hamqadam.core.repository.UserRepository;
+import ir.hamqadam.core.repository.projection.UserCredentials;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Maps a principal name (email or Telegram ID, as used in {@code principal.username}) to the
+ * user's ID and a few frequently needed attributes.
+ * <p>
+ * The authenticated {@link UserPrincipal} already carries the user ID, so resolving the current
+ * user normally costs nothing. Other names are resolved once and cached; the user service
+ * writes changed users through via {@link #refresh(User)} so cached identities never go stale.
+ */
+@Component
+public class IdentityResolver {
+
+    public static final String CACHE_NAME = "identityCache";
+
+    /**
+     * Identity attributes of a user that are needed on most requests.
+     */
+    public record ResolvedIdentity(String userId,
+                                   String email,
+                                   String telegramId,
+                                   User.AccountStatus accountStatus,
+                                   Map<String, String> fullName) {
+
+        public static ResolvedIdentity of(User user) {
+            return new ResolvedIdentity(user.getUserId(), user.getEmail(), user.getTelegramId(),
+                    user.getAccountStatus(), user.getFullName());
+        }
+
+        public static ResolvedIdentity of(UserCredentials credentials) {
+            return new ResolvedIdentity(credentials.getUserId(), credentials.getEmail(), credentials.getTelegramId(),
+                    credentials.getAccountStatus(), credentials.getFullName());
+        }
+
+        /**
+         * Returns a {@link User} carrying only the identity attributes, for service methods that take
+         * the acting user but only read its ID and name.
+         *
+         * @return A partially populated, unsaved user instance.
+         */
+        public User toUserReference() {
+            return User.builder()
+                    .userId(userId)
+                    .email(email)
+                    .telegramId(telegramId)
+                    .accountStatus(accountStatus)
+                    .fullName(fullName)
+                    .build();
+        }
+    }
+
+    private final UserRepository userRepository;
+    private final Cache<String, ResolvedIdentity> identities;
+
+    @Autowired
+    public IdentityResolver(UserRepository userRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${hamqadam.security.identity-cache.ttl-seconds:600}") long ttlSeconds,
+                            @Value("${hamqadam.security.identity-cache.maximum-size:10000}") long maximumSize) {
+        this.userRepository = userRepository;
+        this.identities = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, identities, CACHE_NAME);
+    }
+
+    /**
+     * Resolves the user ID for a principal name, without any lookup when it is the
+     * currently authenticated principal.
+     *
+     * @param principalName The email or Telegram ID.
+     * @return The user ID, or empty if no such user exists.
+     */
+    public Optional<String> resolveUserId(String principalName) {
+        if (principalName == null) {
+            return Optional.empty();
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal
+                && principal.getUserId() != null && principalName.equals(principal.getUsername())) {
+            return Optional.of(principal.getUserId());
+        }
+        return resolve(principalName).map(ResolvedIdentity::userId);
+    }
+
+    /**
+     * Resolves the identity for a principal name, loading it from MongoDB at most once per TTL.
+     *
+     * @param principalName The email or Telegram ID.
+     * @return The identity, or empty if no such user exists.
+     */
+    public Optional<ResolvedIdentity> resolve(String principalName) {
+        if (principalName == null) {
+            return Optional.empty();
+        }
+        ResolvedIdentity identity = identities.get(principalName, name ->
+                userRepository.findCredentialsByEmailOrTelegramId(name).map(ResolvedIdentity::of).orElse(null));
+        return Optional.ofNullable(identity);
+    }
+
+    /**
+     * Writes a changed user through to the cache: stale entries of the user (possibly under an
+     * old email) are dropped and the current identity is stored under its email and Telegram ID.
+     *
+     * @param user The user as saved.
+     */
+    public void refresh(User user) {
+        if (user == null || user.getUserId() == null) {
+            return;
+        }
+        identities.asMap().values().removeIf(identity -> identity.userId().equals(user.getUserId()));
+        ResolvedIdentity identity = ResolvedIdentity.of(user);
+        if (user.getEmail() != null) {
+            identities.put(user.getEmail(), identity);
+        }
+        if (user.getTelegramId() != null) {
+            identities.put(user.getTelegramId(), identity);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package ir.hamqadam.core.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import ir.hamqadam.core.model.User;
+import ir.hamqadam.core.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory map of per-user revocation epochs: every token of a user issued at or before
+ * the user's epoch is rejected. Used by the stateless JWT mode, where the database is not
+ * consulted while authenticating a request.
+ * <p>
+ * Epochs are recorded locally when an account is suspended or deleted and are refreshed
+ * incrementally from MongoDB so that changes made on other instances are picked up too.
+ * Entries older than the token lifetime can no longer match a valid token and are pruned.
+ */
+@Component
+public class TokenRevocationRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationRegistry.class);
+
+    /**
+     * Account statuses whose previously issued tokens must stop working.
+     */
+    public static final Set<User.AccountStatus> REVOKING_STATUSES =
+            EnumSet.of(User.AccountStatus.SUSPENDED, User.AccountStatus.DELETED, User.AccountStatus.INACTIVE);
+
+    private final UserRepository userRepository;
+    private final long tokenLifetimeMs;
+    private final boolean statelessMode;
+    private final Map<String, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime lastRefresh;
+
+    @Autowired
+    public TokenRevocationRegistry(UserRepository userRepository,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${jwt.expiration.ms}") long tokenLifetimeMs,
+                                   @Value("${hamqadam.security.jwt.stateless:false}") boolean statelessMode) {
+        this.userRepository = userRepository;
+        this.tokenLifetimeMs = tokenLifetimeMs;
+        this.statelessMode = statelessMode;
+        Gauge.builder("hamqadam.security.revocation.entries", revokedBefore, Map::size)
+                .description("Users with a token revocation epoch")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads the revocation epochs of accounts that were suspended or deleted within the last token lifetime.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRevocations() {
+        if (!statelessMode) {
+            return;
+        }
+        LocalDateTime since = LocalDateTime.now().minus(Duration.ofMillis(tokenLifetimeMs));
+        int loaded = refreshSince(since);
+        logger.info("Loaded {} token revocation epochs", loaded);
+    }
+
+    /**
+     * Picks up accounts suspended or deleted since the last refresh (possibly on another instance).
+     */
+    @Scheduled(fixedDelayString = "${hamqadam.security.revocation.refresh-interval-ms:30000}",
+            initialDelayString = "${hamqadam.security.revocation.refresh-interval-ms:30000}")
+    public void refreshRevocations() {
+        LocalDateTime since = lastRefresh;
+        if (!statelessMode || since == null) {
+            return;
+        }
+        // Overlap a little so updates committed while the previous refresh ran are not missed
+        refreshSince(since.minusSeconds(5));
+        pruneExpired();
+    }
+
+    /**
+     * Rejects every token of the user issued up to now.
+     *
+     * @param userId The user whose tokens must be revoked.
+     */
+    public void revokeAllTokens(String userId) {
+        revokeTokensIssuedBefore(userId, System.currentTimeMillis());
+    }
+
+    /**
+     * Rejects every token of the user issued at or before the given epoch.
+     * An already recorded later epoch is kept.
+     *
+     * @param userId      The user whose tokens must be revoked.
+     * @param epochMillis The revocation epoch in milliseconds since the Unix epoch.
+     */
+    public void revokeTokensIssuedBefore(String userId, long epochMillis) {
+        if (userId == null) {
+            return;
+        }
+        revokedBefore.merge(userId, epochMillis, Math::max);
+        logger.debug("Tokens of userId {} issued before {} are revoked", userId, epochMillis);
+    }
+
+    /**
+     * Checks whether a token of the given user with the given issue time has been revoked.
+     * JWT issue times have second precision, so a token issued in the same second as the
+     * revocation is treated as revoked.
+     *
+     * @param userId   The user ID from the token.
+     * @param issuedAt The token's issue time; a token without one is revoked if the user has any epoch.
+     * @return {@code true} if the token must be rejected.
+     */
+    public boolean isRevoked(String userId, Date issuedAt) {
+        Long epoch = revokedBefore.get(userId);
+        if (epoch == null) {
+            return false;
+        }
+        return issuedAt == null || issuedAt.getTime() <= epoch;
+    }
+
+    private int refreshSince(LocalDateTime since) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<User> candidates = userRepository.findRevocationCandidates(REVOKING_STATUSES, since);
+        for (User user : candidates) {
+            revokeTokensIssuedBefore(user.getUserId(), toEpochMillis(user.getUpdatedAt(), startedAt));
+        }
+        lastRefresh = startedAt;
+        return candidates.size();
+    }
+
+    private void pruneExpired() {
+        // A token issued before (now - lifetime) has expired anyway, so older epochs are no longer needed
+        long threshold = System.currentTimeMillis() - tokenLifetimeMs;
+        revokedBefore.values().removeIf(epoch -> epoch < threshold);
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime, LocalDateTime fallback) {
+        LocalDateTime value = dateTime != null ? dateTime : fallback;
+        return value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -1,7 +1,7 @@
 package ir.hamqadam.core.security;
 
-import ir.hamqadam.core.model.User; // Your User entity
 import ir.hamqadam.core.repository.UserRepository; // Your UserRepository
+import ir.hamqadam.core.repository.projection.UserCredentials;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Primary;
 import org.springframework.security.core.GrantedAuthority;
@@ -14,7 +14,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.Objects;
 import java.util.Set;
 // Import other necessary collections if User model has roles/permissions directly
 // For Phase 1, roles might be simple strings or an enum.
@@ -35,7 +34,8 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
         // Assuming users can log in with either username or email.
         // Adjust the query if your User entity has a separate username field.
-        User user = userRepository.findByEmailOrTelegramId(usernameOrEmail) // Or findByUsernameOrEmail if you have that
+        // Only the credential fields are read; the rest of the profile is not needed to authenticate
+        UserCredentials user = userRepository.findCredentialsByEmailOrTelegramId(usernameOrEmail)
                 .orElseThrow(() ->
                         new UsernameNotFoundException("User not found with username or email: " + usernameOrEmail)
                 );
@@ -54,14 +54,8 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         authorities.add(new SimpleGrantedAuthority("ROLE_USER")); // Placeholder - customize this
 
 
-        return new org.springframework.security.core.userdetails.User(
-                usernameOrEmail, // Or user.getUsername() if you have one
-                Objects.nonNull(user.getPasswordHash())? user.getPasswordHash() : "",
-                user.getAccountStatus().toString().equalsIgnoreCase("active"), // enabled
-                true, // accountNonExpired
-                true, // credentialsNonExpired
-                true, // accountNonLocked - you might want a field for this in User model
-                authorities
-        );
+        // UserPrincipal keeps the user ID and account status so they can be embedded in issued tokens.
+        // It is enabled only for ACTIVE accounts; accountNonLocked might get its own field in the User model.
+        return UserPrincipal.create(user, usernameOrEmail, authorities); // Or user.getUsername() if you have one
     }
 }
\ No newline at end of file
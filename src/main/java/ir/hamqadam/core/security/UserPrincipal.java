@@ -0,0 +1,67 @@
+package ir.hamqadam.core.security;
+
+import ir.hamqadam.core.model.User;
+import ir.hamqadam.core.repository.projection.UserCredentials;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+/**
+ * Authenticated principal of a Hamqadam user.
+ * Extends Spring Security's {@link org.springframework.security.core.userdetails.User} so existing
+ * {@code principal.username} expressions keep working, and additionally carries the user ID and
+ * account status so they can be written to (and restored from) JWT claims.
+ */
+public class UserPrincipal extends org.springframework.security.core.userdetails.User {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String userId;
+    private final User.AccountStatus accountStatus;
+
+    public UserPrincipal(String username, String password, String userId, User.AccountStatus accountStatus,
+                         Collection<? extends GrantedAuthority> authorities) {
+        super(username, password != null ? password : "",
+                accountStatus == User.AccountStatus.ACTIVE, // enabled
+                true, // accountNonExpired
+                true, // credentialsNonExpired
+                true, // accountNonLocked
+                authorities);
+        this.userId = userId;
+        this.accountStatus = accountStatus;
+    }
+
+    /**
+     * Creates a principal for the given user entity.
+     *
+     * @param user        The user entity.
+     * @param username    The name the user authenticated with (email or Telegram ID).
+     * @param authorities The granted authorities.
+     * @return The principal.
+     */
+    public static UserPrincipal create(User user, String username, Collection<? extends GrantedAuthority> authorities) {
+        return new UserPrincipal(username, user.getPasswordHash(), user.getUserId(), user.getAccountStatus(), authorities);
+    }
+
+    /**
+     * Creates a principal from the credentials projection of a user.
+     *
+     * @param credentials The user's credentials.
+     * @param username    The name the user authenticated with (email or Telegram ID).
+     * @param authorities The granted authorities.
+     * @return The principal.
+     */
+    public static UserPrincipal create(UserCredentials credentials, String username,
+                                       Collection<? extends GrantedAuthority> authorities) {
+        return new UserPrincipal(username, credentials.getPasswordHash(), credentials.getUserId(),
+                credentials.getAccountStatus(), authorities);
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public User.AccountStatus getAccountStatus() {
+        return accountStatus;
+    }
+}
@@ -1,6 +1,11 @@
 package ir.hamqadam.core.security.jwt;
 
+import io.jsonwebtoken.Claims;
+import ir.hamqadam.core.model.User;
+import ir.hamqadam.core.security.AuthenticatedPrincipalCache;
+import ir.hamqadam.core.security.TokenRevocationRegistry;
 import ir.hamqadam.core.security.UserDetailsServiceImpl;
+import ir.hamqadam.core.security.UserPrincipal;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,8 +13,10 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -26,11 +33,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final UserDetailsServiceImpl userDetailsServiceImpl;
+    private final AuthenticatedPrincipalCache principalCache;
+    private final TokenRevocationRegistry revocationRegistry;
+    private final boolean statelessMode;
 
     @Autowired
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserDetailsServiceImpl userDetailsServiceImpl) {
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserDetailsServiceImpl userDetailsServiceImpl,
+                                   AuthenticatedPrincipalCache principalCache,
+                                   TokenRevocationRegistry revocationRegistry,
+                                   @Value("${hamqadam.security.jwt.stateless:false}") boolean statelessMode) {
         this.tokenProvider = tokenProvider;
         this.userDetailsServiceImpl = userDetailsServiceImpl;
+        this.principalCache = principalCache;
+        this.revocationRegistry = revocationRegistry;
+        this.statelessMode = statelessMode;
     }
 
     @Override
@@ -40,15 +56,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromJWT(jwt);
+            // Single parse per request; tokens verified earlier are served from the provider's cache
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.resolveClaims(jwt) : null;
 
-                UserDetails userDetails = userDetailsServiceImpl.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            if (claims != null) {
+                UserDetails userDetails = resolvePrincipal(claims);
+                if (userDetails != null) {
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
         } catch (Exception ex) {
             logger.error("Could not set user authentication in security context", ex);
@@ -57,6 +76,47 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Resolves the principal for verified claims. In stateless mode tokens carrying a user ID
+     * are trusted as-is (subject to revocation); otherwise, and for tokens issued before user IDs
+     * were embedded, the principal is loaded through the principal cache.
+     *
+     * @return The principal, or {@code null} if the token has been revoked.
+     */
+    private UserDetails resolvePrincipal(Claims claims) {
+        String userId = claims.get(JwtTokenProvider.CLAIM_USER_ID, String.class);
+        if (statelessMode && userId != null) {
+            if (revocationRegistry.isRevoked(userId, claims.getIssuedAt())) {
+                logger.debug("Rejected revoked token of userId: {}", userId);
+                return null;
+            }
+            UserPrincipal principal = principalFromClaims(claims, userId);
+            if (principal != null) {
+                return principal;
+            }
+        }
+        // Reuse the principal resolved for this token instead of hitting MongoDB on every request
+        return principalCache.get(claims.getSubject(), claims.getIssuedAt(),
+                userDetailsServiceImpl::loadUserByUsername);
+    }
+
+    private UserPrincipal principalFromClaims(Claims claims, String userId) {
+        String status = claims.get(JwtTokenProvider.CLAIM_ACCOUNT_STATUS, String.class);
+        if (status == null) {
+            return null;
+        }
+        User.AccountStatus accountStatus;
+        try {
+            accountStatus = User.AccountStatus.valueOf(status);
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Unknown account status '{}' in token of userId: {}", status, userId);
+            return null;
+        }
+        String authorities = claims.get(JwtTokenProvider.CLAIM_AUTHORITIES, String.class);
+        return new UserPrincipal(claims.getSubject(), "", userId, accountStatus,
+                AuthorityUtils.commaSeparatedStringToAuthorityList(authorities != null ? authorities : ""));
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -64,4 +124,4 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         return null;
     }
-}
\ No newline at end of file
+}
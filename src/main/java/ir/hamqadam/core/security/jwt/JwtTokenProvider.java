@@ -1,9 +1,13 @@
 package ir.hamqadam.core.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import ir.hamqadam.core.security.UserPrincipal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -13,7 +17,12 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Component
@@ -21,38 +30,38 @@ public class JwtTokenProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
 
+    public static final String CLAIM_AUTHORITIES = "auth";
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ACCOUNT_STATUS = "status";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration.ms}")
     private long jwtExpirationInMs;
 
+    @Value("${hamqadam.security.jwt.verified-token-cache.maximum-size:10000}")
+    private long verifiedTokenCacheSize = 10_000;
+
     private SecretKey key;
+    private JwtParser parser;
+    private Cache<TokenDigest, Claims> verifiedTokens;
 
     // Initialize the key after properties are set
     @jakarta.annotation.PostConstruct
     public void init() {
         this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.parser = Jwts.parser().verifyWith(key).build(); // Immutable and thread-safe
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedTokenCacheSize)
+                .expireAfter(new TokenExpiry())
+                .build();
     }
 
 
     public String generateToken(Authentication authentication) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
-
-        String authorities = userPrincipal.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.joining(","));
-
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
-
-        return Jwts.builder()
-                .subject(userPrincipal.getUsername())
-                .claim("auth", authorities) // Add roles/authorities as a claim
-                .issuedAt(new Date())
-                .expiration(expiryDate)
-                .signWith(key, Jwts.SIG.HS512)
-                .compact();
+        return generateToken(userPrincipal);
     }
 
     // Overloaded method to generate token directly from UserDetails (e.g., after registration)
@@ -63,29 +72,79 @@ public class JwtTokenProvider {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .subject(userDetails.getUsername())
-                .claim("auth", authorities)
+                .claim(CLAIM_AUTHORITIES, authorities) // Add roles/authorities as a claim
                 .issuedAt(now)
-                .expiration(expiryDate)
+                .expiration(expiryDate);
+        if (userDetails instanceof UserPrincipal principal) {
+            // Lets the filter rebuild the principal from the token alone in stateless mode
+            builder.claim(CLAIM_USER_ID, principal.getUserId());
+            if (principal.getAccountStatus() != null) {
+                builder.claim(CLAIM_ACCOUNT_STATUS, principal.getAccountStatus().name());
+            }
+        }
+        return builder
                 .signWith(key, Jwts.SIG.HS512)
                 .compact();
     }
 
 
     public String getUsernameFromJWT(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.getSubject();
+        return getClaimsFromJWT(token).getSubject();
+    }
+
+    // Returns the verified claims (subject, issue time, authorities, ...) of the token
+    public Claims getClaimsFromJWT(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+
+    /**
+     * Parses and verifies the token once and returns its claims.
+     * Tokens that were already verified are served from a cache keyed by the SHA-256 digest
+     * of the token and kept until the token's {@code exp}, so repeated use of the same token
+     * skips the JSON parse and the HMAC-SHA512 check.
+     *
+     * @param token The compact JWT.
+     * @return The verified claims, or {@code null} if the token is invalid or expired.
+     */
+    public Claims resolveClaims(String token) {
+        if (token == null || token.isEmpty()) {
+            logger.error("JWT claims string is empty.");
+            return null;
+        }
+        TokenDigest digest = TokenDigest.of(token);
+        Claims claims = verifiedTokens.getIfPresent(digest);
+        if (claims != null) {
+            return claims;
+        }
+        claims = parseAndVerify(token);
+        if (claims != null) {
+            verifiedTokens.put(digest, claims);
+        }
+        return claims;
+    }
+
+    /**
+     * Returns the claims of a token only if it has already been verified, without verifying it now.
+     *
+     * @param token The compact JWT.
+     * @return The cached claims, or {@code null} if the token has not been verified before.
+     */
+    public Claims peekVerifiedClaims(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        return verifiedTokens.getIfPresent(TokenDigest.of(token));
     }
 
     public boolean validateToken(String authToken) {
+        return resolveClaims(authToken) != null;
+    }
+
+    private Claims parseAndVerify(String authToken) {
         try {
-            Jwts.parser().verifyWith(key).build().parseSignedClaims(authToken);
-            return true;
+            return parser.parseSignedClaims(authToken).getPayload();
         } catch (SignatureException ex) {
             logger.error("Invalid JWT signature");
         } catch (MalformedJwtException ex) {
@@ -96,7 +155,54 @@ public class JwtTokenProvider {
             logger.error("Unsupported JWT token");
         } catch (IllegalArgumentException ex) {
             logger.error("JWT claims string is empty.");
+        } catch (JwtException ex) {
+            logger.error("Invalid JWT token: {}", ex.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Keeps each verified token until its own expiration time.
+     */
+    private final class TokenExpiry implements Expiry<TokenDigest, Claims> {
+
+        @Override
+        public long expireAfterCreate(TokenDigest key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            long remainingMs = expiration != null
+                    ? expiration.getTime() - System.currentTimeMillis()
+                    : jwtExpirationInMs;
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, remainingMs));
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenDigest key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(TokenDigest key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * SHA-256 digest of a token, held as four longs so cached keys do not retain the bearer token itself.
+     */
+    private record TokenDigest(long w0, long w1, long w2, long w3) {
+
+        private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IllegalStateException("SHA-256 is not available", ex);
+            }
+        });
+
+        static TokenDigest of(String token) {
+            MessageDigest sha256 = SHA_256.get();
+            ByteBuffer hash = ByteBuffer.wrap(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+            return new TokenDigest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
         }
-        return false;
     }
-}
\ No newline at end of file
+}
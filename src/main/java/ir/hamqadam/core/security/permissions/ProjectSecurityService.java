@@ -1,37 +1,45 @@
 package ir.hamqadam.core.security.permissions;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import ir.hamqadam.core.model.Project;
-import ir.hamqadam.core.model.Team;
-import ir.hamqadam.core.model.User;
 import ir.hamqadam.core.repository.ProjectRepository;
-import ir.hamqadam.core.repository.TeamRepository;
-import ir.hamqadam.core.repository.UserRepository;
+import ir.hamqadam.core.security.IdentityResolver;
+import ir.hamqadam.core.util.RequestIdentityMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashSet;
 import java.util.Optional;
+import java.util.Set;
 
 @Service("projectSecurityService")
 @Transactional(readOnly = true)
 public class ProjectSecurityService {
 
     private static final Logger logger = LoggerFactory.getLogger(ProjectSecurityService.class);
-    private static final String ROLE_TEAM_ADMIN = "ADMIN"; // Role within a team
+    private static final String CHECK_TIMER = "hamqadam.permissions.check";
 
     private final ProjectRepository projectRepository;
-    private final UserRepository userRepository;
-    private final TeamRepository teamRepository; // To check roles in managing teams
+    private final IdentityResolver identityResolver;
+    private final TeamPermissionIndex permissionIndex; // To check roles in managing teams
+    private final MeterRegistry meterRegistry;
+    private final RequestIdentityMap identityMap;
 
     @Autowired
     public ProjectSecurityService(ProjectRepository projectRepository,
-                                  UserRepository userRepository,
-                                  TeamRepository teamRepository) {
+                                  IdentityResolver identityResolver,
+                                  TeamPermissionIndex permissionIndex,
+                                  MeterRegistry meterRegistry,
+                                  RequestIdentityMap identityMap) {
         this.projectRepository = projectRepository;
-        this.userRepository = userRepository;
-        this.teamRepository = teamRepository;
+        this.identityResolver = identityResolver;
+        this.permissionIndex = permissionIndex;
+        this.meterRegistry = meterRegistry;
+        this.identityMap = identityMap;
     }
 
     /**
@@ -43,11 +51,18 @@ public class ProjectSecurityService {
      * @return True if the user can update project info, false otherwise.
      */
     public boolean canUpdateProjectInfo(String projectId, String username) {
-        Optional<User> userOpt = userRepository.findByEmail(username);
-        if (userOpt.isEmpty()) return false;
-        String userId = userOpt.get().getUserId();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        boolean granted = evaluateUpdateProjectInfo(projectId, username);
+        recordCheck(sample, "canUpdateProjectInfo", granted);
+        return granted;
+    }
+
+    private boolean evaluateUpdateProjectInfo(String projectId, String username) {
+        Optional<String> userIdOpt = identityResolver.resolveUserId(username);
+        if (userIdOpt.isEmpty()) return false;
+        String userId = userIdOpt.get();
 
-        Optional<Project> projectOpt = projectRepository.findById(projectId);
+        Optional<Project> projectOpt = identityMap.findById(projectRepository, Project.class, projectId);
         if (projectOpt.isEmpty()) return false; // Or throw exception if project must exist
 
         Project project = projectOpt.get();
@@ -66,19 +81,9 @@ public class ProjectSecurityService {
         }
 
 
-        // Check if user is an admin of any of the managing teams
-        if (project.getManagingTeamIds() != null) {
-            for (String teamId : project.getManagingTeamIds()) {
-                Optional<Team> teamOpt = teamRepository.findById(teamId);
-                if (teamOpt.isPresent()) {
-                    Team team = teamOpt.get();
-                    boolean isManagingTeamAdmin = team.getMembers().stream()
-                            .anyMatch(member -> member.getUserId().equals(userId) &&
-                                    member.getRoles().contains(ROLE_TEAM_ADMIN) &&
-                                    member.getStatusInTeam() == Team.MemberStatus.ACTIVE);
-                    if (isManagingTeamAdmin) return true;
-                }
-            }
+        // Check if user may manage projects in any of the managing teams (teams not yet compiled load in one query)
+        if (permissionIndex.hasCapabilityInAny(project.getManagingTeamIds(), userId, TeamCapability.MANAGE_PROJECTS)) {
+            return true;
         }
         logger.debug("Permission denied: User '{}' cannot update info for project '{}'", username, projectId);
         return false;
@@ -116,7 +121,14 @@ public class ProjectSecurityService {
      * @return True if user can view, false otherwise.
      */
     public boolean canViewProject(String projectId, String username) {
-        Optional<Project> projectOpt = projectRepository.findById(projectId);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        boolean granted = evaluateViewProject(projectId, username);
+        recordCheck(sample, "canViewProject", granted);
+        return granted;
+    }
+
+    private boolean evaluateViewProject(String projectId, String username) {
+        Optional<Project> projectOpt = identityMap.findById(projectRepository, Project.class, projectId);
         if (projectOpt.isEmpty()) {
             return false; // Or throw ResourceNotFound
         }
@@ -131,11 +143,11 @@ public class ProjectSecurityService {
             return false; // Unauthenticated user cannot see private projects
         }
 
-        Optional<User> userOpt = userRepository.findByEmail(username);
-        if (userOpt.isEmpty()) {
+        Optional<String> userIdOpt = identityResolver.resolveUserId(username);
+        if (userIdOpt.isEmpty()) {
             return false;
         }
-        String userId = userOpt.get().getUserId();
+        String userId = userIdOpt.get();
 
         // Is creator?
         Project.CreatorInfo creatorInfo = project.getCreatorInfo();
@@ -149,33 +161,40 @@ public class ProjectSecurityService {
             // Let's consider formal involvement for viewing private projects.
         }
 
-        // Is member of managing team?
+        // Is an individual contributor? (checked first, it needs no query)
+        if (project.getIndividualContributors() != null && project.getIndividualContributors().stream()
+                .anyMatch(ic -> ic.getUserId().equals(userId))) {
+            return true;
+        }
+        // Is an active member of a managing or contributing team? Checked against the compiled team permissions.
+        if (permissionIndex.hasCapabilityInAny(involvedTeamIds(project), userId, TeamCapability.VIEW_TEAM)) {
+            return true;
+        }
+
+        logger.debug("Permission denied: User '{}' cannot view private project '{}'", username, projectId);
+        return false;
+    }
+
+    private Set<String> involvedTeamIds(Project project) {
+        Set<String> teamIds = new LinkedHashSet<>();
         if (project.getManagingTeamIds() != null) {
-            for (String teamId : project.getManagingTeamIds()) {
-                Optional<Team> teamOpt = teamRepository.findById(teamId);
-                if (teamOpt.isPresent() && teamOpt.get().getMembers().stream()
-                        .anyMatch(m -> m.getUserId().equals(userId) && m.getStatusInTeam() == Team.MemberStatus.ACTIVE)) {
-                    return true;
-                }
-            }
+            teamIds.addAll(project.getManagingTeamIds());
         }
-        // Is member of contributing team?
         if (project.getContributingTeams() != null) {
             for (Project.ContributingTeamInfo cTeamInfo : project.getContributingTeams()) {
-                Optional<Team> teamOpt = teamRepository.findById(cTeamInfo.getTeamId());
-                if (teamOpt.isPresent() && teamOpt.get().getMembers().stream()
-                        .anyMatch(m -> m.getUserId().equals(userId) && m.getStatusInTeam() == Team.MemberStatus.ACTIVE)) {
-                    return true;
+                if (cTeamInfo.getTeamId() != null) {
+                    teamIds.add(cTeamInfo.getTeamId());
                 }
             }
         }
-        // Is an individual contributor?
-        if (project.getIndividualContributors() != null && project.getIndividualContributors().stream()
-                .anyMatch(ic -> ic.getUserId().equals(userId))) {
-            return true;
-        }
+        return teamIds;
+    }
 
-        logger.debug("Permission denied: User '{}' cannot view private project '{}'", username, projectId);
-        return false;
+    private void recordCheck(Timer.Sample sample, String check, boolean granted) {
+        sample.stop(Timer.builder(CHECK_TIMER)
+                .description("Latency of permission checks")
+                .tag("check", check)
+                .tag("outcome", granted ? "granted" : "denied")
+                .register(meterRegistry));
     }
-}
\ No newline at end of file
+}
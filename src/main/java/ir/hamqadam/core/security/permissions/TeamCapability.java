@@ -0,0 +1,68 @@
+package ir.hamqadam.core.security.permissions;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Capabilities a member can hold within a team. Each capability is one bit of a {@code long} mask,
+ * so a member's rights are compiled once and checked with a single bit test.
+ */
+public enum TeamCapability {
+    VIEW_TEAM,          // Active member: see private team content
+    MANAGE_CONTENT,     // Edit posts and routines authored by the team
+    INVITE_MEMBERS,     // Invite users to the team
+    MANAGE_MEMBERS,     // Process join requests, change roles, remove members
+    MANAGE_TEAM,        // Update team info and status
+    MANAGE_PROJECTS;    // Manage projects the team is managing
+
+    public static final long NONE = 0L;
+    public static final long ALL = (1L << values().length) - 1;
+
+    /**
+     * Capabilities granted by the built-in team roles. Only admins manage anything; any other role name
+     * (e.g. "EDITOR", or one of the team's defined, descriptive roles) only grants {@link #VIEW_TEAM}.
+     */
+    private static final Map<String, Long> ROLE_MASKS = Map.of(
+            "ADMIN", ALL,
+            "MEMBER", maskOf(VIEW_TEAM)
+    );
+
+    public long bit() {
+        return 1L << ordinal();
+    }
+
+    public boolean isGrantedBy(long mask) {
+        return (mask & bit()) != 0;
+    }
+
+    public static long maskOf(TeamCapability... capabilities) {
+        long mask = NONE;
+        for (TeamCapability capability : capabilities) {
+            mask |= capability.bit();
+        }
+        return mask;
+    }
+
+    /**
+     * @param role A team role name as stored in {@code Team.TeamMember.roles}.
+     * @return The capability mask the role grants.
+     */
+    public static long maskOfRole(String role) {
+        if (role == null) {
+            return NONE;
+        }
+        return ROLE_MASKS.getOrDefault(role, VIEW_TEAM.bit());
+    }
+
+    /**
+     * @param capability A capability other than {@link #VIEW_TEAM}, which every active member holds.
+     * @return The built-in roles granting the capability, for queries matching stored memberships.
+     */
+    public static Set<String> rolesGranting(TeamCapability capability) {
+        return ROLE_MASKS.entrySet().stream()
+                .filter(entry -> capability.isGrantedBy(entry.getValue()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -0,0 +1,233 @@
+package ir.hamqadam.core.security.permissions;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import ir.hamqadam.core.model.Team;
+import ir.hamqadam.core.repository.TeamRepository;
+import ir.hamqadam.core.repository.projection.TeamVersion;
+import ir.hamqadam.core.util.RequestIdentityMap;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * In-memory index of compiled team permissions: for every team, the {@link TeamCapability} mask of
+ * each active member. Authorization checks become a map lookup and a bit test instead of a scan over
+ * {@code Team.members} with string comparisons.
+ * <p>
+ * A team is compiled again whenever it is saved on this instance (via the Mongo mapping events), or
+ * when a caller passes a team whose {@code updatedAt} differs from the compiled version. Within an HTTP
+ * request, a check by team ID reads the team through the {@link RequestIdentityMap}: the first check
+ * loads it, the same load the service method behind the check makes, and every later check in the request
+ * is a bit test. Outside a request, a check first reads the team's stored {@code updatedAt} through the
+ * {@link TeamVersion} projection. Either way a member removed or demoted on another instance loses their
+ * rights on their next request, not when the entry expires.
+ * <p>
+ * Checks across several teams answer from the teams this request already loaded, and ask about the others
+ * with a single {@code $elemMatch} exists query, which reads no team data.
+ */
+@Component
+public class TeamPermissionIndex extends AbstractMongoEventListener<Team> {
+
+    public static final String CACHE_NAME = "teamPermissionCache";
+
+    /**
+     * Capability masks of a team's active members, compiled from the team as of {@code version}.
+     */
+    record CompiledTeam(LocalDateTime version, Map<String, Long> masks) {
+
+        long capabilitiesOf(String userId) {
+            return userId == null ? TeamCapability.NONE : masks.getOrDefault(userId, TeamCapability.NONE);
+        }
+    }
+
+    private final TeamRepository teamRepository;
+    private final RequestIdentityMap identityMap;
+    private final Cache<String, CompiledTeam> compiledTeams;
+
+    @Autowired
+    public TeamPermissionIndex(TeamRepository teamRepository,
+                               RequestIdentityMap identityMap,
+                               MeterRegistry meterRegistry,
+                               @Value("${hamqadam.security.team-permissions.ttl-seconds:60}") long ttlSeconds,
+                               @Value("${hamqadam.security.team-permissions.maximum-size:10000}") long maximumSize) {
+        this.teamRepository = teamRepository;
+        this.identityMap = identityMap;
+        this.compiledTeams = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, compiledTeams, CACHE_NAME);
+    }
+
+    /**
+     * Checks a capability of a user in a team, loading and compiling the team on first use, and again
+     * whenever its stored version has moved on.
+     *
+     * @param teamId     The ID of the team.
+     * @param userId     The ID of the user.
+     * @param capability The capability to check.
+     * @return True if the user is an active member holding the capability; false if not, or if the team does not exist.
+     */
+    public boolean hasCapability(String teamId, String userId, TeamCapability capability) {
+        if (teamId == null) {
+            return false;
+        }
+        if (identityMap.isActive()) {
+            // Loaded once per request and shared with the service, so this is current for the request
+            return identityMap.findById(teamRepository, Team.class, teamId)
+                    .map(team -> hasCapability(team, userId, capability))
+                    .orElse(false);
+        }
+        CompiledTeam compiled = compiledTeams.getIfPresent(teamId);
+        if (compiled != null) {
+            Optional<LocalDateTime> stored = teamRepository.findVersionByTeamId(teamId).map(TeamVersion::getUpdatedAt);
+            if (stored.isEmpty()) {
+                invalidate(teamId); // Deleted elsewhere
+                return false;
+            }
+            if (!isCurrent(compiled, stored.get())) {
+                compiled = null;
+            }
+        }
+        if (compiled == null) {
+            compiled = teamRepository.findById(teamId).map(this::compileAndStore).orElse(null);
+        }
+        return compiled != null && capability.isGrantedBy(compiled.capabilitiesOf(userId));
+    }
+
+    /**
+     * Checks a capability of a user in a team that has already been loaded. The compiled entry is reused
+     * as long as it was built from the same version of the team.
+     *
+     * @param team       The team.
+     * @param userId     The ID of the user.
+     * @param capability The capability to check.
+     * @return True if the user is an active member holding the capability.
+     */
+    public boolean hasCapability(Team team, String userId, TeamCapability capability) {
+        CompiledTeam compiled = compiledTeams.getIfPresent(team.getTeamId());
+        if (compiled == null || !isCurrent(compiled, team.getUpdatedAt())) {
+            compiled = compileAndStore(team);
+        }
+        return capability.isGrantedBy(compiled.capabilitiesOf(userId));
+    }
+
+    /**
+     * Checks whether a user holds a capability in at least one of the given teams. Teams this request
+     * already loaded are checked in memory; the others are checked with one exists query on their stored
+     * memberships.
+     *
+     * @param teamIds    The IDs of the teams.
+     * @param userId     The ID of the user.
+     * @param capability The capability to check.
+     * @return True if the capability is held in any of the teams.
+     */
+    public boolean hasCapabilityInAny(Collection<String> teamIds, String userId, TeamCapability capability) {
+        if (teamIds == null || teamIds.isEmpty() || userId == null) {
+            return false;
+        }
+        Set<String> unloadedIds = new LinkedHashSet<>();
+        for (String teamId : teamIds) {
+            Optional<Team> loaded = identityMap.findLoaded(Team.class, teamId);
+            if (loaded.isPresent()) {
+                if (hasCapability(loaded.get(), userId, capability)) {
+                    return true;
+                }
+            } else if (teamId != null) {
+                unloadedIds.add(teamId);
+            }
+        }
+        if (unloadedIds.isEmpty()) {
+            return false;
+        }
+        if (capability == TeamCapability.VIEW_TEAM) {
+            return teamRepository.existsMemberInAnyTeam(unloadedIds, userId, Team.MemberStatus.ACTIVE);
+        }
+        Set<String> roles = TeamCapability.rolesGranting(capability);
+        return !roles.isEmpty()
+                && teamRepository.existsMemberWithAnyRoleInAnyTeam(unloadedIds, userId, Team.MemberStatus.ACTIVE, roles);
+    }
+
+    /**
+     * Compiles a team and replaces its entry in the index.
+     *
+     * @param team The current state of the team.
+     */
+    public void rebuild(Team team) {
+        compileAndStore(team);
+    }
+
+    public void invalidate(String teamId) {
+        compiledTeams.invalidate(teamId);
+    }
+
+    private CompiledTeam compileAndStore(Team team) {
+        CompiledTeam compiled = compile(team);
+        if (team.getTeamId() != null) {
+            compiledTeams.put(team.getTeamId(), compiled);
+        }
+        return compiled;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Team> event) {
+        rebuild(event.getSource());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Team> event) {
+        Object id = event.getDocument() != null ? event.getDocument().get("_id") : null;
+        if (id instanceof String || id instanceof ObjectId) {
+            invalidate(id.toString());
+        } else {
+            compiledTeams.invalidateAll();
+        }
+    }
+
+    static CompiledTeam compile(Team team) {
+        Map<String, Long> masks = new HashMap<>();
+        if (team.getMembers() != null) {
+            for (Team.TeamMember member : team.getMembers()) {
+                if (member.getStatusInTeam() != Team.MemberStatus.ACTIVE || member.getUserId() == null) {
+                    continue;
+                }
+                long mask = TeamCapability.VIEW_TEAM.bit(); // Every active member can view the team
+                if (member.getRoles() != null) {
+                    for (String role : member.getRoles()) {
+                        mask |= TeamCapability.maskOfRole(role);
+                    }
+                }
+                masks.merge(member.getUserId(), mask, (a, b) -> a | b);
+            }
+        }
+        return new CompiledTeam(versionOf(team.getUpdatedAt()), Map.copyOf(masks));
+    }
+
+    private static boolean isCurrent(CompiledTeam compiled, LocalDateTime updatedAt) {
+        return Objects.equals(compiled.version(), versionOf(updatedAt));
+    }
+
+    // As stored: Mongo keeps milliseconds, so a team saved here and read back elsewhere compares equal
+    private static LocalDateTime versionOf(LocalDateTime updatedAt) {
+        return updatedAt == null ? null : updatedAt.truncatedTo(ChronoUnit.MILLIS);
+    }
+}
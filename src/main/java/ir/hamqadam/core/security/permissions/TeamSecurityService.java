@@ -1,9 +1,6 @@
 package ir.hamqadam.core.security.permissions;
 
-import ir.hamqadam.core.model.Team;
-import ir.hamqadam.core.model.User;
-import ir.hamqadam.core.repository.TeamRepository;
-import ir.hamqadam.core.repository.UserRepository;
+import ir.hamqadam.core.security.IdentityResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,15 +14,14 @@ import java.util.Optional;
 public class TeamSecurityService {
 
     private static final Logger logger = LoggerFactory.getLogger(TeamSecurityService.class);
-    private static final String ROLE_ADMIN = "ADMIN"; // Consistent role name
 
-    private final TeamRepository teamRepository;
-    private final UserRepository userRepository;
+    private final IdentityResolver identityResolver;
+    private final TeamPermissionIndex permissionIndex;
 
     @Autowired
-    public TeamSecurityService(TeamRepository teamRepository, UserRepository userRepository) {
-        this.teamRepository = teamRepository;
-        this.userRepository = userRepository;
+    public TeamSecurityService(IdentityResolver identityResolver, TeamPermissionIndex permissionIndex) {
+        this.identityResolver = identityResolver;
+        this.permissionIndex = permissionIndex;
     }
 
     /**
@@ -36,43 +32,19 @@ public class TeamSecurityService {
      * @return True if the user is an admin of the team, false otherwise.
      */
     public boolean isTeamAdmin(String teamId, String username) {
-        Optional<User> userOpt = userRepository.findByEmail(username);
-        if (userOpt.isEmpty()) {
-            logger.warn("User not found for permission check: {}", username);
-            return false;
-        }
-        String userId = userOpt.get().getUserId();
-
-        Optional<Team> teamOpt = teamRepository.findById(teamId);
-        if (teamOpt.isEmpty()) {
-            logger.warn("Team not found for permission check: {}", teamId);
-            return false; // Or throw ResourceNotFoundException if appropriate for the context
-        }
-
-        Team team = teamOpt.get();
-        boolean isAdmin = team.getMembers().stream()
-                .anyMatch(member -> member.getUserId().equals(userId) &&
-                        member.getRoles().contains(ROLE_ADMIN) &&
-                        member.getStatusInTeam() == Team.MemberStatus.ACTIVE);
-
-        if (!isAdmin) {
-            logger.debug("Permission denied: User '{}' is not an admin of team '{}'", username, teamId);
-        }
-        return isAdmin;
+        return hasCapability(teamId, username, TeamCapability.MANAGE_TEAM);
     }
 
     /**
      * Checks if the user can invite members to the specified team.
-     * For Phase 1, this might be restricted to team admins.
+     * Granted to team admins; see {@link TeamCapability} for the role mapping.
      *
      * @param teamId   The ID of the team.
      * @param username The username (email) of the user performing the action.
      * @return True if the user can invite members, false otherwise.
      */
     public boolean canInviteToTeam(String teamId, String username) {
-        // For Phase 1, let's assume only team admins can invite.
-        // This can be expanded later to include other roles or specific permissions.
-        return isTeamAdmin(teamId, username);
+        return hasCapability(teamId, username, TeamCapability.INVITE_MEMBERS);
     }
 
     /**
@@ -82,19 +54,19 @@ public class TeamSecurityService {
      * @return True if the user is an active member, false otherwise.
      */
     public boolean isTeamMember(String teamId, String username) {
-        Optional<User> userOpt = userRepository.findByEmail(username);
-        if (userOpt.isEmpty()) {
-            return false;
-        }
-        String userId = userOpt.get().getUserId();
+        return hasCapability(teamId, username, TeamCapability.VIEW_TEAM);
+    }
 
-        Optional<Team> teamOpt = teamRepository.findById(teamId);
-        if (teamOpt.isEmpty()) {
+    private boolean hasCapability(String teamId, String username, TeamCapability capability) {
+        Optional<String> userIdOpt = identityResolver.resolveUserId(username);
+        if (userIdOpt.isEmpty()) {
+            logger.warn("User not found for permission check: {}", username);
             return false;
         }
-        Team team = teamOpt.get();
-        return team.getMembers().stream()
-                .anyMatch(member -> member.getUserId().equals(userId) &&
-                        member.getStatusInTeam() == Team.MemberStatus.ACTIVE);
+        boolean granted = permissionIndex.hasCapability(teamId, userIdOpt.get(), capability);
+        if (!granted) {
+            logger.debug("Permission denied: User '{}' lacks {} in team '{}'", username, capability, teamId);
+        }
+        return granted;
     }
-}
\ No newline at end of file
+}
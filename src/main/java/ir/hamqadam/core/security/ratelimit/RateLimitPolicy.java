@@ -0,0 +1,82 @@
+package ir.hamqadam.core.security.ratelimit;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A rate limit for one route group: requests matching {@code method} and {@code pathPattern} may use
+ * {@code capacity} tokens per {@code period}, counted per client as selected by {@code keyType}.
+ * <p>
+ * Policies are written as {@code group,METHOD,/path/pattern,capacity,periodSeconds,KEY} and separated
+ * by {@code ;}, e.g. {@code login,POST,/api/v1/auth/login/**,10,60,IP}. The method may be {@code *}.
+ */
+public record RateLimitPolicy(String group,
+                              String method,
+                              PathPattern pathPattern,
+                              int capacity,
+                              Duration period,
+                              KeyType keyType) {
+
+    /**
+     * How clients are told apart.
+     */
+    public enum KeyType {
+        IP,         // Remote address
+        USER_OR_IP  // Authenticated user if the bearer token is known, otherwise the remote address
+    }
+
+    public boolean matches(String requestMethod, PathContainer path) {
+        return (method == null || method.equals(requestMethod)) && pathPattern.matches(path);
+    }
+
+    /**
+     * Parses a policy list.
+     *
+     * @param spec Policies separated by {@code ;}, may be empty.
+     * @return The policies, in the order given; the first matching policy applies to a request.
+     * @throws IllegalArgumentException If an entry is malformed.
+     */
+    public static List<RateLimitPolicy> parseList(String spec) {
+        List<RateLimitPolicy> policies = new ArrayList<>();
+        if (!StringUtils.hasText(spec)) {
+            return policies;
+        }
+        for (String entry : spec.split(";")) {
+            if (StringUtils.hasText(entry)) {
+                policies.add(parse(entry.trim()));
+            }
+        }
+        return policies;
+    }
+
+    static RateLimitPolicy parse(String entry) {
+        String[] parts = entry.split(",");
+        if (parts.length != 6) {
+            throw new IllegalArgumentException("Rate limit policy must have 6 comma-separated fields: " + entry);
+        }
+        try {
+            String method = parts[1].trim().toUpperCase(Locale.ROOT);
+            int capacity = Integer.parseInt(parts[3].trim());
+            long periodSeconds = Long.parseLong(parts[4].trim());
+            if (capacity <= 0 || periodSeconds <= 0) {
+                throw new IllegalArgumentException("Capacity and period must be positive: " + entry);
+            }
+            return new RateLimitPolicy(
+                    parts[0].trim(),
+                    "*".equals(method) ? null : method,
+                    PathPatternParser.defaultInstance.parse(parts[2].trim()),
+                    capacity,
+                    Duration.ofSeconds(periodSeconds),
+                    KeyType.valueOf(parts[5].trim().toUpperCase(Locale.ROOT)));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid rate limit policy '" + entry + "': " + ex.getMessage(), ex);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package ir.hamqadam.core.security.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import ir.hamqadam.core.security.jwt.JwtTokenProvider;
+import ir.hamqadam.core.service.SystemSettingsService;
+import ir.hamqadam.core.service.event.SystemSettingChangedEvent;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.server.PathContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Decides whether a request may proceed, using one {@link TokenBucket} per (route group, client).
+ * <p>
+ * Policies come from the {@value #POLICIES_SETTING_KEY} system setting, falling back to
+ * {@code hamqadam.ratelimit.policies}. Changes saved through {@link SystemSettingsService} apply
+ * immediately on this instance and are picked up by the others on the next refresh.
+ */
+@Component
+public class RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiter.class);
+
+    public static final String POLICIES_SETTING_KEY = "rate_limit_policies";
+    private static final String DECISIONS_METER = "hamqadam.ratelimit.decisions";
+
+    /**
+     * Outcome of a check. {@code policy} is {@code null} when no policy applies to the request.
+     */
+    public record Decision(RateLimitPolicy policy, boolean allowed, long retryAfterNanos) {
+
+        static final Decision UNLIMITED = new Decision(null, true, 0);
+    }
+
+    private record CompiledPolicy(RateLimitPolicy policy, Counter allowed, Counter rejected) {
+    }
+
+    private final SystemSettingsService systemSettingsService;
+    private final JwtTokenProvider tokenProvider;
+    private final MeterRegistry meterRegistry;
+    private final String defaultPolicies;
+    private final boolean enabled;
+    private final Cache<String, TokenBucket> buckets;
+
+    private volatile String activeSpec;
+    private volatile List<CompiledPolicy> policies = List.of();
+
+    @Autowired
+    public RateLimiter(SystemSettingsService systemSettingsService,
+                       JwtTokenProvider tokenProvider,
+                       MeterRegistry meterRegistry,
+                       @Value("${hamqadam.ratelimit.enabled:true}") boolean enabled,
+                       @Value("${hamqadam.ratelimit.policies:}") String defaultPolicies,
+                       @Value("${hamqadam.ratelimit.idle-bucket-seconds:600}") long idleBucketSeconds,
+                       @Value("${hamqadam.ratelimit.maximum-buckets:100000}") long maximumBuckets) {
+        this.systemSettingsService = systemSettingsService;
+        this.tokenProvider = tokenProvider;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.defaultPolicies = defaultPolicies;
+        // Idle buckets are full again long before they expire, so dropping them loses nothing
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofSeconds(idleBucketSeconds))
+                .maximumSize(maximumBuckets)
+                .build();
+        Gauge.builder("hamqadam.ratelimit.buckets", buckets, Cache::estimatedSize)
+                .description("Number of live rate limit buckets")
+                .register(meterRegistry);
+        applyPolicies(defaultPolicies);
+    }
+
+    /**
+     * Takes a token for the request from the bucket of the first matching policy.
+     *
+     * @param request The incoming request.
+     * @return The decision; requests matching no policy are always allowed.
+     */
+    public Decision check(HttpServletRequest request) {
+        List<CompiledPolicy> current = policies;
+        if (!enabled || current.isEmpty()) {
+            return Decision.UNLIMITED;
+        }
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        String method = request.getMethod();
+        for (CompiledPolicy compiled : current) {
+            RateLimitPolicy policy = compiled.policy();
+            if (policy.matches(method, path)) {
+                long nanosUntilToken = acquire(policy, clientKey(policy, request));
+                if (nanosUntilToken == 0) {
+                    compiled.allowed().increment();
+                    return new Decision(policy, true, 0);
+                }
+                compiled.rejected().increment();
+                return new Decision(policy, false, nanosUntilToken);
+            }
+        }
+        return Decision.UNLIMITED;
+    }
+
+    long acquire(RateLimitPolicy policy, String clientKey) {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(policy.group() + '|' + clientKey,
+                key -> new TokenBucket(policy.capacity(), policy.period().toNanos(), now));
+        return bucket.tryAcquire(now);
+    }
+
+    private String clientKey(RateLimitPolicy policy, HttpServletRequest request) {
+        if (policy.keyType() == RateLimitPolicy.KeyType.USER_OR_IP) {
+            // Only tokens that were already verified count as a user; anything else is limited by address
+            String header = request.getHeader("Authorization");
+            if (header != null && header.startsWith("Bearer ")) {
+                Claims claims = tokenProvider.peekVerifiedClaims(header.substring(7));
+                if (claims != null && claims.getSubject() != null) {
+                    return "user:" + claims.getSubject();
+                }
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${hamqadam.ratelimit.refresh-interval-ms:60000}",
+            initialDelayString = "${hamqadam.ratelimit.refresh-interval-ms:60000}")
+    public void refreshPolicies() {
+        if (enabled) {
+            String spec = systemSettingsService.getString(POLICIES_SETTING_KEY, defaultPolicies);
+            applyPolicies(spec != null ? spec : defaultPolicies);
+        }
+    }
+
+    @EventListener
+    public void onSettingChanged(SystemSettingChangedEvent event) {
+        if (POLICIES_SETTING_KEY.equals(event.key())) {
+            applyPolicies(event.value());
+        }
+    }
+
+    private synchronized void applyPolicies(String spec) {
+        if (Objects.equals(spec, activeSpec)) {
+            return;
+        }
+        List<RateLimitPolicy> parsed;
+        try {
+            parsed = RateLimitPolicy.parseList(spec);
+        } catch (IllegalArgumentException ex) {
+            logger.warn("Ignoring invalid rate limit policies, keeping the current ones: {}", ex.getMessage());
+            return;
+        }
+        List<CompiledPolicy> compiled = new ArrayList<>(parsed.size());
+        for (RateLimitPolicy policy : parsed) {
+            compiled.add(new CompiledPolicy(policy,
+                    decisionCounter(policy, "allowed"),
+                    decisionCounter(policy, "rejected")));
+        }
+        policies = List.copyOf(compiled);
+        activeSpec = spec;
+        buckets.invalidateAll(); // Capacities may have changed
+        logger.info("Applied {} rate limit policies", compiled.size());
+    }
+
+    private Counter decisionCounter(RateLimitPolicy policy, String outcome) {
+        return Counter.builder(DECISIONS_METER)
+                .description("Rate limiter decisions")
+                .tag("group", policy.group())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
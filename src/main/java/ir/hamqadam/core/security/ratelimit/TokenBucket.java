@@ -0,0 +1,58 @@
+package ir.hamqadam.core.security.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket holding up to {@code capacity} tokens, refilled continuously at
+ * {@code capacity} tokens per {@code periodNanos}.
+ * <p>
+ * The whole state is a single {@code long}: the (virtual) time at which the bucket will be full
+ * again. Taking a token moves that time forward by one emission interval; a request is rejected
+ * when the bucket would have to be "fuller than empty", i.e. when the full-again time lies more
+ * than one period ahead. Acquisition is therefore one read and one CAS, without locks or
+ * background refill.
+ */
+public final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long periodNanos;
+    private final AtomicLong fullAtNanos;
+
+    public TokenBucket(int capacity, long periodNanos, long nowNanos) {
+        if (capacity <= 0 || periodNanos <= 0) {
+            throw new IllegalArgumentException("Capacity and period must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1, periodNanos / capacity);
+        this.periodNanos = emissionIntervalNanos * capacity;
+        this.fullAtNanos = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Tries to take one token.
+     *
+     * @param nowNanos The current {@link System#nanoTime()}.
+     * @return {@code 0} if a token was taken; otherwise the number of nanoseconds until one is available.
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long fullAt = fullAtNanos.get();
+            long next = Math.max(fullAt, nowNanos) + emissionIntervalNanos;
+            long ahead = next - nowNanos;
+            if (ahead > periodNanos) {
+                return ahead - periodNanos;
+            }
+            if (fullAtNanos.compareAndSet(fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @param nowNanos The current {@link System#nanoTime()}.
+     * @return The number of tokens currently available.
+     */
+    public long availableTokens(long nowNanos) {
+        long ahead = Math.max(0, fullAtNanos.get() - nowNanos);
+        return (periodNanos - ahead) / emissionIntervalNanos;
+    }
+}
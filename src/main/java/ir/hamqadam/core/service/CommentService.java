@@ -2,8 +2,12 @@ package ir.hamqadam.core.service;
 
 import ir.hamqadam.core.model.Comment;
 import ir.hamqadam.core.model.User; // For actingUser context
+import ir.hamqadam.core.util.CommentTree;
+import ir.hamqadam.core.util.KeysetCursor;
+import ir.hamqadam.core.util.KeysetPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.Map;
 import java.util.Optional;
@@ -84,6 +88,23 @@ public interface CommentService {
      */
     Page<Comment> findCommentsByTarget(String targetEntityType, String targetEntityId, Pageable pageable);
 
+    /**
+     * Same listing as {@link #findCommentsByTarget(String, String, Pageable)}, without the count query: the returned
+     * slice only tells whether another page follows.
+     */
+    Slice<Comment> findCommentsByTargetSlice(String targetEntityType, String targetEntityId, Pageable pageable);
+
+    /**
+     * Retrieves approved comments of a target entity oldest first, resuming after a cursor.
+     *
+     * @param targetEntityType The type of the entity.
+     * @param targetEntityId   The ID of the entity.
+     * @param after            Position after which to continue, or {@code null} for the first page.
+     * @param size             The page size.
+     * @return A page of comments ordered by {@code createdAt} ascending.
+     */
+    KeysetPage<Comment> scrollCommentsByTarget(String targetEntityType, String targetEntityId, KeysetCursor after, int size);
+
     /**
      * Retrieves a page of comments for a specific target entity filtered by status.
      * Useful for moderation.
@@ -106,4 +127,23 @@ public interface CommentService {
      * @return A Page of reply Comments.
      */
     Page<Comment> findRepliesToComment(String parentCommentId, Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * Same listing as {@link #findRepliesToComment(String, Pageable)}, without the count query: the returned
+     * slice only tells whether another page follows.
+     */
+    Slice<Comment> findRepliesToCommentSlice(String parentCommentId, Pageable pageable);
+
+    /**
+     * Retrieves approved comments of a target entity as a reply tree, one page of root threads at a time:
+     * one query selects the page of root comments and one loads their threads.
+     *
+     * @param targetEntityType The type of the entity.
+     * @param targetEntityId   The ID of the entity.
+     * @param rootPage         Page of root threads (ordered by creation date).
+     * @param maxDepth         Deepest reply level to include (0 returns root comments only).
+     * @param maxChildren      Maximum number of direct replies included per comment.
+     * @return The comment tree.
+     */
+    CommentTree findCommentTree(String targetEntityType, String targetEntityId, Pageable rootPage, int maxDepth, int maxChildren);
+}
@@ -7,6 +7,8 @@ import ir.hamqadam.core.model.Post;
 import ir.hamqadam.core.model.Comment;
 import ir.hamqadam.core.model.Project;
 import ir.hamqadam.core.model.Routine;
+import ir.hamqadam.core.util.KeysetCursor;
+import ir.hamqadam.core.util.KeysetPage;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -73,6 +75,16 @@ public interface NotificationService {
      */
     Page<Notification> getUserNotifications(String userId, Pageable pageable);
 
+    /**
+     * Retrieves notifications for a user newest first, resuming after a cursor.
+     *
+     * @param userId The ID of the user.
+     * @param after  Position after which to continue, or {@code null} for the first page.
+     * @param size   The page size.
+     * @return A page of notifications ordered by {@code createdAt} descending.
+     */
+    KeysetPage<Notification> scrollUserNotifications(String userId, KeysetCursor after, int size);
+
     /**
      * Marks a specific notification as read.
      *
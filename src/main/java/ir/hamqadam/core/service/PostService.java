@@ -2,8 +2,12 @@ package ir.hamqadam.core.service;
 
 import ir.hamqadam.core.model.Post;
 import ir.hamqadam.core.model.User; // For actingUser context
+import ir.hamqadam.core.repository.projection.PostSummary;
+import ir.hamqadam.core.util.KeysetCursor;
+import ir.hamqadam.core.util.KeysetPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -127,16 +131,28 @@ public interface PostService {
      */
     Page<Post> findPostsByTypeAndStatus(String postType, Post.PostStatus status, Pageable pageable);
 
+    /**
+     * Same listing as {@link #findPostsByTypeAndStatus(String, Post.PostStatus, Pageable)}, without the count query: the returned
+     * slice only tells whether another page follows.
+     */
+    Slice<Post> findPostsByTypeAndStatusSlice(String postType, Post.PostStatus status, Pageable pageable);
+
     /**
      * Finds posts by tag with pagination.
      * Typically for public, published posts.
-     * @param tag The tag.
+     * @param tag The tag; compared after normalization, so case and Arabic or Persian letter variants do not matter.
      * @param status The post status.
      * @param pageable Pagination information.
      * @return A Page of Posts.
      */
     Page<Post> findPostsByTagAndStatus(String tag, Post.PostStatus status, Pageable pageable);
 
+    /**
+     * Same listing as {@link #findPostsByTagAndStatus(String, Post.PostStatus, Pageable)}, without the count query: the returned
+     * slice only tells whether another page follows.
+     */
+    Slice<Post> findPostsByTagAndStatusSlice(String tag, Post.PostStatus status, Pageable pageable);
+
     /**
      * Finds posts by category with pagination.
      * Typically for public, published posts.
@@ -147,6 +163,12 @@ public interface PostService {
      */
     Page<Post> findPostsByCategoryAndStatus(String categoryId, Post.PostStatus status, Pageable pageable);
 
+    /**
+     * Same listing as {@link #findPostsByCategoryAndStatus(String, Post.PostStatus, Pageable)}, without the count query: the returned
+     * slice only tells whether another page follows.
+     */
+    Slice<Post> findPostsByCategoryAndStatusSlice(String categoryId, Post.PostStatus status, Pageable pageable);
+
     /**
      * Retrieves a list of all published posts, typically for a blog listing or feed.
      *
@@ -155,16 +177,77 @@ public interface PostService {
      */
     Page<Post> findAllPublishedPosts(Pageable pageable);
 
+    /**
+     * Same listing as {@link #findAllPublishedPosts(Pageable)}, without the count query: the returned
+     * slice only tells whether another page follows.
+     */
+    Slice<Post> findAllPublishedPostsSlice(Pageable pageable);
+
+    /**
+     * Retrieves published, public posts newest first, resuming after a cursor instead of skipping
+     * over earlier pages. Filters are optional and combined.
+     *
+     * @param postType   Optional post type filter.
+     * @param tag        Optional tag filter, compared after normalization.
+     * @param categoryId Optional category filter.
+     * @param after      Position after which to continue, or {@code null} for the first page.
+     * @param size       The page size.
+     * @return A page of posts ordered by {@code publishedAt} descending.
+     */
+    KeysetPage<Post> scrollPublishedPosts(String postType, String tag, String categoryId, KeysetCursor after, int size);
+
     /**
      * Searches public and published posts based on a query (e.g., title, content).
+     * Hits are ranked by relevance; the sort of the pageable is ignored. A blank query lists all such posts.
      * @param query The search query.
      * @param pageable Pagination information.
      * @return A Page of matching public and published Posts.
      */
     Page<Post> searchPublicPublishedPosts(String query, Pageable pageable);
 
+    /**
+     * Same listing as {@link #searchPublicPublishedPosts(String, Pageable)}, without the count query: the returned
+     * slice only tells whether another page follows.
+     */
+    Slice<Post> searchPublicPublishedPostsSlice(String query, Pageable pageable);
+
+    /**
+     * Lists published public posts as card summaries, fetching only the fields in {@link PostSummary}.
+     * At most one filter applies, checked in the order type, tag, category.
+     *
+     * @param postType   Optional post type filter.
+     * @param tag        Optional tag filter, compared after normalization.
+     * @param categoryId Optional category filter.
+     * @param pageable   Pagination information.
+     * @return A Page of post summaries.
+     */
+    Page<PostSummary> findPublishedPostSummaries(String postType, String tag, String categoryId, Pageable pageable);
+
+    /**
+     * Same listing as {@link #findPublishedPostSummaries(String, String, String, Pageable)}, without the count
+     * query: the returned slice only tells whether another page follows.
+     */
+    Slice<PostSummary> findPublishedPostSummariesSlice(String postType, String tag, String categoryId, Pageable pageable);
+
+    /**
+     * Lists the published public posts of an author (User or Team) as card summaries.
+     *
+     * @param authorType The type of the author.
+     * @param authorId   The ID of the author.
+     * @param pageable   Pagination information.
+     * @return A Page of post summaries.
+     */
+    Page<PostSummary> findPublishedPostSummariesByAuthor(Post.AuthorType authorType, String authorId, Pageable pageable);
+
+    /**
+     * Same listing as {@link #findPublishedPostSummariesByAuthor(Post.AuthorType, String, Pageable)}, without the
+     * count query: the returned slice only tells whether another page follows.
+     */
+    Slice<PostSummary> findPublishedPostSummariesByAuthorSlice(Post.AuthorType authorType, String authorId, Pageable pageable);
+
     /**
      * Increments the view count for a post.
+     * The increment is buffered and written in the background, so the stored count may trail by a few seconds.
      * @param postId The ID of the post.
      */
     void incrementViewCount(String postId);
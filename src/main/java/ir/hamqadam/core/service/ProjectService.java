@@ -5,6 +5,7 @@ import ir.hamqadam.core.model.User; // Assuming needed for actingUser or contrib
 import ir.hamqadam.core.model.Team;  // Assuming needed for team info
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.Map;
@@ -37,6 +38,15 @@ public interface ProjectService {
                           List<String> managingTeamIds,
                           User actingUser);
 
+    /**
+     * Tells whether a handle is free for a new project. Cheap enough to call on every keystroke: handles
+     * never taken are answered from memory.
+     *
+     * @param projectHandle The handle to check.
+     * @return {@code false} if the handle is blank or taken.
+     */
+    boolean isProjectHandleAvailable(String projectHandle);
+
     /**
      * Finds a project by its ID.
      *
@@ -142,6 +152,12 @@ public interface ProjectService {
      */
     Page<Project> findProjectsByManagingTeam(String teamId, Pageable pageable);
 
+    /**
+     * Same listing as {@link #findProjectsByManagingTeam(String, Pageable)}, without the count query: the returned
+     * slice only tells whether another page follows.
+     */
+    Slice<Project> findProjectsByManagingTeamSlice(String teamId, Pageable pageable);
+
     /**
      * Finds projects where a specific team is contributing.
      *
@@ -151,6 +167,12 @@ public interface ProjectService {
      */
     Page<Project> findProjectsByContributingTeam(String teamId, Pageable pageable);
 
+    /**
+     * Same listing as {@link #findProjectsByContributingTeam(String, Pageable)}, without the count query: the returned
+     * slice only tells whether another page follows.
+     */
+    Slice<Project> findProjectsByContributingTeamSlice(String teamId, Pageable pageable);
+
     /**
      * Finds projects where a specific user is an individual contributor.
      * @param userId The ID of the user.
@@ -169,13 +191,20 @@ public interface ProjectService {
     Page<Project> findProjectsByCreator(Project.CreatorType creatorType, String creatorId, Pageable pageable);
 
     /**
-     * Searches for public projects based on a query (e.g., name, description).
+     * Searches public projects whose handle or a name (or a later word of it) starts with the query, best
+     * matches first. A blank query lists all public projects.
      * @param query The search query.
      * @param pageable Pagination information.
      * @return A Page of matching public Projects.
      */
     Page<Project> searchPublicProjects(String query, Pageable pageable);
 
+    /**
+     * Same listing as {@link #searchPublicProjects(String, Pageable)}, without the count query: the returned
+     * slice only tells whether another page follows.
+     */
+    Slice<Project> searchPublicProjectsSlice(String query, Pageable pageable);
+
     // --- Simplified Task Management for Phase 1 (as discussed for API, services expose this) ---
     // In a more complex system, Task would be its own entity and service.
 
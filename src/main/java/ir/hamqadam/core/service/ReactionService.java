@@ -0,0 +1,44 @@
+package ir.hamqadam.core.service;
+
+import ir.hamqadam.core.model.Reaction;
+
+import java.util.Optional;
+
+public interface ReactionService {
+
+    /**
+     * Sets the user's reaction to a post or comment, replacing any previous one.
+     * Reacting again with the same emoji changes nothing.
+     * The target's {@code reaction_counts} and {@code like_count} are updated in the background.
+     *
+     * @param targetEntityType The type of the entity ("Post" or "Comment").
+     * @param targetEntityId   The ID of the entity.
+     * @param emoji            One of the allowed reaction emoji.
+     * @param actingUserId     ID of the reacting user.
+     * @return The user's reaction as stored.
+     * @throws ir.hamqadam.core.exception.ResourceNotFoundException if the target does not exist, or is a post not published publicly or a comment not approved.
+     * @throws ir.hamqadam.core.exception.ValidationException if the type or emoji is not supported.
+     */
+    Reaction react(String targetEntityType, String targetEntityId, String emoji, String actingUserId);
+
+    /**
+     * Removes the user's reaction, if any.
+     *
+     * @param targetEntityType The type of the entity.
+     * @param targetEntityId   The ID of the entity.
+     * @param actingUserId     ID of the user.
+     * @return True if a reaction was removed.
+     */
+    boolean removeReaction(String targetEntityType, String targetEntityId, String actingUserId);
+
+    /**
+     * Reads the user's own reaction. Always reflects the user's latest change, even while the
+     * aggregate counts are still being written.
+     *
+     * @param targetEntityType The type of the entity.
+     * @param targetEntityId   The ID of the entity.
+     * @param actingUserId     ID of the user.
+     * @return The reaction, if the user has reacted.
+     */
+    Optional<Reaction> findUserReaction(String targetEntityType, String targetEntityId, String actingUserId);
+}
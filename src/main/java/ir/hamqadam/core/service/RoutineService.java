@@ -2,8 +2,11 @@ package ir.hamqadam.core.service;
 
 import ir.hamqadam.core.model.Routine;
 import ir.hamqadam.core.model.User; // For actingUser context
+import ir.hamqadam.core.util.KeysetCursor;
+import ir.hamqadam.core.util.KeysetPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -140,6 +143,12 @@ public interface RoutineService {
      */
     Page<Routine> findRoutinesByParticipantUser(String userId, Pageable pageable);
 
+    /**
+     * Same listing as {@link #findRoutinesByParticipantUser(String, Pageable)}, without the count query: the returned
+     * slice only tells whether another page follows.
+     */
+    Slice<Routine> findRoutinesByParticipantUserSlice(String userId, Pageable pageable);
+
     /**
      * Retrieves routines linked to a specific project.
      * @param projectId The ID of the project.
@@ -148,6 +157,12 @@ public interface RoutineService {
      */
     Page<Routine> findRoutinesByLinkedProject(String projectId, Pageable pageable);
 
+    /**
+     * Same listing as {@link #findRoutinesByLinkedProject(String, Pageable)}, without the count query: the returned
+     * slice only tells whether another page follows.
+     */
+    Slice<Routine> findRoutinesByLinkedProjectSlice(String projectId, Pageable pageable);
+
     /**
      * Retrieves routines linked to a specific team (either as creator or explicitly linked).
      * @param teamId The ID of the team.
@@ -166,6 +181,24 @@ public interface RoutineService {
      */
     Page<Routine> findRoutinesByNextOccurrenceBetween(LocalDateTime fromDateTime, LocalDateTime toDateTime, Optional<Routine.RoutineStatus> status, Pageable pageable);
 
+    /**
+     * Same listing as {@link #findRoutinesByNextOccurrenceBetween(LocalDateTime, LocalDateTime, Optional, Pageable)}, without the count query: the returned
+     * slice only tells whether another page follows.
+     */
+    Slice<Routine> findRoutinesByNextOccurrenceBetweenSlice(LocalDateTime fromDateTime, LocalDateTime toDateTime, Optional<Routine.RoutineStatus> status, Pageable pageable);
+
+    /**
+     * Retrieves active, public routines whose next occurrence falls in a time window, soonest first,
+     * resuming after a cursor.
+     *
+     * @param fromDateTime Start of the time window.
+     * @param toDateTime   End of the time window.
+     * @param after        Position after which to continue, or {@code null} for the first page.
+     * @param size         The page size.
+     * @return A page of routines ordered by {@code nextOccurrenceDatetime} ascending.
+     */
+    KeysetPage<Routine> scrollUpcomingPublicRoutines(LocalDateTime fromDateTime, LocalDateTime toDateTime, KeysetCursor after, int size);
+
     /**
      * (Internal or Admin task) Recalculates the next occurrence for a recurring routine.
      * This might be called periodically or after a routine's schedule is updated.
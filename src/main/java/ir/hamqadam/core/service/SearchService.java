@@ -0,0 +1,25 @@
+package ir.hamqadam.core.service;
+
+import ir.hamqadam.core.search.FederatedHit;
+import ir.hamqadam.core.search.FederatedResults;
+
+import java.util.Set;
+
+public interface SearchService {
+
+    /**
+     * Searches published public posts and public teams, projects and users at once, ranking the hits of
+     * all sources together by their normalized scores. Posts match on any word of the query, the others
+     * on a prefix of their handle or name.
+     * <p>
+     * Sources are searched in parallel under one deadline; sources that miss it are left out and
+     * reported, so a slow source makes the results partial rather than late.
+     *
+     * @param query    The search text.
+     * @param sources  The sources to search.
+     * @param language The language whose text is preferred for snippets; may be {@code null}.
+     * @param limit    The maximum number of hits to return.
+     * @return The best hits, with snippets, and the sources that did not answer in time.
+     */
+    FederatedResults search(String query, Set<FederatedHit.Source> sources, String language, int limit);
+}
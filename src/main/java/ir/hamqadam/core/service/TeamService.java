@@ -4,7 +4,9 @@ import ir.hamqadam.core.model.Team;
 import ir.hamqadam.core.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -42,6 +44,23 @@ public interface TeamService {
      */
     Optional<Team> findTeamById(String teamId);
 
+    /**
+     * Finds several teams with a single query.
+     *
+     * @param teamIds The IDs of the teams.
+     * @return The teams found, in no particular order; unknown IDs are skipped.
+     */
+    List<Team> findTeamsByIds(Collection<String> teamIds);
+
+    /**
+     * Tells whether a handle is free for a new team. Cheap enough to call on every keystroke: handles
+     * never taken are answered from memory.
+     *
+     * @param teamHandle The handle to check.
+     * @return {@code false} if the handle is blank or taken.
+     */
+    boolean isTeamHandleAvailable(String teamHandle);
+
     /**
      * Finds a team by its unique handle.
      *
@@ -185,13 +204,26 @@ public interface TeamService {
     Page<Team> findTeamsByMemberUserId(String userId, Pageable pageable);
 
     /**
-     * Searches for public teams based on a query (e.g., name, description).
+     * Same listing as {@link #findTeamsByMemberUserId(String, Pageable)}, without the count query: the returned
+     * slice only tells whether another page follows.
+     */
+    Slice<Team> findTeamsByMemberUserIdSlice(String userId, Pageable pageable);
+
+    /**
+     * Searches public teams whose handle or a name (or a later word of it) starts with the query, best
+     * matches first. A blank query lists all public teams.
      * @param query The search query.
      * @param pageable Pagination information.
      * @return A Page of matching public Teams.
      */
     Page<Team> searchPublicTeams(String query, Pageable pageable);
 
+    /**
+     * Same listing as {@link #searchPublicTeams(String, Pageable)}, without the count query: the returned
+     * slice only tells whether another page follows.
+     */
+    Slice<Team> searchPublicTeamsSlice(String query, Pageable pageable);
+
     // Sub-team creation could be a separate service or part of more advanced features.
     // For Phase 1, creating a team and manually linking its parent_team_id might suffice if needed.
 }
\ No newline at end of file
@@ -2,10 +2,13 @@ package ir.hamqadam.core.service;
 
 import ir.hamqadam.core.model.User;
 import ir.hamqadam.core.model.User.AccountStatus; // Assuming AccountStatus is an inner enum or separate
+import ir.hamqadam.core.repository.projection.UserSummary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.userdetails.UserDetailsService; // Spring Security's UserDetailsService
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -23,6 +26,15 @@ public interface UserService  { // Extending UserDetailsService for Spring Secur
      */
     User registerNewUserByEmail(Map<String, String> fullName, String email, String password);
 
+    /**
+     * Tells whether an email address is free for a new account. Cheap enough to call on every keystroke:
+     * addresses never registered are answered from memory.
+     *
+     * @param email The email address to check.
+     * @return {@code false} if the address is blank or already registered.
+     */
+    boolean isEmailAvailable(String email);
+
     /**
      * Registers or logs in a user via Telegram.
      * If user exists, updates last login. If not, creates a new user.
@@ -42,6 +54,23 @@ public interface UserService  { // Extending UserDetailsService for Spring Secur
      */
     Optional<User> findUserById(String userId);
 
+    /**
+     * Finds several users with a single query.
+     *
+     * @param userIds The IDs of the users.
+     * @return The users found, in no particular order; unknown IDs are skipped.
+     */
+    List<User> findUsersByIds(Collection<String> userIds);
+
+    /**
+     * Finds the summaries (ID, name, pictures, status) of several users with a single query that reads
+     * only those fields.
+     *
+     * @param userIds The IDs of the users.
+     * @return The summaries found, in no particular order; unknown IDs are skipped.
+     */
+    List<UserSummary> findUserSummariesByIds(Collection<String> userIds);
+
     /**
      * Finds a user by their email.
      *
@@ -137,11 +166,24 @@ public interface UserService  { // Extending UserDetailsService for Spring Secur
     Page<User> findAllUsers(Pageable pageable);
 
     /**
-     * Searches for users based on a query string (e.g., name, email, skill).
-     * For Phase 1, this might be a simple query.
+     * Same listing as {@link #findAllUsers(Pageable)}, without the count query: the returned
+     * slice only tells whether another page follows.
+     */
+    Slice<User> findAllUsersSlice(Pageable pageable);
+
+    /**
+     * Searches active users whose full name (or a later word of it) starts with the query, best matches
+     * first; users who set the {@code searchable} privacy setting to {@code false} are left out. A blank
+     * query lists all users.
      * @param query The search query.
      * @param pageable Pagination information.
      * @return A Page of matching Users.
      */
     Page<User> searchUsers(String query, Pageable pageable);
+
+    /**
+     * Same listing as {@link #searchUsers(String, Pageable)}, without the count query: the returned
+     * slice only tells whether another page follows.
+     */
+    Slice<User> searchUsersSlice(String query, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package ir.hamqadam.core.service.event;
+
+/**
+ * Published after a system setting has been created or updated, so components that cache a
+ * setting can apply the new value without polling.
+ *
+ * @param key   The setting key.
+ * @param value The new value.
+ */
+public record SystemSettingChangedEvent(String key, String value) {
+}
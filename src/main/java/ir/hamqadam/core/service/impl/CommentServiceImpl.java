@@ -1,5 +1,6 @@
 package ir.hamqadam.core.service.impl;
 
+import ir.hamqadam.core.counter.WriteBehindCounters;
 import ir.hamqadam.core.exception.ResourceNotFoundException;
 import ir.hamqadam.core.exception.UnauthorizedException;
 import ir.hamqadam.core.exception.ValidationException;
@@ -7,25 +8,36 @@ import ir.hamqadam.core.model.Comment;
 import ir.hamqadam.core.model.Post; // Example target entity
 import ir.hamqadam.core.model.User;
 import ir.hamqadam.core.repository.CommentRepository;
-import ir.hamqadam.core.repository.PostRepository; // Example target entity repository
 import ir.hamqadam.core.repository.UserRepository;
 // import ir.hamqadam.core.service.NotificationService;
 import ir.hamqadam.core.service.CommentService;
+import ir.hamqadam.core.util.CommentTree;
+import ir.hamqadam.core.util.KeysetCursor;
+import ir.hamqadam.core.util.KeysetPage;
+import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -35,7 +47,8 @@ public class CommentServiceImpl implements CommentService {
 
     private final CommentRepository commentRepository;
     private final UserRepository userRepository; // To validate author
-    private final PostRepository postRepository; // Example: To validate Post as a target and check if it allows comments
+    private final MongoTemplate mongoTemplate;
+    private final WriteBehindCounters counters;
     // Inject other target entity repositories if comments can be on other types
     // private final NotificationService notificationService;
 
@@ -45,11 +58,13 @@ public class CommentServiceImpl implements CommentService {
     @Autowired
     public CommentServiceImpl(CommentRepository commentRepository,
                               UserRepository userRepository,
-                              PostRepository postRepository
+                              MongoTemplate mongoTemplate,
+                              WriteBehindCounters counters
             /*, NotificationService notificationService */) {
         this.commentRepository = commentRepository;
         this.userRepository = userRepository;
-        this.postRepository = postRepository; // Example
+        this.mongoTemplate = mongoTemplate;
+        this.counters = counters;
         // this.notificationService = notificationService;
     }
 
@@ -70,8 +85,13 @@ public class CommentServiceImpl implements CommentService {
         // Validate target entity existence and commentability
         // This section needs to be adapted based on all possible targetEntityTypes
         if ("Post".equalsIgnoreCase(targetEntityType)) { // Example for Post
-            Post targetPost = postRepository.findById(targetEntityId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Post (target entity)", "ID", targetEntityId));
+            // Only allow_comments is needed, so the post body is not loaded
+            Query targetQuery = Query.query(Criteria.where("postId").is(targetEntityId));
+            targetQuery.fields().include("allowComments");
+            Post targetPost = mongoTemplate.findOne(targetQuery, Post.class);
+            if (targetPost == null) {
+                throw new ResourceNotFoundException("Post (target entity)", "ID", targetEntityId);
+            }
             if (!targetPost.isAllowComments()) {
                 throw new ValidationException("Comments are not allowed on this post.");
             }
@@ -81,12 +101,18 @@ public class CommentServiceImpl implements CommentService {
             throw new ValidationException("Unsupported target entity type for comments: " + targetEntityType);
         }
 
-        String threadId = null;
+        // Generated here rather than by the server, so a root comment's threadId is known before the insert
+        String commentId = new ObjectId().toHexString();
+        String threadId = commentId;
         int depthLevel = 0;
 
         if (StringUtils.hasText(parentCommentId)) {
-            Comment parent = commentRepository.findById(parentCommentId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Parent Comment", "ID", parentCommentId));
+            Query parentQuery = Query.query(Criteria.where("commentId").is(parentCommentId));
+            parentQuery.fields().include("targetEntityType", "targetEntityId", "threadId", "depthLevel");
+            Comment parent = mongoTemplate.findOne(parentQuery, Comment.class);
+            if (parent == null) {
+                throw new ResourceNotFoundException("Parent Comment", "ID", parentCommentId);
+            }
             if (!parent.getTargetEntityId().equals(targetEntityId) || !parent.getTargetEntityType().equals(targetEntityType)) {
                 throw new ValidationException("Parent comment does not belong to the same target entity.");
             }
@@ -95,37 +121,28 @@ public class CommentServiceImpl implements CommentService {
         }
 
 
+        LocalDateTime now = LocalDateTime.now();
         Comment newComment = Comment.builder()
+                .commentId(commentId)
                 .targetEntityType(targetEntityType)
                 .targetEntityId(targetEntityId)
                 .authorUserId(actingUser.getUserId())
                 .content(content)
                 .status(DEFAULT_NEW_COMMENT_STATUS) // Or PENDING_APPROVAL based on system rules
                 .parentCommentId(parentCommentId)
-                .threadId(threadId) // If null, it's a root comment, threadId could be its own ID post-save
+                .threadId(threadId) // A root comment is its own thread
                 .depthLevel(depthLevel)
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
+                .createdAt(now)
+                .updatedAt(now)
                 .edited(false)
                 .likeCount(0L)
                 .build();
 
-        Comment savedComment = commentRepository.save(newComment);
-
-        // If it's a root comment and threadId was null, set its own ID as threadId
-        if (savedComment.getThreadId() == null) {
-            savedComment.setThreadId(savedComment.getCommentId());
-            savedComment = commentRepository.save(savedComment);
-        }
+        // The only round trip of the write: a plain insert of the complete document
+        Comment savedComment = commentRepository.insert(newComment);
 
-        // Increment comment count on the target entity (e.g., Post)
-        if ("Post".equalsIgnoreCase(targetEntityType) && savedComment.getStatus() == Comment.CommentStatus.APPROVED) {
-            postRepository.findById(targetEntityId).ifPresent(post -> {
-                post.setCommentCount(commentRepository.countByTargetEntityTypeAndTargetEntityIdAndStatus(
-                        "Post", targetEntityId, Comment.CommentStatus.APPROVED));
-                postRepository.save(post);
-            });
-        }
+        // Increment comment count on the target entity (e.g., Post), batched with other counter updates
+        adjustCommentCount(savedComment, commentCountDelta(null, savedComment.getStatus()));
 
         logger.info("User '{}' added comment '{}' to entity type '{}', ID '{}'",
                 actingUser.getUserId(), savedComment.getCommentId(), targetEntityType, targetEntityId);
@@ -165,56 +182,69 @@ public class CommentServiceImpl implements CommentService {
     @Override
     @PreAuthorize("@commentSecurityService.canDeleteComment(#commentId, principal.username)")
     public void deleteComment(String commentId, String actingUserId) {
-        Comment comment = commentRepository.findById(commentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Comment", "ID", commentId));
-
         // Permission check: Author or moderator/admin
         // if (!comment.getAuthorUserId().equals(actingUserId) /* && !isUserModerator(...) */ ) {
         //    throw new UnauthorizedException("User not authorized to delete this comment.");
         // }
 
         // Soft delete by changing status
-        comment.setStatus(Comment.CommentStatus.DELETED_BY_AUTHOR); // Or DELETED_BY_MODERATOR
-        comment.setUpdatedAt(LocalDateTime.now());
-        commentRepository.save(comment);
+        Comment previous = transitionStatus(commentId, Comment.CommentStatus.DELETED_BY_AUTHOR); // Or DELETED_BY_MODERATOR
 
         // Decrement comment count on the target entity if it was an approved comment
-        if ("Post".equalsIgnoreCase(comment.getTargetEntityType())) {
-            postRepository.findById(comment.getTargetEntityId()).ifPresent(post -> {
-                post.setCommentCount(commentRepository.countByTargetEntityTypeAndTargetEntityIdAndStatus(
-                        "Post", comment.getTargetEntityId(), Comment.CommentStatus.APPROVED));
-                postRepository.save(post);
-            });
-        }
+        adjustCommentCount(previous, commentCountDelta(previous.getStatus(), Comment.CommentStatus.DELETED_BY_AUTHOR));
         logger.info("Comment '{}' (soft) deleted by user '{}'", commentId, actingUserId);
     }
 
     @Override
     @PreAuthorize("hasRole('ROLE_MODERATOR') or hasRole('ROLE_SYSTEM_ADMIN') or @commentSecurityService.isTargetEntityAdmin(#commentId, principal.username)") // Example roles
     public Comment changeCommentStatus(String commentId, Comment.CommentStatus newStatus, String actingUserId) {
-        Comment comment = commentRepository.findById(commentId)
-                .orElseThrow(() -> new ResourceNotFoundException("Comment", "ID", commentId));
-
-        Comment.CommentStatus oldStatus = comment.getStatus();
-        comment.setStatus(newStatus);
-        comment.setUpdatedAt(LocalDateTime.now());
-        Comment updatedComment = commentRepository.save(comment);
+        Comment updatedComment = transitionStatus(commentId, newStatus);
+        Comment.CommentStatus oldStatus = updatedComment.getStatus();
         logger.info("Comment '{}' status changed from {} to {} by moderator '{}'", commentId, oldStatus, newStatus, actingUserId);
 
         // Update comment count on parent entity if status changed to/from APPROVED
-        if ("Post".equalsIgnoreCase(comment.getTargetEntityType())) {
-            if ( (oldStatus != Comment.CommentStatus.APPROVED && newStatus == Comment.CommentStatus.APPROVED) ||
-                    (oldStatus == Comment.CommentStatus.APPROVED && newStatus != Comment.CommentStatus.APPROVED) ) {
-                postRepository.findById(comment.getTargetEntityId()).ifPresent(post -> {
-                    post.setCommentCount(commentRepository.countByTargetEntityTypeAndTargetEntityIdAndStatus(
-                            "Post", comment.getTargetEntityId(), Comment.CommentStatus.APPROVED));
-                    postRepository.save(post);
-                });
-            }
-        }
+        adjustCommentCount(updatedComment, commentCountDelta(oldStatus, newStatus));
+
+        updatedComment.setStatus(newStatus);
         return updatedComment;
     }
 
+    /**
+     * Atomically sets a comment's status and returns the comment as it was before, so the
+     * count delta is derived from the transition that actually happened even under concurrent changes.
+     */
+    private Comment transitionStatus(String commentId, Comment.CommentStatus newStatus) {
+        LocalDateTime now = LocalDateTime.now();
+        Comment previous = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("commentId").is(commentId)),
+                new Update().set("status", newStatus).set("updatedAt", now),
+                FindAndModifyOptions.options().returnNew(false),
+                Comment.class);
+        if (previous == null) {
+            throw new ResourceNotFoundException("Comment", "ID", commentId);
+        }
+        previous.setUpdatedAt(now);
+        return previous;
+    }
+
+    /**
+     * @return The change in the number of visible (approved) comments caused by a status transition;
+     *         {@code oldStatus} is {@code null} for a new comment.
+     */
+    static long commentCountDelta(Comment.CommentStatus oldStatus, Comment.CommentStatus newStatus) {
+        long before = oldStatus == Comment.CommentStatus.APPROVED ? 1 : 0;
+        long after = newStatus == Comment.CommentStatus.APPROVED ? 1 : 0;
+        return after - before;
+    }
+
+    // Buffered $inc on the post instead of recounting its comments and saving the whole document
+    private void adjustCommentCount(Comment comment, long delta) {
+        if (delta == 0 || !"Post".equalsIgnoreCase(comment.getTargetEntityType())) {
+            return;
+        }
+        counters.increment(Post.class, comment.getTargetEntityId(), "commentCount", delta);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<Comment> findCommentsByTarget(String targetEntityType, String targetEntityId, Pageable pageable) {
@@ -229,6 +259,24 @@ public class CommentServiceImpl implements CommentService {
                 targetEntityType, targetEntityId, Comment.CommentStatus.APPROVED, effectivePageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Comment> findCommentsByTargetSlice(String targetEntityType, String targetEntityId, Pageable pageable) {
+        return commentRepository.findSliceByTargetEntityTypeAndTargetEntityIdAndStatus(
+                targetEntityType, targetEntityId, Comment.CommentStatus.APPROVED, sortedByCreatedAtIfUnsorted(pageable));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<Comment> scrollCommentsByTarget(String targetEntityType, String targetEntityId, KeysetCursor after, int size) {
+        Criteria filter = Criteria.where("targetEntityType").is(targetEntityType)
+                .and("targetEntityId").is(targetEntityId)
+                .and("status").is(Comment.CommentStatus.APPROVED);
+        List<Comment> comments = mongoTemplate.find(
+                KeysetCursor.query(filter, "createdAt", Sort.Direction.ASC, after, size), Comment.class);
+        return KeysetCursor.page(comments, size, c -> new KeysetCursor(c.getCreatedAt(), c.getCommentId()));
+    }
+
     @Override
     @Transactional(readOnly = true)
     // @PreAuthorize("hasRole('ROLE_MODERATOR') or @commentSecurityService.isTargetEntityAdminByTargetId(#targetEntityType, #targetEntityId, principal.username)")
@@ -251,4 +299,51 @@ public class CommentServiceImpl implements CommentService {
         }
         return commentRepository.findByParentCommentIdAndStatus(parentCommentId, Comment.CommentStatus.APPROVED, effectivePageable);
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Comment> findRepliesToCommentSlice(String parentCommentId, Pageable pageable) {
+        return commentRepository.findSliceByParentCommentIdAndStatus(parentCommentId, Comment.CommentStatus.APPROVED, sortedByCreatedAtIfUnsorted(pageable));
+    }
+
+    // Default sort by creation date ascending, can be overridden by pageable
+    private static Pageable sortedByCreatedAtIfUnsorted(Pageable pageable) {
+        if (pageable.isPaged() && pageable.getSort().isUnsorted()) {
+            return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(Sort.Direction.ASC, "createdAt"));
+        }
+        return pageable;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CommentTree findCommentTree(String targetEntityType, String targetEntityId, Pageable rootPage,
+                                       int maxDepth, int maxChildren) {
+        // One level deeper than returned, so the tree can report how many replies were left out
+        Criteria visible = Criteria.where("status").is(Comment.CommentStatus.APPROVED)
+                .and("depthLevel").lte(maxDepth + 1);
+        Query rootQuery = Query.query(Criteria.where("targetEntityType").is(targetEntityType)
+                        .and("targetEntityId").is(targetEntityId)
+                        .and("status").is(Comment.CommentStatus.APPROVED)
+                        .and("parentCommentId").is(null))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"))
+                .skip(rootPage.getOffset())
+                .limit(rootPage.getPageSize() + 1); // One extra to know whether another page follows
+        rootQuery.fields().include("commentId");
+        List<String> rootIds = mongoTemplate.find(rootQuery, Comment.class).stream()
+                .map(Comment::getCommentId)
+                .collect(Collectors.toList());
+        boolean moreRoots = false;
+        if (rootIds.size() > rootPage.getPageSize()) {
+            moreRoots = true;
+            rootIds = rootIds.subList(0, rootPage.getPageSize());
+        }
+        if (rootIds.isEmpty()) {
+            return CommentTree.build(List.of(), maxDepth, maxChildren, false);
+        }
+        Criteria scope = Criteria.where("threadId").in(rootIds); // Root comments are their own thread
+        Query query = Query.query(new Criteria().andOperator(scope, visible))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"));
+        List<Comment> comments = mongoTemplate.find(query, Comment.class);
+        return CommentTree.build(comments, maxDepth, maxChildren, moreRoots);
+    }
+}
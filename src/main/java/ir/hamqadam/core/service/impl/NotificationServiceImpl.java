@@ -10,11 +10,16 @@ import ir.hamqadam.core.repository.UserRepository; // To get user details for no
 // import ir.hamqadam.core.integration.TelegramPushService; // If pushing to Telegram bot
 
 import ir.hamqadam.core.service.NotificationService;
+import ir.hamqadam.core.util.KeysetCursor;
+import ir.hamqadam.core.util.KeysetPage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.scheduling.annotation.Async; // For asynchronous sending
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -33,6 +38,7 @@ public class NotificationServiceImpl implements NotificationService {
 
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository; // To fetch user preferences or details
+    private final MongoTemplate mongoTemplate;
     // private final I18nMessageConstructor messageConstructor; // Hypothetical utility
     // private final EmailService emailService;
     // private final TelegramPushService telegramPushService;
@@ -53,12 +59,14 @@ public class NotificationServiceImpl implements NotificationService {
 
     @Autowired
     public NotificationServiceImpl(NotificationRepository notificationRepository,
-                                   UserRepository userRepository
+                                   UserRepository userRepository,
+                                   MongoTemplate mongoTemplate
                                    /*, I18nMessageConstructor messageConstructor,
                                    EmailService emailService,
                                    TelegramPushService telegramPushService */) {
         this.notificationRepository = notificationRepository;
         this.userRepository = userRepository;
+        this.mongoTemplate = mongoTemplate;
         // this.messageConstructor = messageConstructor;
         // this.emailService = emailService;
         // this.telegramPushService = telegramPushService;
@@ -256,6 +264,15 @@ public class NotificationServiceImpl implements NotificationService {
         return notificationRepository.findByRecipientUserIdOrderByCreatedAtDesc(userId, pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<Notification> scrollUserNotifications(String userId, KeysetCursor after, int size) {
+        List<Notification> notifications = mongoTemplate.find(
+                KeysetCursor.query(Criteria.where("recipientUserId").is(userId), "createdAt", Sort.Direction.DESC, after, size),
+                Notification.class);
+        return KeysetCursor.page(notifications, size, n -> new KeysetCursor(n.getCreatedAt(), n.getNotificationId()));
+    }
+
     @Override
     public boolean markNotificationAsRead(String notificationId, String userId) {
         Notification notification = notificationRepository.findById(notificationId)
@@ -1,5 +1,6 @@
 package ir.hamqadam.core.service.impl;
 
+import ir.hamqadam.core.counter.WriteBehindCounters;
 import ir.hamqadam.core.exception.ResourceNotFoundException;
 import ir.hamqadam.core.exception.UnauthorizedException;
 import ir.hamqadam.core.exception.ValidationException;
@@ -9,13 +10,29 @@ import ir.hamqadam.core.model.User;
 import ir.hamqadam.core.repository.PostRepository;
 import ir.hamqadam.core.repository.UserRepository;
 import ir.hamqadam.core.repository.TeamRepository;
+import ir.hamqadam.core.repository.projection.PostSummary;
+import ir.hamqadam.core.search.PostSearchIndex;
+import ir.hamqadam.core.search.SearchHit;
+import ir.hamqadam.core.search.SearchHits;
+import ir.hamqadam.core.search.TextAnalyzer;
 // import ir.hamqadam.core.service.NotificationService;
+import ir.hamqadam.core.security.permissions.TeamCapability;
+import ir.hamqadam.core.security.permissions.TeamPermissionIndex;
 import ir.hamqadam.core.service.PostService;
+import ir.hamqadam.core.util.KeysetCursor;
+import ir.hamqadam.core.util.KeysetPage;
+import ir.hamqadam.core.util.RequestIdentityMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -35,16 +52,31 @@ public class PostServiceImpl implements PostService {
     private final PostRepository postRepository;
     private final UserRepository userRepository;
     private final TeamRepository teamRepository;
+    private final RequestIdentityMap identityMap;
+    private final TeamPermissionIndex permissionIndex;
+    private final WriteBehindCounters counters;
+    private final MongoTemplate mongoTemplate;
+    private final PostSearchIndex searchIndex;
     // private final NotificationService notificationService;
 
     @Autowired
     public PostServiceImpl(PostRepository postRepository,
                            UserRepository userRepository,
-                           TeamRepository teamRepository
+                           TeamRepository teamRepository,
+                           RequestIdentityMap identityMap,
+                           TeamPermissionIndex permissionIndex,
+                           WriteBehindCounters counters,
+                           MongoTemplate mongoTemplate,
+                           PostSearchIndex searchIndex
             /*, NotificationService notificationService */) {
         this.postRepository = postRepository;
         this.userRepository = userRepository;
         this.teamRepository = teamRepository;
+        this.identityMap = identityMap;
+        this.permissionIndex = permissionIndex;
+        this.counters = counters;
+        this.mongoTemplate = mongoTemplate;
+        this.searchIndex = searchIndex;
         // this.notificationService = notificationService;
     }
 
@@ -68,10 +100,10 @@ public class PostServiceImpl implements PostService {
             throw new ValidationException("Author information is required.");
         }
         if (authorInfo.getAuthorType() == Post.AuthorType.USER) {
-            userRepository.findById(authorInfo.getAuthorId())
+            identityMap.findById(userRepository, User.class, authorInfo.getAuthorId())
                     .orElseThrow(() -> new ResourceNotFoundException("Author (User)", "ID", authorInfo.getAuthorId()));
         } else if (authorInfo.getAuthorType() == Post.AuthorType.TEAM) {
-            teamRepository.findById(authorInfo.getAuthorId())
+            identityMap.findById(teamRepository, Team.class, authorInfo.getAuthorId())
                     .orElseThrow(() -> new ResourceNotFoundException("Author (Team)", "ID", authorInfo.getAuthorId()));
         }
         // Ensure actingUser is correctly set in authorInfo
@@ -109,7 +141,7 @@ public class PostServiceImpl implements PostService {
     public Optional<Post> findPostById(String postId) {
         // Additional logic might be needed here to check visibility based on the requesting user
         // For now, it returns the post if it exists. Controller should handle visibility.
-        return postRepository.findById(postId);
+        return identityMap.findById(postRepository, Post.class, postId);
     }
 
     @Override
@@ -125,7 +157,7 @@ public class PostServiceImpl implements PostService {
                            List<Post.MediaAttachment> mediaAttachments,
                            boolean allowComments,
                            String actingUserId) {
-        Post post = postRepository.findById(postId)
+        Post post = identityMap.findById(postRepository, Post.class, postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post", "postId", postId));
 
         // checkUpdatePermission(post, actingUserId); // Or use @PreAuthorize
@@ -158,11 +190,8 @@ public class PostServiceImpl implements PostService {
         if (post.getAuthorInfo().getActingUserId().equals(actingUserId)) {
             canUpdate = true;
         } else if (post.getAuthorInfo().getAuthorType() == Post.AuthorType.TEAM) {
-            Team authorTeam = teamRepository.findById(post.getAuthorInfo().getAuthorId()).orElse(null);
-            if (authorTeam != null && authorTeam.getMembers().stream()
-                    .anyMatch(m -> m.getUserId().equals(actingUserId) && m.getRoles().contains("ADMIN"))) { // Assuming "ADMIN" role in team
-                canUpdate = true;
-            }
+            canUpdate = permissionIndex.hasCapability(post.getAuthorInfo().getAuthorId(), actingUserId,
+                    TeamCapability.MANAGE_CONTENT);
         }
         // Add check for system admin role here if needed
         if (!canUpdate) {
@@ -174,7 +203,7 @@ public class PostServiceImpl implements PostService {
     @Override
     @PreAuthorize("@postSecurityService.canChangePostStatus(#postId, principal.username)")
     public Post changePostStatus(String postId, Post.PostStatus newStatus, String actingUserId, LocalDateTime scheduledFor) {
-        Post post = postRepository.findById(postId)
+        Post post = identityMap.findById(postRepository, Post.class, postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post", "postId", postId));
 
         // checkUpdatePermission(post, actingUserId); // Status change might have stricter permissions
@@ -210,7 +239,7 @@ public class PostServiceImpl implements PostService {
     @Override
     @PreAuthorize("@postSecurityService.canDeletePost(#postId, principal.username)")
     public void deletePost(String postId, String actingUserId) {
-        Post post = postRepository.findById(postId)
+        Post post = identityMap.findById(postRepository, Post.class, postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post", "postId", postId));
 
         // checkUpdatePermission(post, actingUserId); // Or specific delete permission
@@ -236,10 +265,22 @@ public class PostServiceImpl implements PostService {
         return postRepository.findByPostTypeAndStatus(postType, status, pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Post> findPostsByTypeAndStatusSlice(String postType, Post.PostStatus status, Pageable pageable) {
+        return postRepository.findSliceByPostTypeAndStatus(postType, status, pageable);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<Post> findPostsByTagAndStatus(String tag, Post.PostStatus status, Pageable pageable) {
-        return postRepository.findByTagsContainingIgnoreCaseAndStatus(tag, status, pageable);
+        return postRepository.findByTagsNormAndStatus(TextAnalyzer.normalize(tag), status, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Post> findPostsByTagAndStatusSlice(String tag, Post.PostStatus status, Pageable pageable) {
+        return postRepository.findSliceByTagsNormAndStatus(TextAnalyzer.normalize(tag), status, pageable);
     }
 
     @Override
@@ -248,36 +289,123 @@ public class PostServiceImpl implements PostService {
         return postRepository.findByCategoryIdsContainingAndStatus(categoryId, status, pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Post> findPostsByCategoryAndStatusSlice(String categoryId, Post.PostStatus status, Pageable pageable) {
+        return postRepository.findSliceByCategoryIdsContainingAndStatus(categoryId, status, pageable);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<Post> findAllPublishedPosts(Pageable pageable) {
         return postRepository.findByStatusAndVisibility(Post.PostStatus.PUBLISHED, Post.PostVisibility.PUBLIC, pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Post> findAllPublishedPostsSlice(Pageable pageable) {
+        return postRepository.findSliceByStatusAndVisibility(Post.PostStatus.PUBLISHED, Post.PostVisibility.PUBLIC, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<Post> scrollPublishedPosts(String postType, String tag, String categoryId, KeysetCursor after, int size) {
+        // Each filter combination is covered by a {filter, status, visibility, published_at, _id} index on Post
+        Criteria filter = new Criteria();
+        if (StringUtils.hasText(postType)) {
+            filter = filter.and("postType").is(postType);
+        }
+        if (StringUtils.hasText(tag)) {
+            filter = filter.and("tagsNorm").is(TextAnalyzer.normalize(tag));
+        }
+        if (StringUtils.hasText(categoryId)) {
+            filter = filter.and("categoryIds").is(categoryId);
+        }
+        filter = filter.and("status").is(Post.PostStatus.PUBLISHED).and("visibility").is(Post.PostVisibility.PUBLIC);
+        List<Post> posts = mongoTemplate.find(
+                KeysetCursor.query(filter, "publishedAt", Sort.Direction.DESC, after, size), Post.class);
+        return KeysetCursor.page(posts, size, p -> new KeysetCursor(p.getPublishedAt(), p.getPostId()));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<Post> searchPublicPublishedPosts(String query, Pageable pageable) {
-        // For Phase 1: Simple search, requires text index on MongoDB for title/content for efficient search.
-        // Or specific repository methods for title/contentBody.key CONTAINS query.
-        // Example using a custom query if text index "post_text_index" is on title and contentBody maps:
-        // return postRepository.searchByTextAndStatusAndVisibility(query, Post.PostStatus.PUBLISHED, Post.PostVisibility.PUBLIC, pageable);
-        logger.warn("SearchPublicPublishedPosts basic implementation used. Query: {}", query);
         if (!StringUtils.hasText(query)) {
             return postRepository.findByStatusAndVisibility(Post.PostStatus.PUBLISHED, Post.PostVisibility.PUBLIC, pageable);
         }
-        // Placeholder for actual search logic, repository would need a method like:
-        // Page<Post> findByTitleContainingIgnoreCaseAndStatusAndVisibility(String titleQuery, PostStatus status, PostVisibility visibility, Pageable pageable);
-        return postRepository.findByStatusAndVisibility(Post.PostStatus.PUBLISHED, Post.PostVisibility.PUBLIC, pageable);
+        // Ranked by relevance in the in-memory index; the requested sort does not apply
+        SearchHits hits = searchIndex.search(query, Post.PostStatus.PUBLISHED, Post.PostVisibility.PUBLIC,
+                (int) pageable.getOffset(), pageable.getPageSize(), true);
+        return new PageImpl<>(findRanked(hits.hits()), pageable, hits.totalHits());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Post> searchPublicPublishedPostsSlice(String query, Pageable pageable) {
+        if (!StringUtils.hasText(query)) {
+            return postRepository.findSliceByStatusAndVisibility(Post.PostStatus.PUBLISHED, Post.PostVisibility.PUBLIC, pageable);
+        }
+        // One extra hit tells whether another page follows; not counting lets the index skip common words
+        SearchHits hits = searchIndex.search(query, Post.PostStatus.PUBLISHED, Post.PostVisibility.PUBLIC,
+                (int) pageable.getOffset(), pageable.getPageSize() + 1, false);
+        boolean hasNext = hits.hits().size() > pageable.getPageSize();
+        List<SearchHit> page = hasNext ? hits.hits().subList(0, pageable.getPageSize()) : hits.hits();
+        return new SliceImpl<>(findRanked(page), pageable, hasNext);
+    }
+
+    // Loads the posts of a page of hits in one query, keeping the ranking; posts deleted meanwhile are skipped
+    private List<Post> findRanked(List<SearchHit> hits) {
+        List<String> ids = hits.stream().map(SearchHit::id).toList();
+        return identityMap.findAllByIdInOrder(postRepository, Post.class, ids, Post::getPostId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<PostSummary> findPublishedPostSummaries(String postType, String tag, String categoryId, Pageable pageable) {
+        Post.PostStatus published = Post.PostStatus.PUBLISHED;
+        Post.PostVisibility visible = Post.PostVisibility.PUBLIC;
+        if (postType != null) {
+            return postRepository.findSummariesByPostTypeAndStatusAndVisibility(postType, published, visible, pageable);
+        } else if (tag != null) {
+            return postRepository.findSummariesByTagsNormAndStatusAndVisibility(TextAnalyzer.normalize(tag), published, visible, pageable);
+        } else if (categoryId != null) {
+            return postRepository.findSummariesByCategoryIdsContainingAndStatusAndVisibility(categoryId, published, visible, pageable);
+        }
+        return postRepository.findSummariesByStatusAndVisibility(published, visible, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<PostSummary> findPublishedPostSummariesSlice(String postType, String tag, String categoryId, Pageable pageable) {
+        Post.PostStatus published = Post.PostStatus.PUBLISHED;
+        Post.PostVisibility visible = Post.PostVisibility.PUBLIC;
+        if (postType != null) {
+            return postRepository.findSummarySliceByPostTypeAndStatusAndVisibility(postType, published, visible, pageable);
+        } else if (tag != null) {
+            return postRepository.findSummarySliceByTagsNormAndStatusAndVisibility(TextAnalyzer.normalize(tag), published, visible, pageable);
+        } else if (categoryId != null) {
+            return postRepository.findSummarySliceByCategoryIdsContainingAndStatusAndVisibility(categoryId, published, visible, pageable);
+        }
+        return postRepository.findSummarySliceByStatusAndVisibility(published, visible, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<PostSummary> findPublishedPostSummariesByAuthor(Post.AuthorType authorType, String authorId, Pageable pageable) {
+        return postRepository.findSummariesByAuthorInfo_AuthorTypeAndAuthorInfo_AuthorIdAndStatusAndVisibility(
+                authorType, authorId, Post.PostStatus.PUBLISHED, Post.PostVisibility.PUBLIC, pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<PostSummary> findPublishedPostSummariesByAuthorSlice(Post.AuthorType authorType, String authorId, Pageable pageable) {
+        return postRepository.findSummarySliceByAuthorInfo_AuthorTypeAndAuthorInfo_AuthorIdAndStatusAndVisibility(
+                authorType, authorId, Post.PostStatus.PUBLISHED, Post.PostVisibility.PUBLIC, pageable);
     }
 
     @Override
     public void incrementViewCount(String postId) {
-        // This should ideally be an atomic operation if high concurrency is expected.
-        // For MongoDB, $inc operator is good.
-        // For simplicity here, find and save. Could be optimized.
-        postRepository.findById(postId).ifPresent(post -> {
-            post.setViewCount(post.getViewCount() + 1);
-            postRepository.save(post); // This might not be the most performant way for high traffic
-        });
+        // Buffered in memory and flushed as a bulk $inc, so no document is read or rewritten per view
+        counters.increment(Post.class, postId, "viewCount", 1);
     }
 }
\ No newline at end of file
@@ -10,14 +10,23 @@ import ir.hamqadam.core.model.Team;
 import ir.hamqadam.core.repository.ProjectRepository;
 import ir.hamqadam.core.repository.UserRepository;
 import ir.hamqadam.core.repository.TeamRepository;
+import ir.hamqadam.core.search.Suggestion;
+import ir.hamqadam.core.search.TypeaheadIndex;
 // import ir.hamqadam.core.repository.PostRepository; // If validating
+import ir.hamqadam.core.security.permissions.TeamCapability;
+import ir.hamqadam.core.security.permissions.TeamPermissionIndex;
 import ir.hamqadam.core.service.ProjectService;
+import ir.hamqadam.core.uniqueness.UniqueKeyFilter;
+import ir.hamqadam.core.util.RequestIdentityMap;
 // import ir.hamqadam.core.service.NotificationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -39,17 +48,29 @@ public class ProjectServiceImpl implements ProjectService {
     private final ProjectRepository projectRepository;
     private final UserRepository userRepository;
     private final TeamRepository teamRepository;
+    private final RequestIdentityMap identityMap;
+    private final TeamPermissionIndex permissionIndex;
+    private final TypeaheadIndex typeaheadIndex;
+    private final UniqueKeyFilter uniqueKeys;
     // private final PostRepository postRepository; // To validate descriptivePostId
     // private final NotificationService notificationService;
 
     @Autowired
     public ProjectServiceImpl(ProjectRepository projectRepository,
                               UserRepository userRepository,
-                              TeamRepository teamRepository
+                              TeamRepository teamRepository,
+                              RequestIdentityMap identityMap,
+                              TeamPermissionIndex permissionIndex,
+                              TypeaheadIndex typeaheadIndex,
+                              UniqueKeyFilter uniqueKeys
             /*, PostRepository postRepository, NotificationService notificationService */) {
         this.projectRepository = projectRepository;
         this.userRepository = userRepository;
         this.teamRepository = teamRepository;
+        this.identityMap = identityMap;
+        this.permissionIndex = permissionIndex;
+        this.typeaheadIndex = typeaheadIndex;
+        this.uniqueKeys = uniqueKeys;
         // this.postRepository = postRepository;
         // this.notificationService = notificationService;
     }
@@ -64,7 +85,7 @@ public class ProjectServiceImpl implements ProjectService {
                                  List<String> managingTeamIds,
                                  User actingUser) {
 
-        if (StringUtils.hasText(projectHandle) && projectRepository.existsByProjectHandle(projectHandle)) {
+        if (StringUtils.hasText(projectHandle) && !isProjectHandleAvailable(projectHandle)) {
             throw new ValidationException("Project handle already exists: " + projectHandle);
         }
         if (!StringUtils.hasText(descriptivePostId)) {
@@ -76,17 +97,17 @@ public class ProjectServiceImpl implements ProjectService {
 
         // Validate creator
         if (creatorInfo.getCreatorType() == Project.CreatorType.USER) {
-            userRepository.findById(creatorInfo.getCreatorId())
+            identityMap.findById(userRepository, User.class, creatorInfo.getCreatorId())
                     .orElseThrow(() -> new ResourceNotFoundException("User (creator)", "ID", creatorInfo.getCreatorId()));
         } else if (creatorInfo.getCreatorType() == Project.CreatorType.TEAM) {
-            teamRepository.findById(creatorInfo.getCreatorId())
+            identityMap.findById(teamRepository, Team.class, creatorInfo.getCreatorId())
                     .orElseThrow(() -> new ResourceNotFoundException("Team (creator)", "ID", creatorInfo.getCreatorId()));
         }
 
         // Validate managing teams if provided
         if (managingTeamIds != null) {
             for (String teamId : managingTeamIds) {
-                teamRepository.findById(teamId)
+                identityMap.findById(teamRepository, Team.class, teamId)
                         .orElseThrow(() -> new ResourceNotFoundException("Managing Team", "ID", teamId));
             }
         }
@@ -114,10 +135,16 @@ public class ProjectServiceImpl implements ProjectService {
         return projectRepository.save(newProject);
     }
 
+    @Override
+    public boolean isProjectHandleAvailable(String projectHandle) {
+        return StringUtils.hasText(projectHandle)
+                && !uniqueKeys.exists(UniqueKeyFilter.Key.PROJECT_HANDLE, projectHandle, projectRepository::existsByProjectHandle);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<Project> findProjectById(String projectId) {
-        return projectRepository.findById(projectId);
+        return identityMap.findById(projectRepository, Project.class, projectId);
     }
 
     @Override
@@ -137,7 +164,7 @@ public class ProjectServiceImpl implements ProjectService {
                                      Map<String, String> projectGoals,
                                      Map<String, String> projectScope,
                                      String actingUserId) {
-        Project project = projectRepository.findById(projectId)
+        Project project = identityMap.findById(projectRepository, Project.class, projectId)
                 .orElseThrow(() -> new ResourceNotFoundException("Project", "projectId", projectId));
 
         // checkProjectManagementPermission(project, actingUserId); // Or use @PreAuthorize
@@ -162,14 +189,9 @@ public class ProjectServiceImpl implements ProjectService {
             canManage = true;
         }
 
-        if (!canManage && project.getManagingTeamIds() != null) {
-            for (String teamId : project.getManagingTeamIds()) {
-                Team team = teamRepository.findById(teamId).orElse(null);
-                if (team != null && team.getMembers().stream().anyMatch(m -> m.getUserId().equals(actingUserId) && m.getRoles().contains("ADMIN"))) { // Assuming team admin can manage project
-                    canManage = true;
-                    break;
-                }
-            }
+        if (!canManage) {
+            canManage = permissionIndex.hasCapabilityInAny(project.getManagingTeamIds(), actingUserId,
+                    TeamCapability.MANAGE_PROJECTS);
         }
         if (!canManage) {
             throw new UnauthorizedException("User " + actingUserId + " is not authorized to manage project " + project.getProjectId());
@@ -180,7 +202,7 @@ public class ProjectServiceImpl implements ProjectService {
     @Override
     @PreAuthorize("@projectSecurityService.canChangeProjectStatus(#projectId, principal.username)")
     public Project changeProjectStatus(String projectId, Project.ProjectStatus newStatus, String actingUserId) {
-        Project project = projectRepository.findById(projectId)
+        Project project = identityMap.findById(projectRepository, Project.class, projectId)
                 .orElseThrow(() -> new ResourceNotFoundException("Project", "projectId", projectId));
 
         // checkProjectManagementPermission(project, actingUserId);
@@ -198,9 +220,9 @@ public class ProjectServiceImpl implements ProjectService {
     @Override
     @PreAuthorize("@projectSecurityService.canManageProjectTeams(#projectId, principal.username)")
     public Project addTeamToProject(String projectId, String teamId, boolean isManaging, String roleInProject, String actingUserId) {
-        Project project = projectRepository.findById(projectId)
+        Project project = identityMap.findById(projectRepository, Project.class, projectId)
                 .orElseThrow(() -> new ResourceNotFoundException("Project", "projectId", projectId));
-        teamRepository.findById(teamId)
+        identityMap.findById(teamRepository, Team.class, teamId)
                 .orElseThrow(() -> new ResourceNotFoundException("Team", "teamId", teamId));
 
         // checkProjectManagementPermission(project, actingUserId);
@@ -227,7 +249,7 @@ public class ProjectServiceImpl implements ProjectService {
     @Override
     @PreAuthorize("@projectSecurityService.canManageProjectTeams(#projectId, principal.username)")
     public Project removeTeamFromProject(String projectId, String teamId, String actingUserId) {
-        Project project = projectRepository.findById(projectId)
+        Project project = identityMap.findById(projectRepository, Project.class, projectId)
                 .orElseThrow(() -> new ResourceNotFoundException("Project", "projectId", projectId));
 
         // checkProjectManagementPermission(project, actingUserId);
@@ -256,9 +278,9 @@ public class ProjectServiceImpl implements ProjectService {
                                                      String roleInProject,
                                                      Map<String, String> contributionDescription,
                                                      String actingUserId) {
-        Project project = projectRepository.findById(projectId)
+        Project project = identityMap.findById(projectRepository, Project.class, projectId)
                 .orElseThrow(() -> new ResourceNotFoundException("Project", "projectId", projectId));
-        userRepository.findById(contributorUserId)
+        identityMap.findById(userRepository, User.class, contributorUserId)
                 .orElseThrow(() -> new ResourceNotFoundException("User (contributor)", "ID", contributorUserId));
 
         // checkProjectManagementPermission(project, actingUserId);
@@ -283,7 +305,7 @@ public class ProjectServiceImpl implements ProjectService {
     @Override
     @PreAuthorize("@projectSecurityService.canManageProjectContributors(#projectId, principal.username)")
     public Project removeIndividualContributorFromProject(String projectId, String contributorUserId, String actingUserId) {
-        Project project = projectRepository.findById(projectId)
+        Project project = identityMap.findById(projectRepository, Project.class, projectId)
                 .orElseThrow(() -> new ResourceNotFoundException("Project", "projectId", projectId));
 
         // checkProjectManagementPermission(project, actingUserId);
@@ -306,12 +328,24 @@ public class ProjectServiceImpl implements ProjectService {
         return projectRepository.findByManagingTeamIdsContaining(teamId, pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Project> findProjectsByManagingTeamSlice(String teamId, Pageable pageable) {
+        return projectRepository.findSliceByManagingTeamIdsContaining(teamId, pageable);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<Project> findProjectsByContributingTeam(String teamId, Pageable pageable) {
         return projectRepository.findByContributingTeams_TeamId(teamId, pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Project> findProjectsByContributingTeamSlice(String teamId, Pageable pageable) {
+        return projectRepository.findSliceByContributingTeams_TeamId(teamId, pageable);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<Project> findProjectsByIndividualContributor(String userId, Pageable pageable) {
@@ -327,15 +361,27 @@ public class ProjectServiceImpl implements ProjectService {
     @Override
     @Transactional(readOnly = true)
     public Page<Project> searchPublicProjects(String query, Pageable pageable) {
-        // Basic implementation for Phase 1
         if (!StringUtils.hasText(query)) {
             return projectRepository.findByVisibility(Project.ProjectVisibility.PUBLIC, pageable);
         }
-        // Requires a method in ProjectRepository like:
-        // Page<Project> findByVisibilityAndProjectNameContainingIgnoreCase(ProjectVisibility visibility, String nameQuery, Pageable pageable);
-        // Or a more complex text search.
-        logger.warn("SearchPublicProjects basic implementation used. Query: {}", query);
-        return projectRepository.findByVisibility(Project.ProjectVisibility.PUBLIC, pageable); // Placeholder
+        // Prefix match on the handle and names; the index holds public projects only
+        List<String> ids = typeaheadIndex.search(Suggestion.Type.PROJECT, query, (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(identityMap.findAllByIdInOrder(projectRepository, Project.class, ids, Project::getProjectId),
+                pageable, typeaheadIndex.count(Suggestion.Type.PROJECT, query));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Project> searchPublicProjectsSlice(String query, Pageable pageable) {
+        if (!StringUtils.hasText(query)) {
+            return projectRepository.findSliceByVisibility(Project.ProjectVisibility.PUBLIC, pageable);
+        }
+        // One extra match tells whether another page follows
+        List<String> ids = typeaheadIndex.search(Suggestion.Type.PROJECT, query, (int) pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean hasNext = ids.size() > pageable.getPageSize();
+        List<Project> projects = identityMap.findAllByIdInOrder(projectRepository, Project.class,
+                hasNext ? ids.subList(0, pageable.getPageSize()) : ids, Project::getProjectId);
+        return new SliceImpl<>(projects, pageable, hasNext);
     }
 
     // Implementation for simplified task management (modifying Project entity directly)
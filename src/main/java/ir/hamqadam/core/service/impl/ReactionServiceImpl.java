@@ -0,0 +1,166 @@
+package ir.hamqadam.core.service.impl;
+
+import ir.hamqadam.core.counter.WriteBehindCounters;
+import ir.hamqadam.core.exception.ResourceNotFoundException;
+import ir.hamqadam.core.exception.ValidationException;
+import ir.hamqadam.core.model.Comment;
+import ir.hamqadam.core.model.Post;
+import ir.hamqadam.core.model.Reaction;
+import ir.hamqadam.core.repository.CommentRepository;
+import ir.hamqadam.core.repository.PostRepository;
+import ir.hamqadam.core.repository.ReactionRepository;
+import ir.hamqadam.core.service.ReactionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Reactions are stored as one small document per (target, user), so a user's reaction is
+ * idempotent and readable immediately, and a popular post is never locked by its reactions.
+ * The target's aggregate counts are maintained as deltas through {@link WriteBehindCounters}.
+ * <p>
+ * Only published public posts and approved comments, the ones shown to readers, can be reacted to.
+ */
+@Service
+public class ReactionServiceImpl implements ReactionService {
+
+    private static final String TYPE_POST = "Post";
+    private static final String TYPE_COMMENT = "Comment";
+
+    private final MongoTemplate mongoTemplate;
+    private final ReactionRepository reactionRepository;
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final WriteBehindCounters counters;
+    private final Set<String> allowedEmoji;
+
+    @Autowired
+    public ReactionServiceImpl(MongoTemplate mongoTemplate,
+                               ReactionRepository reactionRepository,
+                               PostRepository postRepository,
+                               CommentRepository commentRepository,
+                               WriteBehindCounters counters,
+                               @Value("${hamqadam.reactions.allowed:👍,❤️,😂,😮,😢,🙏,🎉,🔥}") List<String> allowedEmoji) {
+        this.mongoTemplate = mongoTemplate;
+        this.reactionRepository = reactionRepository;
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.counters = counters;
+        this.allowedEmoji = Set.copyOf(allowedEmoji);
+        // Emoji become field names under reaction_counts, so they must not be able to form another path
+        for (String emoji : this.allowedEmoji) {
+            if (!StringUtils.hasText(emoji) || emoji.contains(".") || emoji.startsWith("$")) {
+                throw new IllegalArgumentException("Invalid reaction emoji in configuration: '" + emoji + "'");
+            }
+        }
+    }
+
+    @Override
+    public Reaction react(String targetEntityType, String targetEntityId, String emoji, String actingUserId) {
+        String type = normalizeType(targetEntityType);
+        if (emoji == null || !allowedEmoji.contains(emoji)) {
+            throw new ValidationException("Unsupported reaction: " + emoji);
+        }
+        requireTarget(type, targetEntityId);
+
+        LocalDateTime now = LocalDateTime.now();
+        Query query = userReactionQuery(type, targetEntityId, actingUserId);
+        Update update = new Update().set("emoji", emoji).set("reactedAt", now);
+        Reaction previous;
+        try {
+            // Returns the reaction as it was before, which tells us exactly which counts to move
+            previous = mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(false), Reaction.class);
+        } catch (DuplicateKeyException ex) {
+            // A concurrent first reaction of the same user inserted the document; update it instead
+            previous = mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().returnNew(false), Reaction.class);
+        }
+
+        String previousEmoji = previous != null ? previous.getEmoji() : null;
+        if (!emoji.equals(previousEmoji)) {
+            adjustCounts(type, targetEntityId, previousEmoji, -1);
+            adjustCounts(type, targetEntityId, emoji, 1);
+        }
+        return Reaction.builder()
+                .reactionId(previous != null ? previous.getReactionId() : null)
+                .targetEntityType(type)
+                .targetEntityId(targetEntityId)
+                .userId(actingUserId)
+                .emoji(emoji)
+                .reactedAt(now)
+                .build();
+    }
+
+    @Override
+    public boolean removeReaction(String targetEntityType, String targetEntityId, String actingUserId) {
+        String type = normalizeType(targetEntityType);
+        Reaction removed = mongoTemplate.findAndRemove(
+                userReactionQuery(type, targetEntityId, actingUserId), Reaction.class);
+        if (removed == null) {
+            return false;
+        }
+        adjustCounts(type, targetEntityId, removed.getEmoji(), -1);
+        return true;
+    }
+
+    @Override
+    public Optional<Reaction> findUserReaction(String targetEntityType, String targetEntityId, String actingUserId) {
+        return reactionRepository.findByTargetEntityTypeAndTargetEntityIdAndUserId(
+                normalizeType(targetEntityType), targetEntityId, actingUserId);
+    }
+
+    private void adjustCounts(String type, String targetEntityId, String emoji, long delta) {
+        if (emoji == null) {
+            return;
+        }
+        Class<?> entityType = TYPE_POST.equals(type) ? Post.class : Comment.class;
+        counters.increment(entityType, targetEntityId, "reactionCounts." + emoji, delta);
+        if (Reaction.LIKE.equals(emoji)) {
+            counters.increment(entityType, targetEntityId, "likeCount", delta);
+        }
+    }
+
+    private void requireTarget(String type, String targetEntityId) {
+        if (TYPE_POST.equals(type)) {
+            if (!postRepository.existsByPostIdAndStatusAndVisibility(targetEntityId,
+                    Post.PostStatus.PUBLISHED, Post.PostVisibility.PUBLIC)) {
+                throw new ResourceNotFoundException("Post", "ID", targetEntityId);
+            }
+        } else if (!commentRepository.existsByCommentIdAndStatus(targetEntityId, Comment.CommentStatus.APPROVED)) {
+            throw new ResourceNotFoundException("Comment", "ID", targetEntityId);
+        }
+    }
+
+    private static Query userReactionQuery(String type, String targetEntityId, String userId) {
+        return Query.query(Criteria.where("targetEntityType").is(type)
+                .and("targetEntityId").is(targetEntityId)
+                .and("userId").is(userId));
+    }
+
+    // Accepts "Post", "post" or "posts" (and likewise for comments), as used in URLs
+    private static String normalizeType(String targetEntityType) {
+        if (targetEntityType != null) {
+            String type = targetEntityType.toLowerCase();
+            if (type.equals("post") || type.equals("posts")) {
+                return TYPE_POST;
+            }
+            if (type.equals("comment") || type.equals("comments")) {
+                return TYPE_COMMENT;
+            }
+        }
+        throw new ValidationException("Unsupported target entity type for reactions: " + targetEntityType);
+    }
+}
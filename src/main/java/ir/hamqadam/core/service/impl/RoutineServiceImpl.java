@@ -3,6 +3,7 @@ package ir.hamqadam.core.service.impl;
 import ir.hamqadam.core.exception.ResourceNotFoundException;
 import ir.hamqadam.core.exception.UnauthorizedException;
 import ir.hamqadam.core.exception.ValidationException;
+import ir.hamqadam.core.model.Post;
 import ir.hamqadam.core.model.Routine;
 import ir.hamqadam.core.model.Team;
 import ir.hamqadam.core.model.User;
@@ -11,7 +12,12 @@ import ir.hamqadam.core.repository.UserRepository;
 import ir.hamqadam.core.repository.TeamRepository;
 import ir.hamqadam.core.repository.PostRepository;
 // import ir.hamqadam.core.service.NotificationService;
+import ir.hamqadam.core.security.permissions.TeamCapability;
+import ir.hamqadam.core.security.permissions.TeamPermissionIndex;
 import ir.hamqadam.core.service.RoutineService;
+import ir.hamqadam.core.util.KeysetCursor;
+import ir.hamqadam.core.util.KeysetPage;
+import ir.hamqadam.core.util.RequestIdentityMap;
 // import some.library.for.rrule.parser.RRule; // For parsing iCalendar RRULE
 // import some.library.for.rrule.parser.RecurrenceRule;
 import org.slf4j.Logger;
@@ -19,6 +25,10 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -43,6 +53,9 @@ public class RoutineServiceImpl implements RoutineService {
     private final UserRepository userRepository;
     private final TeamRepository teamRepository;
     private final PostRepository postRepository;
+    private final RequestIdentityMap identityMap;
+    private final TeamPermissionIndex permissionIndex;
+    private final MongoTemplate mongoTemplate;
     // private final NotificationService notificationService;
     // private final RRuleParserService rruleParserService; // A hypothetical service for RRULE
 
@@ -50,12 +63,18 @@ public class RoutineServiceImpl implements RoutineService {
     public RoutineServiceImpl(RoutineRepository routineRepository,
                               UserRepository userRepository,
                               TeamRepository teamRepository,
-                              PostRepository postRepository
+                              PostRepository postRepository,
+                              RequestIdentityMap identityMap,
+                              TeamPermissionIndex permissionIndex,
+                              MongoTemplate mongoTemplate
             /*, NotificationService notificationService, RRuleParserService rruleParserService */) {
         this.routineRepository = routineRepository;
         this.userRepository = userRepository;
         this.teamRepository = teamRepository;
         this.postRepository = postRepository;
+        this.identityMap = identityMap;
+        this.permissionIndex = permissionIndex;
+        this.mongoTemplate = mongoTemplate;
         // this.notificationService = notificationService;
         // this.rruleParserService = rruleParserService;
     }
@@ -82,15 +101,15 @@ public class RoutineServiceImpl implements RoutineService {
         if (!StringUtils.hasText(descriptivePostId)) {
             throw new ValidationException("Descriptive Post ID is required for creating a routine.");
         }
-        postRepository.findById(descriptivePostId)
+        identityMap.findById(postRepository, Post.class, descriptivePostId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post (descriptive)", "ID", descriptivePostId));
 
         // Validate creator
         if (creatorInfo.getCreatorType() == Routine.CreatorType.USER) {
-            userRepository.findById(creatorInfo.getCreatorId())
+            identityMap.findById(userRepository, User.class, creatorInfo.getCreatorId())
                     .orElseThrow(() -> new ResourceNotFoundException("User (creator)", "ID", creatorInfo.getCreatorId()));
         } else if (creatorInfo.getCreatorType() == Routine.CreatorType.TEAM) {
-            teamRepository.findById(creatorInfo.getCreatorId())
+            identityMap.findById(teamRepository, Team.class, creatorInfo.getCreatorId())
                     .orElseThrow(() -> new ResourceNotFoundException("Team (creator)", "ID", creatorInfo.getCreatorId()));
         }
         // Ensure acting user is set correctly
@@ -138,7 +157,7 @@ public class RoutineServiceImpl implements RoutineService {
     @Override
     @Transactional(readOnly = true)
     public Optional<Routine> findRoutineById(String routineId) {
-        return routineRepository.findById(routineId);
+        return identityMap.findById(routineRepository, Routine.class, routineId);
     }
 
     @Override
@@ -156,14 +175,14 @@ public class RoutineServiceImpl implements RoutineService {
                                      Routine.LocationOrPlatformDetails locationOrPlatform,
                                      Routine.RoutineVisibility visibility,
                                      String actingUserId) {
-        Routine routine = routineRepository.findById(routineId)
+        Routine routine = identityMap.findById(routineRepository, Routine.class, routineId)
                 .orElseThrow(() -> new ResourceNotFoundException("Routine", "routineId", routineId));
 
         // checkManagementPermission(routine, actingUserId); // Or use @PreAuthorize
 
         if (title != null) routine.setTitle(title);
         if (descriptivePostId != null) { // Optional: Validate post existence
-            postRepository.findById(descriptivePostId)
+            identityMap.findById(postRepository, Post.class, descriptivePostId)
                     .orElseThrow(() -> new ResourceNotFoundException("Post (descriptive)", "ID", descriptivePostId));
             routine.setDescriptivePostId(descriptivePostId);
         }
@@ -192,11 +211,8 @@ public class RoutineServiceImpl implements RoutineService {
         } else if (routine.getCreatorInfo().getCreatorType() == Routine.CreatorType.USER && routine.getCreatorInfo().getCreatorId().equals(actingUserId)) {
             canManage = true;
         } else if (routine.getCreatorInfo().getCreatorType() == Routine.CreatorType.TEAM) {
-            Team creatorTeam = teamRepository.findById(routine.getCreatorInfo().getCreatorId()).orElse(null);
-            if (creatorTeam != null && creatorTeam.getMembers().stream()
-                    .anyMatch(m -> m.getUserId().equals(actingUserId) && m.getRoles().contains("ADMIN"))) {
-                canManage = true;
-            }
+            canManage = permissionIndex.hasCapability(routine.getCreatorInfo().getCreatorId(), actingUserId,
+                    TeamCapability.MANAGE_CONTENT);
         }
         // Could also check linked project/team managers
         if (!canManage) {
@@ -207,7 +223,7 @@ public class RoutineServiceImpl implements RoutineService {
     @Override
     @PreAuthorize("@routineSecurityService.canChangeRoutineStatus(#routineId, principal.username)")
     public Routine changeRoutineStatus(String routineId, Routine.RoutineStatus newStatus, String actingUserId) {
-        Routine routine = routineRepository.findById(routineId)
+        Routine routine = identityMap.findById(routineRepository, Routine.class, routineId)
                 .orElseThrow(() -> new ResourceNotFoundException("Routine", "routineId", routineId));
 
         // checkManagementPermission(routine, actingUserId);
@@ -227,7 +243,7 @@ public class RoutineServiceImpl implements RoutineService {
     @Override
     @PreAuthorize("@routineSecurityService.canManageRoutineParticipants(#routineId, principal.username)")
     public Routine addParticipantToRoutine(String routineId, Routine.RoutineParticipant participant, String actingUserId) {
-        Routine routine = routineRepository.findById(routineId)
+        Routine routine = identityMap.findById(routineRepository, Routine.class, routineId)
                 .orElseThrow(() -> new ResourceNotFoundException("Routine", "routineId", routineId));
 
         // checkManagementPermission(routine, actingUserId);
@@ -237,10 +253,10 @@ public class RoutineServiceImpl implements RoutineService {
         }
         // Validate participant existence
         if (participant.getParticipantType() == Routine.ParticipantType.USER) {
-            userRepository.findById(participant.getParticipantId())
+            identityMap.findById(userRepository, User.class, participant.getParticipantId())
                     .orElseThrow(() -> new ResourceNotFoundException("User (participant)", "ID", participant.getParticipantId()));
         } else { // TEAM_REPRESENTATIVE
-            teamRepository.findById(participant.getParticipantId())
+            identityMap.findById(teamRepository, Team.class, participant.getParticipantId())
                     .orElseThrow(() -> new ResourceNotFoundException("Team (participant)", "ID", participant.getParticipantId()));
         }
 
@@ -266,7 +282,7 @@ public class RoutineServiceImpl implements RoutineService {
     @Override
     @PreAuthorize("@routineSecurityService.canManageRoutineParticipants(#routineId, principal.username)")
     public Routine removeParticipantFromRoutine(String routineId, String participantId, Routine.ParticipantType participantType, String actingUserId) {
-        Routine routine = routineRepository.findById(routineId)
+        Routine routine = identityMap.findById(routineRepository, Routine.class, routineId)
                 .orElseThrow(() -> new ResourceNotFoundException("Routine", "routineId", routineId));
 
         // checkManagementPermission(routine, actingUserId);
@@ -289,7 +305,7 @@ public class RoutineServiceImpl implements RoutineService {
 
     @Override
     public Routine updateParticipantRsvpStatus(String routineId, String participantId, Routine.ParticipantType participantType, Routine.InvitationStatus newStatus, String actingUserId) {
-        Routine routine = routineRepository.findById(routineId)
+        Routine routine = identityMap.findById(routineRepository, Routine.class, routineId)
                 .orElseThrow(() -> new ResourceNotFoundException("Routine", "routineId", routineId));
 
         Routine.RoutineParticipant participant = routine.getParticipants().stream()
@@ -329,12 +345,24 @@ public class RoutineServiceImpl implements RoutineService {
         return routineRepository.findByParticipants_ParticipantIdAndParticipants_ParticipantType(userId, Routine.ParticipantType.USER, pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Routine> findRoutinesByParticipantUserSlice(String userId, Pageable pageable) {
+        return routineRepository.findSliceByParticipants_ParticipantIdAndParticipants_ParticipantType(userId, Routine.ParticipantType.USER, pageable);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<Routine> findRoutinesByLinkedProject(String projectId, Pageable pageable) {
         return routineRepository.findByLinkedProjectId(projectId, pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Routine> findRoutinesByLinkedProjectSlice(String projectId, Pageable pageable) {
+        return routineRepository.findSliceByLinkedProjectId(projectId, pageable);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<Routine> findRoutinesByLinkedTeam(String teamId, Pageable pageable) {
@@ -354,9 +382,27 @@ public class RoutineServiceImpl implements RoutineService {
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Routine> findRoutinesByNextOccurrenceBetweenSlice(LocalDateTime fromDateTime, LocalDateTime toDateTime, Optional<Routine.RoutineStatus> status, Pageable pageable) {
+        return routineRepository.findSliceByNextOccurrenceDatetimeBetweenAndStatus(
+                fromDateTime, toDateTime, status.orElse(Routine.RoutineStatus.ACTIVE), pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<Routine> scrollUpcomingPublicRoutines(LocalDateTime fromDateTime, LocalDateTime toDateTime, KeysetCursor after, int size) {
+        Criteria filter = Criteria.where("status").is(Routine.RoutineStatus.ACTIVE)
+                .and("visibility").is(Routine.RoutineVisibility.PUBLIC)
+                .and("nextOccurrenceDatetime").gte(fromDateTime).lte(toDateTime);
+        List<Routine> routines = mongoTemplate.find(
+                KeysetCursor.query(filter, "nextOccurrenceDatetime", Sort.Direction.ASC, after, size), Routine.class);
+        return KeysetCursor.page(routines, size, r -> new KeysetCursor(r.getNextOccurrenceDatetime(), r.getRoutineId()));
+    }
+
     @Override
     public Routine recalculateNextOccurrence(String routineId) {
-        Routine routine = routineRepository.findById(routineId)
+        Routine routine = identityMap.findById(routineRepository, Routine.class, routineId)
                 .orElseThrow(() -> new ResourceNotFoundException("Routine", "routineId", routineId));
         if (routine.getStatus() == Routine.RoutineStatus.ACTIVE && routine.getScheduleType() == Routine.ScheduleType.RECURRING) {
             routine.setNextOccurrenceDatetime(calculateNextOccurrence(routine.getStartDatetime(), routine.getRecurrenceRule(), routine.getTimezone()));
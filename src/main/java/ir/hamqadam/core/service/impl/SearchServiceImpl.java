@@ -0,0 +1,250 @@
+package ir.hamqadam.core.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import ir.hamqadam.core.model.Post;
+import ir.hamqadam.core.repository.PostRepository;
+import ir.hamqadam.core.search.FederatedHit;
+import ir.hamqadam.core.search.FederatedResults;
+import ir.hamqadam.core.search.PostSearchIndex;
+import ir.hamqadam.core.search.SearchHit;
+import ir.hamqadam.core.search.SearchHits;
+import ir.hamqadam.core.search.Snippet;
+import ir.hamqadam.core.search.Suggestion;
+import ir.hamqadam.core.search.TextAnalyzer;
+import ir.hamqadam.core.search.TypeaheadIndex;
+import ir.hamqadam.core.service.SearchService;
+import ir.hamqadam.core.util.RequestIdentityMap;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans a search out to the in-memory indexes: {@link PostSearchIndex} for posts and
+ * {@link TypeaheadIndex} for teams, projects and users, each on a thread of a small dedicated pool, and
+ * waits for them until one shared deadline, {@code hamqadam.search.federated.deadline-ms} after the call.
+ * <p>
+ * Scores are normalized per source before merging: a post's BM25 score is divided by the best score the
+ * query's terms could give any post ({@link SearchHits#maxScore()}), so a weak best match stays weak, and
+ * a team, project or user scores {@link TypeaheadIndex#relevance}. Each source returns its hits
+ * best first, so the lists are combined with a k-way merge.
+ * <p>
+ * Meters: {@code hamqadam.search.federated} (whole search time) and
+ * {@code hamqadam.search.federated.incomplete}, tagged with the source and why it was left out.
+ */
+@Service
+public class SearchServiceImpl implements SearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchServiceImpl.class);
+
+    private static final int SNIPPET_LENGTH = 160;
+
+    private final PostSearchIndex postSearchIndex;
+    private final TypeaheadIndex typeaheadIndex;
+    private final PostRepository postRepository;
+    private final RequestIdentityMap identityMap;
+    private final MeterRegistry meterRegistry;
+    private final Duration deadline;
+    private final ThreadPoolExecutor executor;
+    private final Timer searchTimer;
+
+    @Autowired
+    public SearchServiceImpl(PostSearchIndex postSearchIndex,
+                             TypeaheadIndex typeaheadIndex,
+                             PostRepository postRepository,
+                             RequestIdentityMap identityMap,
+                             MeterRegistry meterRegistry,
+                             @Value("${hamqadam.search.federated.deadline-ms:200}") long deadlineMillis,
+                             @Value("${hamqadam.search.federated.threads:8}") int threads,
+                             @Value("${hamqadam.search.federated.queue-capacity:64}") int queueCapacity) {
+        this.postSearchIndex = postSearchIndex;
+        this.typeaheadIndex = typeaheadIndex;
+        this.postRepository = postRepository;
+        this.identityMap = identityMap;
+        this.meterRegistry = meterRegistry;
+        this.deadline = Duration.ofMillis(deadlineMillis);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "federated-search-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.searchTimer = Timer.builder("hamqadam.search.federated")
+                .description("Time spent answering a search across posts, teams, projects and users")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public FederatedResults search(String query, Set<FederatedHit.Source> sources, String language, int limit) {
+        long start = System.nanoTime();
+        long deadlineAt = start + deadline.toNanos();
+        List<FederatedHit.Source> incomplete = new ArrayList<>();
+        Map<FederatedHit.Source, Future<List<FederatedHit>>> pending = new EnumMap<>(FederatedHit.Source.class);
+        for (FederatedHit.Source source : sources) {
+            try {
+                pending.put(source, executor.submit(() -> searchSource(source, query, language, limit)));
+            } catch (RejectedExecutionException e) {
+                incomplete(source, "rejected", incomplete);
+            }
+        }
+        List<List<FederatedHit>> answered = new ArrayList<>();
+        for (Map.Entry<FederatedHit.Source, Future<List<FederatedHit>>> entry : pending.entrySet()) {
+            try {
+                answered.add(entry.getValue().get(Math.max(0, deadlineAt - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                entry.getValue().cancel(false); // Not interrupted: that would close the Mongo connection it reads from
+                incomplete(entry.getKey(), "timeout", incomplete);
+            } catch (ExecutionException e) {
+                logger.warn("Searching {} for '{}' failed", entry.getKey(), query, e.getCause());
+                incomplete(entry.getKey(), "error", incomplete);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                incomplete(entry.getKey(), "interrupted", incomplete);
+            }
+        }
+        List<FederatedHit> hits = merge(answered, limit);
+        searchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new FederatedResults(hits, incomplete);
+    }
+
+    /**
+     * Merges hit lists, each sorted best first, into the best {@code limit} hits overall; on equal scores
+     * the earlier list wins.
+     */
+    static List<FederatedHit> merge(List<List<FederatedHit>> lists, int limit) {
+        // Heads of the lists as {list, position}, best first
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Comparator
+                .comparingDouble((int[] head) -> -lists.get(head[0]).get(head[1]).score())
+                .thenComparingInt(head -> head[0]));
+        for (int i = 0; i < lists.size(); i++) {
+            if (!lists.get(i).isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+        List<FederatedHit> merged = new ArrayList<>(limit);
+        while (!heads.isEmpty() && merged.size() < limit) {
+            int[] head = heads.poll();
+            List<FederatedHit> list = lists.get(head[0]);
+            merged.add(list.get(head[1]));
+            if (head[1] + 1 < list.size()) {
+                heads.add(new int[]{head[0], head[1] + 1});
+            }
+        }
+        return merged;
+    }
+
+    private void incomplete(FederatedHit.Source source, String reason, List<FederatedHit.Source> incomplete) {
+        incomplete.add(source);
+        meterRegistry.counter("hamqadam.search.federated.incomplete",
+                "source", source.name().toLowerCase(), "reason", reason).increment();
+    }
+
+    private List<FederatedHit> searchSource(FederatedHit.Source source, String query, String language, int limit) {
+        return switch (source) {
+            case POSTS -> searchPosts(query, language, limit);
+            case TEAMS -> searchEntities(source, Suggestion.Type.TEAM, query, language, limit);
+            case PROJECTS -> searchEntities(source, Suggestion.Type.PROJECT, query, language, limit);
+            case USERS -> searchEntities(source, Suggestion.Type.USER, query, language, limit);
+        };
+    }
+
+    private List<FederatedHit> searchPosts(String query, String language, int limit) {
+        SearchHits found = postSearchIndex.search(query, Post.PostStatus.PUBLISHED, Post.PostVisibility.PUBLIC,
+                0, limit, false);
+        List<SearchHit> hits = found.hits();
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Float> scores = new HashMap<>();
+        hits.forEach(hit -> scores.put(hit.id(), hit.score() / found.maxScore()));
+        Set<String> terms = new LinkedHashSet<>(TextAnalyzer.STEMMING.tokens(query));
+        List<String> ids = hits.stream().map(SearchHit::id).toList();
+        List<FederatedHit> results = new ArrayList<>(ids.size());
+        for (Post post : identityMap.findAllByIdInOrder(postRepository, Post.class, ids, Post::getPostId)) {
+            results.add(new FederatedHit(FederatedHit.Source.POSTS, post.getPostId(), scores.get(post.getPostId()),
+                    post.getTitle(), null, null, postSnippet(post, terms, language)));
+        }
+        return results;
+    }
+
+    private List<FederatedHit> searchEntities(FederatedHit.Source source, Suggestion.Type type, String query,
+                                              String language, int limit) {
+        List<String> prefixes = TextAnalyzer.PLAIN.tokens(query);
+        List<FederatedHit> results = new ArrayList<>();
+        for (Suggestion suggestion : typeaheadIndex.matches(type, query, limit)) { // Most relevant first
+            Snippet snippet = null;
+            for (String name : preferred(suggestion.name(), language)) {
+                snippet = Snippet.around(name, TextAnalyzer.PLAIN,
+                        token -> prefixes.stream().anyMatch(token::startsWith), SNIPPET_LENGTH);
+                if (snippet != null) {
+                    break;
+                }
+            }
+            results.add(new FederatedHit(source, suggestion.id(), TypeaheadIndex.relevance(query, suggestion),
+                    suggestion.name(), suggestion.handle(), suggestion.pictureUrl(), snippet));
+        }
+        return results;
+    }
+
+    // The first title, excerpt or body text with a match, preferring the requested language; else the lead
+    private static Snippet postSnippet(Post post, Set<String> terms, String language) {
+        for (Map<String, String> field : Arrays.asList(post.getTitle(), post.getExcerpt(), post.getContentBody())) {
+            for (String text : preferred(field, language)) {
+                Snippet snippet = Snippet.around(text, TextAnalyzer.STEMMING, terms::contains, SNIPPET_LENGTH);
+                if (snippet != null) {
+                    return snippet;
+                }
+            }
+        }
+        List<String> excerpts = preferred(post.getExcerpt(), language);
+        return excerpts.isEmpty() ? null : Snippet.lead(excerpts.get(0), SNIPPET_LENGTH);
+    }
+
+    private static List<String> preferred(Map<String, String> localized, String language) {
+        if (localized == null) {
+            return List.of();
+        }
+        List<String> texts = new ArrayList<>(localized.size());
+        if (language != null && localized.get(language) != null) {
+            texts.add(localized.get(language));
+        }
+        localized.forEach((key, text) -> {
+            if (text != null && !key.equals(language)) {
+                texts.add(text);
+            }
+        });
+        return texts;
+    }
+}
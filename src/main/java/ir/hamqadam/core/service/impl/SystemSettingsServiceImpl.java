@@ -4,9 +4,11 @@ import ir.hamqadam.core.controller.dto.admin.SystemSettingDTO;
 import ir.hamqadam.core.model.SystemSetting;
 import ir.hamqadam.core.repository.SystemSettingRepository;
 import ir.hamqadam.core.service.SystemSettingsService;
+import ir.hamqadam.core.service.event.SystemSettingChangedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.beans.factory.annotation.Value; // For reading from application.properties
@@ -26,6 +28,7 @@ public class SystemSettingsServiceImpl implements SystemSettingsService {
     private static final Logger logger = LoggerFactory.getLogger(SystemSettingsServiceImpl.class);
 
     private final SystemSettingRepository systemSettingRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     // You can inject values from application.properties to serve as initial defaults
     // or fallback values if the database setting is missing.
@@ -40,8 +43,10 @@ public class SystemSettingsServiceImpl implements SystemSettingsService {
 
 
     @Autowired
-    public SystemSettingsServiceImpl(SystemSettingRepository systemSettingRepository) {
+    public SystemSettingsServiceImpl(SystemSettingRepository systemSettingRepository,
+                                     ApplicationEventPublisher eventPublisher) {
         this.systemSettingRepository = systemSettingRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @PostConstruct
@@ -144,7 +149,9 @@ public class SystemSettingsServiceImpl implements SystemSettingsService {
         setting.setLastUpdatedAt(LocalDateTime.now());
 
         logger.info("Saving system setting: {} = {}", key, value);
-        return systemSettingRepository.save(setting);
+        SystemSetting saved = systemSettingRepository.save(setting);
+        eventPublisher.publishEvent(new SystemSettingChangedEvent(key, value));
+        return saved;
     }
 
     @Override
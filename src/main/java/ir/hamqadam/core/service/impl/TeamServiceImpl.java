@@ -7,13 +7,22 @@ import ir.hamqadam.core.model.Team;
 import ir.hamqadam.core.model.User;
 import ir.hamqadam.core.repository.TeamRepository;
 import ir.hamqadam.core.repository.UserRepository;
+import ir.hamqadam.core.search.Suggestion;
+import ir.hamqadam.core.search.TypeaheadIndex;
 // import ir.hamqadam.core.service.NotificationService; // For sending notifications
+import ir.hamqadam.core.security.permissions.TeamCapability;
+import ir.hamqadam.core.security.permissions.TeamPermissionIndex;
 import ir.hamqadam.core.service.TeamService;
+import ir.hamqadam.core.uniqueness.UniqueKeyFilter;
+import ir.hamqadam.core.util.RequestIdentityMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.access.prepost.PreAuthorize; // For method-level security
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,6 +30,7 @@ import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -34,6 +44,10 @@ public class TeamServiceImpl implements TeamService {
 
     private final TeamRepository teamRepository;
     private final UserRepository userRepository;
+    private final RequestIdentityMap identityMap;
+    private final TeamPermissionIndex permissionIndex;
+    private final TypeaheadIndex typeaheadIndex;
+    private final UniqueKeyFilter uniqueKeys;
     // private final NotificationService notificationService; // Autowire if using
 
     // For Phase 1, define admin role string
@@ -42,10 +56,18 @@ public class TeamServiceImpl implements TeamService {
 
 
     @Autowired
-    public TeamServiceImpl(TeamRepository teamRepository, UserRepository userRepository
+    public TeamServiceImpl(TeamRepository teamRepository, UserRepository userRepository,
+            RequestIdentityMap identityMap,
+            TeamPermissionIndex permissionIndex,
+            TypeaheadIndex typeaheadIndex,
+            UniqueKeyFilter uniqueKeys
             /*, NotificationService notificationService */) {
         this.teamRepository = teamRepository;
         this.userRepository = userRepository;
+        this.identityMap = identityMap;
+        this.permissionIndex = permissionIndex;
+        this.typeaheadIndex = typeaheadIndex;
+        this.uniqueKeys = uniqueKeys;
         // this.notificationService = notificationService;
     }
 
@@ -58,7 +80,7 @@ public class TeamServiceImpl implements TeamService {
                            boolean membershipApprovalRequired,
                            User actingUser) {
 
-        if (!StringUtils.hasText(teamHandle) || teamRepository.existsByTeamHandle(teamHandle)) {
+        if (!isTeamHandleAvailable(teamHandle)) {
             throw new ValidationException("Team handle is invalid or already exists: " + teamHandle);
         }
         if (introductoryPostId == null) { // Assuming post service would have validated post existence
@@ -90,10 +112,22 @@ public class TeamServiceImpl implements TeamService {
         return teamRepository.save(newTeam);
     }
 
+    @Override
+    public boolean isTeamHandleAvailable(String teamHandle) {
+        return StringUtils.hasText(teamHandle)
+                && !uniqueKeys.exists(UniqueKeyFilter.Key.TEAM_HANDLE, teamHandle, teamRepository::existsByTeamHandle);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<Team> findTeamById(String teamId) {
-        return teamRepository.findById(teamId);
+        return identityMap.findById(teamRepository, Team.class, teamId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Team> findTeamsByIds(Collection<String> teamIds) {
+        return identityMap.findAllById(teamRepository, Team.class, teamIds, Team::getTeamId);
     }
 
     @Override
@@ -112,7 +146,7 @@ public class TeamServiceImpl implements TeamService {
                                Team.TeamVisibility visibility,
                                boolean membershipApprovalRequired,
                                String actingUserId) { // actingUserId already available via principal
-        Team team = teamRepository.findById(teamId)
+        Team team = identityMap.findById(teamRepository, Team.class, teamId)
                 .orElseThrow(() -> new ResourceNotFoundException("Team", "teamId", teamId));
 
         // Permission check: actingUserId must be an admin of this team
@@ -133,10 +167,7 @@ public class TeamServiceImpl implements TeamService {
     }
 
     private void checkAdminPermission(Team team, String actingUserId) {
-        boolean isAdmin = team.getMembers().stream()
-                .anyMatch(member -> member.getUserId().equals(actingUserId) &&
-                        member.getRoles().contains(ROLE_ADMIN) &&
-                        member.getStatusInTeam() == Team.MemberStatus.ACTIVE);
+        boolean isAdmin = permissionIndex.hasCapability(team, actingUserId, TeamCapability.MANAGE_TEAM);
         if (!isAdmin) {
             throw new UnauthorizedException("User " + actingUserId + " is not authorized to perform this action on team " + team.getTeamId());
         }
@@ -146,9 +177,9 @@ public class TeamServiceImpl implements TeamService {
     @Override
     @PreAuthorize("@teamSecurityService.canInviteToTeam(#teamId, principal.username)")
     public Team inviteUserToTeam(String teamId, String userIdToInvite, List<String> rolesForUser, String actingUserId) {
-        Team team = teamRepository.findById(teamId)
+        Team team = identityMap.findById(teamRepository, Team.class, teamId)
                 .orElseThrow(() -> new ResourceNotFoundException("Team", "teamId", teamId));
-        userRepository.findById(userIdToInvite)
+        identityMap.findById(userRepository, User.class, userIdToInvite)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "userId", userIdToInvite));
 
         // checkAdminPermission(team, actingUserId); // Or more granular invite permission
@@ -179,7 +210,7 @@ public class TeamServiceImpl implements TeamService {
 
     @Override
     public Team respondToTeamInvitation(String teamId, String invitedUserId, boolean accept) {
-        Team team = teamRepository.findById(teamId)
+        Team team = identityMap.findById(teamRepository, Team.class, teamId)
                 .orElseThrow(() -> new ResourceNotFoundException("Team", "teamId", teamId));
 
         Team.TeamMember member = team.getMembers().stream()
@@ -202,9 +233,9 @@ public class TeamServiceImpl implements TeamService {
 
     @Override
     public Team requestToJoinTeam(String teamId, String requestingUserId) {
-        Team team = teamRepository.findById(teamId)
+        Team team = identityMap.findById(teamRepository, Team.class, teamId)
                 .orElseThrow(() -> new ResourceNotFoundException("Team", "teamId", teamId));
-        userRepository.findById(requestingUserId)
+        identityMap.findById(userRepository, User.class, requestingUserId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "userId", requestingUserId));
 
         if (team.getVisibility() != Team.TeamVisibility.PUBLIC) {
@@ -240,7 +271,7 @@ public class TeamServiceImpl implements TeamService {
     @Override
     @PreAuthorize("@teamSecurityService.isTeamAdmin(#teamId, principal.username)")
     public Team processMembershipRequest(String teamId, String userIdToProcess, boolean approve, String actingUserId) {
-        Team team = teamRepository.findById(teamId)
+        Team team = identityMap.findById(teamRepository, Team.class, teamId)
                 .orElseThrow(() -> new ResourceNotFoundException("Team", "teamId", teamId));
 
         // checkAdminPermission(team, actingUserId);
@@ -267,7 +298,7 @@ public class TeamServiceImpl implements TeamService {
     @Override
     @PreAuthorize("@teamSecurityService.isTeamAdmin(#teamId, principal.username)")
     public Team updateTeamMemberRoles(String teamId, String memberUserId, List<String> newRoles, String actingUserId) {
-        Team team = teamRepository.findById(teamId)
+        Team team = identityMap.findById(teamRepository, Team.class, teamId)
                 .orElseThrow(() -> new ResourceNotFoundException("Team", "teamId", teamId));
 
         // checkAdminPermission(team, actingUserId);
@@ -292,7 +323,7 @@ public class TeamServiceImpl implements TeamService {
     @Override
     @PreAuthorize("@teamSecurityService.isTeamAdmin(#teamId, principal.username) or #memberUserId == principal.username") // Admin or self (for leave)
     public Team removeTeamMember(String teamId, String memberUserId, String actingUserId) {
-        Team team = teamRepository.findById(teamId)
+        Team team = identityMap.findById(teamRepository, Team.class, teamId)
                 .orElseThrow(() -> new ResourceNotFoundException("Team", "teamId", teamId));
 
         Team.TeamMember memberToRemove = team.getMembers().stream()
@@ -335,7 +366,7 @@ public class TeamServiceImpl implements TeamService {
     @Override
     @PreAuthorize("@teamSecurityService.isTeamAdmin(#teamId, principal.username)")
     public Team changeTeamStatus(String teamId, Team.TeamStatus newStatus, String actingUserId) {
-        Team team = teamRepository.findById(teamId)
+        Team team = identityMap.findById(teamRepository, Team.class, teamId)
                 .orElseThrow(() -> new ResourceNotFoundException("Team", "teamId", teamId));
 
         // checkAdminPermission(team, actingUserId);
@@ -361,17 +392,35 @@ public class TeamServiceImpl implements TeamService {
         return teamRepository.findByMembers_UserId(userId, pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Team> findTeamsByMemberUserIdSlice(String userId, Pageable pageable) {
+        return teamRepository.findSliceByMembers_UserId(userId, pageable);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<Team> searchPublicTeams(String query, Pageable pageable) {
-        // For Phase 1, basic search. Enhance with text search or more specific criteria later.
         if (!StringUtils.hasText(query)) {
             return teamRepository.findByVisibility(Team.TeamVisibility.PUBLIC, pageable);
         }
-        // Example: (This is a naive search, not efficient for i18n or large datasets)
-        // This requires appropriate methods in TeamRepository
-        // return teamRepository.findByVisibilityAndTeamNameContainingIgnoreCase(Team.TeamVisibility.PUBLIC, query, pageable);
-        logger.warn("SearchPublicTeams basic implementation used. Query: {}", query);
-        return teamRepository.findByVisibility(Team.TeamVisibility.PUBLIC, pageable); // Placeholder
+        // Prefix match on the handle and names; the index holds public teams only
+        List<String> ids = typeaheadIndex.search(Suggestion.Type.TEAM, query, (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(identityMap.findAllByIdInOrder(teamRepository, Team.class, ids, Team::getTeamId),
+                pageable, typeaheadIndex.count(Suggestion.Type.TEAM, query));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Team> searchPublicTeamsSlice(String query, Pageable pageable) {
+        if (!StringUtils.hasText(query)) {
+            return teamRepository.findSliceByVisibility(Team.TeamVisibility.PUBLIC, pageable);
+        }
+        // One extra match tells whether another page follows
+        List<String> ids = typeaheadIndex.search(Suggestion.Type.TEAM, query, (int) pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean hasNext = ids.size() > pageable.getPageSize();
+        List<Team> teams = identityMap.findAllByIdInOrder(teamRepository, Team.class,
+                hasNext ? ids.subList(0, pageable.getPageSize()) : ids, Team::getTeamId);
+        return new SliceImpl<>(teams, pageable, hasNext);
     }
 }
\ No newline at end of file
@@ -5,12 +5,23 @@ import ir.hamqadam.core.exception.ValidationException;
 import ir.hamqadam.core.model.User;
 import ir.hamqadam.core.model.User.AccountStatus;
 import ir.hamqadam.core.repository.UserRepository;
+import ir.hamqadam.core.repository.projection.UserSummary;
+import ir.hamqadam.core.search.Suggestion;
+import ir.hamqadam.core.search.TypeaheadIndex;
+import ir.hamqadam.core.security.AuthenticatedPrincipalCache;
+import ir.hamqadam.core.security.IdentityResolver;
+import ir.hamqadam.core.security.TokenRevocationRegistry;
 import ir.hamqadam.core.service.UserService;
+import ir.hamqadam.core.uniqueness.UniqueKeyFilter;
+import ir.hamqadam.core.util.RequestIdentityMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -21,6 +32,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -35,11 +47,29 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final AuthenticatedPrincipalCache principalCache;
+    private final TokenRevocationRegistry revocationRegistry;
+    private final IdentityResolver identityResolver;
+    private final RequestIdentityMap identityMap;
+    private final TypeaheadIndex typeaheadIndex;
+    private final UniqueKeyFilter uniqueKeys;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserServiceImpl(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                           AuthenticatedPrincipalCache principalCache,
+                           TokenRevocationRegistry revocationRegistry,
+                           IdentityResolver identityResolver,
+                           RequestIdentityMap identityMap,
+                           TypeaheadIndex typeaheadIndex,
+                           UniqueKeyFilter uniqueKeys) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.principalCache = principalCache;
+        this.revocationRegistry = revocationRegistry;
+        this.identityResolver = identityResolver;
+        this.identityMap = identityMap;
+        this.typeaheadIndex = typeaheadIndex;
+        this.uniqueKeys = uniqueKeys;
     }
 
     // --- Implementation of UserDetailsService ---
@@ -71,7 +101,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public User registerNewUserByEmail(Map<String, String> fullName, String email, String password) {
-        if (userRepository.existsByEmail(email)) {
+        if (emailExists(email)) {
             throw new ValidationException("Email address already in use: " + email);
         }
         if (!StringUtils.hasText(password) || password.length() < 8) { // Example validation
@@ -95,6 +125,16 @@ public class UserServiceImpl implements UserService {
         return userRepository.save(newUser);
     }
 
+    @Override
+    public boolean isEmailAvailable(String email) {
+        return StringUtils.hasText(email) && !emailExists(email);
+    }
+
+    private boolean emailExists(String email) {
+        return uniqueKeys.exists(UniqueKeyFilter.Key.EMAIL, email,
+                value -> Boolean.TRUE.equals(userRepository.existsByEmail(value)));
+    }
+
     @Override
     public User registerOrLoginTelegramUser(String telegramId, String telegramUsername, Map<String, String> fullNameFromTelegram) {
         Optional<User> existingUserOpt = userRepository.findByTelegramId(telegramId);
@@ -107,7 +147,9 @@ public class UserServiceImpl implements UserService {
             }
             // Consider logic for updating fullNameFromTelegram if it's different and user allows
             logger.info("Telegram user logged in: {}", telegramId);
-            return userRepository.save(existingUser);
+            User savedUser = userRepository.save(existingUser);
+            identityResolver.refresh(savedUser);
+            return savedUser;
         } else {
             User newUser = User.builder()
                     .telegramId(telegramId)
@@ -129,7 +171,22 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(readOnly = true)
     public Optional<User> findUserById(String userId) {
-        return userRepository.findById(userId);
+        return identityMap.findById(userRepository, User.class, userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findUsersByIds(Collection<String> userIds) {
+        return identityMap.findAllById(userRepository, User.class, userIds, User::getUserId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserSummary> findUserSummariesByIds(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        return userRepository.findSummariesByUserIdIn(userIds);
     }
 
     @Override
@@ -160,7 +217,7 @@ public class UserServiceImpl implements UserService {
                                   List<User.SocialProfileLink> linkedSocialProfiles
                                   // ... other parameters for resumeDetailsText, resumeFileUrl etc.
     ) {
-        User user = userRepository.findById(userId)
+        User user = identityMap.findById(userRepository, User.class, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "userId", userId));
 
         if (fullName != null) user.setFullName(fullName);
@@ -173,12 +230,14 @@ public class UserServiceImpl implements UserService {
 
         user.setUpdatedAt(LocalDateTime.now());
         logger.info("User profile updated for userId: {}", userId);
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        identityResolver.refresh(savedUser); // Full name is one of the cached identity attributes
+        return savedUser;
     }
 
     @Override
     public User updateNotificationPreferences(String userId, Map<String, Object> notificationPreferences) {
-        User user = userRepository.findById(userId)
+        User user = identityMap.findById(userRepository, User.class, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "userId", userId));
         user.setNotificationPreferences(notificationPreferences);
         user.setUpdatedAt(LocalDateTime.now());
@@ -188,7 +247,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public User updatePrivacySettings(String userId, Map<String, Object> privacySettings) {
-        User user = userRepository.findById(userId)
+        User user = identityMap.findById(userRepository, User.class, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "userId", userId));
         user.setPrivacySettings(privacySettings);
         user.setUpdatedAt(LocalDateTime.now());
@@ -198,7 +257,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public boolean changePassword(String userId, String oldPassword, String newPassword) {
-        User user = userRepository.findById(userId)
+        User user = identityMap.findById(userRepository, User.class, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "userId", userId));
 
         if (!passwordEncoder.matches(oldPassword, user.getPasswordHash())) {
@@ -210,6 +269,7 @@ public class UserServiceImpl implements UserService {
         user.setPasswordHash(passwordEncoder.encode(newPassword));
         user.setUpdatedAt(LocalDateTime.now());
         userRepository.save(user);
+        principalCache.invalidateUser(user);
         logger.info("Password changed for userId: {}", userId);
         return true;
     }
@@ -228,12 +288,19 @@ public class UserServiceImpl implements UserService {
     @Override
     // @PreAuthorize("hasRole('ROLE_SYSTEM_ADMIN')") // Example of Phase 1 RBAC
     public User updateUserAccountStatus(String userId, AccountStatus newStatus) {
-        User user = userRepository.findById(userId)
+        User user = identityMap.findById(userRepository, User.class, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "userId", userId));
         user.setAccountStatus(newStatus);
         user.setUpdatedAt(LocalDateTime.now());
         logger.info("Account status for userId {} updated to {}", userId, newStatus);
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        principalCache.invalidateUser(savedUser);
+        identityResolver.refresh(savedUser);
+        if (TokenRevocationRegistry.REVOKING_STATUSES.contains(newStatus)) {
+            // Stateless tokens are not reloaded from the database, so reject the ones already issued
+            revocationRegistry.revokeAllTokens(userId);
+        }
+        return savedUser;
     }
 
     @Override
@@ -243,21 +310,35 @@ public class UserServiceImpl implements UserService {
         return userRepository.findAll(pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<User> findAllUsersSlice(Pageable pageable) {
+        return userRepository.findAllSlice(pageable);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<User> searchUsers(String query, Pageable pageable) {
-        // For Phase 1, this could be a simple search on email or full name.
-        // A more sophisticated search would require text indexes on MongoDB or using Elasticsearch.
-        // Example: (This is a naive search, not efficient for i18n or large datasets)
-        // return userRepository.findByEmailContainingIgnoreCaseOrFullNameContainingIgnoreCase(query, query, pageable);
-        // You would need to adapt your UserRepository for this.
-        // For now, let's return all users if query is blank, or search by email.
         if (!StringUtils.hasText(query)) {
             return userRepository.findAll(pageable);
         }
-        // This requires a method like findByEmailContainingIgnoreCase in UserRepository
-        // return userRepository.findByEmailContainingIgnoreCase(query, pageable);
-        logger.warn("SearchUsers basic implementation used. Consider enhancing for production. Query: {}", query);
-        return userRepository.findAll(pageable); // Placeholder for actual search logic
+        // Prefix match on the full name; the index holds active users who have not opted out of search
+        List<String> ids = typeaheadIndex.search(Suggestion.Type.USER, query, (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(identityMap.findAllByIdInOrder(userRepository, User.class, ids, User::getUserId),
+                pageable, typeaheadIndex.count(Suggestion.Type.USER, query));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<User> searchUsersSlice(String query, Pageable pageable) {
+        if (!StringUtils.hasText(query)) {
+            return userRepository.findAllSlice(pageable);
+        }
+        // One extra match tells whether another page follows
+        List<String> ids = typeaheadIndex.search(Suggestion.Type.USER, query, (int) pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean hasNext = ids.size() > pageable.getPageSize();
+        List<User> users = identityMap.findAllByIdInOrder(userRepository, User.class,
+                hasNext ? ids.subList(0, pageable.getPageSize()) : ids, User::getUserId);
+        return new SliceImpl<>(users, pageable, hasNext);
     }
 }
\ No newline at end of file
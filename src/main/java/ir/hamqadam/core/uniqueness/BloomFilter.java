@@ -0,0 +1,129 @@
+package ir.hamqadam.core.uniqueness;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A Bloom filter of strings: a set that may answer "maybe" for a string never added, but never answers
+ * "no" for one that was. Strings cannot be removed.
+ * <p>
+ * The filter is sized for a number of insertions and a target false-positive rate; it stays usable
+ * beyond that number, with a rising false-positive rate reported by {@link #expectedFalsePositiveRate()}.
+ * Each string sets {@code k} bits chosen by double hashing of one 64-bit hash. Adds and lookups are
+ * lock-free and may run concurrently.
+ */
+public final class BloomFilter {
+
+    private static final long MAX_BITS = (long) Integer.MAX_VALUE * Long.SIZE;
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLong bitsSet = new AtomicLong();
+    private final AtomicLong insertions = new AtomicLong();
+
+    private BloomFilter(long bitCount, int hashCount) {
+        this.words = new AtomicLongArray((int) ((bitCount + Long.SIZE - 1) / Long.SIZE));
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Creates a filter with the optimal number of bits and hash functions for the given load.
+     *
+     * @param expectedInsertions The number of strings the filter is sized for; at least 1 is assumed.
+     * @param falsePositiveRate  The wanted false-positive rate at that load, strictly between 0 and 1.
+     * @throws IllegalArgumentException if the false-positive rate is out of range.
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False-positive rate must lie strictly between 0 and 1: " + falsePositiveRate);
+        }
+        long n = Math.max(1, expectedInsertions);
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2));
+        bits = Math.min(Math.max(bits, Long.SIZE), MAX_BITS);
+        int hashes = (int) Math.max(1, Math.min(30, Math.round((double) bits / n * ln2)));
+        return new BloomFilter(bits, hashes);
+    }
+
+    /**
+     * Adds a string.
+     *
+     * @return Whether the filter changed, i.e. the string was definitely not in it before.
+     */
+    public boolean put(String value) {
+        long hash = hash(value);
+        long step = mix(hash ^ 0xC2B2AE3D27D4EB4FL) | 1; // Odd, so the k positions differ
+        boolean changed = false;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(hash + i * step, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long previous = words.getAndUpdate(word, current -> current | mask);
+            if ((previous & mask) == 0) {
+                bitsSet.incrementAndGet();
+                changed = true;
+            }
+        }
+        insertions.incrementAndGet();
+        return changed;
+    }
+
+    /**
+     * @return {@code false} if the string was definitely never added; {@code true} if it may have been.
+     */
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        long step = mix(hash ^ 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(hash + i * step, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The probability that a string never added is reported as possibly present, estimated from the
+     * share of bits set.
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow((double) bitsSet.get() / bitCount, hashCount);
+    }
+
+    /**
+     * @return The number of {@link #put} calls, counting repeated strings each time.
+     */
+    public long insertions() {
+        return insertions.get();
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    private static long hash(String value) {
+        long hash = 0x9E3779B97F4A7C15L ^ value.length();
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001B3L;
+            hash = Long.rotateLeft(hash, 27);
+        }
+        return mix(hash);
+    }
+
+    // The finalizer of MurmurHash3: every input bit affects every output bit
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
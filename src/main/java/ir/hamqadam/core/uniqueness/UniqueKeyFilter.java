@@ -0,0 +1,292 @@
+package ir.hamqadam.core.uniqueness;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import ir.hamqadam.core.model.Project;
+import ir.hamqadam.core.model.Team;
+import ir.hamqadam.core.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Answers "is this taken?" for the unique team handles, project handles and user emails without a Mongo
+ * query when the answer is no: one {@link BloomFilter} of every value in use per {@link Key}. A value the
+ * filter has never seen is free; a value it may have seen is looked up with the indexed
+ * {@code existsBy...} query. The unique indexes stay the final authority, so a value taken on another
+ * instance since the last refresh is still rejected when saved.
+ * <p>
+ * The filters are built in the background at startup by streaming the one field each, sized for
+ * {@code hamqadam.uniqueness.expected-insertions} or twice the collection, whichever is larger, at
+ * {@code hamqadam.uniqueness.false-positive-rate}. Until a filter is built, every check is looked up.
+ * Values saved on this instance are added at once; values saved by other instances are picked up every
+ * {@code hamqadam.uniqueness.refresh-interval-ms} by their {@code updatedAt}. Values freed by a rename or
+ * a deletion stay in the filter and only cost a lookup, until the filter is rebuilt because its estimated
+ * false-positive rate has grown past twice the target.
+ */
+@Component
+public class UniqueKeyFilter extends AbstractMongoEventListener<Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(UniqueKeyFilter.class);
+
+    /**
+     * A unique value and where it is stored.
+     */
+    public enum Key {
+        TEAM_HANDLE(Team.class, "teamHandle", entity -> ((Team) entity).getTeamHandle()),
+        PROJECT_HANDLE(Project.class, "projectHandle", entity -> ((Project) entity).getProjectHandle()),
+        EMAIL(User.class, "email", entity -> ((User) entity).getEmail());
+
+        private final Class<?> entityClass;
+        private final String property;
+        private final Function<Object, String> valueOf;
+
+        Key(Class<?> entityClass, String property, Function<Object, String> valueOf) {
+            this.entityClass = entityClass;
+            this.property = property;
+            this.valueOf = valueOf;
+        }
+
+        static Key of(Object entity) {
+            for (Key key : values()) {
+                if (key.entityClass.isInstance(entity)) {
+                    return key;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final Map<Key, Namespace> namespaces = new EnumMap<>(Key.class);
+
+    private volatile LocalDateTime lastRefresh;
+
+    @Autowired
+    public UniqueKeyFilter(MongoTemplate mongoTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${hamqadam.uniqueness.enabled:true}") boolean enabled,
+                           @Value("${hamqadam.uniqueness.expected-insertions:100000}") long expectedInsertions,
+                           @Value("${hamqadam.uniqueness.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        BloomFilter.create(expectedInsertions, falsePositiveRate); // Fails fast on a bad configuration
+        for (Key key : Key.values()) {
+            String tag = key.name().toLowerCase().replace('_', '-');
+            Namespace namespace = new Namespace(
+                    checks(meterRegistry, tag, "absent"),
+                    checks(meterRegistry, tag, "false-positive"),
+                    checks(meterRegistry, tag, "present"),
+                    checks(meterRegistry, tag, "unfiltered"));
+            namespaces.put(key, namespace);
+            Gauge.builder("hamqadam.uniqueness.filter.false-positive-rate", namespace, Namespace::expectedFalsePositiveRate)
+                    .description("False-positive rate of the filter, estimated from the share of its bits set")
+                    .tag("key", tag)
+                    .register(meterRegistry);
+            Gauge.builder("hamqadam.uniqueness.filter.insertions", namespace, Namespace::insertions)
+                    .description("Values added to the filter since it was built")
+                    .tag("key", tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        Thread builder = new Thread(this::rebuild, "unique-key-filter-build");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /**
+     * Rebuilds every filter from a streaming scan, dropping the values no longer in use.
+     */
+    public synchronized void rebuild() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        for (Key key : Key.values()) {
+            rebuild(key);
+        }
+        lastRefresh = startedAt;
+    }
+
+    /**
+     * Adds the values saved since the last refresh, possibly on another instance, and rebuilds the filters
+     * that have filled up or failed to build.
+     */
+    @Scheduled(fixedDelayString = "${hamqadam.uniqueness.refresh-interval-ms:30000}",
+            initialDelayString = "${hamqadam.uniqueness.refresh-interval-ms:30000}")
+    public synchronized void refreshChanges() {
+        LocalDateTime since = lastRefresh;
+        if (!enabled || since == null) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        for (Key key : Key.values()) {
+            // Overlap a little so saves committed while the previous refresh ran are not missed
+            Query query = valuesOf(key, Criteria.where("updatedAt").gte(since.minusSeconds(5)));
+            try (Stream<?> entities = mongoTemplate.stream(query, key.entityClass)) {
+                entities.forEach(entity -> add(key, key.valueOf.apply(entity)));
+            }
+            Namespace namespace = namespaces.get(key);
+            if (namespace.filter == null || namespace.expectedFalsePositiveRate() > 2 * falsePositiveRate) {
+                rebuild(key);
+            }
+        }
+        lastRefresh = startedAt;
+    }
+
+    /**
+     * Tells whether a unique value is taken, asking Mongo only if the filter may have seen it.
+     *
+     * @param key    The kind of value.
+     * @param value  The value exactly as stored.
+     * @param lookup The indexed query telling whether the value is taken, called for possible positives.
+     * @return Whether the value is taken, as far as this instance knows.
+     */
+    public boolean exists(Key key, String value, Predicate<String> lookup) {
+        Namespace namespace = namespaces.get(key);
+        BloomFilter filter = namespace.filter;
+        if (filter == null) {
+            namespace.unfiltered.increment();
+            return lookup.test(value);
+        }
+        if (!filter.mightContain(value)) {
+            namespace.absent.increment();
+            return false;
+        }
+        boolean exists = lookup.test(value);
+        (exists ? namespace.present : namespace.falsePositive).increment();
+        return exists;
+    }
+
+    /**
+     * Records a value as taken.
+     */
+    public void add(Key key, String value) {
+        if (!enabled || !StringUtils.hasText(value)) {
+            return;
+        }
+        Namespace namespace = namespaces.get(key);
+        synchronized (namespace) {
+            if (namespace.addedDuringRebuild != null) {
+                namespace.addedDuringRebuild.add(value);
+            }
+            if (namespace.filter != null) {
+                namespace.filter.put(value);
+            }
+        }
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Object> event) {
+        Key key = Key.of(event.getSource());
+        if (key != null) {
+            add(key, key.valueOf.apply(event.getSource()));
+        }
+    }
+
+    private void rebuild(Key key) {
+        long start = System.nanoTime();
+        Namespace namespace = namespaces.get(key);
+        synchronized (namespace) {
+            namespace.addedDuringRebuild = new ArrayList<>();
+        }
+        BloomFilter rebuilt;
+        try {
+            long stored = mongoTemplate.estimatedCount(key.entityClass);
+            rebuilt = BloomFilter.create(Math.max(expectedInsertions, 2 * stored), falsePositiveRate);
+            try (Stream<?> entities = mongoTemplate.stream(valuesOf(key, Criteria.where(key.property).ne(null)), key.entityClass)) {
+                entities.forEach(entity -> {
+                    String value = key.valueOf.apply(entity);
+                    if (StringUtils.hasText(value)) {
+                        rebuilt.put(value);
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            synchronized (namespace) {
+                namespace.addedDuringRebuild = null;
+            }
+            logger.error("Building the {} filter failed; checks keep using the previous one", key, e);
+            return;
+        }
+        synchronized (namespace) {
+            namespace.addedDuringRebuild.forEach(rebuilt::put);
+            namespace.addedDuringRebuild = null;
+            namespace.filter = rebuilt;
+        }
+        logger.info("Loaded {} {} values into a {} KiB filter in {} ms", rebuilt.insertions(), key,
+                rebuilt.bitCount() / 8 / 1024, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static Query valuesOf(Key key, Criteria criteria) {
+        Query query = new Query(criteria);
+        query.fields().include(key.property);
+        return query;
+    }
+
+    private static Counter checks(MeterRegistry meterRegistry, String key, String outcome) {
+        return Counter.builder("hamqadam.uniqueness.checks")
+                .description("Uniqueness checks: absent ones are answered by the filter, the others by Mongo")
+                .tag("key", key)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static final class Namespace {
+
+        final Counter absent;
+        final Counter falsePositive;
+        final Counter present;
+        final Counter unfiltered;
+
+        volatile BloomFilter filter; // Replaced while holding this
+        List<String> addedDuringRebuild; // Guarded by this
+
+        Namespace(Counter absent, Counter falsePositive, Counter present, Counter unfiltered) {
+            this.absent = absent;
+            this.falsePositive = falsePositive;
+            this.present = present;
+            this.unfiltered = unfiltered;
+        }
+
+        double expectedFalsePositiveRate() {
+            BloomFilter current = filter;
+            return current == null ? Double.NaN : current.expectedFalsePositiveRate();
+        }
+
+        double insertions() {
+            BloomFilter current = filter;
+            return current == null ? 0 : current.insertions();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package ir.hamqadam.core.util;
+
+import ir.hamqadam.core.model.Comment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A discussion assembled from a flat list of comments in O(n): the comments are bucketed by depth,
+ * then each level is attached to the already placed level above it through a map from ID to node.
+ * <p>
+ * Replies deeper than {@code maxDepth} and replies beyond the first {@code maxChildren} of a parent
+ * are left out; each node reports how many direct replies were omitted, so clients can load them
+ * on demand. Replies whose parent is not in the list (e.g. hidden or deleted) are dropped with it.
+ */
+public final class CommentTree {
+
+    /**
+     * One comment and its included replies, in the order of the input list.
+     */
+    public static final class Node {
+
+        private final Comment comment;
+        private final List<Node> replies = new ArrayList<>();
+        private int omittedReplyCount;
+
+        private Node(Comment comment) {
+            this.comment = comment;
+        }
+
+        public Comment getComment() {
+            return comment;
+        }
+
+        public List<Node> getReplies() {
+            return Collections.unmodifiableList(replies);
+        }
+
+        public int getOmittedReplyCount() {
+            return omittedReplyCount;
+        }
+    }
+
+    private final List<Node> roots;
+    private final int size;
+    private final boolean moreRoots;
+
+    private CommentTree(List<Node> roots, int size, boolean moreRoots) {
+        this.roots = roots;
+        this.size = size;
+        this.moreRoots = moreRoots;
+    }
+
+    /**
+     * Builds the tree.
+     *
+     * @param comments    The comments, typically ordered by creation time; reply order follows this order.
+     * @param maxDepth    Deepest {@code depthLevel} to include (0 includes root comments only).
+     * @param maxChildren Maximum number of direct replies included per comment.
+     * @param moreRoots   Whether further root threads exist beyond the ones in {@code comments}.
+     * @return The tree.
+     */
+    public static CommentTree build(List<Comment> comments, int maxDepth, int maxChildren, boolean moreRoots) {
+        // Bucket by depth so every parent is placed (or left out) before its replies are seen
+        List<List<Comment>> levels = new ArrayList<>();
+        for (Comment comment : comments) {
+            int depth = comment.getDepthLevel();
+            if (depth > maxDepth + 1) {
+                continue; // Cannot have an included parent
+            }
+            while (levels.size() <= depth) {
+                levels.add(new ArrayList<>());
+            }
+            levels.get(depth).add(comment);
+        }
+
+        Map<String, Node> included = new HashMap<>(comments.size() * 2);
+        List<Node> roots = new ArrayList<>();
+        for (List<Comment> level : levels) {
+            for (Comment comment : level) {
+                if (comment.getParentCommentId() == null) {
+                    Node root = new Node(comment);
+                    roots.add(root);
+                    included.put(comment.getCommentId(), root);
+                    continue;
+                }
+                Node parent = included.get(comment.getParentCommentId());
+                if (parent == null) {
+                    continue; // Parent left out or not visible, so is its subtree
+                }
+                if (comment.getDepthLevel() > maxDepth || parent.replies.size() >= maxChildren) {
+                    parent.omittedReplyCount++;
+                } else {
+                    Node node = new Node(comment);
+                    parent.replies.add(node);
+                    included.put(comment.getCommentId(), node);
+                }
+            }
+        }
+        return new CommentTree(roots, included.size(), moreRoots);
+    }
+
+    public List<Node> getRoots() {
+        return Collections.unmodifiableList(roots);
+    }
+
+    /**
+     * @return The number of comments included in the tree.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Whether more root threads follow the ones in this tree (paged trees only).
+     */
+    public boolean hasMoreRoots() {
+        return moreRoots;
+    }
+}
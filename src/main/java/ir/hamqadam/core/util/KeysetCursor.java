@@ -0,0 +1,128 @@
+package ir.hamqadam.core.util;
+
+import ir.hamqadam.core.exception.BadRequestException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Position in a listing ordered by {@code (sortKey, _id)}, handed to clients as an opaque string.
+ * <p>
+ * Unlike {@code skip}, resuming from a cursor seeks straight to the position through an index on
+ * {@code (filter fields..., sortKey, _id)}, so every page costs the same however deep it is.
+ * The {@code _id} tie-breaker keeps the order total when several documents share a sort key.
+ *
+ * @param sortValue The sort key of the last document returned; {@code null} if it had none.
+ * @param id        The ID of the last document returned.
+ */
+public record KeysetCursor(LocalDateTime sortValue, String id) {
+
+    /**
+     * Largest page a client may request.
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * @return The opaque, URL-safe form of this cursor.
+     */
+    public String encode() {
+        String raw = (sortValue != null ? sortValue.toString() : "") + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses a cursor produced by {@link #encode()}.
+     *
+     * @param cursor The opaque cursor, or {@code null}/blank for the first page.
+     * @return The cursor, or {@code null} for the first page.
+     * @throws BadRequestException if the cursor is malformed.
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0 || separator == raw.length() - 1) {
+                throw new BadRequestException("Invalid cursor.");
+            }
+            String sortValue = raw.substring(0, separator);
+            return new KeysetCursor(sortValue.isEmpty() ? null : LocalDateTime.parse(sortValue), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new BadRequestException("Invalid cursor.", ex);
+        }
+    }
+
+    /**
+     * @param requested The page size asked for by the client.
+     * @return The size clamped to {@code [1, MAX_PAGE_SIZE]}.
+     */
+    public static int pageSize(int requested) {
+        return Math.max(1, Math.min(requested, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Builds the query for the page after {@code after}: the filter, the keyset condition, the
+     * {@code (sortField, _id)} sort and a limit of {@code size + 1}, the extra document telling
+     * whether another page follows.
+     *
+     * @param filter    Criteria selecting the listing.
+     * @param sortField The property to order by.
+     * @param direction The order of both the sort field and the ID.
+     * @param after     The cursor of the previous page, or {@code null} for the first page.
+     * @param size      The page size.
+     * @return The query.
+     */
+    public static Query query(Criteria filter, String sortField, Sort.Direction direction, KeysetCursor after, int size) {
+        Criteria criteria = after == null ? filter : new Criteria().andOperator(filter, after.seek(sortField, direction));
+        return Query.query(criteria)
+                .with(Sort.by(direction, sortField, "_id"))
+                .limit(size + 1);
+    }
+
+    /**
+     * Turns the result of a {@link #query} into a page, dropping the look-ahead document.
+     *
+     * @param fetched  Up to {@code size + 1} documents.
+     * @param size     The page size.
+     * @param cursorOf Extracts the cursor position of a document.
+     * @return The page, with the cursor of its last document if another page follows.
+     */
+    public static <T> KeysetPage<T> page(List<T> fetched, int size, Function<T, KeysetCursor> cursorOf) {
+        if (fetched.size() <= size) {
+            return new KeysetPage<>(fetched, null);
+        }
+        List<T> content = new ArrayList<>(fetched.subList(0, size));
+        return new KeysetPage<>(content, cursorOf.apply(content.get(size - 1)).encode());
+    }
+
+    // MongoDB orders missing/null values before all others, i.e. first ascending and last descending
+    private Criteria seek(String sortField, Sort.Direction direction) {
+        boolean ascending = direction.isAscending();
+        Criteria sameKeyLaterId = ascending
+                ? Criteria.where(sortField).is(sortValue).and("_id").gt(id)
+                : Criteria.where(sortField).is(sortValue).and("_id").lt(id);
+        if (sortValue == null) {
+            return ascending
+                    ? new Criteria().orOperator(sameKeyLaterId, Criteria.where(sortField).ne(null))
+                    : sameKeyLaterId;
+        }
+        Criteria laterKey = ascending
+                ? Criteria.where(sortField).gt(sortValue)
+                : Criteria.where(sortField).lt(sortValue);
+        return ascending
+                ? new Criteria().orOperator(laterKey, sameKeyLaterId)
+                : new Criteria().orOperator(laterKey, sameKeyLaterId, Criteria.where(sortField).is(null));
+    }
+}
@@ -0,0 +1,22 @@
+package ir.hamqadam.core.util;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a cursor-paginated listing.
+ *
+ * @param content    The documents of this page.
+ * @param nextCursor The cursor to pass for the next page, or {@code null} if this is the last page.
+ * @see KeysetCursor
+ */
+public record KeysetPage<T>(List<T> content, String nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public <R> KeysetPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new KeysetPage<>(content.stream().<R>map(mapper).toList(), nextCursor);
+    }
+}
@@ -0,0 +1,92 @@
+package ir.hamqadam.core.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs a paged listing in the {@link TotalsMode} the client asked for.
+ * <p>
+ * {@code EXACT} runs the listing's {@code Page} query, which counts alongside the fetch.
+ * {@code NONE} runs its {@code Slice} query, which fetches one extra document instead of counting.
+ * {@code APPROXIMATE} runs the {@code Slice} query and reports a total that is either the
+ * collection's estimated document count (from metadata) or a count cached per listing for
+ * {@code hamqadam.listing.approximate-totals.ttl-seconds}.
+ */
+@Component
+public class ListingTotals {
+
+    private final MongoTemplate mongoTemplate;
+    private final Cache<String, Long> cachedTotals;
+
+    @Autowired
+    public ListingTotals(MongoTemplate mongoTemplate,
+                         @Value("${hamqadam.listing.approximate-totals.ttl-seconds:60}") long ttlSeconds,
+                         @Value("${hamqadam.listing.approximate-totals.maximum-size:10000}") long maximumSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.cachedTotals = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * Lists a filtered subset of a collection; approximate totals are cached counts.
+     *
+     * @param mode       The requested totals mode.
+     * @param pageable   The requested page.
+     * @param listingKey Identifies the listing and its filter values, e.g. {@code "posts:tag:java"}.
+     * @param pageQuery  The counting query.
+     * @param sliceQuery The same query without a count.
+     * @return A {@link Page} when totals are reported, otherwise a {@link Slice}.
+     */
+    public <T> Slice<T> list(TotalsMode mode, Pageable pageable, String listingKey,
+                             Function<Pageable, Page<T>> pageQuery, Function<Pageable, Slice<T>> sliceQuery) {
+        return list(mode, pageable, pageQuery, sliceQuery,
+                // One-document page: the count is what we want, the fetch is the cheapest possible
+                () -> cachedTotals.get(listingKey, key -> pageQuery.apply(PageRequest.of(0, 1)).getTotalElements()));
+    }
+
+    /**
+     * Lists a whole collection; approximate totals come from the collection's metadata.
+     *
+     * @param mode       The requested totals mode.
+     * @param pageable   The requested page.
+     * @param type       The entity type of the collection.
+     * @param pageQuery  The counting query.
+     * @param sliceQuery The same query without a count.
+     * @return A {@link Page} when totals are reported, otherwise a {@link Slice}.
+     */
+    public <T> Slice<T> listAll(TotalsMode mode, Pageable pageable, Class<T> type,
+                                Function<Pageable, Page<T>> pageQuery, Function<Pageable, Slice<T>> sliceQuery) {
+        return list(mode, pageable, pageQuery, sliceQuery, () -> mongoTemplate.estimatedCount(type));
+    }
+
+    private <T> Slice<T> list(TotalsMode mode, Pageable pageable, Function<Pageable, Page<T>> pageQuery,
+                              Function<Pageable, Slice<T>> sliceQuery, LongSupplier approximateTotal) {
+        switch (mode) {
+            case EXACT:
+                return pageQuery.apply(pageable);
+            case NONE:
+                return sliceQuery.apply(pageable);
+            default:
+                Slice<T> slice = sliceQuery.apply(pageable);
+                long seen = pageable.isPaged() ? pageable.getOffset() + slice.getNumberOfElements() : slice.getNumberOfElements();
+                // On the last page the total is known; elsewhere never report fewer documents than the page proves exist
+                long total = slice.hasNext() ? Math.max(approximateTotal.getAsLong(), seen + 1) : seen;
+                return new PageImpl<>(slice.getContent(), pageable, total);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package ir.hamqadam.core.util;
+
+import ir.hamqadam.core.model.Team;
+import ir.hamqadam.core.repository.projection.UserSummary;
+import ir.hamqadam.core.service.TeamService;
+import ir.hamqadam.core.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Request-scoped batch loader for the users and teams referenced by response DTOs.
+ * <p>
+ * While a page of entities is converted, each DTO registers the user and team IDs it references
+ * together with a callback that fills in the summary. {@link #dispatch()} then resolves all pending IDs
+ * with one query per entity type and runs the callbacks, so hydrating a page costs the
+ * same number of MongoDB round-trips however many items it has. {@code BatchLoadingResponseAdvice}
+ * dispatches just before the response body is written, so controllers only register.
+ * <p>
+ * Users are loaded as {@link UserSummary} projections, reading only the fields a card shows.
+ * <p>
+ * Pending loads live in the current request's attributes. Outside of an HTTP request there is nothing
+ * to batch with, and every load resolves immediately.
+ */
+@Component
+public class RequestBatchLoader {
+
+    private static final String ATTRIBUTE_NAME = RequestBatchLoader.class.getName();
+
+    private final UserService userService;
+    private final TeamService teamService;
+    private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
+    @Autowired
+    public RequestBatchLoader(UserService userService, TeamService teamService) {
+        this.userService = userService;
+        this.teamService = teamService;
+    }
+
+    /**
+     * Registers a user whose details a DTO needs.
+     *
+     * @param userId   The user ID; {@code null} is ignored.
+     * @param callback Receives the user on the next {@link #dispatch()}; not called if the user does not exist.
+     */
+    public void loadUser(String userId, Consumer<? super UserSummary> callback) {
+        if (userId == null) {
+            return;
+        }
+        PendingLoads pending = currentPendingLoads();
+        if (pending == null) {
+            findUserSummary(userId).ifPresent(callback);
+        } else {
+            pending.users.add(userId, callback);
+        }
+    }
+
+    /**
+     * Registers a team whose details a DTO needs.
+     *
+     * @param teamId   The team ID; {@code null} is ignored.
+     * @param callback Receives the team on the next {@link #dispatch()}; not called if the team does not exist.
+     */
+    public void loadTeam(String teamId, Consumer<? super Team> callback) {
+        if (teamId == null) {
+            return;
+        }
+        PendingLoads pending = currentPendingLoads();
+        if (pending == null) {
+            teamService.findTeamById(teamId).ifPresent(callback);
+        } else {
+            pending.teams.add(teamId, callback);
+        }
+    }
+
+    /**
+     * Resolves every pending load of the current request and runs the callbacks. Loads registered by the
+     * callbacks themselves are resolved in a further round.
+     */
+    public void dispatch() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        PendingLoads pending = attributes == null ? null
+                : (PendingLoads) attributes.getAttribute(ATTRIBUTE_NAME, RequestAttributes.SCOPE_REQUEST);
+        if (pending == null) {
+            return;
+        }
+        boolean loaded;
+        do {
+            loaded = pending.users.dispatch() | pending.teams.dispatch(); // Both types every round, no short-circuit
+        } while (loaded);
+    }
+
+    private PendingLoads currentPendingLoads() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        PendingLoads pending = (PendingLoads) attributes.getAttribute(ATTRIBUTE_NAME, RequestAttributes.SCOPE_REQUEST);
+        if (pending == null) {
+            pending = new PendingLoads(
+                    new Batch<>(userService::findUserSummariesByIds, this::findUserSummary, UserSummary::getUserId),
+                    new Batch<>(teamService::findTeamsByIds, teamService::findTeamById, Team::getTeamId));
+            attributes.setAttribute(ATTRIBUTE_NAME, pending, RequestAttributes.SCOPE_REQUEST);
+        }
+        return pending;
+    }
+
+    // Single users go through findUserById: the request identity map often holds them already (e.g. the acting user)
+    private Optional<UserSummary> findUserSummary(String userId) {
+        return userService.findUserById(userId).map(user -> projectionFactory.createProjection(UserSummary.class, user));
+    }
+
+    private record PendingLoads(Batch<UserSummary> users, Batch<Team> teams) {
+    }
+
+    private static final class Batch<T> {
+
+        private final Function<Collection<String>, List<T>> findAll;
+        private final Function<String, Optional<T>> findOne;
+        private final Function<T, String> idOf;
+        private Map<String, List<Consumer<? super T>>> callbacksById = new LinkedHashMap<>();
+
+        Batch(Function<Collection<String>, List<T>> findAll, Function<String, Optional<T>> findOne,
+              Function<T, String> idOf) {
+            this.findAll = findAll;
+            this.findOne = findOne;
+            this.idOf = idOf;
+        }
+
+        void add(String id, Consumer<? super T> callback) {
+            callbacksById.computeIfAbsent(id, key -> new ArrayList<>(1)).add(callback);
+        }
+
+        /**
+         * @return {@code true} if anything was pending.
+         */
+        boolean dispatch() {
+            if (callbacksById.isEmpty()) {
+                return false;
+            }
+            Map<String, List<Consumer<? super T>>> batch = callbacksById;
+            callbacksById = new LinkedHashMap<>(); // Callbacks may register further loads
+            if (batch.size() == 1) {
+                // A single ID goes through findById, which the request identity map may already have
+                Map.Entry<String, List<Consumer<? super T>>> only = batch.entrySet().iterator().next();
+                findOne.apply(only.getKey()).ifPresent(entity -> only.getValue().forEach(callback -> callback.accept(entity)));
+                return true;
+            }
+            for (T entity : findAll.apply(batch.keySet())) {
+                List<Consumer<? super T>> callbacks = batch.get(idOf.apply(entity));
+                if (callbacks != null) {
+                    callbacks.forEach(callback -> callback.accept(entity));
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package ir.hamqadam.core.util;
+
+import ir.hamqadam.core.model.Post;
+import ir.hamqadam.core.model.Project;
+import ir.hamqadam.core.model.Routine;
+import ir.hamqadam.core.model.Team;
+import ir.hamqadam.core.model.User;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Request-scoped identity map (first-level cache) for {@code findById} on the core entities.
+ * <p>
+ * A {@code @PreAuthorize} check and the service method behind it typically load the same document;
+ * with the map it is fetched once per HTTP request and both see the same instance. Entries live in
+ * the current request's attributes, so they are discarded when the request completes. Outside of an
+ * HTTP request (scheduled jobs, tests) every lookup goes straight to the repository.
+ * <p>
+ * Saves through the repositories or {@code MongoTemplate} are written through via the mapping events,
+ * so reads later in the request see the saved state. Partial updates publish no such event and are not
+ * reflected: the only ones on these entities are the buffered counter {@code $inc}s of
+ * {@link ir.hamqadam.core.counter.WriteBehindCounters}, which reach MongoDB after the request anyway, and
+ * the scheduled post publisher's {@code updateMulti}, which runs outside of requests.
+ */
+@Component
+public class RequestIdentityMap extends AbstractMongoEventListener<Object> {
+
+    private static final String ATTRIBUTE_NAME = RequestIdentityMap.class.getName();
+
+    private static final Set<Class<?>> MAPPED_TYPES =
+            Set.of(Team.class, Post.class, Project.class, Routine.class, User.class);
+
+    private record EntityKey(Class<?> type, String id) {
+    }
+
+    /**
+     * Finds an entity by ID, loading it from the repository only on the first lookup in this request.
+     *
+     * @param repository The repository to load from on a miss.
+     * @param type       The entity type.
+     * @param id         The entity ID.
+     * @return The entity, or empty if it does not exist.
+     */
+    public <T> Optional<T> findById(CrudRepository<T, String> repository, Class<T> type, String id) {
+        Map<EntityKey, Object> entities = currentEntities(true);
+        if (entities == null || id == null) {
+            return repository.findById(id);
+        }
+        EntityKey key = new EntityKey(type, id);
+        Object cached = entities.get(key);
+        if (cached != null) {
+            return Optional.of(type.cast(cached));
+        }
+        Optional<T> loaded = repository.findById(id);
+        loaded.ifPresent(entity -> entities.put(key, entity));
+        return loaded;
+    }
+
+    /**
+     * Returns an entity only if it was already loaded in this request, without querying.
+     *
+     * @param type The entity type.
+     * @param id   The entity ID.
+     * @return The entity, or empty if this request has not loaded it or no request is active.
+     */
+    public <T> Optional<T> findLoaded(Class<T> type, String id) {
+        Map<EntityKey, Object> entities = currentEntities(false);
+        if (entities == null || id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(type.cast(entities.get(new EntityKey(type, id))));
+    }
+
+    /**
+     * @return Whether the current thread serves an HTTP request, so that lookups are shared across it.
+     */
+    public boolean isActive() {
+        return RequestContextHolder.getRequestAttributes() != null;
+    }
+
+    /**
+     * Finds several entities by ID with at most one repository query, for the IDs not already in this
+     * request's map; the loaded entities are added to the map.
+     *
+     * @param repository The repository to load from.
+     * @param type       The entity type.
+     * @param ids        The entity IDs; {@code null}s and duplicates are ignored.
+     * @param idOf       Extracts the ID of a loaded entity.
+     * @return The entities found, in no particular order; unknown IDs are skipped.
+     */
+    public <T> List<T> findAllById(CrudRepository<T, String> repository, Class<T> type, Collection<String> ids,
+                                   Function<T, String> idOf) {
+        Set<String> distinctIds = new LinkedHashSet<>(ids);
+        distinctIds.remove(null);
+        List<T> found = new ArrayList<>(distinctIds.size());
+        if (distinctIds.isEmpty()) {
+            return found;
+        }
+        Map<EntityKey, Object> entities = currentEntities(true);
+        if (entities == null) {
+            repository.findAllById(distinctIds).forEach(found::add);
+            return found;
+        }
+        List<String> missing = new ArrayList<>();
+        for (String id : distinctIds) {
+            Object cached = entities.get(new EntityKey(type, id));
+            if (cached != null) {
+                found.add(type.cast(cached));
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (T entity : repository.findAllById(missing)) {
+                entities.put(new EntityKey(type, idOf.apply(entity)), entity);
+                found.add(entity);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Same as {@link #findAllById}, returning the entities in the order of their IDs, as ranked by a search.
+     *
+     * @return The entities found, in the order of {@code ids}; unknown IDs are skipped.
+     */
+    public <T> List<T> findAllByIdInOrder(CrudRepository<T, String> repository, Class<T> type, List<String> ids,
+                                          Function<T, String> idOf) {
+        Map<String, T> byId = new HashMap<>();
+        for (T entity : findAllById(repository, type, ids, idOf)) {
+            byId.put(idOf.apply(entity), entity);
+        }
+        List<T> ordered = new ArrayList<>(byId.size());
+        for (String id : ids) {
+            T entity = byId.get(id);
+            if (entity != null) {
+                ordered.add(entity);
+            }
+        }
+        return ordered;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Object> event) {
+        Object entity = event.getSource();
+        String id = idOf(event.getDocument());
+        if (!MAPPED_TYPES.contains(entity.getClass()) || id == null) {
+            return;
+        }
+        Map<EntityKey, Object> entities = currentEntities(false);
+        if (entities != null) {
+            entities.put(new EntityKey(entity.getClass(), id), entity);
+        }
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Object> event) {
+        Class<?> type = event.getType();
+        if (type == null || !MAPPED_TYPES.contains(type)) {
+            return;
+        }
+        Map<EntityKey, Object> entities = currentEntities(false);
+        if (entities == null) {
+            return;
+        }
+        String id = idOf(event.getDocument());
+        if (id != null) {
+            entities.remove(new EntityKey(type, id));
+        } else {
+            // Deleted by an arbitrary query: forget every entity of that type
+            entities.keySet().removeIf(key -> key.type() == type);
+        }
+    }
+
+    private static String idOf(Document document) {
+        Object id = document != null ? document.get("_id") : null;
+        return id instanceof ObjectId || id instanceof String ? id.toString() : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<EntityKey, Object> currentEntities(boolean create) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Map<EntityKey, Object> entities =
+                (Map<EntityKey, Object>) attributes.getAttribute(ATTRIBUTE_NAME, RequestAttributes.SCOPE_REQUEST);
+        if (entities == null && create) {
+            entities = new HashMap<>();
+            attributes.setAttribute(ATTRIBUTE_NAME, entities, RequestAttributes.SCOPE_REQUEST);
+        }
+        return entities;
+    }
+}
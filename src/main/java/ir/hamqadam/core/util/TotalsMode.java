@@ -0,0 +1,39 @@
+package ir.hamqadam.core.util;
+
+import ir.hamqadam.core.exception.BadRequestException;
+
+import java.util.Locale;
+
+/**
+ * How a paged listing reports its totals, chosen by the client with the {@code totals} parameter.
+ */
+public enum TotalsMode {
+
+    /**
+     * Run a {@code count} alongside the page query; totals are exact.
+     */
+    EXACT,
+
+    /**
+     * Report a cached count or the collection's estimated document count; no count on the request path.
+     */
+    APPROXIMATE,
+
+    /**
+     * Report no totals, only whether another page follows; the page query fetches one extra document.
+     */
+    NONE;
+
+    /**
+     * @param value The parameter value, case-insensitive.
+     * @return The mode.
+     * @throws BadRequestException if the value names no mode.
+     */
+    public static TotalsMode parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("Invalid totals mode '" + value + "'; expected exact, approximate or none.");
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package ir.hamqadam.core.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ir.hamqadam.core.counter.WriteBehindCounters;
+import ir.hamqadam.core.model.Comment;
+import ir.hamqadam.core.model.Post;
+import ir.hamqadam.core.model.User;
+import ir.hamqadam.core.repository.CommentRepository;
+import ir.hamqadam.core.repository.PostRepository;
+import ir.hamqadam.core.repository.UserRepository;
+import ir.hamqadam.core.service.impl.CommentServiceImpl;
+import org.mockito.Mockito;
+import org.mockito.stubbing.Answer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+/**
+ * Comments per second one node can write when every MongoDB round trip costs {@code rttMicros}:
+ * <ul>
+ *     <li>{@code recountPipeline}: the previous sequence for a root comment (load post, save, save again
+ *     for the thread ID, count approved comments, save post) - five round trips;</li>
+ *     <li>{@code singleInsertPipeline}: {@link CommentServiceImpl#addComment} with a pre-generated ID,
+ *     a projected target check and a buffered count - two round trips.</li>
+ * </ul>
+ * MongoDB is simulated by parking the calling thread, so the numbers show the effect of round trips
+ * rather than server work. Run with {@code -t} set to the request thread count of a node.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class CommentWriteBenchmark {
+
+    @Param({"300"})
+    public long rttMicros;
+
+    private CommentRepository commentRepository;
+    private MongoTemplate mongoTemplate;
+    private CommentServiceImpl commentService;
+    private PostRepository postRepository;
+    private User author;
+
+    @Setup
+    public void setUp() {
+        Post post = Post.builder().postId("post-1").allowComments(true).title(Map.of("en", "Post")).build();
+        Answer<Object> echo = roundTrip(invocation -> invocation.getArgument(0));
+
+        commentRepository = Mockito.mock(CommentRepository.class);
+        Mockito.when(commentRepository.save(any(Comment.class))).thenAnswer(echo);
+        Mockito.when(commentRepository.insert(any(Comment.class))).thenAnswer(echo);
+        Mockito.when(commentRepository.countByTargetEntityTypeAndTargetEntityIdAndStatus(anyString(), anyString(), any()))
+                .thenAnswer(roundTrip(invocation -> 42L));
+
+        postRepository = Mockito.mock(PostRepository.class);
+        Mockito.when(postRepository.findById("post-1")).thenAnswer(roundTrip(invocation -> Optional.of(post)));
+        Mockito.when(postRepository.save(any(Post.class))).thenAnswer(echo);
+
+        mongoTemplate = Mockito.mock(MongoTemplate.class);
+        Mockito.when(mongoTemplate.findOne(any(Query.class), eq(Post.class))).thenAnswer(roundTrip(invocation -> post));
+
+        WriteBehindCounters counters = new WriteBehindCounters(mongoTemplate, new SimpleMeterRegistry(), 60_000, 1_000_000);
+        commentService = new CommentServiceImpl(commentRepository, Mockito.mock(UserRepository.class), mongoTemplate, counters);
+        author = User.builder().userId("user-1").build();
+    }
+
+    @Benchmark
+    public Comment recountPipeline() {
+        Post post = postRepository.findById("post-1").orElseThrow();
+        Comment comment = commentRepository.save(Comment.builder()
+                .targetEntityType("Post").targetEntityId("post-1").authorUserId(author.getUserId())
+                .content("Benchmark comment").status(Comment.CommentStatus.APPROVED).build());
+        comment.setThreadId("generated");
+        comment = commentRepository.save(comment);
+        post.setCommentCount(commentRepository.countByTargetEntityTypeAndTargetEntityIdAndStatus(
+                "Post", "post-1", Comment.CommentStatus.APPROVED));
+        postRepository.save(post);
+        return comment;
+    }
+
+    @Benchmark
+    public Comment singleInsertPipeline() {
+        return commentService.addComment("Post", "post-1", "Benchmark comment", null, author);
+    }
+
+    private Answer<Object> roundTrip(Answer<Object> result) {
+        return invocation -> {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(rttMicros));
+            return result.answer(invocation);
+        };
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CommentWriteBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,110 @@
+package ir.hamqadam.core.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ir.hamqadam.core.model.User;
+import ir.hamqadam.core.repository.UserRepository;
+import ir.hamqadam.core.repository.projection.UserCredentials;
+import ir.hamqadam.core.security.AuthenticatedPrincipalCache;
+import ir.hamqadam.core.security.TokenRevocationRegistry;
+import ir.hamqadam.core.security.UserDetailsServiceImpl;
+import ir.hamqadam.core.security.UserPrincipal;
+import ir.hamqadam.core.security.jwt.JwtAuthenticationFilter;
+import ir.hamqadam.core.security.jwt.JwtTokenProvider;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.ArgumentMatchers.anyString;
+
+/**
+ * Requests per second through {@link JwtAuthenticationFilter} for each way of resolving the principal:
+ * <ul>
+ *     <li>{@code databaseLookup}: the original behaviour, one user lookup per request;</li>
+ *     <li>{@code principalCache}: lookups served by {@link AuthenticatedPrincipalCache};</li>
+ *     <li>{@code stateless}: principal rebuilt from the token claims, no lookup at all.</li>
+ * </ul>
+ * The MongoDB round-trip is simulated by parking the calling thread for {@code lookupLatencyMicros}.
+ * Run with {@link #main(String[])} from the IDE or through {@code org.openjdk.jmh.Main} on the test classpath.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"databaseLookup", "principalCache", "stateless"})
+    public String mode;
+
+    @Param({"500"})
+    public long lookupLatencyMicros;
+
+    private JwtAuthenticationFilter filter;
+    private String bearerToken;
+
+    @Setup
+    public void setUp() {
+        JwtTokenProvider tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret",
+                Base64.getEncoder().encodeToString(new byte[64]));
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationInMs", 3_600_000L);
+        tokenProvider.init();
+
+        User user = User.builder()
+                .userId("bench-user")
+                .email("bench@example.com")
+                .passwordHash("hash")
+                .accountStatus(User.AccountStatus.ACTIVE)
+                .build();
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        UserCredentials credentials = new SpelAwareProxyProjectionFactory().createProjection(UserCredentials.class, user);
+        Mockito.when(userRepository.findCredentialsByEmailOrTelegramId(anyString())).thenAnswer(invocation -> {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(lookupLatencyMicros));
+            return Optional.of(credentials);
+        });
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        long cacheTtlSeconds = "databaseLookup".equals(mode) ? 0 : 300;
+        AuthenticatedPrincipalCache principalCache = new AuthenticatedPrincipalCache(meterRegistry, cacheTtlSeconds, 10_000);
+        TokenRevocationRegistry revocationRegistry = new TokenRevocationRegistry(userRepository, meterRegistry, 3_600_000L, true);
+        filter = new JwtAuthenticationFilter(tokenProvider, new UserDetailsServiceImpl(userRepository), principalCache,
+                revocationRegistry, "stateless".equals(mode));
+
+        bearerToken = "Bearer " + tokenProvider.generateToken(UserPrincipal.create(user, user.getEmail(),
+                AuthorityUtils.createAuthorityList("ROLE_USER")));
+    }
+
+    @Benchmark
+    public Object authenticateRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users/me");
+        request.addHeader("Authorization", bearerToken);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtAuthenticationFilterBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,70 @@
+package ir.hamqadam.core.benchmark;
+
+import io.jsonwebtoken.Claims;
+import ir.hamqadam.core.security.jwt.JwtTokenProvider;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per request of turning a bearer token into claims:
+ * <ul>
+ *     <li>{@code validateThenParse}: the original two full parses (validateToken + getUsernameFromJWT);</li>
+ *     <li>{@code singleParse}: one full parse and HMAC-SHA512 verification;</li>
+ *     <li>{@code cachedResolve}: {@link JwtTokenProvider#resolveClaims(String)} for a token seen before.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider tokenProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret",
+                Base64.getEncoder().encodeToString(new byte[64]));
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationInMs", 3_600_000L);
+        tokenProvider.init();
+        token = tokenProvider.generateToken(new User("bench@example.com", "",
+                AuthorityUtils.createAuthorityList("ROLE_USER")));
+        tokenProvider.resolveClaims(token); // Prime the verified-token cache
+    }
+
+    @Benchmark
+    public String validateThenParse() {
+        tokenProvider.getClaimsFromJWT(token);
+        return tokenProvider.getClaimsFromJWT(token).getSubject();
+    }
+
+    @Benchmark
+    public Claims singleParse() {
+        return tokenProvider.getClaimsFromJWT(token);
+    }
+
+    @Benchmark
+    public Claims cachedResolve() {
+        return tokenProvider.resolveClaims(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtTokenProviderBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,93 @@
+package ir.hamqadam.core.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ir.hamqadam.core.exception.AppException;
+import ir.hamqadam.core.security.BoundedPasswordEncoder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of an unrelated, CPU-light request while a login spike is hashing passwords.
+ * <p>
+ * Each group runs {@code LOGIN_THREADS} threads verifying BCrypt passwords next to a few threads
+ * doing a small amount of request work. Compare the {@code unrelatedRequest} p99 of
+ * {@code encoder=direct} (BCrypt on the request threads) with {@code encoder=bounded}
+ * ({@link BoundedPasswordEncoder} with half the cores), and the {@code strength} parameter
+ * shows what each step of the work factor costs a login.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Group)
+public class PasswordHashingBenchmark {
+
+    private static final int LOGIN_THREADS = 16;
+    private static final int UNRELATED_THREADS = 4;
+
+    @Param({"direct", "bounded"})
+    public String encoder;
+
+    @Param({"10"})
+    public int strength;
+
+    private PasswordEncoder passwordEncoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        passwordEncoder = "bounded".equals(encoder)
+                ? new BoundedPasswordEncoder(strength, Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+                        64, Duration.ofSeconds(30), new SimpleMeterRegistry())
+                : new BCryptPasswordEncoder(strength);
+        hash = passwordEncoder.encode("benchmark-password");
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (passwordEncoder instanceof BoundedPasswordEncoder bounded) {
+            bounded.shutdown();
+        }
+    }
+
+    @Benchmark
+    @Group("spike")
+    @GroupThreads(LOGIN_THREADS)
+    public boolean login() {
+        try {
+            return passwordEncoder.matches("benchmark-password", hash);
+        } catch (AppException ex) {
+            return false; // Rejected by the bounded pool, as a real client would see a 503
+        }
+    }
+
+    @Benchmark
+    @Group("spike")
+    @GroupThreads(UNRELATED_THREADS)
+    public void unrelatedRequest(Blackhole blackhole) {
+        // Roughly the CPU of serializing a small JSON response
+        long acc = 0;
+        for (int i = 0; i < 2_000; i++) {
+            acc += ThreadLocalRandom.current().nextInt();
+        }
+        blackhole.consume(acc);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PasswordHashingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,245 @@
+package ir.hamqadam.core.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ir.hamqadam.core.controller.dto.post.PostResponseDTO;
+import ir.hamqadam.core.controller.dto.post.PostSummaryResponseDTO;
+import ir.hamqadam.core.model.Post;
+import ir.hamqadam.core.repository.projection.PostSummary;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+
+import java.beans.PropertyDescriptor;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one page of a post listing with full documents versus the {@link PostSummary} projection,
+ * on a seeded page of posts with a body in two languages and a few attachments:
+ * <ul>
+ *     <li>{@code read*}: decoding the BSON MongoDB sends and mapping it to entities;</li>
+ *     <li>{@code write*}: serializing the page of response DTOs to JSON.</li>
+ * </ul>
+ * The BSON and JSON bytes per page of both variants are printed during setup; the BSON bytes are what
+ * MongoDB puts on the network for the page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PostListPayloadBenchmark {
+
+    @Param({"20"})
+    public int pageSize;
+
+    @Param({"4000"})
+    public int bodyChars;
+
+    private final DocumentCodec documentCodec = new DocumentCodec();
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private MappingMongoConverter converter;
+    private List<RawBsonDocument> fullDocuments;
+    private List<RawBsonDocument> summaryDocuments;
+    private List<PostResponseDTO> fullDtos;
+    private List<PostSummaryResponseDTO> summaryDtos;
+
+    @Setup
+    public void setUp() throws Exception {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        // The fields Spring Data asks for when a repository method returns PostSummary
+        MongoPersistentEntity<?> entity = mappingContext.getRequiredPersistentEntity(Post.class);
+        Set<String> summaryFields = new LinkedHashSet<>();
+        for (PropertyDescriptor property : BeanUtils.getPropertyDescriptors(PostSummary.class)) {
+            summaryFields.add(entity.getRequiredPersistentProperty(property.getName()).getFieldName());
+        }
+
+        fullDocuments = new ArrayList<>();
+        summaryDocuments = new ArrayList<>();
+        fullDtos = new ArrayList<>();
+        summaryDtos = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            Post post = post(i);
+            Document document = new Document();
+            converter.write(post, document);
+            Document projected = new Document();
+            document.forEach((key, value) -> {
+                if (summaryFields.contains(key)) {
+                    projected.put(key, value);
+                }
+            });
+            fullDocuments.add(new RawBsonDocument(document, documentCodec));
+            summaryDocuments.add(new RawBsonDocument(projected, documentCodec));
+            fullDtos.add(fullDto(post));
+            summaryDtos.add(summaryDto(post));
+        }
+
+        long fullBson = fullDocuments.stream().mapToLong(d -> d.getByteBuffer().remaining()).sum();
+        long summaryBson = summaryDocuments.stream().mapToLong(d -> d.getByteBuffer().remaining()).sum();
+        long fullJson = objectMapper.writeValueAsBytes(fullDtos).length;
+        long summaryJson = objectMapper.writeValueAsBytes(summaryDtos).length;
+        System.out.printf("%nPage of %d posts: BSON %d -> %d bytes (%.0f%% less), JSON %d -> %d bytes (%.0f%% less)%n",
+                pageSize, fullBson, summaryBson, 100.0 * (fullBson - summaryBson) / fullBson,
+                fullJson, summaryJson, 100.0 * (fullJson - summaryJson) / fullJson);
+    }
+
+    @Benchmark
+    public List<Post> readFullDocuments() {
+        return read(fullDocuments);
+    }
+
+    @Benchmark
+    public List<Post> readSummaryDocuments() {
+        return read(summaryDocuments);
+    }
+
+    @Benchmark
+    public byte[] writeFullPage() throws Exception {
+        return objectMapper.writeValueAsBytes(fullDtos);
+    }
+
+    @Benchmark
+    public byte[] writeSummaryPage() throws Exception {
+        return objectMapper.writeValueAsBytes(summaryDtos);
+    }
+
+    private List<Post> read(List<RawBsonDocument> documents) {
+        List<Post> posts = new ArrayList<>(documents.size());
+        for (RawBsonDocument raw : documents) {
+            posts.add(converter.read(Post.class, raw.decode(documentCodec)));
+        }
+        return posts;
+    }
+
+    private Post post(int i) {
+        LocalDateTime publishedAt = LocalDateTime.of(2024, 1, 1, 9, 0).plusHours(i);
+        return Post.builder()
+                .postId(String.format("65f1c0ffee%014d", i))
+                .postType("general_blog")
+                .title(Map.of("en", "Weekly update " + i, "fa", "گزارش هفتگی " + i))
+                .excerpt(Map.of("en", text("Short summary of the update. ", 160), "fa", text("خلاصه ", 160)))
+                .contentBody(Map.of("en", text("Lorem ipsum dolor sit amet, consectetur adipiscing elit. ", bodyChars),
+                        "fa", text("این متن آزمایشی است. ", bodyChars)))
+                .contentBodyType(Post.ContentBodyType.MARKDOWN)
+                .authorInfo(new Post.AuthorInfo(Post.AuthorType.USER, "user-" + (i % 7), "user-" + (i % 7)))
+                .status(Post.PostStatus.PUBLISHED)
+                .visibility(Post.PostVisibility.PUBLIC)
+                .featuredImageUrl("https://cdn.example.org/posts/" + i + "/cover.jpg")
+                .mediaAttachments(List.of(attachment(i, 1), attachment(i, 2), attachment(i, 3)))
+                .tags(List.of("community", "update", "tag-" + (i % 5)))
+                .categoryIds(List.of("category-" + (i % 3)))
+                .language("fa")
+                .allowComments(true)
+                .commentCount(12L * i)
+                .viewCount(340L * i)
+                .likeCount(25L * i)
+                .reactionCounts(Map.of("👍", 20L * i, "❤️", 5L * i))
+                .linkedEntityInfo(new Post.LinkedEntityInfo("Project", "project-" + (i % 4)))
+                .relatedPostIds(List.of("related-1", "related-2"))
+                .createdAt(publishedAt.minusDays(1))
+                .updatedAt(publishedAt)
+                .publishedAt(publishedAt)
+                .build();
+    }
+
+    private static Post.MediaAttachment attachment(int post, int n) {
+        return Post.MediaAttachment.builder()
+                .mediaType(Post.MediaType.IMAGE)
+                .url("https://cdn.example.org/posts/" + post + "/image-" + n + ".jpg")
+                .caption(Map.of("en", "Photo " + n, "fa", "عکس " + n))
+                .altText(Map.of("en", "Photo " + n + " of the meeting", "fa", "عکس جلسه " + n))
+                .fileName("image-" + n + ".jpg")
+                .size(250_000L * n)
+                .build();
+    }
+
+    private static String text(String sentence, int chars) {
+        StringBuilder text = new StringBuilder(chars + sentence.length());
+        while (text.length() < chars) {
+            text.append(sentence);
+        }
+        return text.substring(0, chars);
+    }
+
+    private static PostResponseDTO fullDto(Post post) {
+        return PostResponseDTO.builder()
+                .postId(post.getPostId())
+                .postType(post.getPostType())
+                .title(post.getTitle())
+                .contentBody(post.getContentBody())
+                .contentBodyType(post.getContentBodyType())
+                .excerpt(post.getExcerpt())
+                .authorType(post.getAuthorInfo().getAuthorType())
+                .authorId(post.getAuthorInfo().getAuthorId())
+                .status(post.getStatus())
+                .visibility(post.getVisibility())
+                .featuredImageUrl(post.getFeaturedImageUrl())
+                .mediaAttachments(post.getMediaAttachments())
+                .tags(post.getTags())
+                .categoryIds(post.getCategoryIds())
+                .language(post.getLanguage())
+                .allowComments(post.isAllowComments())
+                .commentCount(post.getCommentCount())
+                .viewCount(post.getViewCount())
+                .likeCount(post.getLikeCount())
+                .reactionCounts(post.getReactionCounts())
+                .linkedEntityInfo(post.getLinkedEntityInfo())
+                .createdAt(post.getCreatedAt())
+                .updatedAt(post.getUpdatedAt())
+                .publishedAt(post.getPublishedAt())
+                .build();
+    }
+
+    private static PostSummaryResponseDTO summaryDto(Post post) {
+        return PostSummaryResponseDTO.builder()
+                .postId(post.getPostId())
+                .postType(post.getPostType())
+                .title(post.getTitle())
+                .excerpt(post.getExcerpt())
+                .authorType(post.getAuthorInfo().getAuthorType())
+                .authorId(post.getAuthorInfo().getAuthorId())
+                .status(post.getStatus())
+                .featuredImageUrl(post.getFeaturedImageUrl())
+                .tags(post.getTags())
+                .language(post.getLanguage())
+                .commentCount(post.getCommentCount())
+                .viewCount(post.getViewCount())
+                .likeCount(post.getLikeCount())
+                .reactionCounts(post.getReactionCounts())
+                .createdAt(post.getCreatedAt())
+                .updatedAt(post.getUpdatedAt())
+                .publishedAt(post.getPublishedAt())
+                .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PostListPayloadBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
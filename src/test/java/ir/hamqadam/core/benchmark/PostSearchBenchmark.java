@@ -0,0 +1,123 @@
+package ir.hamqadam.core.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ir.hamqadam.core.model.Post;
+import ir.hamqadam.core.search.PostSearchIndex;
+import ir.hamqadam.core.search.SearchHits;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency of {@link PostSearchIndex} on a seeded corpus of {@code posts} posts whose words follow
+ * a Zipf distribution over a {@code vocabulary}-word vocabulary, with a tenth of the posts not public:
+ * <ul>
+ *     <li>{@code topTen}: the first page of hits without a total, as {@code totals=none} requests it;</li>
+ *     <li>{@code topTenCounted}: the same page with the exact number of matches.</li>
+ * </ul>
+ * Each query combines one very common word, one mid-frequency word and one rare word. Compare the
+ * corpus sizes: without a total, latency follows the rare words and stays about flat. Needs a heap of
+ * a few GB for the largest corpus.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g"})
+@State(Scope.Benchmark)
+public class PostSearchBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int posts;
+
+    @Param({"50000"})
+    public int vocabulary;
+
+    private PostSearchIndex searchIndex;
+    private String[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        searchIndex = new PostSearchIndex(Mockito.mock(MongoTemplate.class), new SimpleMeterRegistry(), true, 1000, 0.25);
+        double[] cumulative = zipf(vocabulary);
+        SplittableRandom random = new SplittableRandom(42);
+        long start = System.nanoTime();
+        for (int i = 0; i < posts; i++) {
+            searchIndex.index(Post.builder()
+                    .postId(Integer.toString(i))
+                    .title(Map.of("en", words(random, cumulative, 6)))
+                    .excerpt(Map.of("en", words(random, cumulative, 15)))
+                    .contentBody(Map.of("en", words(random, cumulative, 40)))
+                    .tags(List.of(word(random, cumulative), word(random, cumulative)))
+                    .status(Post.PostStatus.PUBLISHED)
+                    .visibility(random.nextInt(10) == 0 ? Post.PostVisibility.TEAM_ONLY : Post.PostVisibility.PUBLIC)
+                    .build());
+        }
+        System.out.printf("%nIndexed %d posts in %d ms%n", searchIndex.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        queries = new String[64];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = "w" + random.nextInt(20) + " w" + (100 + random.nextInt(1900)) + " w" + (5000 + random.nextInt(vocabulary - 5000));
+        }
+    }
+
+    @Benchmark
+    public SearchHits topTen() {
+        return search(false);
+    }
+
+    @Benchmark
+    public SearchHits topTenCounted() {
+        return search(true);
+    }
+
+    private SearchHits search(boolean countMatches) {
+        String query = queries[next++ & (queries.length - 1)];
+        return searchIndex.search(query, Post.PostStatus.PUBLISHED, Post.PostVisibility.PUBLIC, 0, 10, countMatches);
+    }
+
+    private static double[] zipf(int size) {
+        double[] cumulative = new double[size];
+        double sum = 0;
+        for (int rank = 0; rank < size; rank++) {
+            sum += 1.0 / (rank + 1);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < size; rank++) {
+            cumulative[rank] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static String word(SplittableRandom random, double[] cumulative) {
+        int found = Arrays.binarySearch(cumulative, random.nextDouble());
+        return "w" + (found >= 0 ? found : Math.min(-found - 1, cumulative.length - 1));
+    }
+
+    private static String words(SplittableRandom random, double[] cumulative, int count) {
+        StringBuilder text = new StringBuilder(count * 7);
+        for (int i = 0; i < count; i++) {
+            text.append(word(random, cumulative)).append(' ');
+        }
+        return text.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PostSearchBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,83 @@
+package ir.hamqadam.core.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ir.hamqadam.core.security.jwt.JwtTokenProvider;
+import ir.hamqadam.core.security.ratelimit.RateLimiter;
+import ir.hamqadam.core.security.ratelimit.TokenBucket;
+import ir.hamqadam.core.service.SystemSettingsService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead the rate limiter adds to a request:
+ * <ul>
+ *     <li>{@code bucketAcquire}: one {@link TokenBucket#tryAcquire(long)} on a shared bucket;</li>
+ *     <li>{@code limitedRoute}: a full {@link RateLimiter#check} for a rate limited route;</li>
+ *     <li>{@code unlimitedRoute}: a full check for a route no policy matches.</li>
+ * </ul>
+ * Run with several threads ({@code -t 8}) to see the lock-free bucket under contention.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    private TokenBucket bucket;
+    private RateLimiter rateLimiter;
+    private MockHttpServletRequest limitedRequest;
+    private MockHttpServletRequest unlimitedRequest;
+
+    @Setup
+    public void setUp() {
+        // Large enough that the benchmark measures the allowed path, not rejections
+        bucket = new TokenBucket(Integer.MAX_VALUE, TimeUnit.SECONDS.toNanos(1), System.nanoTime());
+
+        JwtTokenProvider tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret",
+                Base64.getEncoder().encodeToString(new byte[64]));
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationInMs", 3_600_000L);
+        tokenProvider.init();
+        rateLimiter = new RateLimiter(Mockito.mock(SystemSettingsService.class), tokenProvider,
+                new SimpleMeterRegistry(), true,
+                "search,GET,/api/v1/posts/search," + Integer.MAX_VALUE + ",1,USER_OR_IP", 600, 100_000);
+
+        limitedRequest = new MockHttpServletRequest("GET", "/api/v1/posts/search");
+        limitedRequest.setRemoteAddr("10.0.0.1");
+        unlimitedRequest = new MockHttpServletRequest("GET", "/api/v1/posts/public/post-1");
+        unlimitedRequest.setRemoteAddr("10.0.0.1");
+    }
+
+    @Benchmark
+    public long bucketAcquire() {
+        return bucket.tryAcquire(System.nanoTime());
+    }
+
+    @Benchmark
+    public RateLimiter.Decision limitedRoute() {
+        return rateLimiter.check(limitedRequest);
+    }
+
+    @Benchmark
+    public RateLimiter.Decision unlimitedRoute() {
+        return rateLimiter.check(unlimitedRequest);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(RateLimiterBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
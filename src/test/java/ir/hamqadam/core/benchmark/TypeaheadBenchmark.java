@@ -0,0 +1,131 @@
+package ir.hamqadam.core.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ir.hamqadam.core.model.User;
+import ir.hamqadam.core.search.Suggestion;
+import ir.hamqadam.core.search.TypeaheadIndex;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+
+/**
+ * Per-keystroke latency of {@link TypeaheadIndex} over {@code users} users with two-word English and
+ * Persian names drawn from small first- and last-name pools, so short prefixes match a large share of them:
+ * <ul>
+ *     <li>{@code oneLetter}: the first keystroke, matching a large share of all keys;</li>
+ *     <li>{@code threeLetters}: a typical prefix;</li>
+ *     <li>{@code withPendingChanges}: three letters with a full overlay of unmerged changes.</li>
+ * </ul>
+ * All should stay in the low microseconds at every size, as the top eight come out of the segment tree
+ * without visiting the other matches.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class TypeaheadBenchmark {
+
+    private static final String[] FIRST_NAMES = {"ali", "amir", "bahar", "dariush", "elham", "farhad", "golnaz",
+            "hamid", "kaveh", "leila", "maryam", "mohammad", "nasrin", "omid", "parisa", "reza", "sara", "shirin",
+            "tara", "yasaman", "zahra", "علی", "مریم", "رضا", "سارا"};
+    private static final String[] LAST_NAMES = {"ahmadi", "bagheri", "ebrahimi", "hosseini", "jafari", "karimi",
+            "mohammadi", "moradi", "rahimi", "rezaei", "sadeghi", "tehrani", "احمدی", "کریمی", "حسینی", "رضایی"};
+    private static final Set<Suggestion.Type> USERS = EnumSet.of(Suggestion.Type.USER);
+
+    @Param({"100000", "1000000"})
+    public int users;
+
+    private TypeaheadIndex typeaheadIndex;
+    private String[] oneLetter;
+    private String[] threeLetters;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<User> all = IntStream.range(0, users).mapToObj(i -> user(i, random)).toList();
+        MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class);
+        Mockito.when(mongoTemplate.stream(any(Query.class), any(Class.class)))
+                .thenAnswer(invocation -> invocation.getArgument(1) == User.class ? all.stream() : Stream.empty());
+        typeaheadIndex = new TypeaheadIndex(mongoTemplate, new SimpleMeterRegistry(), true, 1000, 256, 20);
+        long start = System.nanoTime();
+        typeaheadIndex.rebuild();
+        System.out.printf("%nIndexed %d users in %d ms%n", users, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        oneLetter = new String[64];
+        threeLetters = new String[64];
+        for (int i = 0; i < oneLetter.length; i++) {
+            String name = random.nextBoolean()
+                    ? FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]
+                    : LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            oneLetter[i] = name.substring(0, 1);
+            threeLetters[i] = name.substring(0, Math.min(3, name.length()));
+        }
+    }
+
+    private static User user(int i, SplittableRandom random) {
+        String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        return User.builder()
+                .userId("u" + i)
+                .fullName(Map.of("en", first + " " + last + " " + i))
+                .accountStatus(User.AccountStatus.ACTIVE)
+                .teamMemberships(List.of())
+                .build();
+    }
+
+    @Benchmark
+    public List<Suggestion> oneLetter() {
+        return typeaheadIndex.suggest(oneLetter[next++ & 63], USERS, 8);
+    }
+
+    @Benchmark
+    public List<Suggestion> threeLetters() {
+        return typeaheadIndex.suggest(threeLetters[next++ & 63], USERS, 8);
+    }
+
+    @Benchmark
+    public List<Suggestion> withPendingChanges(PendingChanges changes) {
+        return typeaheadIndex.suggest(threeLetters[next++ & 63], USERS, 8);
+    }
+
+    /**
+     * Fills the overlay with just under a merge threshold of renamed users before each iteration.
+     */
+    @State(Scope.Benchmark)
+    public static class PendingChanges {
+
+        @Setup(Level.Iteration)
+        public void setUp(TypeaheadBenchmark benchmark) {
+            SplittableRandom random = new SplittableRandom(7);
+            for (int i = 0; i < 255; i++) {
+                benchmark.typeaheadIndex.index(user(random.nextInt(benchmark.users), random));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TypeaheadBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
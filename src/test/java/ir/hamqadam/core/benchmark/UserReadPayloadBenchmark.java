@@ -0,0 +1,205 @@
+package ir.hamqadam.core.benchmark;
+
+import ir.hamqadam.core.model.User;
+import ir.hamqadam.core.repository.projection.UserCredentials;
+import ir.hamqadam.core.repository.projection.UserSummary;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+
+import java.beans.PropertyDescriptor;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Bytes read and mapping cost per request for user reads, full document versus projection, on a
+ * seeded user with a bio, resume, memberships, contributions and authored posts:
+ * <ul>
+ *     <li>{@code *Credentials}: authenticating a request ({@link UserCredentials});</li>
+ *     <li>{@code *Summaries}: hydrating the authors of a page of {@code pageSize} items ({@link UserSummary}).</li>
+ * </ul>
+ * The BSON bytes MongoDB sends for each variant are printed during setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserReadPayloadBenchmark {
+
+    @Param({"20"})
+    public int pageSize;
+
+    private final DocumentCodec documentCodec = new DocumentCodec();
+    private MappingMongoConverter converter;
+    private RawBsonDocument fullUser;
+    private RawBsonDocument credentials;
+    private List<RawBsonDocument> fullUsers;
+    private List<RawBsonDocument> summaries;
+
+    @Setup
+    public void setUp() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        MongoPersistentEntity<?> entity = mappingContext.getRequiredPersistentEntity(User.class);
+        Set<String> credentialFields = fieldsOf(UserCredentials.class, entity);
+        Set<String> summaryFields = fieldsOf(UserSummary.class, entity);
+
+        fullUsers = new ArrayList<>();
+        summaries = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            Document document = new Document();
+            converter.write(user(i), document);
+            fullUsers.add(new RawBsonDocument(document, documentCodec));
+            summaries.add(new RawBsonDocument(project(document, summaryFields), documentCodec));
+            if (i == 0) {
+                fullUser = fullUsers.get(0);
+                credentials = new RawBsonDocument(project(document, credentialFields), documentCodec);
+            }
+        }
+
+        long fullPage = fullUsers.stream().mapToLong(d -> d.getByteBuffer().remaining()).sum();
+        long summaryPage = summaries.stream().mapToLong(d -> d.getByteBuffer().remaining()).sum();
+        long fullOne = fullUser.getByteBuffer().remaining();
+        long credentialsOne = credentials.getByteBuffer().remaining();
+        System.out.printf("%nAuthentication: %d -> %d bytes per lookup (%.0f%% less)%n",
+                fullOne, credentialsOne, 100.0 * (fullOne - credentialsOne) / fullOne);
+        System.out.printf("Author hydration, page of %d: %d -> %d bytes (%.0f%% less)%n",
+                pageSize, fullPage, summaryPage, 100.0 * (fullPage - summaryPage) / fullPage);
+    }
+
+    @Benchmark
+    public User readFullUserForCredentials() {
+        return read(fullUser);
+    }
+
+    @Benchmark
+    public User readCredentials() {
+        return read(credentials);
+    }
+
+    @Benchmark
+    public List<User> readFullUsersForSummaries() {
+        return readAll(fullUsers);
+    }
+
+    @Benchmark
+    public List<User> readSummaries() {
+        return readAll(summaries);
+    }
+
+    private User read(RawBsonDocument raw) {
+        return converter.read(User.class, raw.decode(documentCodec));
+    }
+
+    private List<User> readAll(List<RawBsonDocument> documents) {
+        List<User> users = new ArrayList<>(documents.size());
+        for (RawBsonDocument raw : documents) {
+            users.add(read(raw));
+        }
+        return users;
+    }
+
+    // The fields Spring Data reads when a repository method returns the projection
+    private static Set<String> fieldsOf(Class<?> projection, MongoPersistentEntity<?> entity) {
+        Set<String> fields = new LinkedHashSet<>();
+        for (PropertyDescriptor property : BeanUtils.getPropertyDescriptors(projection)) {
+            if (property.getReadMethod() != null && !property.getReadMethod().isDefault()) {
+                fields.add(entity.getRequiredPersistentProperty(property.getName()).getFieldName());
+            }
+        }
+        return fields;
+    }
+
+    private static Document project(Document document, Set<String> fields) {
+        Document projected = new Document();
+        document.forEach((key, value) -> {
+            if (fields.contains(key)) {
+                projected.put(key, value);
+            }
+        });
+        return projected;
+    }
+
+    private static User user(int i) {
+        LocalDateTime joined = LocalDateTime.of(2023, 5, 1, 10, 0);
+        return User.builder()
+                .userId(String.format("65f1c0ffee%014d", i))
+                .email("member" + i + "@example.org")
+                .telegramId("10000" + i)
+                .telegramUsername("member_" + i)
+                .passwordHash("$2a$10$abcdefghijklmnopqrstuuM9bH3nQ0Ymv7JZrPmRkqNnGgD6Vf7bK")
+                .fullName(Map.of("en", "Member Number " + i, "fa", "عضو شماره " + i))
+                .profilePictures(List.of(
+                        new User.ProfilePicture("https://cdn.example.org/users/" + i + "/1.jpg", false, joined),
+                        new User.ProfilePicture("https://cdn.example.org/users/" + i + "/2.jpg", true, joined.plusMonths(3))))
+                .bio(Map.of("en", text("Backend developer and community organizer. ", 600),
+                        "fa", text("توسعه دهنده و برگزارکننده. ", 600)))
+                .publicContactDetails(Map.of("website", "https://member" + i + ".example.org"))
+                .skills(List.of("java", "spring", "mongodb", "kubernetes", "design"))
+                .interests(List.of("open source", "education", "music"))
+                .linkedSocialProfiles(List.of(new User.SocialProfileLink("GitHub", "https://github.com/member" + i)))
+                .resumeDetailsText(Map.of("en", text("Worked on distributed systems and APIs. ", 3000),
+                        "fa", text("سابقه کار روی سامانه های توزیع شده. ", 3000)))
+                .portfolioLinks(List.of("https://portfolio.example.org/" + i))
+                .registrationMethod(User.RegistrationMethod.EMAIL)
+                .emailVerified(true)
+                .accountStatus(User.AccountStatus.ACTIVE)
+                .teamMemberships(IntStream.range(0, 15)
+                        .mapToObj(t -> new User.TeamMembershipInfo("team-" + t, "MEMBER", joined.plusDays(t)))
+                        .toList())
+                .projectContributions(IntStream.range(0, 25)
+                        .mapToObj(p -> new User.ProjectContributionInfo("project-" + p, "CONTRIBUTOR",
+                                Map.of("en", "Implemented feature " + p, "fa", "پیاده سازی قابلیت " + p)))
+                        .toList())
+                .routineParticipations(IntStream.range(0, 10)
+                        .mapToObj(r -> new User.RoutineParticipationInfo("routine-" + r, "ATTENDEE"))
+                        .toList())
+                .authoredPostIds(IntStream.range(0, 150).mapToObj(p -> String.format("65f1c0ffee%014d", 1000 + p)).toList())
+                .notificationPreferences(Map.of("email", true, "telegram", true, "digest", "weekly"))
+                .privacySettings(Map.of("showEmail", false, "showResume", true))
+                .createdAt(joined)
+                .updatedAt(joined.plusMonths(6))
+                .lastLoginAt(joined.plusMonths(6))
+                .build();
+    }
+
+    private static String text(String sentence, int chars) {
+        StringBuilder text = new StringBuilder(chars + sentence.length());
+        while (text.length() < chars) {
+            text.append(sentence);
+        }
+        return text.substring(0, chars);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(UserReadPayloadBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -8,6 +8,7 @@ import ir.hamqadam.core.controller.dto.comment.CommentUpdateRequestDTO;
 import ir.hamqadam.core.controller.dto.user.UserSummaryDTO;
 import ir.hamqadam.core.model.Comment;
 import ir.hamqadam.core.model.User;
+import ir.hamqadam.core.security.IdentityResolver;
 import ir.hamqadam.core.service.CommentService;
 import ir.hamqadam.core.service.UserService;
 
@@ -74,6 +75,9 @@ class CommentControllerIntegrationTest {
     @MockBean
     private UserService userService; // For fetching actingUser and author details for DTO
 
+    @MockBean
+    private IdentityResolver identityResolver;
+
     private CommentCreationRequestDTO commentCreationRequest;
     private CommentUpdateRequestDTO commentUpdateRequest;
     private User mockAuthenticatedUser;
@@ -139,7 +143,7 @@ class CommentControllerIntegrationTest {
         testLogger.info("Test: addComment_whenAuthenticatedAndValidRequest_shouldReturnCreatedComment");
 
         // Arrange
-        when(userService.findUserByEmail(MOCK_USER_EMAIL)).thenReturn(Optional.of(mockAuthenticatedUser));
+        when(identityResolver.resolve(MOCK_USER_EMAIL)).thenReturn(Optional.of(IdentityResolver.ResolvedIdentity.of(mockAuthenticatedUser)));
         when(commentService.addComment(
                 eq(TARGET_ENTITY_TYPE_POST),
                 eq(TARGET_ENTITY_ID_POST),
@@ -176,7 +180,7 @@ class CommentControllerIntegrationTest {
         testLogger.info("Test: addComment_whenContentIsBlank_shouldReturnBadRequest");
         // Arrange
         commentCreationRequest.setContent(""); // Invalid: blank content
-        when(userService.findUserByEmail(MOCK_USER_EMAIL)).thenReturn(Optional.of(mockAuthenticatedUser));
+        when(identityResolver.resolve(MOCK_USER_EMAIL)).thenReturn(Optional.of(IdentityResolver.ResolvedIdentity.of(mockAuthenticatedUser)));
 
         // Act
         ResultActions resultActions = mockMvc.perform(post("/api/v1/{targetEntityType}/{targetEntityId}/comments",
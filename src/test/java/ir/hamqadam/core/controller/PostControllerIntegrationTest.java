@@ -7,6 +7,7 @@ import ir.hamqadam.core.controller.dto.post.PostResponseDTO;
 import ir.hamqadam.core.controller.dto.user.UserSummaryDTO; // For author in PostResponseDTO
 import ir.hamqadam.core.model.Post;
 import ir.hamqadam.core.model.User;
+import ir.hamqadam.core.security.IdentityResolver;
 import ir.hamqadam.core.service.PostService;
 import ir.hamqadam.core.service.UserService;
 import ir.hamqadam.core.service.TeamService; // If team can be an author
@@ -70,6 +71,9 @@ class PostControllerIntegrationTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private IdentityResolver identityResolver;
+
     @MockBean
     private TeamService teamService; // Mocked even if not directly used by all PostController methods, for context consistency
 
@@ -144,7 +148,7 @@ class PostControllerIntegrationTest {
         testLogger.info("Test: createPost_whenAuthenticatedAndValidRequest_shouldReturnCreatedPost");
 
         // Arrange
-        when(userService.findUserByEmail(MOCK_USER_EMAIL)).thenReturn(Optional.of(mockAuthenticatedUser));
+        when(identityResolver.resolve(MOCK_USER_EMAIL)).thenReturn(Optional.of(IdentityResolver.ResolvedIdentity.of(mockAuthenticatedUser)));
         when(postService.createPost(
                 anyMap(), anyMap(), any(Post.ContentBodyType.class), anyString(),
                 any(Post.AuthorInfo.class), any(Post.PostVisibility.class), any(), // initialStatus can be null
@@ -195,7 +199,7 @@ class PostControllerIntegrationTest {
         testLogger.info("Test: createPost_whenInvalidRequestBody_shouldReturnBadRequest");
         // Arrange
         postCreationRequest.setTitle(null); // Invalid: title is required
-        when(userService.findUserByEmail(MOCK_USER_EMAIL)).thenReturn(Optional.of(mockAuthenticatedUser));
+        when(identityResolver.resolve(MOCK_USER_EMAIL)).thenReturn(Optional.of(IdentityResolver.ResolvedIdentity.of(mockAuthenticatedUser)));
 
         // Act
         ResultActions resultActions = mockMvc.perform(post("/api/v1/posts")
@@ -8,6 +8,7 @@ import ir.hamqadam.core.controller.dto.routine.RoutineResponseDTO;
 import ir.hamqadam.core.controller.dto.user.UserSummaryDTO; // For enriching response DTOs
 import ir.hamqadam.core.model.Routine;
 import ir.hamqadam.core.model.User;
+import ir.hamqadam.core.security.IdentityResolver;
 import ir.hamqadam.core.service.RoutineService;
 import ir.hamqadam.core.service.UserService;
 import ir.hamqadam.core.service.TeamService; // If team is a creator or participant
@@ -74,6 +75,9 @@ class RoutineControllerIntegrationTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private IdentityResolver identityResolver;
+
     @MockBean
     private TeamService teamService; // Mock if routines can have team creators/participants
 
@@ -155,7 +159,7 @@ class RoutineControllerIntegrationTest {
         testLogger.info("Test: createRoutine_whenAuthenticatedAndValidRequest_shouldReturnCreatedRoutine");
 
         // Arrange
-        when(userService.findUserByEmail(MOCK_USER_EMAIL)).thenReturn(Optional.of(mockAuthenticatedUser));
+        when(identityResolver.resolve(MOCK_USER_EMAIL)).thenReturn(Optional.of(IdentityResolver.ResolvedIdentity.of(mockAuthenticatedUser)));
         when(routineService.createRoutine(
                 anyMap(), // title
                 anyString(), // descriptivePostId
@@ -208,7 +212,7 @@ class RoutineControllerIntegrationTest {
         testLogger.info("Test: createRoutine_whenStartTimeInPast_shouldReturnBadRequest");
         // Arrange
         routineCreationRequest.setStartDatetime(LocalDateTime.now().minusDays(1)); // Start time in the past
-        when(userService.findUserByEmail(MOCK_USER_EMAIL)).thenReturn(Optional.of(mockAuthenticatedUser));
+        when(identityResolver.resolve(MOCK_USER_EMAIL)).thenReturn(Optional.of(IdentityResolver.ResolvedIdentity.of(mockAuthenticatedUser)));
 
         // Act
         ResultActions resultActions = mockMvc.perform(post("/api/v1/routines")
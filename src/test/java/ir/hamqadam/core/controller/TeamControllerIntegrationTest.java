@@ -5,6 +5,7 @@ import ir.hamqadam.core.controller.dto.team.TeamCreationRequestDTO;
 import ir.hamqadam.core.controller.dto.team.TeamResponseDTO;
 import ir.hamqadam.core.model.Team;
 import ir.hamqadam.core.model.User;
+import ir.hamqadam.core.security.IdentityResolver;
 import ir.hamqadam.core.service.TeamService;
 import ir.hamqadam.core.service.UserService; // TeamController uses this to get User from UserDetails
 
@@ -64,6 +65,9 @@ class TeamControllerIntegrationTest {
     @MockBean
     private UserService userService; // TeamController autowires this
 
+    @MockBean
+    private IdentityResolver identityResolver;
+
     private TeamCreationRequestDTO teamCreationRequest;
     private User mockAuthenticatedUser;
     private Team mockCreatedTeam;
@@ -122,8 +126,8 @@ class TeamControllerIntegrationTest {
         testLogger.info("Test: createTeam_whenAuthenticatedAndValidRequest_shouldReturnCreatedTeam");
 
         // Arrange
-        // Mock userService to return the authenticated user
-        when(userService.findUserByEmail("authenticated@example.com")).thenReturn(Optional.of(mockAuthenticatedUser));
+        // Mock identityResolver to return the authenticated user
+        when(identityResolver.resolve("authenticated@example.com")).thenReturn(Optional.of(IdentityResolver.ResolvedIdentity.of(mockAuthenticatedUser)));
 
         // Mock teamService.createTeam to return the mockCreatedTeam when called with expected parameters
         when(teamService.createTeam(
@@ -180,8 +184,8 @@ class TeamControllerIntegrationTest {
         // Arrange
         teamCreationRequest.setTeamHandle(""); // Invalid: blank handle
 
-        // Mock userService because the controller will try to fetch the actingUser
-        when(userService.findUserByEmail("authenticated@example.com")).thenReturn(Optional.of(mockAuthenticatedUser));
+        // Mock identityResolver because the controller will try to resolve the actingUser
+        when(identityResolver.resolve("authenticated@example.com")).thenReturn(Optional.of(IdentityResolver.ResolvedIdentity.of(mockAuthenticatedUser)));
         // No need to mock teamService.createTeam as validation should fail before it's called.
 
         // Act
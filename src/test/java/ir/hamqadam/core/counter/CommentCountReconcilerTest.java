@@ -0,0 +1,95 @@
+package ir.hamqadam.core.counter;
+
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ir.hamqadam.core.model.Comment;
+import ir.hamqadam.core.model.Post;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link CommentCountReconciler}.
+ */
+class CommentCountReconcilerTest {
+
+    private MongoTemplate mongoTemplate;
+    private BulkOperations bulkOperations;
+    private WriteBehindCounters counters;
+    private CommentCountReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        bulkOperations = mock(BulkOperations.class);
+        counters = mock(WriteBehindCounters.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class)).thenReturn(bulkOperations);
+        BulkWriteResult result = mock(BulkWriteResult.class);
+        when(result.getModifiedCount()).thenReturn(1);
+        when(bulkOperations.execute()).thenReturn(result);
+        reconciler = new CommentCountReconciler(mongoTemplate, counters, new SimpleMeterRegistry(), true, 500, 60_000);
+    }
+
+    @Test
+    @DisplayName("Drift should be corrected by a conditional $inc of the difference")
+    void reconcile_correctsDriftWithConditionalInc() {
+        Date hourAgo = new Date(System.currentTimeMillis() - 3_600_000);
+        posts(post("post-1", 3), post("post-2", 2));
+        comments(activity("post-1", 5, hourAgo)); // post-2 has no comments left
+
+        reconciler.reconcile();
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(2)).updateOne(queries.capture(), updates.capture());
+        assertEquals(new Document("postId", "post-1").append("commentCount", 3L), queries.getAllValues().get(0).getQueryObject());
+        assertEquals(new Document("$inc", new Document("commentCount", 2L)), updates.getAllValues().get(0).getUpdateObject());
+        assertEquals(new Document("$inc", new Document("commentCount", -2L)), updates.getAllValues().get(1).getUpdateObject());
+        verify(counters).flush();
+    }
+
+    @Test
+    @DisplayName("Posts with recent comment activity should be left alone, since a delta may still be buffered")
+    void reconcile_whenCommentsRecentlyChanged_shouldSkipPost() {
+        posts(post("post-1", 3));
+        comments(activity("post-1", 4, new Date()));
+
+        assertEquals(0, reconciler.reconcile());
+
+        verify(bulkOperations, never()).updateOne(any(Query.class), any(Update.class));
+    }
+
+    private void posts(Post... posts) {
+        when(mongoTemplate.stream(any(Query.class), eq(Post.class))).thenReturn(Stream.of(posts));
+    }
+
+    private void comments(Document... activity) {
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(Comment.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(activity), new Document()));
+    }
+
+    private static Post post(String postId, long commentCount) {
+        return Post.builder().postId(postId).commentCount(commentCount).build();
+    }
+
+    private static Document activity(String postId, int approved, Date lastUpdatedAt) {
+        return new Document("_id", postId).append("approved", approved).append("lastUpdatedAt", lastUpdatedAt);
+    }
+}
@@ -0,0 +1,130 @@
+package ir.hamqadam.core.counter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ir.hamqadam.core.model.Post;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link WriteBehindCounters} and {@link CounterBuffer}.
+ */
+class WriteBehindCountersTest {
+
+    private MongoTemplate mongoTemplate;
+    private BulkOperations bulkOperations;
+    private SimpleMeterRegistry meterRegistry;
+    private WriteBehindCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        bulkOperations = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Post.class)).thenReturn(bulkOperations);
+        meterRegistry = new SimpleMeterRegistry();
+        counters = new WriteBehindCounters(mongoTemplate, meterRegistry, 10_000, 5_000);
+    }
+
+    @Test
+    @DisplayName("Increments should be coalesced into one $inc update per document")
+    void flush_coalescesIncrements() {
+        for (int i = 0; i < 100; i++) {
+            counters.increment(Post.class, "post-1", "viewCount", 1);
+        }
+        counters.increment(Post.class, "post-2", "viewCount", 1);
+        counters.increment(Post.class, "post-2", "likeCount", 2);
+        assertEquals(103.0, meterRegistry.get("hamqadam.counters.pending").gauge().value());
+
+        int written = counters.flush();
+
+        assertEquals(2, written);
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(2)).updateOne(queries.capture(), updates.capture());
+        verify(bulkOperations).execute();
+        for (int i = 0; i < 2; i++) {
+            Object id = queries.getAllValues().get(i).getQueryObject().get("_id");
+            Map<?, ?> inc = (Map<?, ?>) updates.getAllValues().get(i).getUpdateObject().get("$inc");
+            if ("post-1".equals(id)) {
+                assertEquals(100L, inc.get("viewCount"));
+            } else {
+                assertEquals(1L, inc.get("viewCount"));
+                assertEquals(2L, inc.get("likeCount"));
+            }
+        }
+        assertEquals(0.0, meterRegistry.get("hamqadam.counters.pending").gauge().value());
+        assertEquals(0, counters.flush()); // Nothing left
+    }
+
+    @Test
+    @DisplayName("Deltas of a failed flush should be kept for the next one")
+    void flush_requeuesOnFailure() {
+        counters.increment(Post.class, "post-1", "viewCount", 5);
+        when(bulkOperations.execute()).thenThrow(new RuntimeException("connection reset"));
+
+        assertEquals(0, counters.flush());
+
+        reset(bulkOperations);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        assertEquals(1, counters.flush());
+        verify(bulkOperations).updateOne(any(Query.class), update.capture());
+        assertEquals(5L, ((Map<?, ?>) update.getValue().getUpdateObject().get("$inc")).get("viewCount"));
+    }
+
+    @Test
+    @DisplayName("Scheduled flush should wait until the oldest delta reaches the maximum lag")
+    void flushIfDue_respectsMaxLag() {
+        WriteBehindCounters lagging = new WriteBehindCounters(mongoTemplate, meterRegistry, 60_000, 5_000);
+        lagging.increment(Post.class, "post-1", "viewCount", 1);
+
+        lagging.flushIfDue();
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), any(Class.class));
+
+        WriteBehindCounters eager = new WriteBehindCounters(mongoTemplate, meterRegistry, 0, 5_000);
+        eager.increment(Post.class, "post-1", "viewCount", 1);
+        eager.flushIfDue();
+        verify(bulkOperations).execute();
+    }
+
+    @Test
+    @DisplayName("No increment should be lost while writers race with drains")
+    void counterBuffer_concurrentAddAndDrain() throws InterruptedException {
+        CounterBuffer<String> buffer = new CounterBuffer<>();
+        int writers = 4;
+        int perWriter = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch done = new CountDownLatch(writers);
+        for (int w = 0; w < writers; w++) {
+            executor.execute(() -> {
+                for (int i = 0; i < perWriter; i++) {
+                    buffer.add("hot", 1);
+                }
+                done.countDown();
+            });
+        }
+        long total = 0;
+        while (!done.await(1, TimeUnit.MILLISECONDS)) {
+            total += buffer.drain().getOrDefault("hot", 0L);
+        }
+        executor.shutdown();
+        total += buffer.drain().getOrDefault("hot", 0L);
+        total += buffer.drain().getOrDefault("hot", 0L); // Nothing may be left behind
+
+        assertEquals((long) writers * perWriter, total);
+    }
+}
@@ -0,0 +1,108 @@
+package ir.hamqadam.core.publishing;
+
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ir.hamqadam.core.model.Post;
+import ir.hamqadam.core.search.PostSearchIndex;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ScheduledPostPublisher}.
+ */
+class ScheduledPostPublisherTest {
+
+    private MongoTemplate mongoTemplate;
+    private PostSearchIndex postSearchIndex;
+    private ScheduledPostPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        postSearchIndex = mock(PostSearchIndex.class);
+        publisher = new ScheduledPostPublisher(mongoTemplate, postSearchIndex, new SimpleMeterRegistry(), true, 2);
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Post.class)))
+                .thenAnswer(invocation -> UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.find(any(Query.class), eq(Post.class)))
+                .thenAnswer(invocation -> List.of(Post.builder().postId("published").status(Post.PostStatus.PUBLISHED).build()));
+    }
+
+    private static Post scheduled(String id, LocalDateTime at) {
+        return Post.builder().postId(id).status(Post.PostStatus.SCHEDULED).scheduledForPublicationAt(at).build();
+    }
+
+    @Test
+    @DisplayName("Posts whose time passed while no instance ran are published on the first tick, in batches")
+    void reload_publishesOverdueOnFirstTick() {
+        LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
+        doReturn(Stream.of(scheduled("p1", yesterday), scheduled("p2", yesterday), scheduled("p3", yesterday),
+                scheduled("p4", LocalDateTime.now().plusHours(1))))
+                .when(mongoTemplate).stream(any(Query.class), eq(Post.class));
+
+        publisher.reload();
+        assertEquals(4, publisher.pending());
+        publisher.publishDue();
+
+        ArgumentCaptor<Query> due = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).updateMulti(due.capture(), any(Update.class), eq(Post.class));
+        Query first = due.getAllValues().get(0);
+        assertEquals(Post.PostStatus.SCHEDULED, first.getQueryObject().get("status"), "Only posts still scheduled");
+        verify(postSearchIndex, times(2)).index(any(Post.class));
+        assertEquals(1, publisher.pending(), "The post due in an hour waits");
+    }
+
+    @Test
+    @DisplayName("Saving a post reschedules or unschedules it in the wheel")
+    void onAfterSave_resyncsWheel() {
+        Post post = scheduled("p1", LocalDateTime.now().plusMinutes(5));
+        publisher.onAfterSave(new AfterSaveEvent<>(post, new Document(), "posts"));
+        assertEquals(1, publisher.pending());
+
+        publisher.onAfterSave(new AfterSaveEvent<>(scheduled("p1", LocalDateTime.now().minusSeconds(1)), new Document(), "posts"));
+        publisher.publishDue();
+        verify(mongoTemplate).updateMulti(any(Query.class), any(Update.class), eq(Post.class));
+        assertEquals(0, publisher.pending());
+
+        publisher.onAfterSave(new AfterSaveEvent<>(post, new Document(), "posts"));
+        post.setStatus(Post.PostStatus.DRAFT);
+        publisher.onAfterSave(new AfterSaveEvent<>(post, new Document(), "posts"));
+        assertEquals(0, publisher.pending());
+    }
+
+    @Test
+    @DisplayName("Nothing is written while no post is due")
+    void publishDue_idleWithoutDuePosts() {
+        publisher.track(scheduled("p1", LocalDateTime.now().plusDays(30)));
+
+        assertEquals(0, publisher.publishDue());
+        verifyNoInteractions(postSearchIndex);
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), eq(Post.class));
+    }
+
+    @Test
+    @DisplayName("Posts the update did not change, such as ones unscheduled on another instance, are not re-indexed")
+    void publishDue_skipsPostsNoLongerScheduled() {
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Post.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        publisher.track(scheduled("p1", LocalDateTime.now().minusSeconds(1)));
+
+        assertEquals(0, publisher.publishDue());
+        verifyNoInteractions(postSearchIndex);
+    }
+}
@@ -0,0 +1,109 @@
+package ir.hamqadam.core.publishing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link TimingWheel}.
+ */
+class TimingWheelTest {
+
+    @Test
+    @DisplayName("Timers fire exactly at their tick, whichever level they start on")
+    void advance_firesAtDueTick() {
+        Map<String, Long> dueTicks = new LinkedHashMap<>();
+        dueTicks.put("next", 1_001L);
+        dueTicks.put("minute", 1_060L);
+        dueTicks.put("hour", 4_600L);
+        dueTicks.put("day", 87_400L);
+        dueTicks.put("year", 1_000 + 365L * 86_400); // Beyond the top level
+        TimingWheel<String> wheel = new TimingWheel<>(1_000);
+        dueTicks.forEach(wheel::schedule);
+
+        dueTicks.forEach((id, due) -> {
+            assertTrue(wheel.advance(due - 1).isEmpty(), id + " fired early");
+            assertEquals(List.of(id), wheel.advance(due));
+        });
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Timers due at or before the current tick fire with the next advance, earliest first")
+    void advance_firesOverdueAtOnce() {
+        TimingWheel<String> wheel = new TimingWheel<>(500);
+        wheel.schedule("now", 500);
+        wheel.schedule("yesterday", 500 - 86_400);
+
+        assertEquals(List.of("yesterday", "now"), wheel.advance(500));
+        assertTrue(wheel.advance(501).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Rescheduling moves a timer and cancelling removes it")
+    void schedule_replacesAndCancelRemoves() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        wheel.schedule("moved", 100);
+        wheel.schedule("moved", 10_000);
+        wheel.schedule("cancelled", 50);
+        assertTrue(wheel.cancel("cancelled"));
+        assertFalse(wheel.cancel("cancelled"));
+        assertEquals(1, wheel.size());
+
+        assertTrue(wheel.advance(9_999).isEmpty());
+        assertEquals(List.of("moved"), wheel.advance(10_000));
+    }
+
+    @Test
+    @DisplayName("Thousands of timers due in the same second fire together in one advance")
+    void advance_firesSameTickTogether() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        for (int i = 0; i < 5_000; i++) {
+            wheel.schedule("post" + i, 3_600);
+        }
+        assertTrue(wheel.advance(3_599).isEmpty());
+        assertEquals(5_000, wheel.advance(3_600).size());
+    }
+
+    @Test
+    @DisplayName("Random schedules, cancels and jumps fire the same timers as a plain map")
+    void advance_matchesReference() {
+        Random random = new Random(42);
+        TimingWheel<Integer> wheel = new TimingWheel<>(123_456);
+        Map<Integer, Long> reference = new HashMap<>();
+        long now = 123_456;
+        for (int step = 0; step < 20_000; step++) {
+            int id = random.nextInt(1_000);
+            int operation = random.nextInt(10);
+            if (operation < 4) {
+                long due = now - 5 + random.nextInt(1 << random.nextInt(22));
+                wheel.schedule(id, due);
+                reference.put(id, due);
+            } else if (operation < 5) {
+                assertEquals(reference.remove(id) != null, wheel.cancel(id));
+            } else {
+                now += random.nextInt(1 << random.nextInt(16));
+                List<Integer> expected = new ArrayList<>();
+                for (Map.Entry<Integer, Long> timer : reference.entrySet()) {
+                    if (timer.getValue() <= now) {
+                        expected.add(timer.getKey());
+                    }
+                }
+                List<Integer> fired = wheel.advance(now);
+                assertEquals(new HashSet<>(expected), new HashSet<>(fired), "Step " + step);
+                assertEquals(expected.size(), fired.size());
+                expected.forEach(reference::remove);
+            }
+            assertEquals(reference.size(), wheel.size());
+        }
+    }
+}
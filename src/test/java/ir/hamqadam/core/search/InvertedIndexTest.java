@@ -0,0 +1,122 @@
+package ir.hamqadam.core.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link InvertedIndex}.
+ */
+class InvertedIndexTest {
+
+    private static final int PUBLIC = 1;
+    private static final int PRIVATE = 2;
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex();
+    }
+
+    private static Map<String, Integer> terms(String... words) {
+        Map<String, Integer> terms = new HashMap<>();
+        for (String word : words) {
+            terms.merge(word, 1, Integer::sum);
+        }
+        return terms;
+    }
+
+    private List<String> ids(List<String> terms, int k) {
+        return index.search(terms, a -> a == PUBLIC, k, true).hits().stream().map(SearchHit::id).toList();
+    }
+
+    @Test
+    @DisplayName("Rare terms and repeated terms rank higher, other attributes are filtered out")
+    void search_ranksWithBm25AndFilters() {
+        index.add("common", 0, PUBLIC, terms("java", "spring", "news"));
+        index.add("rare", 0, PUBLIC, terms("java", "kotlin", "news"));
+        index.add("repeated", 0, PUBLIC, terms("spring", "spring", "spring", "news"));
+        index.add("hidden", 0, PRIVATE, terms("kotlin", "kotlin"));
+        for (int i = 0; i < 20; i++) {
+            index.add("filler-" + i, 0, PUBLIC, terms("java", "filler"));
+        }
+
+        assertEquals(List.of("rare"), ids(List.of("kotlin"), 10));
+        assertEquals("repeated", ids(List.of("spring"), 10).get(0));
+        assertEquals("rare", ids(List.of("java", "kotlin"), 10).get(0));
+        assertEquals(22, index.search(List.of("java"), a -> a == PUBLIC, 3, true).totalHits());
+        assertTrue(ids(List.of("unknown"), 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Re-adding replaces a document, removal and attribute changes apply at once")
+    void add_replacesAndRemoves() {
+        index.add("a", 1, PUBLIC, terms("first"));
+        index.add("a", 2, PUBLIC, terms("second"));
+        assertTrue(ids(List.of("first"), 10).isEmpty());
+        assertEquals(List.of("a"), ids(List.of("second"), 10));
+
+        assertFalse(index.updateAttributes("a", 1, PRIVATE), "A different fingerprint means the text changed");
+        assertTrue(index.updateAttributes("a", 2, PRIVATE));
+        assertTrue(ids(List.of("second"), 10).isEmpty());
+
+        index.add("b", 3, PUBLIC, terms("second"));
+        assertTrue(index.remove("b"));
+        assertFalse(index.remove("b"));
+        assertTrue(ids(List.of("second"), 10).isEmpty());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    @DisplayName("Compaction drops replaced documents without changing results")
+    void compact_keepsResults() {
+        for (int i = 0; i < 50; i++) {
+            index.add("d" + i, 0, PUBLIC, terms("shared", "t" + (i % 5)));
+        }
+        for (int i = 0; i < 50; i += 2) {
+            index.add("d" + i, 1, PUBLIC, terms("shared", "t" + (i % 7)));
+        }
+        List<String> before = ids(List.of("shared", "t3"), 20);
+        assertTrue(index.deletedRatio() > 0);
+
+        index.compact();
+
+        assertEquals(0, index.deletedRatio());
+        assertEquals(50, index.size());
+        assertEquals(before, ids(List.of("shared", "t3"), 20));
+    }
+
+    @Test
+    @DisplayName("Pruned searches return the same top hits as exhaustive ones")
+    void search_pruningMatchesExhaustive() {
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            Map<String, Integer> terms = new HashMap<>();
+            for (int t = 0; t < 12; t++) {
+                // Skewed vocabulary: a few very common terms, a long tail of rare ones
+                int term = (int) Math.floor(Math.pow(random.nextDouble(), 3) * 2000);
+                terms.merge("w" + term, 1, Integer::sum);
+            }
+            index.add("d" + i, 0, random.nextInt(10) == 0 ? PRIVATE : PUBLIC, terms);
+        }
+        for (int q = 0; q < 200; q++) {
+            List<String> query = List.of("w" + random.nextInt(5), "w" + random.nextInt(100), "w" + random.nextInt(2000));
+            SearchHits exhaustive = index.search(query, a -> a == PUBLIC, 10, true);
+            SearchHits pruned = index.search(query, a -> a == PUBLIC, 10, false);
+            assertEquals(exhaustive.hits(), pruned.hits(), "Query " + query);
+            assertEquals(SearchHits.NOT_COUNTED, pruned.totalHits());
+            assertEquals(exhaustive.maxScore(), pruned.maxScore());
+            for (SearchHit hit : exhaustive.hits()) {
+                assertTrue(hit.score() > 0 && hit.score() < exhaustive.maxScore(), "Query " + query + ", hit " + hit);
+            }
+        }
+    }
+}
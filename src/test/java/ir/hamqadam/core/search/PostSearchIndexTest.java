@@ -0,0 +1,106 @@
+package ir.hamqadam.core.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ir.hamqadam.core.exception.BadRequestException;
+import ir.hamqadam.core.model.Post;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link PostSearchIndex}.
+ */
+class PostSearchIndexTest {
+
+    private MongoTemplate mongoTemplate;
+    private PostSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        searchIndex = new PostSearchIndex(mongoTemplate, new SimpleMeterRegistry(), true, 100, 0.25);
+    }
+
+    private static Post post(String id, String title, String body, Post.PostStatus status) {
+        return Post.builder()
+                .postId(id)
+                .title(Map.of("en", title))
+                .contentBody(Map.of("en", body, "fa", "متن " + body))
+                .tags(List.of("community"))
+                .status(status)
+                .visibility(Post.PostVisibility.PUBLIC)
+                .build();
+    }
+
+    private List<String> search(String query) {
+        return searchIndex.search(query, Post.PostStatus.PUBLISHED, Post.PostVisibility.PUBLIC, 0, 10, true)
+                .hits().stream().map(SearchHit::id).toList();
+    }
+
+    @Test
+    @DisplayName("Saved posts are searchable across languages, title matches first, only while published")
+    void onAfterSave_indexesPost() {
+        Post published = post("p1", "Weekly meetup", "We discussed the Java roadmap", Post.PostStatus.PUBLISHED);
+        searchIndex.onAfterSave(new AfterSaveEvent<>(published, new Document(), "posts"));
+        searchIndex.onAfterSave(new AfterSaveEvent<>(
+                post("p2", "Java roadmap", "Plans for the year", Post.PostStatus.PUBLISHED), new Document(), "posts"));
+        searchIndex.onAfterSave(new AfterSaveEvent<>(
+                post("p3", "Java draft", "Not yet", Post.PostStatus.DRAFT), new Document(), "posts"));
+
+        assertEquals(List.of("p2", "p1"), search("JAVA roadmap"));
+        assertEquals("p1", search("متن meetup").get(0));
+
+        published.setStatus(Post.PostStatus.ARCHIVED);
+        searchIndex.index(published);
+        assertEquals(List.of("p2"), search("java"));
+    }
+
+    @Test
+    @DisplayName("Deleted posts leave the index")
+    void onAfterDelete_removesPost() {
+        searchIndex.index(post("p1", "Hello", "World", Post.PostStatus.PUBLISHED));
+
+        searchIndex.onAfterDelete(new AfterDeleteEvent<>(new Document("_id", "p1"), Post.class, "posts"));
+
+        assertTrue(search("hello").isEmpty());
+        assertEquals(0, searchIndex.size());
+    }
+
+    @Test
+    @DisplayName("A rebuild streams all posts and keeps changes made while it ran")
+    void rebuild_streamsPosts() {
+        Post changedMeanwhile = post("p2", "Second", "Edited while rebuilding", Post.PostStatus.PUBLISHED);
+        when(mongoTemplate.stream(any(Query.class), eq(Post.class))).thenAnswer(invocation -> {
+            searchIndex.index(changedMeanwhile);
+            return Stream.of(post("p1", "First", "Indexed by the scan", Post.PostStatus.PUBLISHED),
+                    post("p2", "Second", "Stale copy from the scan", Post.PostStatus.PUBLISHED));
+        });
+
+        searchIndex.rebuild();
+
+        assertEquals(List.of("p1"), search("scan"));
+        assertEquals(List.of("p2"), search("edited"));
+        assertEquals(2, searchIndex.size());
+    }
+
+    @Test
+    @DisplayName("Pages beyond the result window are rejected")
+    void search_beyondWindowRejected() {
+        assertThrows(BadRequestException.class, () -> searchIndex.search("java", Post.PostStatus.PUBLISHED,
+                Post.PostVisibility.PUBLIC, 100, 10, false));
+    }
+}
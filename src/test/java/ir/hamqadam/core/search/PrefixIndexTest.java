@@ -0,0 +1,123 @@
+package ir.hamqadam.core.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link PrefixIndex}.
+ */
+class PrefixIndexTest {
+
+    private PrefixIndex<String> index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PrefixIndex<>();
+        index.reload(List.of(
+                entry("alice", 5, "alice", "alice cooper", "cooper"),
+                entry("ali", 1, "ali", "ali rezaei", "rezaei"),
+                entry("alina", 9, "alina"),
+                entry("bob", 7, "bob")));
+    }
+
+    private static PrefixIndex.Entry<String> entry(String id, int weight, String... keys) {
+        return new PrefixIndex.Entry<>(id, id, weight, List.of(keys));
+    }
+
+    @Test
+    @DisplayName("An exact key ranks first, then matches by weight, each entry once")
+    void search_ranksExactThenByWeight() {
+        assertEquals(List.of("ali", "alina", "alice"), index.search("ali", 10));
+        assertEquals(List.of("ali"), index.search("ali", 1));
+        assertEquals(List.of("alice"), index.search("coop", 10));
+        assertTrue(index.search("", 10).isEmpty());
+        assertTrue(index.search("zed", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("A scored search ranks every match by its best key, then as the plain search")
+    void searchScored_ranksAllMatchesByKeyScore() {
+        index.put(entry("alicia", 20, "alicia"));
+
+        // The lightest entry with no exact key still wins on score, however many entries match
+        assertEquals(List.of("alice"), index.search("ali", 1, key -> key.equals("alice cooper") ? 1 : 0));
+        assertEquals(List.of("alice", "ali", "alicia", "alina"),
+                index.search("ali", 10, key -> key.equals("alice cooper") ? 1 : 0));
+        assertTrue(index.search("", 10, key -> 1).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Changes are visible at once, before and after they are merged")
+    void putAndRemove_visibleBeforeAndAfterMerge() {
+        index.put(entry("alicia", 20, "alicia"));
+        index.put(entry("alina", 0, "lina"));
+        index.remove("bob");
+
+        assertEquals(List.of("ali", "alicia", "alice"), index.search("ali", 10));
+        assertTrue(index.search("bob", 10).isEmpty());
+        assertEquals(3, index.pendingChanges());
+
+        index.merge();
+
+        assertEquals(0, index.pendingChanges());
+        assertEquals(List.of("ali", "alicia", "alice"), index.search("ali", 10));
+        assertEquals(List.of("alina"), index.search("lin", 10));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    @DisplayName("Counts each matching entry once, overlay included")
+    void count_countsDistinctEntries() {
+        index.put(entry("alan", 1, "alan"));
+
+        assertEquals(4, index.count("al"));
+        assertEquals(1, index.count("rez"));
+        assertEquals(0, index.count("x"));
+    }
+
+    @Test
+    @DisplayName("Top-k matches those of a full scan on a random corpus")
+    void search_matchesFullScan() {
+        Random random = new Random(7);
+        List<PrefixIndex.Entry<String>> entries = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            List<String> keys = new ArrayList<>();
+            for (int j = 0; j < 1 + random.nextInt(3); j++) {
+                StringBuilder key = new StringBuilder();
+                for (int c = 0; c < 1 + random.nextInt(4); c++) {
+                    key.append((char) ('a' + random.nextInt(3)));
+                }
+                if (!keys.contains(key.toString())) {
+                    keys.add(key.toString());
+                }
+            }
+            entries.add(new PrefixIndex.Entry<>("e" + i, "e" + i, random.nextInt(50), keys));
+        }
+        index.reload(entries);
+
+        for (String prefix : List.of("a", "ab", "cab", "cccc")) {
+            Comparator<PrefixIndex.Entry<String>> bestFirst = Comparator
+                    .comparing((PrefixIndex.Entry<String> entry) -> !entry.keys().contains(prefix))
+                    .thenComparing(PrefixIndex.Entry::weight, Comparator.reverseOrder());
+            List<PrefixIndex.Entry<String>> expected = entries.stream()
+                    .filter(entry -> entry.keys().stream().anyMatch(key -> key.startsWith(prefix)))
+                    .sorted(bestFirst)
+                    .toList();
+            List<String> found = index.search(prefix, 20);
+            assertEquals(Math.min(20, expected.size()), found.size(), prefix);
+            for (int i = 0; i < found.size(); i++) {
+                PrefixIndex.Entry<String> entry = entries.get(Integer.parseInt(found.get(i).substring(1)));
+                assertEquals(0, bestFirst.compare(entry, expected.get(i)), prefix + " at " + i);
+            }
+            assertEquals(expected.size(), index.count(prefix), prefix);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package ir.hamqadam.core.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link Snippet}.
+ */
+class SnippetTest {
+
+    @Test
+    @DisplayName("The window starts shortly before the first match on a word boundary and highlights every match in it")
+    void around_highlightsMatches() {
+        String text = "Our team met on Friday.\nWe talked about the Java roadmap and planned meetups for next year, "
+                + "with many more words that go on until the window has to be cut somewhere.";
+
+        Snippet snippet = Snippet.around(text, TextAnalyzer.STEMMING, Set.of("java", "meetup")::contains, 80);
+
+        assertEquals("talked about the Java roadmap and planned meetups for next year, with many more", snippet.text());
+        assertEquals(List.of(new Snippet.Highlight(17, 21), new Snippet.Highlight(42, 49)), snippet.highlights());
+    }
+
+    @Test
+    @DisplayName("Highlights span the original spelling of a folded Persian word")
+    void around_mapsFoldedTokensToOriginalText() {
+        Snippet snippet = Snippet.around("كتاب‌های یادگیری", TextAnalyzer.STEMMING, "کتاب"::equals, 160);
+
+        assertEquals(List.of(new Snippet.Highlight(0, 8)), snippet.highlights());
+        assertNull(Snippet.around("nothing here", TextAnalyzer.STEMMING, "java"::equals, 160));
+    }
+}
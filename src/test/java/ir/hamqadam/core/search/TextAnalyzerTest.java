@@ -0,0 +1,49 @@
+package ir.hamqadam.core.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link TextAnalyzer}.
+ */
+class TextAnalyzerTest {
+
+    @Test
+    @DisplayName("Arabic letter variants, diacritics, tatweel and zero-width non-joiners fold to one spelling")
+    void analyze_foldsPersianVariants() {
+        assertEquals(TextAnalyzer.PLAIN.tokens("کتاب یادگیری"), TextAnalyzer.PLAIN.tokens("كتاب يادگيري"));
+        assertEquals(List.of("میخواهم"), TextAnalyzer.PLAIN.tokens("می\u200Cخواهم"));
+        assertEquals(List.of("کتاب"), TextAnalyzer.PLAIN.tokens("كِتـــاب"));
+        assertEquals(List.of("خانه", "مدرسه"), TextAnalyzer.PLAIN.tokens("خانۀ مدرسة"));
+    }
+
+    @Test
+    @DisplayName("Persian and Arabic-Indic digits become ASCII and Latin letters are lower-cased")
+    void analyze_foldsDigitsAndCase() {
+        assertEquals(List.of("1403", "2024", "spring", "boot"), TextAnalyzer.PLAIN.tokens("۱۴۰۳ ٢٠٢٤ Spring-BOOT!"));
+    }
+
+    @Test
+    @DisplayName("Stemming strips plural endings in both languages, the plain analyzer keeps them")
+    void analyze_stemsPlurals() {
+        assertEquals(List.of("کتاب", "دانشجو", "query", "class", "meetup"),
+                TextAnalyzer.STEMMING.tokens("کتاب\u200Cها دانشجوهای queries class meetups"));
+        assertEquals(List.of("کتابها"), TextAnalyzer.PLAIN.tokens("کتاب\u200Cها"));
+        assertEquals(List.of("ها"), TextAnalyzer.STEMMING.tokens("ها"), "Too short to leave a stem");
+    }
+
+    @Test
+    @DisplayName("Whole values normalize for equality lookups, keeping punctuation")
+    void normalize_wholeValues() {
+        assertEquals("spring boot", TextAnalyzer.normalize("  Spring \t Boot "));
+        assertEquals("c++", TextAnalyzer.normalize("C++"));
+        assertEquals("هوش مصنوعی", TextAnalyzer.normalize("هوش  مصنوعي"));
+        assertNull(TextAnalyzer.normalize(null));
+        assertEquals(List.of("java", "جاوا"), TextAnalyzer.normalizeAll(Arrays.asList("Java", "JAVA", null, " ", "جاوا")));
+    }
+}
@@ -0,0 +1,139 @@
+package ir.hamqadam.core.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ir.hamqadam.core.exception.BadRequestException;
+import ir.hamqadam.core.model.Project;
+import ir.hamqadam.core.model.Team;
+import ir.hamqadam.core.model.User;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link TypeaheadIndex}.
+ */
+class TypeaheadIndexTest {
+
+    private MongoTemplate mongoTemplate;
+    private TypeaheadIndex typeaheadIndex;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        typeaheadIndex = new TypeaheadIndex(mongoTemplate, new SimpleMeterRegistry(), true, 100, 256, 20);
+    }
+
+    private static Team team(String id, String handle, String name, Team.TeamVisibility visibility) {
+        return Team.builder()
+                .teamId(id)
+                .teamHandle(handle)
+                .teamName(Map.of("en", name))
+                .visibility(visibility)
+                .teamStatus(Team.TeamStatus.ACTIVE)
+                .build();
+    }
+
+    private static Team.TeamMember activeMember(String userId) {
+        return Team.TeamMember.builder().userId(userId).statusInTeam(Team.MemberStatus.ACTIVE).build();
+    }
+
+    private List<String> suggest(String query, Suggestion.Type type) {
+        return typeaheadIndex.suggest(query, EnumSet.of(type), 10).stream().map(Suggestion::id).toList();
+    }
+
+    @Test
+    @DisplayName("Public teams are found by handle and by any word of their name, private teams not at all")
+    void onAfterSave_indexesPublicTeams() {
+        typeaheadIndex.onAfterSave(new AfterSaveEvent<>(
+                team("t1", "java_iran", "Java Users Group", Team.TeamVisibility.PUBLIC), new Document(), "teams"));
+        typeaheadIndex.onAfterSave(new AfterSaveEvent<>(
+                team("t2", "secret", "Java Insiders", Team.TeamVisibility.PRIVATE), new Document(), "teams"));
+
+        assertEquals(List.of("t1"), suggest("@JAVA", Suggestion.Type.TEAM));
+        assertEquals(List.of("t1"), suggest("users gr", Suggestion.Type.TEAM));
+        assertTrue(suggest("secret", Suggestion.Type.TEAM).isEmpty());
+        assertTrue(suggest("java", Suggestion.Type.PROJECT).isEmpty());
+
+        Team madePrivate = team("t1", "java_iran", "Java Users Group", Team.TeamVisibility.PRIVATE);
+        typeaheadIndex.onAfterSave(new AfterSaveEvent<>(madePrivate, new Document(), "teams"));
+        assertTrue(suggest("java", Suggestion.Type.TEAM).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Matches rank the most relevant entity first, even if it is lighter than those the limit would keep")
+    void matches_ranksByRelevanceBeforeLimit() {
+        Team popular = team("t1", "javanese", "Javanese Cooks", Team.TeamVisibility.PUBLIC);
+        popular.setMembers(List.of(activeMember("u1"), activeMember("u2"), activeMember("u3")));
+        typeaheadIndex.onAfterSave(new AfterSaveEvent<>(popular, new Document(), "teams"));
+        typeaheadIndex.onAfterSave(new AfterSaveEvent<>(
+                team("t2", "jm", "Java Meetup", Team.TeamVisibility.PUBLIC), new Document(), "teams"));
+
+        assertEquals(List.of("t1", "t2"), suggest("java", Suggestion.Type.TEAM));
+        assertEquals(List.of("t2"), typeaheadIndex.matches(Suggestion.Type.TEAM, "java", 1).stream()
+                .map(Suggestion::id).toList());
+    }
+
+    @Test
+    @DisplayName("Users are found by Persian names in any spelling unless inactive or opted out")
+    void index_honorsUserVisibility() {
+        typeaheadIndex.index(User.builder().userId("u1").fullName(Map.of("fa", "محمد رضا كريمي"))
+                .accountStatus(User.AccountStatus.ACTIVE).build());
+        typeaheadIndex.index(User.builder().userId("u2").fullName(Map.of("fa", "رضا احمدی"))
+                .accountStatus(User.AccountStatus.SUSPENDED).build());
+        typeaheadIndex.index(User.builder().userId("u3").fullName(Map.of("fa", "رضا موسوی"))
+                .accountStatus(User.AccountStatus.ACTIVE)
+                .privacySettings(Map.of(TypeaheadIndex.SEARCHABLE_SETTING, false)).build());
+
+        assertEquals(List.of("u1"), suggest("رضا", Suggestion.Type.USER));
+        assertEquals(List.of("u1"), suggest("کریمی", Suggestion.Type.USER));
+    }
+
+    @Test
+    @DisplayName("Deleted projects leave the index")
+    void onAfterDelete_removesProject() {
+        typeaheadIndex.index(Project.builder().projectId("p1").projectHandle("hamqadam")
+                .projectName(Map.of("en", "Hamqadam Core")).visibility(Project.ProjectVisibility.PUBLIC).build());
+        assertEquals(1, typeaheadIndex.count(Suggestion.Type.PROJECT, "ham"));
+
+        typeaheadIndex.onAfterDelete(deleted(new Document("_id", "p1"), Project.class, "projects"));
+
+        assertEquals(0, typeaheadIndex.count(Suggestion.Type.PROJECT, "ham"));
+    }
+
+    @Test
+    @DisplayName("Rebuilding streams every entity type and pages are limited to the result window")
+    void rebuild_streamsAllTypes() {
+        when(mongoTemplate.stream(any(Query.class), eq(Team.class))).thenReturn(Stream.of(
+                team("t1", "alpha", "Alpha", Team.TeamVisibility.PUBLIC),
+                team("t2", "alps", "Alps", Team.TeamVisibility.PUBLIC)));
+        when(mongoTemplate.stream(any(Query.class), eq(Project.class))).thenReturn(Stream.empty());
+        when(mongoTemplate.stream(any(Query.class), eq(User.class))).thenReturn(Stream.empty());
+
+        typeaheadIndex.rebuild();
+
+        assertEquals(List.of("t1", "t2"), typeaheadIndex.search(Suggestion.Type.TEAM, "alp", 0, 10));
+        assertEquals(List.of("t2"), typeaheadIndex.search(Suggestion.Type.TEAM, "alp", 1, 10));
+        assertThrows(BadRequestException.class, () -> typeaheadIndex.search(Suggestion.Type.TEAM, "alp", 100, 10));
+    }
+
+    // Spring publishes the event typed by the entity; the listener receives it as an event of Object
+    @SuppressWarnings("unchecked")
+    private static AfterDeleteEvent<Object> deleted(Document document, Class<?> type, String collectionName) {
+        return new AfterDeleteEvent<>(document, (Class<Object>) type, collectionName);
+    }
+}
@@ -0,0 +1,77 @@
+package ir.hamqadam.core.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ir.hamqadam.core.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link AuthenticatedPrincipalCache}.
+ */
+class AuthenticatedPrincipalCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuthenticatedPrincipalCache principalCache;
+    private AtomicInteger loads;
+    private Function<String, UserDetails> loader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        principalCache = new AuthenticatedPrincipalCache(meterRegistry, 300, 100);
+        loads = new AtomicInteger();
+        loader = subject -> {
+            loads.incrementAndGet();
+            return new org.springframework.security.core.userdetails.User(
+                    subject, "", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        };
+    }
+
+    @Test
+    @DisplayName("Should load a principal once per subject and token issue time")
+    void get_shouldReuseLoadedPrincipalForSameToken() {
+        Date issuedAt = new Date(1_700_000_000_000L);
+
+        UserDetails first = principalCache.get("test@example.com", issuedAt, loader);
+        UserDetails second = principalCache.get("test@example.com", issuedAt, loader);
+
+        assertSame(first, second, "Same token should resolve to the cached principal");
+        assertEquals(1, loads.get(), "Loader should only run on the first request");
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", AuthenticatedPrincipalCache.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count(), "One hit should be recorded");
+    }
+
+    @Test
+    @DisplayName("Should load the principal again for a newly issued token")
+    void get_shouldReloadForDifferentIssueTime() {
+        principalCache.get("test@example.com", new Date(1_700_000_000_000L), loader);
+        principalCache.get("test@example.com", new Date(1_700_000_060_000L), loader);
+
+        assertEquals(2, loads.get(), "A different issue time is a different cache entry");
+    }
+
+    @Test
+    @DisplayName("Should drop every cached token of a user on invalidation")
+    void invalidateUser_shouldEvictAllTokensOfUser() {
+        principalCache.get("test@example.com", new Date(1_700_000_000_000L), loader);
+        principalCache.get("tg-42", new Date(1_700_000_000_000L), loader);
+        principalCache.get("other@example.com", new Date(1_700_000_000_000L), loader);
+
+        principalCache.invalidateUser(User.builder().userId("user-1").email("test@example.com").telegramId("tg-42").build());
+
+        principalCache.get("test@example.com", new Date(1_700_000_000_000L), loader);
+        principalCache.get("tg-42", new Date(1_700_000_000_000L), loader);
+        principalCache.get("other@example.com", new Date(1_700_000_000_000L), loader);
+        assertEquals(5, loads.get(), "Only the invalidated user's subjects should be reloaded");
+    }
+}
@@ -0,0 +1,198 @@
+package ir.hamqadam.core.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ir.hamqadam.core.exception.AppException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link BoundedPasswordEncoder}.
+ */
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        if (encoder != null) {
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Encoder should hash and verify passwords on the hashing pool")
+    void encodeAndMatches_roundTrip() {
+        encoder = new BoundedPasswordEncoder(4, 2, 4, Duration.ofSeconds(5), meterRegistry);
+
+        String hash = encoder.encode("s3cret-password");
+
+        assertTrue(hash.startsWith("$2a$04$"));
+        assertTrue(encoder.matches("s3cret-password", hash));
+        assertFalse(encoder.matches("wrong-password", hash));
+        assertEquals(1, meterRegistry.get("hamqadam.password.hash").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("hamqadam.password.hash").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    @DisplayName("Encoder should never run more hashes at once than it has threads")
+    void encode_concurrencyIsBounded() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        PasswordEncoder slow = new StubEncoder(() -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(20);
+            running.decrementAndGet();
+        });
+        encoder = new BoundedPasswordEncoder(slow, "test", 2, 16, Duration.ofSeconds(5), meterRegistry);
+
+        CompletableFuture<?>[] callers = new CompletableFuture<?>[10];
+        for (int i = 0; i < callers.length; i++) {
+            callers[i] = CompletableFuture.runAsync(() -> encoder.encode("password"));
+        }
+        CompletableFuture.allOf(callers).join();
+
+        assertTrue(maxRunning.get() <= 2, "At most 2 hashes may run at once, saw " + maxRunning.get());
+    }
+
+    @Test
+    @DisplayName("Encoder should reject callers at once with 503 when threads and queue are full")
+    void encode_rejectsWhenSaturated() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        PasswordEncoder blocking = new StubEncoder(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        encoder = new BoundedPasswordEncoder(blocking, "test", 1, 1, Duration.ofSeconds(5), meterRegistry);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        waitForQueueDepth(1);
+
+        long start = System.nanoTime();
+        AppException ex = assertThrows(AppException.class, () -> encoder.encode("c"));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatus());
+        assertTrue(elapsedMs < 100, "Rejection should not wait for the hashing pool, took " + elapsedMs + " ms");
+        assertEquals(1.0, meterRegistry.get("hamqadam.password.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("hash", running.join());
+        assertEquals("hash", queued.join());
+    }
+
+    @Test
+    @DisplayName("Requests not hashing passwords should still be served promptly while the hashing pool is saturated")
+    void encode_whenSaturated_shouldNotStallOtherRequests() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicReference<String> hashingThread = new AtomicReference<>();
+        PasswordEncoder blocking = new StubEncoder(() -> {
+            hashingThread.set(Thread.currentThread().getName());
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        encoder = new BoundedPasswordEncoder(blocking, "test", 1, 1, Duration.ofSeconds(5), meterRegistry);
+        ExecutorService requestThreads = Executors.newFixedThreadPool(4);
+        try {
+            // Saturate the encoder: one hash running, one queued, one rejected
+            CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"), requestThreads);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"), requestThreads);
+            waitForQueueDepth(1);
+            CompletableFuture<String> rejected = CompletableFuture.supplyAsync(() -> encoder.encode("c"), requestThreads);
+            assertThrows(Exception.class, () -> rejected.get(5, TimeUnit.SECONDS));
+
+            long start = System.nanoTime();
+            CompletableFuture<Long> unrelated = CompletableFuture.supplyAsync(() -> {
+                long sum = 0;
+                for (int i = 0; i < 1_000_000; i++) {
+                    sum += i;
+                }
+                return sum;
+            }, requestThreads);
+            assertEquals(499_999_500_000L, unrelated.get(1, TimeUnit.SECONDS));
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertTrue(elapsedMs < 500, "An unrelated request waited " + elapsedMs + " ms behind password hashing");
+            assertFalse(running.isDone(), "The encoder should still be saturated while the unrelated request runs");
+            assertTrue(hashingThread.get().startsWith("password-hashing-"), "Hashing ran on " + hashingThread.get());
+
+            release.countDown();
+            assertEquals("hash", running.get(5, TimeUnit.SECONDS));
+            assertEquals("hash", queued.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            requestThreads.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Encoder should give up with 503 when the hash does not finish in time")
+    void matches_timesOut() {
+        PasswordEncoder slow = new StubEncoder(() -> sleep(1_000));
+        encoder = new BoundedPasswordEncoder(slow, "test", 1, 1, Duration.ofMillis(50), meterRegistry);
+
+        AppException ex = assertThrows(AppException.class, () -> encoder.matches("a", "hash"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ex.getStatus());
+    }
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            if (meterRegistry.get("hamqadam.password.queue.depth").gauge().value() >= depth) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("Hashing queue never reached depth " + depth);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record StubEncoder(Runnable work) implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            work.run();
+            return "hash";
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            work.run();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package ir.hamqadam.core.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link JwtTokenProvider}.
+ */
+class JwtTokenProviderTest {
+
+    private JwtTokenProvider tokenProvider;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        tokenProvider = newProvider(new byte[64]);
+        token = tokenProvider.generateToken(new User("test@example.com", "",
+                AuthorityUtils.createAuthorityList("ROLE_USER")));
+    }
+
+    @Test
+    @DisplayName("Should return the verified claims of a valid token")
+    void resolveClaims_whenTokenValid_shouldReturnClaims() {
+        Claims claims = tokenProvider.resolveClaims(token);
+
+        assertNotNull(claims, "Valid token should resolve");
+        assertEquals("test@example.com", claims.getSubject());
+        assertEquals("ROLE_USER", claims.get(JwtTokenProvider.CLAIM_AUTHORITIES, String.class));
+    }
+
+    @Test
+    @DisplayName("Should serve a token verified before from the cache")
+    void resolveClaims_whenTokenSeenBefore_shouldReuseClaims() {
+        Claims first = tokenProvider.resolveClaims(token);
+        Claims second = tokenProvider.resolveClaims(token);
+
+        assertSame(first, second, "Second resolution should not parse the token again");
+    }
+
+    @Test
+    @DisplayName("Should reject a token signed with another key")
+    void resolveClaims_whenSignatureInvalid_shouldReturnNull() {
+        byte[] otherKey = new byte[64];
+        otherKey[0] = 1;
+        String foreignToken = newProvider(otherKey).generateToken(new User("test@example.com", "",
+                AuthorityUtils.createAuthorityList("ROLE_USER")));
+
+        assertNull(tokenProvider.resolveClaims(foreignToken));
+        assertFalse(tokenProvider.validateToken(foreignToken));
+    }
+
+    @Test
+    @DisplayName("Should reject an expired token")
+    void resolveClaims_whenTokenExpired_shouldReturnNull() {
+        JwtTokenProvider expiringProvider = newProvider(new byte[64]);
+        ReflectionTestUtils.setField(expiringProvider, "jwtExpirationInMs", -1_000L);
+        String expiredToken = expiringProvider.generateToken(new User("test@example.com", "",
+                AuthorityUtils.createAuthorityList("ROLE_USER")));
+
+        assertNull(tokenProvider.resolveClaims(expiredToken));
+    }
+
+    private static JwtTokenProvider newProvider(byte[] secret) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", Base64.getEncoder().encodeToString(secret));
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", 3_600_000L);
+        provider.init();
+        return provider;
+    }
+}
@@ -0,0 +1,127 @@
+package ir.hamqadam.core.security.permissions;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ir.hamqadam.core.model.Project;
+import ir.hamqadam.core.model.Team;
+import ir.hamqadam.core.repository.ProjectRepository;
+import ir.hamqadam.core.repository.TeamRepository;
+import ir.hamqadam.core.security.IdentityResolver;
+import ir.hamqadam.core.util.RequestIdentityMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ProjectSecurityService}.
+ */
+@ExtendWith(MockitoExtension.class)
+class ProjectSecurityServiceTest {
+
+    private static final String USERNAME = "member@example.com";
+    private static final String USER_ID = "user-1";
+
+    @Mock
+    private ProjectRepository projectRepository;
+
+    @Mock
+    private IdentityResolver identityResolver;
+
+    @Mock
+    private TeamRepository teamRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProjectSecurityService projectSecurityService;
+    private Project privateProject;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        RequestIdentityMap identityMap = new RequestIdentityMap();
+        TeamPermissionIndex permissionIndex = new TeamPermissionIndex(teamRepository, identityMap, meterRegistry, 300, 100);
+        projectSecurityService = new ProjectSecurityService(projectRepository, identityResolver, permissionIndex, meterRegistry,
+                identityMap);
+
+        privateProject = Project.builder()
+                .projectId("project-1")
+                .visibility(Project.ProjectVisibility.PRIVATE_TO_MEMBERS)
+                .creatorInfo(new Project.CreatorInfo(Project.CreatorType.TEAM, "team-a", "someone-else"))
+                .managingTeamIds(List.of("team-a"))
+                .contributingTeams(List.of(
+                        new Project.ContributingTeamInfo("team-b", "Development"),
+                        new Project.ContributingTeamInfo("team-c", "Design")))
+                .build();
+        when(projectRepository.findById("project-1")).thenReturn(Optional.of(privateProject));
+    }
+
+    @Test
+    @DisplayName("Should resolve team membership for a private project with a single query")
+    void canViewProject_whenPrivate_shouldQueryAllTeamsAtOnce() {
+        when(identityResolver.resolveUserId(USERNAME)).thenReturn(Optional.of(USER_ID));
+        when(teamRepository.existsMemberInAnyTeam(Set.of("team-a", "team-b", "team-c"), USER_ID, Team.MemberStatus.ACTIVE))
+                .thenReturn(true);
+
+        assertTrue(projectSecurityService.canViewProject("project-1", USERNAME));
+
+        verify(teamRepository, times(1)).existsMemberInAnyTeam(any(), anyString(), any());
+        verify(teamRepository, never()).findById(anyString());
+        verify(teamRepository, never()).findAllById(any());
+        assertEquals(1, meterRegistry.get("hamqadam.permissions.check")
+                .tag("check", "canViewProject").tag("outcome", "granted").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should deny a private project to users outside its teams")
+    void canViewProject_whenNotMember_shouldDeny() {
+        when(identityResolver.resolveUserId(USERNAME)).thenReturn(Optional.of(USER_ID));
+        when(teamRepository.existsMemberInAnyTeam(any(), eq(USER_ID), eq(Team.MemberStatus.ACTIVE))).thenReturn(false);
+
+        assertFalse(projectSecurityService.canViewProject("project-1", USERNAME));
+        assertEquals(1, meterRegistry.get("hamqadam.permissions.check")
+                .tag("check", "canViewProject").tag("outcome", "denied").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should allow an individual contributor without querying teams")
+    void canViewProject_whenIndividualContributor_shouldSkipTeamQuery() {
+        privateProject.setIndividualContributors(List.of(
+                Project.IndividualContributorInfo.builder().userId(USER_ID).build()));
+        when(identityResolver.resolveUserId(USERNAME)).thenReturn(Optional.of(USER_ID));
+
+        assertTrue(projectSecurityService.canViewProject("project-1", USERNAME));
+        verifyNoInteractions(teamRepository);
+    }
+
+    @Test
+    @DisplayName("Should allow admins of a managing team to update project info")
+    void canUpdateProjectInfo_whenManagingTeamAdmin_shouldAllow() {
+        when(identityResolver.resolveUserId(USERNAME)).thenReturn(Optional.of(USER_ID));
+        when(teamRepository.existsMemberWithAnyRoleInAnyTeam(Set.of("team-a"), USER_ID, Team.MemberStatus.ACTIVE,
+                Set.of("ADMIN"))).thenReturn(true);
+
+        assertTrue(projectSecurityService.canUpdateProjectInfo("project-1", USERNAME));
+        verify(teamRepository, never()).findById(anyString());
+    }
+
+    @Test
+    @DisplayName("Should not let plain members of a managing team update project info")
+    void canUpdateProjectInfo_whenManagingTeamMember_shouldDeny() {
+        when(identityResolver.resolveUserId(USERNAME)).thenReturn(Optional.of(USER_ID));
+        when(teamRepository.existsMemberWithAnyRoleInAnyTeam(Set.of("team-a"), USER_ID, Team.MemberStatus.ACTIVE,
+                Set.of("ADMIN"))).thenReturn(false);
+
+        assertFalse(projectSecurityService.canUpdateProjectInfo("project-1", USERNAME));
+    }
+}
@@ -0,0 +1,228 @@
+package ir.hamqadam.core.security.permissions;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ir.hamqadam.core.model.Team;
+import ir.hamqadam.core.repository.TeamRepository;
+import ir.hamqadam.core.repository.projection.TeamVersion;
+import ir.hamqadam.core.util.RequestIdentityMap;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link TeamPermissionIndex} and {@link TeamCapability}.
+ */
+class TeamPermissionIndexTest {
+
+    private TeamRepository teamRepository;
+    private RequestIdentityMap identityMap;
+    private TeamPermissionIndex permissionIndex;
+    private Team team;
+    private Team stored; // The team as the repository currently returns it
+
+    @BeforeEach
+    void setUp() {
+        teamRepository = mock(TeamRepository.class);
+        identityMap = new RequestIdentityMap();
+        permissionIndex = new TeamPermissionIndex(teamRepository, identityMap, new SimpleMeterRegistry(), 300, 100);
+
+        team = Team.builder()
+                .teamId("team-1")
+                .updatedAt(LocalDateTime.of(2024, 1, 1, 12, 0))
+                .members(new ArrayList<>(List.of(
+                        member("admin-1", Team.MemberStatus.ACTIVE, "ADMIN"),
+                        member("editor-1", Team.MemberStatus.ACTIVE, "EDITOR"),
+                        member("member-1", Team.MemberStatus.ACTIVE, "MEMBER", "Lead Developer"),
+                        member("invited-1", Team.MemberStatus.INVITED, "ADMIN"))))
+                .build();
+        stored = team;
+        when(teamRepository.findById("team-1")).thenAnswer(invocation -> Optional.ofNullable(stored));
+        when(teamRepository.findVersionByTeamId("team-1")).thenAnswer(invocation -> Optional.ofNullable(stored).map(TeamPermissionIndexTest::versionOf));
+        // The exists queries, evaluated against the stored team as MongoDB would
+        when(teamRepository.existsMemberInAnyTeam(any(), anyString(), any())).thenAnswer(invocation ->
+                storedMembership(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2), null));
+        when(teamRepository.existsMemberWithAnyRoleInAnyTeam(any(), anyString(), any(), any())).thenAnswer(invocation ->
+                storedMembership(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2),
+                        invocation.getArgument(3)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("Should compile built-in roles into capability masks")
+    void hasCapability_shouldFollowRoleMasks() {
+        for (TeamCapability capability : TeamCapability.values()) {
+            assertTrue(permissionIndex.hasCapability("team-1", "admin-1", capability), "Admin should hold " + capability);
+        }
+        assertTrue(permissionIndex.hasCapability("team-1", "editor-1", TeamCapability.VIEW_TEAM));
+        assertFalse(permissionIndex.hasCapability("team-1", "editor-1", TeamCapability.MANAGE_CONTENT));
+        assertFalse(permissionIndex.hasCapability("team-1", "editor-1", TeamCapability.MANAGE_MEMBERS));
+        assertTrue(permissionIndex.hasCapability("team-1", "member-1", TeamCapability.VIEW_TEAM));
+        assertFalse(permissionIndex.hasCapability("team-1", "member-1", TeamCapability.MANAGE_CONTENT));
+    }
+
+    @Test
+    @DisplayName("Should grant nothing to members that are not active, or to non-members")
+    void hasCapability_whenNotActiveMember_shouldDeny() {
+        assertFalse(permissionIndex.hasCapability("team-1", "invited-1", TeamCapability.VIEW_TEAM));
+        assertFalse(permissionIndex.hasCapability("team-1", "stranger", TeamCapability.VIEW_TEAM));
+        assertFalse(permissionIndex.hasCapability("missing-team", "admin-1", TeamCapability.VIEW_TEAM));
+    }
+
+    @Test
+    @DisplayName("Should load and compile a team only once while its stored version is unchanged")
+    void hasCapability_shouldReuseCompiledTeam() {
+        permissionIndex.hasCapability("team-1", "admin-1", TeamCapability.MANAGE_TEAM);
+        permissionIndex.hasCapability("team-1", "member-1", TeamCapability.VIEW_TEAM);
+
+        verify(teamRepository, times(1)).findById("team-1");
+        verify(teamRepository, times(1)).findVersionByTeamId("team-1");
+    }
+
+    @Test
+    @DisplayName("Should revoke the rights of an admin removed on another instance at the next check")
+    void hasCapability_whenAdminRemovedElsewhere_shouldDeny() {
+        assertTrue(permissionIndex.hasCapability("team-1", "admin-1", TeamCapability.MANAGE_TEAM));
+        assertTrue(permissionIndex.hasCapabilityInAny(Set.of("team-1"), "admin-1", TeamCapability.MANAGE_TEAM));
+
+        // Saved by another instance: no mapping event reaches this one
+        stored = Team.builder()
+                .teamId("team-1")
+                .updatedAt(team.getUpdatedAt().plusSeconds(1))
+                .members(List.of(member("member-1", Team.MemberStatus.ACTIVE, "MEMBER")))
+                .build();
+
+        assertFalse(permissionIndex.hasCapability("team-1", "admin-1", TeamCapability.MANAGE_TEAM));
+        assertFalse(permissionIndex.hasCapabilityInAny(Set.of("team-1"), "admin-1", TeamCapability.MANAGE_TEAM));
+    }
+
+    @Test
+    @DisplayName("Should grant nothing in a team deleted on another instance")
+    void hasCapability_whenTeamDeletedElsewhere_shouldDeny() {
+        assertTrue(permissionIndex.hasCapabilityInAny(Set.of("team-1"), "admin-1", TeamCapability.VIEW_TEAM));
+
+        stored = null;
+
+        assertFalse(permissionIndex.hasCapabilityInAny(Set.of("team-1"), "admin-1", TeamCapability.VIEW_TEAM));
+        assertFalse(permissionIndex.hasCapability("team-1", "admin-1", TeamCapability.VIEW_TEAM));
+    }
+
+    @Test
+    @DisplayName("Should match a team saved here with the same team read back with millisecond precision")
+    void hasCapability_afterSaveHere_shouldNotReloadTeam() {
+        team.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123_456_789));
+        permissionIndex.onAfterSave(new AfterSaveEvent<>(team, new Document("_id", "team-1"), "teams"));
+        stored = Team.builder().teamId("team-1").updatedAt(LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123_000_000)).build();
+
+        assertTrue(permissionIndex.hasCapability("team-1", "admin-1", TeamCapability.MANAGE_TEAM));
+        verify(teamRepository, never()).findById("team-1");
+    }
+
+    @Test
+    @DisplayName("Should recompile a team when it is saved")
+    void onAfterSave_shouldRebuildTeam() {
+        assertFalse(permissionIndex.hasCapability("team-1", "member-1", TeamCapability.MANAGE_TEAM));
+
+        team.getMembers().get(2).setRoles(List.of("ADMIN"));
+        team.setUpdatedAt(team.getUpdatedAt().plusMinutes(1));
+        permissionIndex.onAfterSave(new AfterSaveEvent<>(team, new Document("_id", "team-1"), "teams"));
+
+        assertTrue(permissionIndex.hasCapability("team-1", "member-1", TeamCapability.MANAGE_TEAM));
+        verify(teamRepository, times(1)).findById("team-1");
+    }
+
+    @Test
+    @DisplayName("Should recompile a loaded team whose version differs from the compiled one")
+    void hasCapability_withNewerTeamInstance_shouldRecompile() {
+        assertFalse(permissionIndex.hasCapability("team-1", "editor-1", TeamCapability.MANAGE_TEAM));
+
+        Team changed = Team.builder()
+                .teamId("team-1")
+                .updatedAt(team.getUpdatedAt().plusMinutes(5))
+                .members(List.of(member("editor-1", Team.MemberStatus.ACTIVE, "ADMIN")))
+                .build();
+
+        stored = changed;
+
+        assertTrue(permissionIndex.hasCapability(changed, "editor-1", TeamCapability.MANAGE_TEAM));
+        assertTrue(permissionIndex.hasCapability("team-1", "editor-1", TeamCapability.MANAGE_TEAM));
+        verify(teamRepository, times(1)).findById("team-1");
+    }
+
+    @Test
+    @DisplayName("Within a request, checks and the service should share one load of the team")
+    void hasCapability_withinRequest_shouldLoadTeamOnce() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        assertTrue(permissionIndex.hasCapability("team-1", "admin-1", TeamCapability.MANAGE_MEMBERS));
+        assertTrue(permissionIndex.hasCapability("team-1", "admin-1", TeamCapability.MANAGE_TEAM));
+        assertTrue(permissionIndex.hasCapabilityInAny(Set.of("team-1"), "admin-1", TeamCapability.MANAGE_PROJECTS));
+        identityMap.findById(teamRepository, Team.class, "team-1"); // The service method behind the checks
+
+        verify(teamRepository, times(1)).findById("team-1");
+        verify(teamRepository, never()).findVersionByTeamId(anyString());
+        verify(teamRepository, never()).existsMemberWithAnyRoleInAnyTeam(any(), anyString(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Checks across teams not loaded should ask one exists query on the stored memberships")
+    void hasCapabilityInAny_whenTeamsNotLoaded_shouldUseExistsQuery() {
+        assertTrue(permissionIndex.hasCapabilityInAny(Set.of("team-1", "team-2"), "member-1", TeamCapability.VIEW_TEAM));
+        assertFalse(permissionIndex.hasCapabilityInAny(Set.of("team-1", "team-2"), "member-1", TeamCapability.MANAGE_PROJECTS));
+        assertTrue(permissionIndex.hasCapabilityInAny(Set.of("team-1"), "admin-1", TeamCapability.MANAGE_PROJECTS));
+
+        verify(teamRepository).existsMemberWithAnyRoleInAnyTeam(Set.of("team-1"), "admin-1", Team.MemberStatus.ACTIVE, Set.of("ADMIN"));
+        verify(teamRepository, never()).findById(anyString());
+        verify(teamRepository, never()).findAllById(any());
+    }
+
+    private static TeamVersion versionOf(Team team) {
+        return new TeamVersion() {
+            @Override
+            public String getTeamId() {
+                return team.getTeamId();
+            }
+
+            @Override
+            public LocalDateTime getUpdatedAt() {
+                return team.getUpdatedAt();
+            }
+        };
+    }
+
+    private boolean storedMembership(Collection<String> teamIds, String userId, Team.MemberStatus status,
+                                     Collection<String> roles) {
+        return stored != null && teamIds.contains(stored.getTeamId()) && stored.getMembers().stream()
+                .anyMatch(member -> userId.equals(member.getUserId()) && member.getStatusInTeam() == status
+                        && (roles == null || member.getRoles().stream().anyMatch(roles::contains)));
+    }
+
+    private static Team.TeamMember member(String userId, Team.MemberStatus status, String... roles) {
+        return Team.TeamMember.builder()
+                .userId(userId)
+                .roles(List.of(roles))
+                .statusInTeam(status)
+                .build();
+    }
+}
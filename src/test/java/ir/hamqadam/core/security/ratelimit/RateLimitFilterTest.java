@@ -0,0 +1,45 @@
+package ir.hamqadam.core.security.ratelimit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link RateLimitFilter}.
+ */
+class RateLimitFilterTest {
+
+    @Test
+    @DisplayName("Rejected requests should get a 429 with a well-formed JSON body, whatever their path")
+    void doFilter_whenRejected_shouldWriteEscapedJsonBody() throws Exception {
+        RateLimiter rateLimiter = mock(RateLimiter.class);
+        RateLimitPolicy policy = RateLimitPolicy.parse("auth-login,POST,/api/v1/auth/login,5,60,IP");
+        when(rateLimiter.check(any())).thenReturn(new RateLimiter.Decision(policy, false, TimeUnit.MILLISECONDS.toNanos(1500)));
+        ObjectMapper objectMapper = new ObjectMapper();
+        FilterChain chain = mock(FilterChain.class);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/auth/login");
+        request.setServletPath("/api/v1/auth/login\", \"injected\": \"yes");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new RateLimitFilter(rateLimiter, objectMapper).doFilter(request, response, chain);
+
+        verifyNoInteractions(chain);
+        assertEquals(429, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        JsonNode body = objectMapper.readTree(response.getContentAsString());
+        assertEquals(429, body.get("status").asInt());
+        assertEquals("Too Many Requests", body.get("error").asText());
+        assertEquals("/api/v1/auth/login\", \"injected\": \"yes", body.get("path").asText());
+        assertFalse(body.has("injected"));
+    }
+}
@@ -0,0 +1,98 @@
+package ir.hamqadam.core.security.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.PathContainer;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link TokenBucket} and {@link RateLimitPolicy}.
+ */
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("Bucket should allow a burst up to its capacity and then reject with a retry hint")
+    void tryAcquire_burstUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(5, 10 * SECOND, 0);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryAcquire(0), "Request " + i + " should be allowed");
+        }
+        long retryAfter = bucket.tryAcquire(0);
+
+        assertEquals(2 * SECOND, retryAfter); // One token every 2 seconds
+        assertEquals(0, bucket.availableTokens(0));
+    }
+
+    @Test
+    @DisplayName("Bucket should refill one token per emission interval")
+    void tryAcquire_refillsOverTime() {
+        TokenBucket bucket = new TokenBucket(5, 10 * SECOND, 0);
+        for (int i = 0; i < 5; i++) {
+            bucket.tryAcquire(0);
+        }
+
+        assertTrue(bucket.tryAcquire(SECOND) > 0);
+        assertEquals(0, bucket.tryAcquire(2 * SECOND));
+        assertTrue(bucket.tryAcquire(2 * SECOND) > 0);
+        assertEquals(5, bucket.availableTokens(100 * SECOND)); // Never fuller than its capacity
+    }
+
+    @Test
+    @DisplayName("Concurrent callers should never take more tokens than the capacity")
+    void tryAcquire_concurrentCallers() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1000, 3600 * SECOND, 0);
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 500; i++) {
+                    if (bucket.tryAcquire(0) == 0) {
+                        granted.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertEquals(1000, granted.get());
+    }
+
+    @Test
+    @DisplayName("Policy list should parse in order and match method and path")
+    void parseList_matchesMethodAndPath() {
+        List<RateLimitPolicy> policies = RateLimitPolicy.parseList(
+                "login,POST,/api/v1/auth/login/**,10,60,IP; search,*,/api/v1/posts/search,60,60,user_or_ip");
+
+        assertEquals(2, policies.size());
+        RateLimitPolicy login = policies.get(0);
+        assertEquals(10, login.capacity());
+        assertEquals(RateLimitPolicy.KeyType.IP, login.keyType());
+        assertTrue(login.matches("POST", PathContainer.parsePath("/api/v1/auth/login/email")));
+        assertFalse(login.matches("GET", PathContainer.parsePath("/api/v1/auth/login/email")));
+        assertTrue(policies.get(1).matches("GET", PathContainer.parsePath("/api/v1/posts/search")));
+        assertEquals(RateLimitPolicy.KeyType.USER_OR_IP, policies.get(1).keyType());
+    }
+
+    @Test
+    @DisplayName("Malformed policies should be rejected")
+    void parseList_malformed() {
+        assertTrue(RateLimitPolicy.parseList("").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> RateLimitPolicy.parseList("login,POST,/x,10"));
+        assertThrows(IllegalArgumentException.class, () -> RateLimitPolicy.parseList("login,POST,/x,0,60,IP"));
+        assertThrows(IllegalArgumentException.class, () -> RateLimitPolicy.parseList("login,POST,/x,10,60,HOST"));
+    }
+}
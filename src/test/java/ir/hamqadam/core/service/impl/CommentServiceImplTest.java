@@ -0,0 +1,180 @@
+package ir.hamqadam.core.service.impl;
+
+import ir.hamqadam.core.counter.WriteBehindCounters;
+import ir.hamqadam.core.exception.ResourceNotFoundException;
+import ir.hamqadam.core.exception.ValidationException;
+import ir.hamqadam.core.model.Comment;
+import ir.hamqadam.core.model.Post;
+import ir.hamqadam.core.model.User;
+import ir.hamqadam.core.repository.CommentRepository;
+import ir.hamqadam.core.repository.UserRepository;
+import ir.hamqadam.core.util.CommentTree;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the comment write path and comment count maintenance in {@link CommentServiceImpl}.
+ */
+@ExtendWith(MockitoExtension.class)
+class CommentServiceImplTest {
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private WriteBehindCounters counters;
+
+    @InjectMocks
+    private CommentServiceImpl commentService;
+
+    @Test
+    @DisplayName("Count delta should follow transitions into and out of APPROVED only")
+    void commentCountDelta_followsApprovedTransitions() {
+        assertEquals(1, CommentServiceImpl.commentCountDelta(null, Comment.CommentStatus.APPROVED));
+        assertEquals(0, CommentServiceImpl.commentCountDelta(null, Comment.CommentStatus.PENDING_APPROVAL));
+        assertEquals(1, CommentServiceImpl.commentCountDelta(Comment.CommentStatus.PENDING_APPROVAL, Comment.CommentStatus.APPROVED));
+        assertEquals(-1, CommentServiceImpl.commentCountDelta(Comment.CommentStatus.APPROVED, Comment.CommentStatus.DELETED_BY_AUTHOR));
+        assertEquals(0, CommentServiceImpl.commentCountDelta(Comment.CommentStatus.APPROVED, Comment.CommentStatus.APPROVED));
+        assertEquals(0, CommentServiceImpl.commentCountDelta(Comment.CommentStatus.HIDDEN_BY_MODERATOR, Comment.CommentStatus.DELETED_BY_AUTHOR));
+    }
+
+    @Test
+    @DisplayName("Adding a root comment should be one insert with its own ID as thread ID, plus a buffered count")
+    void addComment_rootComment_singleInsert() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Post.class)))
+                .thenReturn(Post.builder().postId("post-1").allowComments(true).build());
+        when(commentRepository.insert(any(Comment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Comment comment = commentService.addComment("Post", "post-1", "Nice post", null, User.builder().userId("user-1").build());
+
+        assertTrue(ObjectId.isValid(comment.getCommentId()), "ID should be generated before the insert");
+        assertEquals(comment.getCommentId(), comment.getThreadId());
+        assertEquals(0, comment.getDepthLevel());
+        verify(commentRepository).insert(any(Comment.class));
+        verify(commentRepository, never()).save(any(Comment.class));
+        verify(commentRepository, never()).countByTargetEntityTypeAndTargetEntityIdAndStatus(any(), any(), any());
+        verify(counters).increment(Post.class, "post-1", "commentCount", 1);
+    }
+
+    @Test
+    @DisplayName("A reply should take thread and depth from the parent's projection")
+    void addComment_reply_usesParentProjection() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Post.class)))
+                .thenReturn(Post.builder().postId("post-1").allowComments(true).build());
+        when(mongoTemplate.findOne(any(Query.class), eq(Comment.class))).thenReturn(Comment.builder()
+                .commentId("parent-1").targetEntityType("Post").targetEntityId("post-1")
+                .threadId("root-1").depthLevel(1).build());
+        when(commentRepository.insert(any(Comment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Comment reply = commentService.addComment("Post", "post-1", "Agreed", "parent-1", User.builder().userId("user-2").build());
+
+        assertEquals("root-1", reply.getThreadId());
+        assertEquals(2, reply.getDepthLevel());
+        assertEquals("parent-1", reply.getParentCommentId());
+    }
+
+    @Test
+    @DisplayName("Commenting on a post that disallows comments should fail before any write")
+    void addComment_commentsDisabled_throws() {
+        when(mongoTemplate.findOne(any(Query.class), eq(Post.class)))
+                .thenReturn(Post.builder().postId("post-1").allowComments(false).build());
+
+        assertThrows(ValidationException.class, () ->
+                commentService.addComment("Post", "post-1", "Hi", null, User.builder().userId("user-1").build()));
+        verify(commentRepository, never()).insert(any(Comment.class));
+    }
+
+    @Test
+    @DisplayName("Deleting an approved comment should decrement the count by one")
+    void deleteComment_decrementsCommentCount() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Comment.class)))
+                .thenReturn(comment(Comment.CommentStatus.APPROVED));
+
+        commentService.deleteComment("comment-1", "user-1");
+
+        assertIncrement(-1);
+    }
+
+    @Test
+    @DisplayName("A status change that does not affect visibility should leave the count alone")
+    void changeCommentStatus_withoutVisibilityChange_keepsCount() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Comment.class)))
+                .thenReturn(comment(Comment.CommentStatus.PENDING_APPROVAL));
+
+        Comment updated = commentService.changeCommentStatus("comment-1", Comment.CommentStatus.REJECTED, "moderator-1");
+
+        assertEquals(Comment.CommentStatus.REJECTED, updated.getStatus());
+        verifyNoInteractions(counters);
+    }
+
+    @Test
+    @DisplayName("Changing the status of a missing comment should throw")
+    void changeCommentStatus_missingComment_throws() {
+        assertThrows(ResourceNotFoundException.class,
+                () -> commentService.changeCommentStatus("missing", Comment.CommentStatus.APPROVED, "moderator-1"));
+    }
+
+    private void assertIncrement(long expected) {
+        verify(counters).increment(Post.class, "post-1", "commentCount", expected);
+    }
+
+    private static Comment comment(Comment.CommentStatus status) {
+        return Comment.builder()
+                .commentId("comment-1")
+                .targetEntityType("Post")
+                .targetEntityId("post-1")
+                .status(status)
+                .build();
+    }
+
+    @Test
+    @DisplayName("The comment tree should only load the threads of the requested page of roots")
+    void findCommentTree_loadsOnlyThePageOfThreads() {
+        LocalDateTime now = LocalDateTime.now();
+        Comment root1 = Comment.builder().commentId("root-1").threadId("root-1").createdAt(now).build();
+        Comment reply = Comment.builder().commentId("reply-1").threadId("root-1").parentCommentId("root-1")
+                .depthLevel(1).createdAt(now.plusSeconds(1)).build();
+        Comment root2 = Comment.builder().commentId("root-2").threadId("root-2").createdAt(now.plusSeconds(2)).build();
+        Comment root3 = Comment.builder().commentId("root-3").threadId("root-3").createdAt(now.plusSeconds(3)).build();
+        when(mongoTemplate.find(any(Query.class), eq(Comment.class)))
+                .thenReturn(List.of(root1, root2, root3)) // The page of roots, plus one
+                .thenReturn(List.of(root1, reply, root2)); // Their threads
+
+        CommentTree tree = commentService.findCommentTree("Post", "post-1", PageRequest.of(0, 2), 6, 50);
+
+        assertTrue(tree.hasMoreRoots());
+        assertEquals(2, tree.getRoots().size());
+        assertEquals(3, tree.size());
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(queries.capture(), eq(Comment.class));
+        assertEquals(3, queries.getAllValues().get(0).getLimit());
+        Document threads = queries.getAllValues().get(1).getQueryObject().getList("$and", Document.class).get(0);
+        assertEquals(new Document("$in", List.of("root-1", "root-2")), threads.get("threadId"));
+    }
+}
@@ -0,0 +1,94 @@
+package ir.hamqadam.core.service.impl;
+
+import ir.hamqadam.core.counter.WriteBehindCounters;
+import ir.hamqadam.core.model.Post;
+import ir.hamqadam.core.repository.PostRepository;
+import ir.hamqadam.core.repository.TeamRepository;
+import ir.hamqadam.core.repository.UserRepository;
+import ir.hamqadam.core.repository.projection.PostSummary;
+import ir.hamqadam.core.search.PostSearchIndex;
+import ir.hamqadam.core.security.permissions.TeamPermissionIndex;
+import ir.hamqadam.core.util.RequestIdentityMap;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link PostServiceImpl} class.
+ */
+@ExtendWith(MockitoExtension.class)
+class PostServiceImplTest {
+
+    @Mock
+    private PostRepository postRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private TeamRepository teamRepository;
+    @Spy
+    private RequestIdentityMap identityMap = new RequestIdentityMap();
+    @Mock
+    private TeamPermissionIndex permissionIndex;
+    @Mock
+    private WriteBehindCounters counters;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private PostSearchIndex searchIndex;
+
+    @InjectMocks
+    private PostServiceImpl postService;
+
+    private final Pageable pageable = PageRequest.of(0, 20);
+
+    @Test
+    @DisplayName("Author cards should only list the author's published public posts")
+    void findPublishedPostSummariesByAuthor_shouldOnlyListPublicPosts() {
+        PostSummary card = mock(PostSummary.class);
+        when(postRepository.findSummariesByAuthorInfo_AuthorTypeAndAuthorInfo_AuthorIdAndStatusAndVisibility(
+                Post.AuthorType.USER, "user-1", Post.PostStatus.PUBLISHED, Post.PostVisibility.PUBLIC, pageable))
+                .thenReturn(new PageImpl<>(List.of(card)));
+        when(postRepository.findSummarySliceByAuthorInfo_AuthorTypeAndAuthorInfo_AuthorIdAndStatusAndVisibility(
+                Post.AuthorType.USER, "user-1", Post.PostStatus.PUBLISHED, Post.PostVisibility.PUBLIC, pageable))
+                .thenReturn(new SliceImpl<>(List.of(card)));
+
+        Page<PostSummary> page = postService.findPublishedPostSummariesByAuthor(Post.AuthorType.USER, "user-1", pageable);
+
+        assertEquals(List.of(card), page.getContent());
+        assertEquals(List.of(card), postService.findPublishedPostSummariesByAuthorSlice(Post.AuthorType.USER, "user-1", pageable).getContent());
+    }
+
+    @Test
+    @DisplayName("Filtered cards should only list published public posts")
+    void findPublishedPostSummaries_withFilter_shouldOnlyListPublicPosts() {
+        when(postRepository.findSummariesByTagsNormAndStatusAndVisibility(
+                "java", Post.PostStatus.PUBLISHED, Post.PostVisibility.PUBLIC, pageable))
+                .thenReturn(Page.empty(pageable));
+        when(postRepository.findSummarySliceByPostTypeAndStatusAndVisibility(
+                "ARTICLE", Post.PostStatus.PUBLISHED, Post.PostVisibility.PUBLIC, pageable))
+                .thenReturn(new SliceImpl<>(List.of()));
+
+        postService.findPublishedPostSummaries(null, "Java", null, pageable);
+        postService.findPublishedPostSummariesSlice("ARTICLE", null, null, pageable);
+
+        verify(postRepository).findSummariesByTagsNormAndStatusAndVisibility(
+                "java", Post.PostStatus.PUBLISHED, Post.PostVisibility.PUBLIC, pageable);
+        verify(postRepository).findSummarySliceByPostTypeAndStatusAndVisibility(
+                "ARTICLE", Post.PostStatus.PUBLISHED, Post.PostVisibility.PUBLIC, pageable);
+    }
+}
@@ -0,0 +1,165 @@
+package ir.hamqadam.core.service.impl;
+
+import ir.hamqadam.core.counter.WriteBehindCounters;
+import ir.hamqadam.core.exception.ResourceNotFoundException;
+import ir.hamqadam.core.exception.ValidationException;
+import ir.hamqadam.core.model.Comment;
+import ir.hamqadam.core.model.Post;
+import ir.hamqadam.core.model.Reaction;
+import ir.hamqadam.core.repository.CommentRepository;
+import ir.hamqadam.core.repository.PostRepository;
+import ir.hamqadam.core.repository.ReactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@link ReactionServiceImpl} class.
+ */
+@ExtendWith(MockitoExtension.class)
+class ReactionServiceImplTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ReactionRepository reactionRepository;
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private WriteBehindCounters counters;
+
+    private ReactionServiceImpl reactionService;
+
+    @BeforeEach
+    void setUp() {
+        reactionService = new ReactionServiceImpl(mongoTemplate, reactionRepository, postRepository,
+                commentRepository, counters, List.of("👍", "❤️", "🔥"));
+        lenient().when(postRepository.existsByPostIdAndStatusAndVisibility(
+                "post-1", Post.PostStatus.PUBLISHED, Post.PostVisibility.PUBLIC)).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("First reaction should increment the emoji count and, for a like, the like count")
+    void react_firstReaction_incrementsCounts() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Reaction.class))).thenReturn(null);
+
+        Reaction reaction = reactionService.react("posts", "post-1", "👍", "user-1");
+
+        assertEquals("Post", reaction.getTargetEntityType());
+        assertEquals("👍", reaction.getEmoji());
+        verify(counters).increment(Post.class, "post-1", "reactionCounts.👍", 1);
+        verify(counters).increment(Post.class, "post-1", "likeCount", 1);
+        verifyNoMoreInteractions(counters);
+    }
+
+    @Test
+    @DisplayName("Reacting again with the same emoji should not change any count")
+    void react_sameEmoji_isIdempotent() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Reaction.class))).thenReturn(existing("🔥"));
+
+        reactionService.react("Post", "post-1", "🔥", "user-1");
+
+        verifyNoInteractions(counters);
+    }
+
+    @Test
+    @DisplayName("Changing the emoji should move one count from the old emoji to the new one")
+    void react_changedEmoji_movesCount() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Reaction.class))).thenReturn(existing("👍"));
+
+        reactionService.react("post", "post-1", "❤️", "user-1");
+
+        verify(counters).increment(Post.class, "post-1", "reactionCounts.👍", -1);
+        verify(counters).increment(Post.class, "post-1", "likeCount", -1);
+        verify(counters).increment(Post.class, "post-1", "reactionCounts.❤️", 1);
+        verifyNoMoreInteractions(counters);
+    }
+
+    @Test
+    @DisplayName("A lost upsert race should fall back to updating the existing reaction")
+    void react_duplicateKeyOnUpsert_retriesAsUpdate() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Reaction.class)))
+                .thenThrow(new DuplicateKeyException("E11000"))
+                .thenReturn(existing("❤️"));
+
+        reactionService.react("post", "post-1", "🔥", "user-1");
+
+        verify(counters).increment(Post.class, "post-1", "reactionCounts.❤️", -1);
+        verify(counters).increment(Post.class, "post-1", "reactionCounts.🔥", 1);
+    }
+
+    @Test
+    @DisplayName("Removing a reaction should decrement its counts; removing none should change nothing")
+    void removeReaction_decrementsOnlyWhenPresent() {
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(Reaction.class)))
+                .thenReturn(existing("👍"))
+                .thenReturn(null);
+
+        assertTrue(reactionService.removeReaction("comments", "comment-1", "user-1"));
+        assertFalse(reactionService.removeReaction("comments", "comment-1", "user-1"));
+
+        verify(counters).increment(Comment.class, "comment-1", "reactionCounts.👍", -1);
+        verify(counters).increment(Comment.class, "comment-1", "likeCount", -1);
+        verifyNoMoreInteractions(counters);
+    }
+
+    @Test
+    @DisplayName("Unknown emoji, target types and targets should be rejected")
+    void react_invalidInput_throws() {
+        when(commentRepository.existsByCommentIdAndStatus("missing", Comment.CommentStatus.APPROVED)).thenReturn(false);
+
+        assertThrows(ValidationException.class, () -> reactionService.react("post", "post-1", "reaction_counts", "u"));
+        assertThrows(ValidationException.class, () -> reactionService.react("team", "team-1", "👍", "u"));
+        assertThrows(ResourceNotFoundException.class, () -> reactionService.react("comment", "missing", "👍", "u"));
+        verifyNoInteractions(mongoTemplate, counters);
+    }
+
+    @Test
+    @DisplayName("Posts not published publicly should not accept reactions")
+    void react_unlistedOrDraftPost_throwsNotFound() {
+        when(postRepository.existsByPostIdAndStatusAndVisibility(
+                "draft-1", Post.PostStatus.PUBLISHED, Post.PostVisibility.PUBLIC)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> reactionService.react("post", "draft-1", "👍", "u"));
+        verify(postRepository, never()).findById(anyString());
+        verifyNoInteractions(mongoTemplate, counters);
+    }
+
+    @Test
+    @DisplayName("Comments not approved should not accept reactions")
+    void react_hiddenOrDeletedComment_throwsNotFound() {
+        when(commentRepository.existsByCommentIdAndStatus("hidden-1", Comment.CommentStatus.APPROVED)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> reactionService.react("comment", "hidden-1", "👍", "u"));
+        verify(commentRepository, never()).existsById(anyString());
+        verifyNoInteractions(mongoTemplate, counters);
+    }
+
+    private static Reaction existing(String emoji) {
+        return Reaction.builder().reactionId("reaction-1").userId("user-1").emoji(emoji).build();
+    }
+}
@@ -0,0 +1,119 @@
+package ir.hamqadam.core.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ir.hamqadam.core.model.Post;
+import ir.hamqadam.core.repository.PostRepository;
+import ir.hamqadam.core.search.FederatedHit;
+import ir.hamqadam.core.search.FederatedResults;
+import ir.hamqadam.core.search.PostSearchIndex;
+import ir.hamqadam.core.search.SearchHit;
+import ir.hamqadam.core.search.SearchHits;
+import ir.hamqadam.core.search.Suggestion;
+import ir.hamqadam.core.search.TypeaheadIndex;
+import ir.hamqadam.core.util.RequestIdentityMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the fan-out, deadline and merged ranking of {@link SearchServiceImpl}.
+ */
+class SearchServiceImplTest {
+
+    private PostSearchIndex postSearchIndex;
+    private TypeaheadIndex typeaheadIndex;
+    private RequestIdentityMap identityMap;
+    private SearchServiceImpl searchService;
+
+    @BeforeEach
+    void setUp() {
+        postSearchIndex = mock(PostSearchIndex.class);
+        typeaheadIndex = mock(TypeaheadIndex.class);
+        identityMap = mock(RequestIdentityMap.class);
+        searchService = new SearchServiceImpl(postSearchIndex, typeaheadIndex, mock(PostRepository.class), identityMap,
+                new SimpleMeterRegistry(), 300, 4, 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        searchService.shutdown();
+    }
+
+    private static FederatedHit hit(String id, float score) {
+        return new FederatedHit(FederatedHit.Source.POSTS, id, score, Map.of(), null, null, null);
+    }
+
+    private static Suggestion team(String id, String name) {
+        return new Suggestion(Suggestion.Type.TEAM, id, id, Map.of("en", name), null);
+    }
+
+    @Test
+    @DisplayName("The k-way merge interleaves sorted lists by score, the earlier list first on ties")
+    void merge_interleavesByScore() {
+        List<FederatedHit> merged = SearchServiceImpl.merge(List.of(
+                List.of(hit("a1", 1f), hit("a2", 0.5f), hit("a3", 0.1f)),
+                List.of(hit("b1", 1f), hit("b2", 0.7f)),
+                List.of()), 4);
+
+        assertEquals(List.of("a1", "b1", "b2", "a2"), merged.stream().map(FederatedHit::id).toList());
+    }
+
+    @Test
+    @DisplayName("Posts and teams rank together on normalized scores, with highlighted snippets")
+    void search_ranksAcrossSources() {
+        when(postSearchIndex.search(eq("java"), eq(Post.PostStatus.PUBLISHED), eq(Post.PostVisibility.PUBLIC),
+                eq(0), eq(10), eq(false)))
+                .thenReturn(new SearchHits(List.of(new SearchHit("p1", 8f), new SearchHit("p2", 2f)), SearchHits.NOT_COUNTED, 10f));
+        when(identityMap.findAllByIdInOrder(any(), eq(Post.class), eq(List.of("p1", "p2")), any())).thenReturn(List.of(
+                Post.builder().postId("p1").title(Map.of("en", "Java roadmap")).build(),
+                Post.builder().postId("p2").title(Map.of("en", "Meetup")).contentBody(Map.of("en", "Some Java talk")).build()));
+        Suggestion javaGroup = team("t1", "Java Users Group");
+        when(typeaheadIndex.matches(Suggestion.Type.TEAM, "java", 10)).thenReturn(List.of(javaGroup, team("t2", "Javanese Cooks")));
+
+        FederatedResults results = searchService.search("java",
+                EnumSet.of(FederatedHit.Source.POSTS, FederatedHit.Source.TEAMS), "en", 10);
+
+        assertFalse(results.isPartial());
+        // Posts are scored against the best score the query could reach, not against the best post
+        assertEquals(List.of("t1", "p1", "t2", "p2"), results.hits().stream().map(FederatedHit::id).toList());
+        assertEquals(0.8f, results.hits().get(1).score());
+        FederatedHit post = results.hits().get(3);
+        assertEquals(0.2f, post.score());
+        assertEquals("Some Java talk", post.snippet().text());
+        assertEquals(5, post.snippet().highlights().get(0).start());
+        assertEquals("Java", results.hits().get(0).snippet().text().substring(0, 4));
+    }
+
+    @Test
+    @DisplayName("A source slower than the deadline is left out and reported")
+    void search_returnsPartialResultsAfterDeadline() {
+        when(postSearchIndex.search(anyString(), any(), any(), anyInt(), anyInt(), anyBoolean())).thenAnswer(invocation -> {
+            Thread.sleep(2000);
+            return new SearchHits(List.of(), SearchHits.NOT_COUNTED, 0);
+        });
+        when(typeaheadIndex.matches(eq(Suggestion.Type.USER), anyString(), anyInt()))
+                .thenReturn(List.of(new Suggestion(Suggestion.Type.USER, "u1", null, Map.of("en", "Sara"), null)));
+
+        long start = System.nanoTime();
+        FederatedResults results = searchService.search("sara",
+                EnumSet.of(FederatedHit.Source.POSTS, FederatedHit.Source.USERS), null, 10);
+
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 1000, "Should not wait for the slow source");
+        assertEquals(List.of(FederatedHit.Source.POSTS), results.incompleteSources());
+        assertEquals(List.of("u1"), results.hits().stream().map(FederatedHit::id).toList());
+        verify(identityMap, never()).findAllByIdInOrder(any(), any(), anyList(), any());
+    }
+}
@@ -1,5 +1,6 @@
 package ir.hamqadam.core.service.impl;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import ir.hamqadam.core.exception.ValidationException;
 import ir.hamqadam.core.model.Team;
 import ir.hamqadam.core.model.User;
@@ -7,6 +8,9 @@ import ir.hamqadam.core.model.User;
 // import ir.hamqadam.core.model.Post;
 import ir.hamqadam.core.repository.TeamRepository;
 import ir.hamqadam.core.repository.UserRepository;
+import ir.hamqadam.core.security.permissions.TeamPermissionIndex;
+import ir.hamqadam.core.uniqueness.UniqueKeyFilter;
+import ir.hamqadam.core.util.RequestIdentityMap;
 // import ir.hamqadam.core.repository.PostRepository;
 // import ir.hamqadam.core.service.NotificationService; // If notifications were actively sent
 import org.junit.jupiter.api.BeforeEach;
@@ -15,6 +19,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,6 +60,15 @@ class TeamServiceImplTest {
     // @Mock
     // private NotificationService notificationService; // If createTeam sent notifications
 
+    @Mock
+    private TeamPermissionIndex permissionIndex;
+
+    @Spy // Real instance: outside a web request it simply delegates to the repository
+    private RequestIdentityMap identityMap = new RequestIdentityMap();
+
+    @Spy // Real instance: until its filters are built, every check is looked up in the repository
+    private UniqueKeyFilter uniqueKeys = new UniqueKeyFilter(null, new SimpleMeterRegistry(), true, 1000, 0.01);
+
     @InjectMocks
     private TeamServiceImpl teamService;
 
@@ -1,14 +1,21 @@
 package ir.hamqadam.core.service.impl;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import ir.hamqadam.core.exception.ValidationException;
 import ir.hamqadam.core.model.User;
 import ir.hamqadam.core.repository.UserRepository;
+import ir.hamqadam.core.security.AuthenticatedPrincipalCache;
+import ir.hamqadam.core.security.IdentityResolver;
+import ir.hamqadam.core.security.TokenRevocationRegistry;
+import ir.hamqadam.core.uniqueness.UniqueKeyFilter;
+import ir.hamqadam.core.util.RequestIdentityMap;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,6 +26,7 @@ import org.springframework.security.test.context.support.WithUserDetails;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -43,6 +51,21 @@ class UserServiceImplTest {
     @Mock // Creates a mock instance of PasswordEncoder
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private AuthenticatedPrincipalCache principalCache;
+
+    @Mock
+    private TokenRevocationRegistry revocationRegistry;
+
+    @Mock
+    private IdentityResolver identityResolver;
+
+    @Spy // Real instance: outside a web request it simply delegates to the repository
+    private RequestIdentityMap identityMap = new RequestIdentityMap();
+
+    @Spy // Real instance: until its filters are built, every check is looked up in the repository
+    private UniqueKeyFilter uniqueKeys = new UniqueKeyFilter(null, new SimpleMeterRegistry(), true, 1000, 0.01);
+
     @InjectMocks // Creates an instance of UserServiceImpl and injects the mocks into it
     private UserServiceImpl userService;
 
@@ -152,6 +175,29 @@ class UserServiceImplTest {
         testLogger.warn("ValidationException thrown as expected for short password.");
     }
 
+    @Test
+    @DisplayName("Should invalidate cached principals and revoke tokens when an account is suspended")
+    void updateUserAccountStatus_whenSuspended_shouldInvalidatePrincipalsAndRevokeTokens() {
+        testLogger.info("Test: updateUserAccountStatus_whenSuspended_shouldInvalidatePrincipalsAndRevokeTokens");
+
+        // Arrange: An active user exists
+        User existingUser = User.builder()
+                .userId("user-1")
+                .email(sampleEmail)
+                .accountStatus(User.AccountStatus.ACTIVE)
+                .build();
+        when(userRepository.findById("user-1")).thenReturn(Optional.of(existingUser));
+
+        // Act
+        User updatedUser = userService.updateUserAccountStatus("user-1", User.AccountStatus.SUSPENDED);
+
+        // Assert
+        assertEquals(User.AccountStatus.SUSPENDED, updatedUser.getAccountStatus(), "Account status should be updated");
+        verify(principalCache, times(1)).invalidateUser(updatedUser);
+        verify(revocationRegistry, times(1)).revokeAllTokens("user-1");
+        verify(identityResolver, times(1)).refresh(updatedUser);
+    }
+
     // Add more unit tests for other methods in UserServiceImpl:
     // - registerOrLoginTelegramUser (new user, existing user)
     // - findUserById, findUserByEmail, findUserByTelegramId (found, not found)
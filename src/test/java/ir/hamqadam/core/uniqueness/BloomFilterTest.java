@@ -0,0 +1,64 @@
+package ir.hamqadam.core.uniqueness;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link BloomFilter}.
+ */
+class BloomFilterTest {
+
+    @Test
+    @DisplayName("Every added value is reported as possibly present")
+    void mightContain_noFalseNegatives() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i + "@example.com");
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user" + i + "@example.com"));
+        }
+        assertEquals(10_000, filter.insertions());
+    }
+
+    @Test
+    @DisplayName("At the sized load, values never added are rarely reported, close to the configured rate")
+    void mightContain_falsePositiveRateNearTarget() {
+        BloomFilter filter = BloomFilter.create(20_000, 0.01);
+        for (int i = 0; i < 20_000; i++) {
+            filter.put("team_" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("project_" + i)) {
+                falsePositives++;
+            }
+        }
+        double observed = falsePositives / 100_000.0;
+        assertTrue(observed < 0.02, "Observed false-positive rate " + observed);
+        assertEquals(0.01, filter.expectedFalsePositiveRate(), 0.005);
+    }
+
+    @Test
+    @DisplayName("The estimated false-positive rate grows as the filter is overfilled")
+    void expectedFalsePositiveRate_growsPastSizing() {
+        BloomFilter filter = BloomFilter.create(1_000, 0.01);
+        assertEquals(0, filter.expectedFalsePositiveRate());
+        assertFalse(filter.mightContain("ali"));
+        assertTrue(filter.put("ali"));
+        assertFalse(filter.put("ali"), "Adding a value twice changes nothing");
+        for (int i = 0; i < 3_000; i++) {
+            filter.put("handle" + i);
+        }
+        assertTrue(filter.expectedFalsePositiveRate() > 0.1);
+    }
+
+    @Test
+    @DisplayName("False-positive rates outside (0, 1) are rejected")
+    void create_rejectsBadRate() {
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(1_000, 0));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(1_000, 1));
+    }
+}
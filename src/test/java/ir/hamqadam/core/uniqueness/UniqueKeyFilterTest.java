@@ -0,0 +1,108 @@
+package ir.hamqadam.core.uniqueness;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ir.hamqadam.core.model.Project;
+import ir.hamqadam.core.model.Team;
+import ir.hamqadam.core.model.User;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link UniqueKeyFilter}.
+ */
+class UniqueKeyFilterTest {
+
+    private MongoTemplate mongoTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private UniqueKeyFilter uniqueKeys;
+    private List<String> lookedUp;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        uniqueKeys = new UniqueKeyFilter(mongoTemplate, meterRegistry, true, 1000, 0.01);
+        lookedUp = new ArrayList<>();
+        doReturn(Stream.of(Team.builder().teamHandle("java_iran").build()))
+                .when(mongoTemplate).stream(any(Query.class), eq(Team.class));
+        doReturn(Stream.of(Project.builder().projectHandle("hamqadam").build()))
+                .when(mongoTemplate).stream(any(Query.class), eq(Project.class));
+        doReturn(Stream.of(User.builder().email("ali@example.com").build()))
+                .when(mongoTemplate).stream(any(Query.class), eq(User.class));
+    }
+
+    // The repository query, taking only the stored values
+    private Predicate<String> lookup(String... taken) {
+        return value -> {
+            lookedUp.add(value);
+            return List.of(taken).contains(value);
+        };
+    }
+
+    private double checks(String key, String outcome) {
+        return meterRegistry.get("hamqadam.uniqueness.checks").tag("key", key).tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    @DisplayName("Before the filters are built, every check is looked up")
+    void exists_looksUpUntilBuilt() {
+        assertTrue(uniqueKeys.exists(UniqueKeyFilter.Key.TEAM_HANDLE, "java_iran", lookup("java_iran")));
+        assertFalse(uniqueKeys.exists(UniqueKeyFilter.Key.TEAM_HANDLE, "python", lookup("java_iran")));
+        assertEquals(List.of("java_iran", "python"), lookedUp);
+        assertEquals(2, checks("team-handle", "unfiltered"));
+    }
+
+    @Test
+    @DisplayName("Once built, values never taken are answered without a lookup and taken ones are looked up")
+    void exists_answersDefiniteNegativesFromMemory() {
+        uniqueKeys.rebuild();
+
+        assertFalse(uniqueKeys.exists(UniqueKeyFilter.Key.TEAM_HANDLE, "python", lookup("java_iran")));
+        assertFalse(uniqueKeys.exists(UniqueKeyFilter.Key.EMAIL, "sara@example.com", lookup("ali@example.com")));
+        assertTrue(lookedUp.isEmpty());
+
+        assertTrue(uniqueKeys.exists(UniqueKeyFilter.Key.TEAM_HANDLE, "java_iran", lookup("java_iran")));
+        assertTrue(uniqueKeys.exists(UniqueKeyFilter.Key.PROJECT_HANDLE, "hamqadam", lookup("hamqadam")));
+        assertTrue(uniqueKeys.exists(UniqueKeyFilter.Key.EMAIL, "ali@example.com", lookup("ali@example.com")));
+        assertEquals(List.of("java_iran", "hamqadam", "ali@example.com"), lookedUp);
+        assertEquals(1, checks("team-handle", "absent"));
+        assertEquals(1, checks("team-handle", "present"));
+    }
+
+    @Test
+    @DisplayName("Values saved on this instance after the build are looked up from then on")
+    void onAfterSave_addsSavedValues() {
+        uniqueKeys.rebuild();
+        uniqueKeys.onAfterSave(new AfterSaveEvent<>(Team.builder().teamHandle("python").build(), new Document(), "teams"));
+
+        assertTrue(uniqueKeys.exists(UniqueKeyFilter.Key.TEAM_HANDLE, "python", lookup("java_iran", "python")));
+        assertEquals(List.of("python"), lookedUp);
+        assertFalse(uniqueKeys.exists(UniqueKeyFilter.Key.PROJECT_HANDLE, "python", lookup()),
+                "Each kind of value has its own filter");
+    }
+
+    @Test
+    @DisplayName("A value freed since the build is a false positive: looked up, found free and counted")
+    void exists_countsFalsePositives() {
+        uniqueKeys.rebuild();
+
+        assertFalse(uniqueKeys.exists(UniqueKeyFilter.Key.TEAM_HANDLE, "java_iran", lookup()));
+        assertEquals(List.of("java_iran"), lookedUp);
+        assertEquals(1, checks("team-handle", "false-positive"));
+    }
+}
@@ -0,0 +1,107 @@
+package ir.hamqadam.core.util;
+
+import ir.hamqadam.core.model.Comment;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link CommentTree}.
+ */
+class CommentTreeTest {
+
+    private static Comment comment(String id, String parentId, String threadId, int depth) {
+        return Comment.builder()
+                .commentId(id)
+                .parentCommentId(parentId)
+                .threadId(threadId)
+                .depthLevel(depth)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Replies are attached under their parents in input order")
+    void build_nestsRepliesInOrder() {
+        List<Comment> comments = List.of(
+                comment("r1", null, "r1", 0),
+                comment("r2", null, "r2", 0),
+                comment("a", "r1", "r1", 1),
+                comment("b", "r1", "r1", 1),
+                comment("a1", "a", "r1", 2));
+
+        CommentTree tree = CommentTree.build(comments, 5, 10, false);
+
+        assertEquals(5, tree.size());
+        assertEquals(List.of("r1", "r2"), tree.getRoots().stream().map(n -> n.getComment().getCommentId()).toList());
+        CommentTree.Node r1 = tree.getRoots().get(0);
+        assertEquals(List.of("a", "b"), r1.getReplies().stream().map(n -> n.getComment().getCommentId()).toList());
+        assertEquals("a1", r1.getReplies().get(0).getReplies().get(0).getComment().getCommentId());
+        assertFalse(tree.hasMoreRoots());
+    }
+
+    @Test
+    @DisplayName("A reply listed before its parent is still placed")
+    void build_placesReplyListedBeforeParent() {
+        List<Comment> comments = List.of(
+                comment("a", "r1", "r1", 1),
+                comment("r1", null, "r1", 0));
+
+        CommentTree tree = CommentTree.build(comments, 5, 10, false);
+
+        assertEquals(1, tree.getRoots().get(0).getReplies().size());
+    }
+
+    @Test
+    @DisplayName("Replies beyond maxChildren are counted, not included")
+    void build_capsChildrenAndCountsOmitted() {
+        List<Comment> comments = new ArrayList<>();
+        comments.add(comment("r1", null, "r1", 0));
+        for (int i = 0; i < 5; i++) {
+            comments.add(comment("c" + i, "r1", "r1", 1));
+        }
+        comments.add(comment("c4-reply", "c4", "r1", 2)); // Parent is left out, so is this reply
+
+        CommentTree tree = CommentTree.build(comments, 5, 3, false);
+
+        CommentTree.Node root = tree.getRoots().get(0);
+        assertEquals(List.of("c0", "c1", "c2"), root.getReplies().stream().map(n -> n.getComment().getCommentId()).toList());
+        assertEquals(2, root.getOmittedReplyCount());
+        assertEquals(4, tree.size());
+    }
+
+    @Test
+    @DisplayName("Replies deeper than maxDepth are counted on the deepest included comment")
+    void build_capsDepth() {
+        List<Comment> comments = List.of(
+                comment("r1", null, "r1", 0),
+                comment("a", "r1", "r1", 1),
+                comment("a1", "a", "r1", 2),
+                comment("a2", "a", "r1", 2),
+                comment("a1x", "a1", "r1", 3));
+
+        CommentTree tree = CommentTree.build(comments, 1, 10, false);
+
+        CommentTree.Node a = tree.getRoots().get(0).getReplies().get(0);
+        assertTrue(a.getReplies().isEmpty());
+        assertEquals(2, a.getOmittedReplyCount());
+        assertEquals(2, tree.size());
+    }
+
+    @Test
+    @DisplayName("Replies whose parent is not visible are dropped")
+    void build_dropsOrphans() {
+        List<Comment> comments = List.of(
+                comment("r1", null, "r1", 0),
+                comment("orphan", "hidden", "r1", 1));
+
+        CommentTree tree = CommentTree.build(comments, 5, 10, true);
+
+        assertEquals(1, tree.size());
+        assertTrue(tree.getRoots().get(0).getReplies().isEmpty());
+        assertTrue(tree.hasMoreRoots());
+    }
+}
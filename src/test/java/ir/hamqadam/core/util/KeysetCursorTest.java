@@ -0,0 +1,92 @@
+package ir.hamqadam.core.util;
+
+import ir.hamqadam.core.exception.BadRequestException;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link KeysetCursor} and {@link KeysetPage}.
+ */
+class KeysetCursorTest {
+
+    private static final LocalDateTime PUBLISHED_AT = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_000_000);
+
+    @Test
+    @DisplayName("A cursor survives encode and decode")
+    void encode_roundTrips() {
+        KeysetCursor cursor = new KeysetCursor(PUBLISHED_AT, "65f1c0ffee0000000000abcd");
+
+        String encoded = cursor.encode();
+
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"), "Cursor should be URL safe");
+        assertEquals(cursor, KeysetCursor.decode(encoded));
+    }
+
+    @Test
+    @DisplayName("A cursor without a sort value survives encode and decode")
+    void encode_roundTripsNullSortValue() {
+        KeysetCursor cursor = new KeysetCursor(null, "65f1c0ffee0000000000abcd");
+
+        assertEquals(cursor, KeysetCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    @DisplayName("No cursor means the first page; a malformed cursor is a bad request")
+    void decode_handlesMissingAndMalformed() {
+        assertNull(KeysetCursor.decode(null));
+        assertNull(KeysetCursor.decode(" "));
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode("not base64 !"));
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode("bm8tc2VwYXJhdG9y")); // "no-separator"
+        assertThrows(BadRequestException.class, () -> KeysetCursor.decode("eWVzdGVyZGF5fGFiYw")); // "yesterday|abc"
+    }
+
+    @Test
+    @DisplayName("The first page query only filters, sorts and fetches one extra document")
+    void query_firstPage() {
+        Query query = KeysetCursor.query(Criteria.where("status").is("PUBLISHED"), "publishedAt",
+                Sort.Direction.DESC, null, 10);
+
+        assertEquals(new Document("status", "PUBLISHED"), query.getQueryObject());
+        assertEquals(new Document("publishedAt", -1).append("_id", -1), query.getSortObject());
+        assertEquals(11, query.getLimit());
+    }
+
+    @Test
+    @DisplayName("A later page seeks past the cursor instead of skipping")
+    void query_seeksPastCursor() {
+        KeysetCursor after = new KeysetCursor(PUBLISHED_AT, "abc");
+
+        Query query = KeysetCursor.query(Criteria.where("status").is("PUBLISHED"), "publishedAt",
+                Sort.Direction.DESC, after, 10);
+
+        assertEquals(0, query.getSkip());
+        List<?> and = (List<?>) query.getQueryObject().get("$and");
+        assertEquals(new Document("status", "PUBLISHED"), and.get(0));
+        List<?> or = (List<?>) ((Document) and.get(1)).get("$or");
+        assertEquals(new Document("publishedAt", new Document("$lt", PUBLISHED_AT)), or.get(0));
+        assertEquals(new Document("publishedAt", PUBLISHED_AT).append("_id", new Document("$lt", "abc")), or.get(1));
+        assertEquals(new Document("publishedAt", null), or.get(2)); // Missing dates sort last descending
+    }
+
+    @Test
+    @DisplayName("The look-ahead document is dropped and sets the next cursor")
+    void page_usesLookAhead() {
+        KeysetPage<String> full = KeysetCursor.page(List.of("a", "b", "c"), 2, s -> new KeysetCursor(PUBLISHED_AT, s));
+        KeysetPage<String> last = KeysetCursor.page(List.of("a", "b"), 2, s -> new KeysetCursor(PUBLISHED_AT, s));
+
+        assertEquals(List.of("a", "b"), full.content());
+        assertTrue(full.hasNext());
+        assertEquals("b", KeysetCursor.decode(full.nextCursor()).id());
+        assertEquals(List.of("a", "b"), last.content());
+        assertFalse(last.hasNext());
+    }
+}
@@ -0,0 +1,121 @@
+package ir.hamqadam.core.util;
+
+import ir.hamqadam.core.exception.BadRequestException;
+import ir.hamqadam.core.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link ListingTotals} and {@link TotalsMode}.
+ */
+@ExtendWith(MockitoExtension.class)
+class ListingTotalsTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private ListingTotals listingTotals;
+    private AtomicInteger pageQueries;
+    private AtomicInteger sliceQueries;
+    private Function<Pageable, Page<String>> pageQuery;
+    private Function<Pageable, Slice<String>> sliceQuery;
+
+    @BeforeEach
+    void setUp() {
+        listingTotals = new ListingTotals(mongoTemplate, 60, 100);
+        pageQueries = new AtomicInteger();
+        sliceQueries = new AtomicInteger();
+        pageQuery = p -> {
+            pageQueries.incrementAndGet();
+            return new PageImpl<>(List.of("a", "b"), p, 500);
+        };
+        sliceQuery = p -> {
+            sliceQueries.incrementAndGet();
+            return new SliceImpl<>(List.of("a", "b"), p, true);
+        };
+    }
+
+    @Test
+    @DisplayName("Exact totals run the counting query")
+    void list_exactRunsPageQuery() {
+        Slice<String> result = listingTotals.list(TotalsMode.EXACT, PageRequest.of(0, 2), "k", pageQuery, sliceQuery);
+
+        assertEquals(500, ((Page<String>) result).getTotalElements());
+        assertEquals(1, pageQueries.get());
+        assertEquals(0, sliceQueries.get());
+    }
+
+    @Test
+    @DisplayName("No totals run only the count-free query")
+    void list_noneRunsSliceQuery() {
+        Slice<String> result = listingTotals.list(TotalsMode.NONE, PageRequest.of(0, 2), "k", pageQuery, sliceQuery);
+
+        assertFalse(result instanceof Page);
+        assertTrue(result.hasNext());
+        assertEquals(0, pageQueries.get());
+        assertEquals(1, sliceQueries.get());
+    }
+
+    @Test
+    @DisplayName("Approximate totals are counted once per listing and then cached")
+    void list_approximateCachesCount() {
+        Page<String> first = (Page<String>) listingTotals.list(TotalsMode.APPROXIMATE, PageRequest.of(0, 2), "k", pageQuery, sliceQuery);
+        Page<String> second = (Page<String>) listingTotals.list(TotalsMode.APPROXIMATE, PageRequest.of(1, 2), "k", pageQuery, sliceQuery);
+
+        assertEquals(500, first.getTotalElements());
+        assertEquals(500, second.getTotalElements());
+        assertEquals(1, pageQueries.get());
+        assertEquals(2, sliceQueries.get());
+    }
+
+    @Test
+    @DisplayName("On the last page the approximate total is exact")
+    void list_approximateLastPageIsExact() {
+        Function<Pageable, Slice<String>> lastSlice = p -> new SliceImpl<>(List.of("y", "z"), p, false);
+
+        Page<String> result = (Page<String>) listingTotals.list(TotalsMode.APPROXIMATE, PageRequest.of(3, 2), "k", pageQuery, lastSlice);
+
+        assertEquals(8, result.getTotalElements());
+        assertTrue(result.isLast());
+        assertEquals(0, pageQueries.get());
+    }
+
+    @Test
+    @DisplayName("A stale estimate never claims fewer documents than the current page proves")
+    void listAll_approximateUsesEstimatedCount() {
+        when(mongoTemplate.estimatedCount(User.class)).thenReturn(3L);
+        Function<Pageable, Page<User>> userPages = p -> fail("Count query should not run");
+        Function<Pageable, Slice<User>> userSlices = p -> new SliceImpl<>(List.of(new User(), new User()), p, true);
+
+        Page<User> result = (Page<User>) listingTotals.listAll(TotalsMode.APPROXIMATE, PageRequest.of(4, 2), User.class, userPages, userSlices);
+
+        assertEquals(11, result.getTotalElements());
+        assertFalse(result.isLast());
+    }
+
+    @Test
+    @DisplayName("Totals modes parse case-insensitively and reject unknown values")
+    void totalsMode_parse() {
+        assertEquals(TotalsMode.APPROXIMATE, TotalsMode.parse("Approximate"));
+        assertEquals(TotalsMode.NONE, TotalsMode.parse(" none "));
+        assertThrows(BadRequestException.class, () -> TotalsMode.parse("some"));
+    }
+}
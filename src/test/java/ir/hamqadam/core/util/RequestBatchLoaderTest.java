@@ -0,0 +1,114 @@
+package ir.hamqadam.core.util;
+
+import ir.hamqadam.core.model.Team;
+import ir.hamqadam.core.model.User;
+import ir.hamqadam.core.repository.projection.UserSummary;
+import ir.hamqadam.core.service.TeamService;
+import ir.hamqadam.core.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link RequestBatchLoader}.
+ */
+@ExtendWith(MockitoExtension.class)
+class RequestBatchLoaderTest {
+
+    @Mock
+    private UserService userService;
+    @Mock
+    private TeamService teamService;
+
+    private RequestBatchLoader batchLoader;
+
+    @BeforeEach
+    void setUp() {
+        batchLoader = new RequestBatchLoader(userService, teamService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private static User user(String id) {
+        return User.builder().userId(id).build();
+    }
+
+    private static UserSummary summary(String id) {
+        return new SpelAwareProxyProjectionFactory().createProjection(UserSummary.class, user(id));
+    }
+
+    private static void startRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @Test
+    @DisplayName("Loads registered during a request are resolved with one query per entity type")
+    void dispatch_batchesPerEntityType() {
+        startRequest();
+        when(userService.findUserSummariesByIds(Set.of("u1", "u2"))).thenReturn(List.of(summary("u1"), summary("u2")));
+        when(teamService.findTeamById("t1")).thenReturn(Optional.of(Team.builder().teamId("t1").build()));
+        List<String> loaded = new ArrayList<>();
+
+        batchLoader.loadUser("u1", u -> loaded.add(u.getUserId()));
+        batchLoader.loadUser("u2", u -> loaded.add(u.getUserId()));
+        batchLoader.loadUser("u1", u -> loaded.add(u.getUserId() + " again"));
+        batchLoader.loadTeam("t1", t -> loaded.add(t.getTeamId()));
+        assertTrue(loaded.isEmpty(), "Nothing is loaded before dispatch");
+
+        batchLoader.dispatch();
+
+        assertEquals(List.of("u1", "u1 again", "u2", "t1"), loaded);
+        verify(userService, times(1)).findUserSummariesByIds(anyCollection());
+        verify(userService, never()).findUserById(anyString());
+    }
+
+    @Test
+    @DisplayName("Unknown IDs skip their callbacks and a second dispatch loads nothing")
+    void dispatch_skipsMissingAndClearsPending() {
+        startRequest();
+        when(userService.findUserSummariesByIds(anyCollection())).thenReturn(List.of(summary("u1")));
+        List<String> loaded = new ArrayList<>();
+        batchLoader.loadUser("u1", u -> loaded.add(u.getUserId()));
+        batchLoader.loadUser("gone", u -> fail("Callback for a missing user should not run"));
+
+        batchLoader.dispatch();
+        batchLoader.dispatch();
+
+        assertEquals(List.of("u1"), loaded);
+        verify(userService, times(1)).findUserSummariesByIds(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Outside of a request every load resolves immediately")
+    void loadUser_withoutRequestResolvesImmediately() {
+        when(userService.findUserById("u1")).thenReturn(Optional.of(user("u1")));
+        List<String> loaded = new ArrayList<>();
+
+        batchLoader.loadUser("u1", u -> loaded.add(u.getUserId()));
+        batchLoader.loadUser(null, u -> fail("Null IDs should be ignored"));
+
+        assertEquals(List.of("u1"), loaded);
+        verifyNoInteractions(teamService);
+    }
+}
@@ -0,0 +1,86 @@
+package ir.hamqadam.core.util;
+
+import ir.hamqadam.core.model.Team;
+import ir.hamqadam.core.repository.TeamRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link RequestIdentityMap}.
+ */
+class RequestIdentityMapTest {
+
+    private RequestIdentityMap identityMap;
+    private TeamRepository teamRepository;
+    private Team team;
+
+    @BeforeEach
+    void setUp() {
+        identityMap = new RequestIdentityMap();
+        teamRepository = mock(TeamRepository.class);
+        team = Team.builder().teamId("team-1").teamHandle("alpha").build();
+        when(teamRepository.findById("team-1")).thenReturn(Optional.of(team));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("Should load an entity once per request")
+    void findById_withinRequest_shouldLoadOnce() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        Team first = identityMap.findById(teamRepository, Team.class, "team-1").orElseThrow();
+        Team second = identityMap.findById(teamRepository, Team.class, "team-1").orElseThrow();
+
+        assertSame(first, second);
+        verify(teamRepository, times(1)).findById("team-1");
+    }
+
+    @Test
+    @DisplayName("Should not share entities between requests")
+    void findById_acrossRequests_shouldLoadAgain() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        identityMap.findById(teamRepository, Team.class, "team-1");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        identityMap.findById(teamRepository, Team.class, "team-1");
+
+        verify(teamRepository, times(2)).findById("team-1");
+    }
+
+    @Test
+    @DisplayName("Should delegate to the repository outside of a request")
+    void findById_outsideRequest_shouldAlwaysDelegate() {
+        identityMap.findById(teamRepository, Team.class, "team-1");
+        identityMap.findById(teamRepository, Team.class, "team-1");
+
+        verify(teamRepository, times(2)).findById("team-1");
+    }
+
+    @Test
+    @DisplayName("Should serve the saved instance after a save in the same request")
+    void onAfterSave_shouldWriteThrough() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        identityMap.findById(teamRepository, Team.class, "team-1");
+
+        Team saved = Team.builder().teamId("team-1").teamHandle("beta").build();
+        identityMap.onAfterSave(new AfterSaveEvent<>(saved, new Document("_id", "team-1"), "teams"));
+
+        assertSame(saved, identityMap.findById(teamRepository, Team.class, "team-1").orElseThrow());
+        verify(teamRepository, times(1)).findById("team-1");
+    }
+}